@@ -0,0 +1,289 @@
+#include <jni.h>
+#include <jsi/jsi.h>
+
+#include <string>
+#include <utility>
+
+using namespace facebook;
+
+namespace {
+
+constexpr const char *BINDINGS_PROPERTY = "__RNVirgilCryptoJsi";
+constexpr const char *BINDINGS_CLASS = "com/virgilsecurity/rn/crypto/RNVirgilCryptoJsi";
+
+JavaVM *javaVm = nullptr;
+jclass bindingsClass = nullptr;
+jclass byteArrayClass = nullptr;
+
+jmethodID describeErrorMethod = nullptr;
+jmethodID computeHashMethod = nullptr;
+jmethodID encryptMethod = nullptr;
+jmethodID decryptMethod = nullptr;
+jmethodID generateSignatureMethod = nullptr;
+jmethodID verifySignatureMethod = nullptr;
+jmethodID groupSessionEncryptMethod = nullptr;
+jmethodID groupSessionDecryptMethod = nullptr;
+
+JNIEnv *getEnv() {
+    JNIEnv *env = nullptr;
+    if (javaVm->GetEnv(reinterpret_cast<void **>(&env), JNI_VERSION_1_6) != JNI_OK) {
+        javaVm->AttachCurrentThread(&env, nullptr);
+    }
+    return env;
+}
+
+// Host functions are called from the JS thread without returning to Java,
+// so every call releases its local references explicitly.
+class LocalFrame {
+public:
+    explicit LocalFrame(JNIEnv *env) : env_(env) {
+        env_->PushLocalFrame(16);
+    }
+
+    ~LocalFrame() {
+        env_->PopLocalFrame(nullptr);
+    }
+
+private:
+    JNIEnv *env_;
+};
+
+jsi::ArrayBuffer getArrayBuffer(jsi::Runtime &rt, const jsi::Value &value, const char *name) {
+    if (!value.isObject() || !value.getObject(rt).isArrayBuffer(rt)) {
+        throw jsi::JSError(rt, std::string("Expected \"") + name + "\" to be an ArrayBuffer");
+    }
+    return value.getObject(rt).getArrayBuffer(rt);
+}
+
+jbyteArray toJavaBytes(JNIEnv *env, jsi::Runtime &rt, const jsi::Value &value, const char *name) {
+    jsi::ArrayBuffer buffer = getArrayBuffer(rt, value, name);
+    auto size = static_cast<jsize>(buffer.size(rt));
+    jbyteArray bytes = env->NewByteArray(size);
+    env->SetByteArrayRegion(bytes, 0, size, reinterpret_cast<const jbyte *>(buffer.data(rt)));
+    return bytes;
+}
+
+jobjectArray toJavaBytesArray(JNIEnv *env, jsi::Runtime &rt, const jsi::Value &value, const char *name) {
+    if (!value.isObject() || !value.getObject(rt).isArray(rt)) {
+        throw jsi::JSError(rt, std::string("Expected \"") + name + "\" to be an array of ArrayBuffers");
+    }
+    jsi::Array array = value.getObject(rt).getArray(rt);
+    auto length = static_cast<jsize>(array.size(rt));
+    jobjectArray result = env->NewObjectArray(length, byteArrayClass, nullptr);
+    for (jsize i = 0; i < length; i++) {
+        jbyteArray bytes = toJavaBytes(env, rt, array.getValueAtIndex(rt, i), name);
+        env->SetObjectArrayElement(result, i, bytes);
+        env->DeleteLocalRef(bytes);
+    }
+    return result;
+}
+
+jstring toJavaString(JNIEnv *env, jsi::Runtime &rt, const jsi::Value &value, const char *name) {
+    if (!value.isString()) {
+        throw jsi::JSError(rt, std::string("Expected \"") + name + "\" to be a string");
+    }
+    return env->NewStringUTF(value.getString(rt).utf8(rt).c_str());
+}
+
+jsi::Value toArrayBuffer(JNIEnv *env, jsi::Runtime &rt, jbyteArray bytes) {
+    jsize size = env->GetArrayLength(bytes);
+    jsi::Function arrayBufferCtor = rt.global().getPropertyAsFunction(rt, "ArrayBuffer");
+    jsi::Object object = arrayBufferCtor.callAsConstructor(rt, static_cast<int>(size)).getObject(rt);
+    jsi::ArrayBuffer buffer = object.getArrayBuffer(rt);
+    env->GetByteArrayRegion(bytes, 0, size, reinterpret_cast<jbyte *>(buffer.data(rt)));
+    return std::move(object);
+}
+
+std::string toStdString(JNIEnv *env, jobject value) {
+    if (value == nullptr) {
+        return std::string();
+    }
+    auto string = static_cast<jstring>(value);
+    const char *chars = env->GetStringUTFChars(string, nullptr);
+    std::string result(chars);
+    env->ReleaseStringUTFChars(string, chars);
+    return result;
+}
+
+// Same shape as ResponseFactory.createErrorResponse, so JS handles both transports alike
+jsi::Value takeErrorResponse(JNIEnv *env, jsi::Runtime &rt) {
+    jthrowable throwable = env->ExceptionOccurred();
+    env->ExceptionClear();
+    auto description = static_cast<jobjectArray>(
+        env->CallStaticObjectMethod(bindingsClass, describeErrorMethod, throwable)
+    );
+
+    jsi::Object error(rt);
+    error.setProperty(rt, "code", toStdString(env, env->GetObjectArrayElement(description, 0)));
+    error.setProperty(rt, "message", toStdString(env, env->GetObjectArrayElement(description, 1)));
+    error.setProperty(rt, "domain", toStdString(env, env->GetObjectArrayElement(description, 2)));
+
+    jsi::Object response(rt);
+    response.setProperty(rt, "error", error);
+    return std::move(response);
+}
+
+jsi::Value createResponse(jsi::Runtime &rt, jsi::Value result) {
+    jsi::Object response(rt);
+    response.setProperty(rt, "result", result);
+    return std::move(response);
+}
+
+jsi::Value bytesResponse(JNIEnv *env, jsi::Runtime &rt, jobject result) {
+    if (env->ExceptionCheck()) {
+        return takeErrorResponse(env, rt);
+    }
+    return createResponse(rt, toArrayBuffer(env, rt, static_cast<jbyteArray>(result)));
+}
+
+jsi::Value booleanResponse(JNIEnv *env, jsi::Runtime &rt, jboolean result) {
+    if (env->ExceptionCheck()) {
+        return takeErrorResponse(env, rt);
+    }
+    return createResponse(rt, jsi::Value(result == JNI_TRUE));
+}
+
+void checkArgumentsCount(jsi::Runtime &rt, const char *name, size_t expected, size_t actual) {
+    if (actual < expected) {
+        throw jsi::JSError(
+            rt,
+            std::string(name) + " expects " + std::to_string(expected) + " arguments, got " + std::to_string(actual)
+        );
+    }
+}
+
+void setFunction(jsi::Runtime &rt, jsi::Object &target, const char *name, unsigned int argsCount, jsi::HostFunctionType function) {
+    target.setProperty(
+        rt,
+        name,
+        jsi::Function::createFromHostFunction(rt, jsi::PropNameID::forAscii(rt, name), argsCount, std::move(function))
+    );
+}
+
+bool lookupJavaMethods(JNIEnv *env) {
+    jclass localBindingsClass = env->FindClass(BINDINGS_CLASS);
+    jclass localByteArrayClass = env->FindClass("[B");
+    if (localBindingsClass == nullptr || localByteArrayClass == nullptr) {
+        env->ExceptionClear();
+        return false;
+    }
+    bindingsClass = static_cast<jclass>(env->NewGlobalRef(localBindingsClass));
+    byteArrayClass = static_cast<jclass>(env->NewGlobalRef(localByteArrayClass));
+    env->DeleteLocalRef(localBindingsClass);
+    env->DeleteLocalRef(localByteArrayClass);
+
+    describeErrorMethod = env->GetStaticMethodID(bindingsClass, "describeError", "(Ljava/lang/Throwable;)[Ljava/lang/String;");
+    computeHashMethod = env->GetStaticMethodID(bindingsClass, "computeHash", "([BLjava/lang/String;)[B");
+    encryptMethod = env->GetStaticMethodID(bindingsClass, "encrypt", "([B[[BZ)[B");
+    decryptMethod = env->GetStaticMethodID(bindingsClass, "decrypt", "([BLjava/lang/String;)[B");
+    generateSignatureMethod = env->GetStaticMethodID(bindingsClass, "generateSignature", "([BLjava/lang/String;)[B");
+    verifySignatureMethod = env->GetStaticMethodID(bindingsClass, "verifySignature", "([B[B[B)Z");
+    groupSessionEncryptMethod = env->GetStaticMethodID(bindingsClass, "groupSessionEncrypt", "(Ljava/lang/String;[BLjava/lang/String;)[B");
+    groupSessionDecryptMethod = env->GetStaticMethodID(bindingsClass, "groupSessionDecrypt", "(Ljava/lang/String;[B[B)[B");
+    if (env->ExceptionCheck()) {
+        env->ExceptionClear();
+        return false;
+    }
+    return true;
+}
+
+void install(jsi::Runtime &rt) {
+    jsi::Object bindings(rt);
+
+    setFunction(rt, bindings, "computeHash", 2, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "computeHash", 1, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jbyteArray data = toJavaBytes(env, rt, args[0], "data");
+        jstring algorithm = count > 1 && args[1].isString() ? toJavaString(env, rt, args[1], "algorithm") : nullptr;
+        jobject result = env->CallStaticObjectMethod(bindingsClass, computeHashMethod, data, algorithm);
+        return bytesResponse(env, rt, result);
+    });
+
+    setFunction(rt, bindings, "encrypt", 3, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "encrypt", 3, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jbyteArray data = toJavaBytes(env, rt, args[0], "data");
+        jobjectArray recipients = toJavaBytesArray(env, rt, args[1], "publicKeys");
+        jboolean enablePadding = args[2].isBool() && args[2].getBool() ? JNI_TRUE : JNI_FALSE;
+        jobject result = env->CallStaticObjectMethod(bindingsClass, encryptMethod, data, recipients, enablePadding);
+        return bytesResponse(env, rt, result);
+    });
+
+    setFunction(rt, bindings, "decrypt", 2, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "decrypt", 2, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jbyteArray data = toJavaBytes(env, rt, args[0], "data");
+        jstring keyHandle = toJavaString(env, rt, args[1], "keyHandle");
+        jobject result = env->CallStaticObjectMethod(bindingsClass, decryptMethod, data, keyHandle);
+        return bytesResponse(env, rt, result);
+    });
+
+    setFunction(rt, bindings, "generateSignature", 2, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "generateSignature", 2, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jbyteArray data = toJavaBytes(env, rt, args[0], "data");
+        jstring keyHandle = toJavaString(env, rt, args[1], "keyHandle");
+        jobject result = env->CallStaticObjectMethod(bindingsClass, generateSignatureMethod, data, keyHandle);
+        return bytesResponse(env, rt, result);
+    });
+
+    setFunction(rt, bindings, "verifySignature", 3, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "verifySignature", 3, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jbyteArray signature = toJavaBytes(env, rt, args[0], "signature");
+        jbyteArray data = toJavaBytes(env, rt, args[1], "data");
+        jbyteArray publicKey = toJavaBytes(env, rt, args[2], "publicKey");
+        jboolean result = env->CallStaticBooleanMethod(bindingsClass, verifySignatureMethod, signature, data, publicKey);
+        return booleanResponse(env, rt, result);
+    });
+
+    setFunction(rt, bindings, "groupSessionEncrypt", 3, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "groupSessionEncrypt", 3, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jstring sessionHandle = toJavaString(env, rt, args[0], "sessionHandle");
+        jbyteArray data = toJavaBytes(env, rt, args[1], "data");
+        jstring keyHandle = toJavaString(env, rt, args[2], "keyHandle");
+        jobject result = env->CallStaticObjectMethod(bindingsClass, groupSessionEncryptMethod, sessionHandle, data, keyHandle);
+        return bytesResponse(env, rt, result);
+    });
+
+    setFunction(rt, bindings, "groupSessionDecrypt", 3, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "groupSessionDecrypt", 3, count);
+        JNIEnv *env = getEnv();
+        LocalFrame frame(env);
+        jstring sessionHandle = toJavaString(env, rt, args[0], "sessionHandle");
+        jbyteArray message = toJavaBytes(env, rt, args[1], "encryptedData");
+        jbyteArray publicKey = toJavaBytes(env, rt, args[2], "publicKey");
+        jobject result = env->CallStaticObjectMethod(bindingsClass, groupSessionDecryptMethod, sessionHandle, message, publicKey);
+        return bytesResponse(env, rt, result);
+    });
+
+    rt.global().setProperty(rt, BINDINGS_PROPERTY, std::move(bindings));
+}
+
+} // namespace
+
+extern "C" JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *vm, void *) {
+    javaVm = vm;
+    return JNI_VERSION_1_6;
+}
+
+extern "C" JNIEXPORT jboolean JNICALL
+Java_com_virgilsecurity_rn_crypto_RNVirgilCryptoJsi_nativeInstall(JNIEnv *env, jclass, jlong jsContextPointer) {
+    auto runtime = reinterpret_cast<jsi::Runtime *>(jsContextPointer);
+    if (runtime == nullptr) {
+        return JNI_FALSE;
+    }
+    // Looked up here rather than on the JS thread, where FindClass can't see the app class loader
+    if (bindingsClass == nullptr && !lookupJavaMethods(env)) {
+        return JNI_FALSE;
+    }
+    install(*runtime);
+    return JNI_TRUE;
+}
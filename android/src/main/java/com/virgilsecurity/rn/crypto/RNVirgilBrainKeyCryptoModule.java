@@ -1,6 +1,7 @@
 package com.virgilsecurity.rn.crypto;
 
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
@@ -12,7 +13,12 @@ import com.virgilsecurity.crypto.pythia.PythiaBlindResult;
 import com.virgilsecurity.rn.crypto.utils.Encodings;
 import com.virgilsecurity.rn.crypto.utils.ResponseFactory;
 
+import java.util.concurrent.Callable;
+
 public class RNVirgilBrainKeyCryptoModule extends ReactContextBaseJavaModule {
+    // Pythia keeps global state that isn't safe to use from several threads at once
+    private static final Object pythiaLock = new Object();
+
     private final ReactApplicationContext reactContext;
 
     public RNVirgilBrainKeyCryptoModule(ReactApplicationContext reactContext) {
@@ -28,7 +34,10 @@ public class RNVirgilBrainKeyCryptoModule extends ReactContextBaseJavaModule {
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap blind(String passwordBase64) {
-        PythiaBlindResult blindResult = Pythia.blind(Encodings.decodeBase64(passwordBase64));
+        PythiaBlindResult blindResult;
+        synchronized (pythiaLock) {
+            blindResult = Pythia.blind(Encodings.decodeBase64(passwordBase64));
+        }
         WritableMap resultMap = Arguments.createMap();
         resultMap.putString("blindedPassword", Encodings.encodeBase64(blindResult.getBlindedPassword()));
         resultMap.putString("blindingSecret", Encodings.encodeBase64(blindResult.getBlindingSecret()));
@@ -38,9 +47,32 @@ public class RNVirgilBrainKeyCryptoModule extends ReactContextBaseJavaModule {
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap deblind(String transformedPasswordBase64, String blindingSecretBase64) {
-        byte[] deblindResult = Pythia.deblind(
-                Encodings.decodeBase64(transformedPasswordBase64),
-                Encodings.decodeBase64(blindingSecretBase64));
+        byte[] deblindResult;
+        synchronized (pythiaLock) {
+            deblindResult = Pythia.deblind(
+                    Encodings.decodeBase64(transformedPasswordBase64),
+                    Encodings.decodeBase64(blindingSecretBase64));
+        }
         return ResponseFactory.createStringResponse(Encodings.encodeBase64(deblindResult));
     }
+
+    @ReactMethod
+    public void blindAsync(final String passwordBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return blind(passwordBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void deblindAsync(final String transformedPasswordBase64, final String blindingSecretBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return deblind(transformedPasswordBase64, blindingSecretBase64);
+            }
+        }, promise);
+    }
 }
@@ -0,0 +1,119 @@
+package com.virgilsecurity.rn.crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.facebook.proguard.annotations.DoNotStrip;
+import com.facebook.react.bridge.JavaScriptContextHolder;
+import com.virgilsecurity.crypto.foundation.FoundationException;
+import com.virgilsecurity.crypto.foundation.GroupSession;
+import com.virgilsecurity.crypto.foundation.GroupSessionMessage;
+import com.virgilsecurity.rn.crypto.utils.HandleNotFoundException;
+import com.virgilsecurity.rn.crypto.utils.ResponseFactory;
+import com.virgilsecurity.sdk.crypto.HashAlgorithm;
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+import com.virgilsecurity.sdk.crypto.VirgilKeyPair;
+import com.virgilsecurity.sdk.crypto.VirgilPublicKey;
+import com.virgilsecurity.sdk.crypto.exceptions.CryptoException;
+
+/**
+ * Binary counterparts of the hot bridge methods, installed into the JS runtime as
+ * {@code global.__RNVirgilCryptoJsi}. The C++ side passes ArrayBuffer contents as byte arrays,
+ * so payloads skip the base64 round trip the bridge requires.
+ */
+@DoNotStrip
+final class RNVirgilCryptoJsi {
+    private static final boolean isLibraryLoaded = loadLibrary();
+    private static final VirgilCrypto crypto = new VirgilCrypto();
+
+    private RNVirgilCryptoJsi() {
+    }
+
+    private static boolean loadLibrary() {
+        try {
+            System.loadLibrary("rnvirgilcrypto");
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            // Built without JSI support, JS keeps using the bridge
+            return false;
+        }
+    }
+
+    static boolean install(JavaScriptContextHolder jsContext) {
+        if (!isLibraryLoaded || jsContext == null || jsContext.get() == 0) {
+            return false;
+        }
+        return nativeInstall(jsContext.get());
+    }
+
+    private static native boolean nativeInstall(long jsContextPointer);
+
+    @DoNotStrip
+    static String[] describeError(Throwable throwable) {
+        return new String[] {
+                ResponseFactory.getErrorCode(throwable),
+                ResponseFactory.getErrorMessage(throwable),
+                ResponseFactory.getErrorDomain(throwable)
+        };
+    }
+
+    @DoNotStrip
+    static byte[] computeHash(byte[] data, String algorithm) {
+        if (algorithm == null) {
+            return crypto.computeHash(data);
+        }
+        return crypto.computeHash(data, HashAlgorithm.valueOf(algorithm));
+    }
+
+    @DoNotStrip
+    static byte[] encrypt(byte[] data, byte[][] recipients, boolean enablePadding) throws CryptoException {
+        return crypto.encrypt(data, importPublicKeys(recipients), enablePadding);
+    }
+
+    @DoNotStrip
+    static byte[] decrypt(byte[] data, String keyHandle) throws CryptoException, HandleNotFoundException {
+        VirgilKeyPair keypair = RNVirgilCryptoModule.keyPairs.get(keyHandle);
+        return crypto.decrypt(data, keypair.getPrivateKey());
+    }
+
+    @DoNotStrip
+    static byte[] generateSignature(byte[] data, String keyHandle) throws CryptoException, HandleNotFoundException {
+        VirgilKeyPair keypair = RNVirgilCryptoModule.keyPairs.get(keyHandle);
+        return crypto.generateSignature(data, keypair.getPrivateKey());
+    }
+
+    @DoNotStrip
+    static boolean verifySignature(byte[] signature, byte[] data, byte[] publicKeyData) throws CryptoException {
+        VirgilPublicKey publicKey = RNVirgilCryptoModule.publicKeyCache.importPublicKey(crypto, publicKeyData);
+        return crypto.verifySignature(signature, data, publicKey);
+    }
+
+    @DoNotStrip
+    static byte[] groupSessionEncrypt(String sessionHandle, byte[] data, String signingKeyHandle)
+            throws FoundationException, HandleNotFoundException {
+        GroupSession session = RNVirgilGroupSessionModule.sessions.get(sessionHandle);
+        VirgilKeyPair keypair = RNVirgilCryptoModule.keyPairs.get(signingKeyHandle);
+        synchronized (session) {
+            return session.encrypt(data, keypair.getPrivateKey().getPrivateKey()).serialize();
+        }
+    }
+
+    @DoNotStrip
+    static byte[] groupSessionDecrypt(String sessionHandle, byte[] encryptedMessage, byte[] verifyingKeyData)
+            throws CryptoException, FoundationException, HandleNotFoundException {
+        GroupSession session = RNVirgilGroupSessionModule.sessions.get(sessionHandle);
+        VirgilPublicKey publicKey = RNVirgilCryptoModule.publicKeyCache.importPublicKey(crypto, verifyingKeyData);
+        GroupSessionMessage message = GroupSessionMessage.deserialize(encryptedMessage);
+        synchronized (session) {
+            return session.decrypt(message, publicKey.getPublicKey());
+        }
+    }
+
+    private static List<VirgilPublicKey> importPublicKeys(byte[][] publicKeysData) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = new ArrayList<>(publicKeysData.length);
+        for (byte[] publicKeyData : publicKeysData) {
+            publicKeys.add(RNVirgilCryptoModule.publicKeyCache.importPublicKey(crypto, publicKeyData));
+        }
+        return publicKeys;
+    }
+}
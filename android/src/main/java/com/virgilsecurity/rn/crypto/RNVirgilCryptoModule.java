@@ -1,5 +1,7 @@
 package com.virgilsecurity.rn.crypto;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -9,11 +11,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
@@ -23,16 +30,28 @@ import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
 import com.virgilsecurity.crypto.foundation.FoundationException;
 import com.virgilsecurity.crypto.foundation.GroupSession;
 import com.virgilsecurity.crypto.foundation.GroupSessionMessage;
 import com.virgilsecurity.crypto.foundation.GroupSessionTicket;
-import com.virgilsecurity.crypto.foundation.PaddingParams;
-import com.virgilsecurity.crypto.foundation.RandomPadding;
+import com.virgilsecurity.crypto.foundation.Hash;
+import com.virgilsecurity.rn.crypto.utils.BatchProgress;
+import com.virgilsecurity.rn.crypto.utils.ByteArrayPool;
+import com.virgilsecurity.rn.crypto.utils.CipherPool;
+import com.virgilsecurity.rn.crypto.utils.CryptoScheduler;
 import com.virgilsecurity.rn.crypto.utils.FS;
+import com.virgilsecurity.rn.crypto.utils.HandleNotFoundException;
+import com.virgilsecurity.rn.crypto.utils.HandleRegistry;
+import com.virgilsecurity.rn.crypto.utils.Hashes;
 import com.virgilsecurity.rn.crypto.utils.InvalidOutputFilePathException;
-import com.virgilsecurity.crypto.foundation.Aes256Gcm;
+import com.virgilsecurity.rn.crypto.utils.ProgressInputStream;
+import com.virgilsecurity.rn.crypto.utils.PublicKeyCache;
+import com.virgilsecurity.rn.crypto.utils.RecipientSetNotFoundException;
+import com.virgilsecurity.rn.crypto.utils.ResumableEncryption;
+import com.virgilsecurity.rn.crypto.utils.SeekableFile;
+import com.virgilsecurity.rn.crypto.utils.SignedStreams;
 import com.virgilsecurity.crypto.foundation.RecipientCipher;
 import com.virgilsecurity.sdk.crypto.HashAlgorithm;
 import com.virgilsecurity.sdk.crypto.KeyPairType;
@@ -52,21 +71,59 @@ import com.virgilsecurity.sdk.crypto.exceptions.VerificationException;
 public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
 
     private final ReactApplicationContext reactContext;
-    private final VirgilCrypto crypto;
 
     public static ReactApplicationContext RCTContext;
-    private static LinkedBlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
-    private static ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
-            2,
-            8,
-            5000,
-            TimeUnit.MILLISECONDS,
-            taskQueue);
+    // Interactive calls and batches get a thread per core for batches to run in parallel,
+    // file jobs share a couple of low priority threads so they never hold interactive work back
+    private static final int INTERACTIVE_THREADS = Math.min(Math.max(Runtime.getRuntime().availableProcessors(), 2), 8);
+    private static final int BACKGROUND_THREADS = 2;
+    private static final int SCHEDULER_QUEUE_CAPACITY = 256;
+    private static final String JOB_PROGRESS_EVENT = "RNVirgilCrypto.jobProgress";
+    public static final CryptoScheduler scheduler = new CryptoScheduler(
+            INTERACTIVE_THREADS,
+            BACKGROUND_THREADS,
+            SCHEDULER_QUEUE_CAPACITY);
+    // Chunks of parallel file jobs run on the interactive threads, one per core. A chunk takes
+    // a few milliseconds, so interactive calls queued in between don't wait long.
+    private static final Executor CHUNK_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            scheduler.execute(CryptoScheduler.Lane.INTERACTIVE, runnable);
+        }
+    };
+    // Read and write stages of pipelined file jobs
+    private static final Executor IO_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            scheduler.executeIo(runnable);
+        }
+    };
+
+    // Imported keys that JS refers to by handle (base64 of the key identifier)
+    private static final int KEY_HANDLES_CAPACITY = 64;
+    public static final HandleRegistry<VirgilKeyPair> keyPairs = new HandleRegistry<>(KEY_HANDLES_CAPACITY);
+
+    // Recipient and signer keys are mostly the same from call to call, so imported keys are reused
+    private static final int PUBLIC_KEY_CACHE_CAPACITY = 256;
+    public static final PublicKeyCache publicKeyCache = new PublicKeyCache(PUBLIC_KEY_CACHE_CAPACITY);
+
+    // Recipient lists that JS encrypts to over and over, imported and checked once.
+    // The handle is derived from the key identifiers, so registering the same list again gives the same handle.
+    private static final int RECIPIENT_SETS_CAPACITY = 64;
+    public static final HandleRegistry<List<VirgilPublicKey>> recipientSets = new HandleRegistry<>(RECIPIENT_SETS_CAPACITY);
+
+    // VirgilCrypto holds a random generator that isn't thread safe. Methods run on the JS thread,
+    // the native modules thread and the worker pool, so every thread gets its own instance.
+    private static final ThreadLocal<VirgilCrypto> threadCrypto = new ThreadLocal<VirgilCrypto>() {
+        @Override
+        protected VirgilCrypto initialValue() {
+            return new VirgilCrypto();
+        }
+    };
 
     public RNVirgilCryptoModule(ReactApplicationContext reactContext) {
         super(reactContext);
         this.reactContext = reactContext;
-        this.crypto = new VirgilCrypto();
 
         RCTContext = reactContext;
     }
@@ -97,25 +154,37 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
         Map<String, Object> constantsMap = new HashMap<>();
         constantsMap.put("KeyPairType", keyPairTypeMap);
         constantsMap.put("HashAlgorithm", hashAlgMap);
+        Map<String, String> schedulerLaneMap = new HashMap<>();
+        schedulerLaneMap.put("INTERACTIVE", CryptoScheduler.Lane.INTERACTIVE.name());
+        schedulerLaneMap.put("BACKGROUND", CryptoScheduler.Lane.BACKGROUND.name());
+        constantsMap.put("SchedulerLane", schedulerLaneMap);
+        constantsMap.put("JobProgressEvent", JOB_PROGRESS_EVENT);
         return constantsMap;
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap installJsiBindings() {
+        // Synchronous methods run on the JS thread, which is the only thread allowed to touch the runtime
+        boolean isInstalled = RNVirgilCryptoJsi.install(this.reactContext.getJavaScriptContextHolder());
+        return ResponseFactory.createBooleanResponse(isInstalled);
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap computeHash(String dataBase64) {
-        byte[] hash = this.crypto.computeHash(Encodings.decodeBase64(dataBase64));
+        byte[] hash = this.getCrypto().computeHash(Encodings.decodeBase64(dataBase64));
         return ResponseFactory.createStringResponse(Encodings.encodeBase64(hash));
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap computeHashWithAlgorithm(String dataBase64, String algorithm) {
-        byte[] hash = this.crypto.computeHash(Encodings.decodeBase64(dataBase64), HashAlgorithm.valueOf(algorithm));
+        byte[] hash = this.getCrypto().computeHash(Encodings.decodeBase64(dataBase64), HashAlgorithm.valueOf(algorithm));
         return ResponseFactory.createStringResponse(Encodings.encodeBase64(hash));
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateKeyPair() {
         try {
-            VirgilKeyPair keypair = this.crypto.generateKeyPair();
+            VirgilKeyPair keypair = this.getCrypto().generateKeyPair();
             return ResponseFactory.createMapResponse(this.exportAndEncodeKeyPair(keypair));
         }
         catch (CryptoException e) {
@@ -126,7 +195,7 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateKeyPairOfType(String type) {
         try {
-            VirgilKeyPair keypair = this.crypto.generateKeyPair(KeyPairType.valueOf(type));
+            VirgilKeyPair keypair = this.getCrypto().generateKeyPair(KeyPairType.valueOf(type));
             return ResponseFactory.createMapResponse(this.exportAndEncodeKeyPair(keypair));
         }
         catch (CryptoException e) {
@@ -137,7 +206,7 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateKeyPairUsingSeed(String seedBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.generateKeyPair(Encodings.decodeBase64(seedBase64));
+            VirgilKeyPair keypair = this.getCrypto().generateKeyPair(Encodings.decodeBase64(seedBase64));
             return ResponseFactory.createMapResponse(this.exportAndEncodeKeyPair(keypair));
         }
         catch (CryptoException e) {
@@ -148,7 +217,7 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateKeyPairWithTypeAndSeed(String type, String seedBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.generateKeyPair(KeyPairType.valueOf(type), Encodings.decodeBase64(seedBase64));
+            VirgilKeyPair keypair = this.getCrypto().generateKeyPair(KeyPairType.valueOf(type), Encodings.decodeBase64(seedBase64));
             return ResponseFactory.createMapResponse(this.exportAndEncodeKeyPair(keypair));
         }
         catch (CryptoException e) {
@@ -160,7 +229,7 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     public WritableMap encrypt(String dataBase64, ReadableArray recipientsBase64, boolean enablePadding) {
         try {
             List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
-            byte[] encryptedData = this.crypto.encrypt(Encodings.decodeBase64(dataBase64), publicKeys, enablePadding);
+            byte[] encryptedData = this.getCrypto().encrypt(Encodings.decodeBase64(dataBase64), publicKeys, enablePadding);
             return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
         }
         catch (CryptoException e) {
@@ -169,35 +238,78 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
-    public WritableMap decrypt(String dataBase64, String privateKeyBase64) {
+    public WritableMap importPrivateKeyHandle(String privateKeyBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            byte[] decryptedData = this.crypto.decrypt(Encodings.decodeBase64(dataBase64), keypair.getPrivateKey());
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return ResponseFactory.createStringResponse(this.registerKeyPair(keypair));
+        }
+        catch (CryptoException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
 
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap releaseKeyHandle(String keyHandle) {
+        return ResponseFactory.createBooleanResponse(keyPairs.release(keyHandle));
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap decrypt(String dataBase64, String privateKeyBase64) {
+        try {
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.decrypt(dataBase64, keypair.getPrivateKey());
         }
         catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap decryptWithKeyHandle(String dataBase64, String keyHandle) {
+        try {
+            return this.decrypt(dataBase64, keyPairs.get(keyHandle).getPrivateKey());
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap decrypt(String dataBase64, VirgilPrivateKey privateKey) throws CryptoException {
+        byte[] decryptedData = this.getCrypto().decrypt(Encodings.decodeBase64(dataBase64), privateKey);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateSignature(String dataBase64, String privateKeyBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            byte[] signatureData = this.crypto.generateSignature(Encodings.decodeBase64(dataBase64), keypair.getPrivateKey());
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(signatureData));
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.generateSignature(dataBase64, keypair.getPrivateKey());
         }
         catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap generateSignatureWithKeyHandle(String dataBase64, String keyHandle) {
+        try {
+            return this.generateSignature(dataBase64, keyPairs.get(keyHandle).getPrivateKey());
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap generateSignature(String dataBase64, VirgilPrivateKey privateKey) throws CryptoException {
+        byte[] signatureData = this.getCrypto().generateSignature(Encodings.decodeBase64(dataBase64), privateKey);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(signatureData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap verifySignature(String signatureBase64, String dataBase64, String publicKeyBase64) {
         try {
-            VirgilPublicKey publicKey = this.crypto.importPublicKey(Encodings.decodeBase64(publicKeyBase64));
-            boolean isValid = this.crypto.verifySignature(
+            VirgilPublicKey publicKey = publicKeyCache.importPublicKey(this.getCrypto(), Encodings.decodeBase64(publicKeyBase64));
+            boolean isValid = this.getCrypto().verifySignature(
                     Encodings.decodeBase64(signatureBase64),
                     Encodings.decodeBase64(dataBase64),
                     publicKey
@@ -215,64 +327,138 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
                                       ReadableArray recipientsBase64,
                                       boolean enablePadding) {
         try {
-            VirgilKeyPair keyPair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
-            byte[] encryptedData = this.crypto.authEncrypt(Encodings.decodeBase64(dataBase64), keyPair.getPrivateKey(), publicKeys, enablePadding);
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+            VirgilKeyPair keyPair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.signAndEncrypt(dataBase64, keyPair.getPrivateKey(), recipientsBase64, enablePadding);
         } catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap signAndEncryptWithKeyHandle(String dataBase64,
+                                                   String keyHandle,
+                                                   ReadableArray recipientsBase64,
+                                                   boolean enablePadding) {
+        try {
+            return this.signAndEncrypt(dataBase64, keyPairs.get(keyHandle).getPrivateKey(), recipientsBase64, enablePadding);
+        } catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap signAndEncrypt(String dataBase64,
+                                       VirgilPrivateKey privateKey,
+                                       ReadableArray recipientsBase64,
+                                       boolean enablePadding) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        byte[] encryptedData = this.getCrypto().authEncrypt(Encodings.decodeBase64(dataBase64), privateKey, publicKeys, enablePadding);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap decryptAndVerify(String dataBase64,
                                         String privateKeyBase64,
                                         ReadableArray sendersPublicKeysBase64) {
         try {
-            VirgilKeyPair keyPair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
-            byte[] encryptedData = this.crypto.authDecrypt(Encodings.decodeBase64(dataBase64), keyPair.getPrivateKey(), publicKeys);
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+            VirgilKeyPair keyPair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.decryptAndVerify(dataBase64, keyPair.getPrivateKey(), sendersPublicKeysBase64);
         } catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap decryptAndVerifyWithKeyHandle(String dataBase64,
+                                                     String keyHandle,
+                                                     ReadableArray sendersPublicKeysBase64) {
+        try {
+            return this.decryptAndVerify(dataBase64, keyPairs.get(keyHandle).getPrivateKey(), sendersPublicKeysBase64);
+        } catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap decryptAndVerify(String dataBase64,
+                                         VirgilPrivateKey privateKey,
+                                         ReadableArray sendersPublicKeysBase64) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
+        byte[] decryptedData = this.getCrypto().authDecrypt(Encodings.decodeBase64(dataBase64), privateKey, publicKeys);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap signThenEncrypt(String dataBase64,
                                        String privateKeyBase64,
                                        ReadableArray recipientsBase64,
                                        boolean enablePadding) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
-            byte[] encryptedData = this.crypto.signThenEncrypt(Encodings.decodeBase64(dataBase64), keypair.getPrivateKey(), publicKeys, enablePadding);
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.signThenEncrypt(dataBase64, keypair.getPrivateKey(), recipientsBase64, enablePadding);
         }
         catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap signThenEncryptWithKeyHandle(String dataBase64,
+                                                    String keyHandle,
+                                                    ReadableArray recipientsBase64,
+                                                    boolean enablePadding) {
+        try {
+            return this.signThenEncrypt(dataBase64, keyPairs.get(keyHandle).getPrivateKey(), recipientsBase64, enablePadding);
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap signThenEncrypt(String dataBase64,
+                                        VirgilPrivateKey privateKey,
+                                        ReadableArray recipientsBase64,
+                                        boolean enablePadding) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        byte[] encryptedData = this.getCrypto().signThenEncrypt(Encodings.decodeBase64(dataBase64), privateKey, publicKeys, enablePadding);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap decryptThenVerify(String dataBase64,
                                          String privateKeyBase64,
                                          ReadableArray sendersPublicKeysBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
-            byte[] decryptedData = this.crypto.decryptThenVerify(Encodings.decodeBase64(dataBase64), keypair.getPrivateKey(), publicKeys);
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.decryptThenVerify(dataBase64, keypair.getPrivateKey(), sendersPublicKeysBase64);
         }
         catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap decryptThenVerifyWithKeyHandle(String dataBase64,
+                                                      String keyHandle,
+                                                      ReadableArray sendersPublicKeysBase64) {
+        try {
+            return this.decryptThenVerify(dataBase64, keyPairs.get(keyHandle).getPrivateKey(), sendersPublicKeysBase64);
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap decryptThenVerify(String dataBase64,
+                                          VirgilPrivateKey privateKey,
+                                          ReadableArray sendersPublicKeysBase64) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
+        byte[] decryptedData = this.getCrypto().decryptThenVerify(Encodings.decodeBase64(dataBase64), privateKey, publicKeys);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap getPrivateKeyIdentifier(String privateKeyBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
             return ResponseFactory.createStringResponse(Encodings.encodeBase64(keypair.getPrivateKey().getIdentifier()));
         }
         catch (CryptoException e) {
@@ -283,7 +469,7 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap getPublicKeyIdentifier(String publicKeyBase64) {
         try {
-            VirgilPublicKey publicKey = this.crypto.importPublicKey(Encodings.decodeBase64(publicKeyBase64));
+            VirgilPublicKey publicKey = publicKeyCache.importPublicKey(this.getCrypto(), Encodings.decodeBase64(publicKeyBase64));
             return ResponseFactory.createStringResponse(Encodings.encodeBase64(publicKey.getIdentifier()));
         }
         catch (CryptoException e) {
@@ -291,25 +477,140 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getPublicKeyCacheStats() {
+        WritableMap stats = Arguments.createMap();
+        stats.putInt("size", publicKeyCache.size());
+        stats.putInt("capacity", publicKeyCache.getCapacity());
+        stats.putDouble("hits", publicKeyCache.getHits());
+        stats.putDouble("misses", publicKeyCache.getMisses());
+        return ResponseFactory.createMapResponse(stats);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap setPublicKeyCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            return ResponseFactory.createErrorResponse(
+                    new IllegalArgumentException("Public key cache capacity must not be negative")
+            );
+        }
+        publicKeyCache.setCapacity(capacity);
+        return ResponseFactory.createBooleanResponse(true);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap clearPublicKeyCache() {
+        publicKeyCache.clear();
+        return ResponseFactory.createBooleanResponse(true);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap createRecipientSet(ReadableArray recipientsBase64) {
+        try {
+            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+            if (publicKeys.isEmpty()) {
+                return ResponseFactory.createErrorResponse(
+                        new IllegalArgumentException("Recipient set must not be empty")
+                );
+            }
+            ByteArrayOutputStream identifiers = new ByteArrayOutputStream();
+            Set<String> uniqueIdentifiers = new HashSet<>();
+            for (VirgilPublicKey publicKey : publicKeys) {
+                String identifier = Encodings.encodeBase64(publicKey.getIdentifier());
+                if (!uniqueIdentifiers.add(identifier)) {
+                    return ResponseFactory.createErrorResponse(
+                            new IllegalArgumentException(String.format("Recipient set has key '%s' more than once", identifier))
+                    );
+                }
+                identifiers.write(publicKey.getIdentifier(), 0, publicKey.getIdentifier().length);
+            }
+            String recipientSetHandle = Encodings.encodeBase64(
+                    this.getCrypto().computeHash(identifiers.toByteArray(), HashAlgorithm.SHA256)
+            );
+            recipientSets.put(recipientSetHandle, Collections.unmodifiableList(publicKeys));
+            return ResponseFactory.createStringResponse(recipientSetHandle);
+        }
+        catch (CryptoException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap releaseRecipientSet(String recipientSetHandle) {
+        return ResponseFactory.createBooleanResponse(recipientSets.release(recipientSetHandle));
+    }
+
+    /**
+     * Fails with its own exception, so JS registers the recipient set again rather than a private key.
+     */
+    private static List<VirgilPublicKey> getRecipientSet(String recipientSetHandle) throws RecipientSetNotFoundException {
+        try {
+            return recipientSets.get(recipientSetHandle);
+        } catch (HandleNotFoundException e) {
+            throw new RecipientSetNotFoundException(recipientSetHandle);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap encryptWithRecipientSet(String dataBase64, String recipientSetHandle, boolean enablePadding) {
+        try {
+            List<VirgilPublicKey> publicKeys = getRecipientSet(recipientSetHandle);
+            byte[] encryptedData = this.getCrypto().encrypt(Encodings.decodeBase64(dataBase64), publicKeys, enablePadding);
+            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+        }
+        catch (CryptoException | RecipientSetNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap signThenEncryptWithRecipientSet(String dataBase64,
+                                                       String keyHandle,
+                                                       String recipientSetHandle,
+                                                       boolean enablePadding) {
+        try {
+            VirgilPrivateKey privateKey = keyPairs.get(keyHandle).getPrivateKey();
+            List<VirgilPublicKey> publicKeys = getRecipientSet(recipientSetHandle);
+            byte[] encryptedData = this.getCrypto().signThenEncrypt(Encodings.decodeBase64(dataBase64), privateKey, publicKeys, enablePadding);
+            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+        }
+        catch (CryptoException | HandleNotFoundException | RecipientSetNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap extractPublicKey(String privateKeyBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            VirgilPublicKey publicKey = keypair.getPublicKey();
-            byte[] publicKeyData = this.crypto.exportPublicKey(publicKey);
-            WritableMap result = Arguments.createMap();
-            result.putString("publicKey", Encodings.encodeBase64(publicKeyData));
-            result.putString("identifier", Encodings.encodeBase64(publicKey.getIdentifier()));
-            return ResponseFactory.createMapResponse(result);
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.extractPublicKey(keypair.getPublicKey());
         }
         catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap extractPublicKeyWithKeyHandle(String keyHandle) {
+        try {
+            return this.extractPublicKey(keyPairs.get(keyHandle).getPublicKey());
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap extractPublicKey(VirgilPublicKey publicKey) throws CryptoException {
+        byte[] publicKeyData = this.getCrypto().exportPublicKey(publicKey);
+        WritableMap result = Arguments.createMap();
+        result.putString("publicKey", Encodings.encodeBase64(publicKeyData));
+        result.putString("identifier", Encodings.encodeBase64(publicKey.getIdentifier()));
+        return ResponseFactory.createMapResponse(result);
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateRandomData(Integer size) {
-        byte[] randomData = this.crypto.generateRandomData(size);
+        byte[] randomData = this.getCrypto().generateRandomData(size);
         return ResponseFactory.createStringResponse(Encodings.encodeBase64(randomData));
     }
 
@@ -319,48 +620,56 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
                                                ReadableArray recipientsBase64,
                                                boolean enablePadding) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            VirgilPrivateKey privateKey = keypair.getPrivateKey();
-            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
-            byte[] data = Encodings.decodeBase64(dataBase64);
-            byte[] signature = this.crypto.generateSignature(data, privateKey);
-
-            try (
-                    Aes256Gcm aesGcm = new Aes256Gcm();
-                    RecipientCipher cipher = new RecipientCipher()
-            ) {
-                cipher.setEncryptionCipher(aesGcm);
-                cipher.setRandom(this.crypto.getRng());
-
-                if (enablePadding) {
-                    RandomPadding randomPadding = new RandomPadding();
-                    randomPadding.setRandom(this.crypto.getRng());
-                    cipher.setEncryptionPadding(randomPadding);
-                    PaddingParams paddingParams = new PaddingParams(VirgilCrypto.PADDING_LENGTH, VirgilCrypto.PADDING_LENGTH);
-                    cipher.setPaddingParams(paddingParams);
-                }
-
-                for(VirgilPublicKey publicKey : publicKeys) {
-                    cipher.addKeyRecipient(publicKey.getIdentifier(), publicKey.getPublicKey());
-                }
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.signThenEncryptDetached(dataBase64, keypair.getPrivateKey(), recipientsBase64, enablePadding);
+        }
+        catch (CryptoException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
 
-                cipher.customParams().addData(VirgilCrypto.CUSTOM_PARAM_SIGNER_ID, privateKey.getIdentifier());
-                cipher.customParams().addData(VirgilCrypto.CUSTOM_PARAM_SIGNATURE, signature);
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap signThenEncryptDetachedWithKeyHandle(String dataBase64,
+                                                            String keyHandle,
+                                                            ReadableArray recipientsBase64,
+                                                            boolean enablePadding) {
+        try {
+            return this.signThenEncryptDetached(dataBase64, keyPairs.get(keyHandle).getPrivateKey(), recipientsBase64, enablePadding);
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
 
-                cipher.startEncryption();
-                byte[] meta = cipher.packMessageInfo();
-                byte[] processedData = cipher.processEncryption(data);
-                byte[] finalData = cipher.finishEncryption();
+    private WritableMap signThenEncryptDetached(String dataBase64,
+                                                VirgilPrivateKey privateKey,
+                                                ReadableArray recipientsBase64,
+                                                boolean enablePadding) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        byte[] data = Encodings.decodeBase64(dataBase64);
+        byte[] signature = this.getCrypto().generateSignature(data, privateKey);
 
-                WritableMap responseMap = Arguments.createMap();
-                responseMap.putString("encryptedData", Encodings.encodeBase64(this.concatByteArrays(processedData, finalData)));
-                responseMap.putString("metadata", Encodings.encodeBase64(meta));
+        try (CipherPool.Entry entry = CipherPool.acquire(enablePadding)) {
+            RecipientCipher cipher = entry.getCipher();
 
-                return ResponseFactory.createMapResponse(responseMap);
+            for(VirgilPublicKey publicKey : publicKeys) {
+                cipher.addKeyRecipient(publicKey.getIdentifier(), publicKey.getPublicKey());
             }
-        }
-        catch (CryptoException e) {
-            return ResponseFactory.createErrorResponse(e);
+
+            cipher.customParams().addData(VirgilCrypto.CUSTOM_PARAM_SIGNER_ID, privateKey.getIdentifier());
+            cipher.customParams().addData(VirgilCrypto.CUSTOM_PARAM_SIGNATURE, signature);
+
+            cipher.startEncryption();
+            byte[] meta = cipher.packMessageInfo();
+            byte[] processedData = cipher.processEncryption(data);
+            byte[] finalData = cipher.finishEncryption();
+
+            WritableMap responseMap = Arguments.createMap();
+            responseMap.putString("encryptedData", Encodings.encodeBase64(processedData, finalData));
+            responseMap.putString("metadata", Encodings.encodeBase64(meta));
+            entry.recycle();
+
+            return ResponseFactory.createMapResponse(responseMap);
         }
     }
 
@@ -370,32 +679,49 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
                                                  String privateKeyBase64,
                                                  ReadableArray sendersPublicKeysBase64) {
         try {
-            VirgilKeyPair keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-            List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
-            byte[] data = Encodings.decodeBase64(dataBase64);
-            byte[] meta = Encodings.decodeBase64(metadataBase64);
-
-            byte[] decryptedData = this.crypto.decryptThenVerify(
-                    this.concatByteArrays(meta, data),
-                    keypair.getPrivateKey(),
-                    publicKeys
-            );
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+            VirgilKeyPair keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            return this.decryptThenVerifyDetached(dataBase64, metadataBase64, keypair.getPrivateKey(), sendersPublicKeysBase64);
         }
         catch (CryptoException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap decryptThenVerifyDetachedWithKeyHandle(String dataBase64,
+                                                              String metadataBase64,
+                                                              String keyHandle,
+                                                              ReadableArray sendersPublicKeysBase64) {
+        try {
+            return this.decryptThenVerifyDetached(dataBase64, metadataBase64, keyPairs.get(keyHandle).getPrivateKey(), sendersPublicKeysBase64);
+        }
+        catch (CryptoException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap decryptThenVerifyDetached(String dataBase64,
+                                                  String metadataBase64,
+                                                  VirgilPrivateKey privateKey,
+                                                  ReadableArray sendersPublicKeysBase64) throws CryptoException {
+        List<VirgilPublicKey> publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
+        byte[] decryptedData = this.getCrypto().decryptThenVerify(
+                Encodings.decodeBase64(metadataBase64, dataBase64),
+                privateKey,
+                publicKeys
+        );
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap generateGroupSession(String groupIdBase64) {
-        byte[] sessionId = this.crypto.computeHash(
+        byte[] sessionId = this.getCrypto().computeHash(
                 Encodings.decodeBase64(groupIdBase64),
                 HashAlgorithm.SHA512
         );
         sessionId = Arrays.copyOfRange(sessionId, 0, 32);
         GroupSessionTicket initialEpochTicket = new GroupSessionTicket();
-        initialEpochTicket.setRng(this.crypto.getRng());
+        initialEpochTicket.setRng(this.getCrypto().getRng());
         try {
             initialEpochTicket.setupTicketAsNew(sessionId);
         } catch (FoundationException e) {
@@ -437,7 +763,7 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
         WritableArray serializedEpochMessages = Arguments.createArray();
 
         GroupSession session = new GroupSession();
-        session.setRng(this.crypto.getRng());
+        session.setRng(this.getCrypto().getRng());
 
         for(GroupSessionMessage epochMessage : epochMessages) {
             try {
@@ -455,142 +781,740 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
         responseMap.putString("sessionId", Encodings.encodeBase64(sessionId));
         responseMap.putInt("currentEpochNumber", currentEpochNumber);
         responseMap.putArray("epochMessages", serializedEpochMessages);
+        // The session is already built, keep it so the first group session call doesn't rebuild it
+        responseMap.putString("handle", RNVirgilGroupSessionModule.registerSession(session));
         return ResponseFactory.createMapResponse(responseMap);
     }
 
+    // Promise based counterparts of the synchronous methods. They run on the worker pool,
+    // so big payloads don't block the JS thread, and resolve with the same {result}/{error} map.
+
     @ReactMethod
-    public void encryptFile(final String inputPath,
-                            String outputPath,
-                            ReadableArray recipientsBase64,
-                            final boolean enablePadding,
-                            final Promise promise) {
-        final List<VirgilPublicKey> publicKeys;
-        try {
-            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
-        }
-        catch (CryptoException e) {
-            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
-            return;
-        }
+    public void computeHashAsync(final String dataBase64, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return computeHash(dataBase64);
+            }
+        }, promise);
+    }
 
-        final String resolvedOutputPath;
-        if (outputPath == null) {
-            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
-        } else {
-            resolvedOutputPath = outputPath;
-        }
+    @ReactMethod
+    public void computeHashWithAlgorithmAsync(final String dataBase64, final String algorithm, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return computeHashWithAlgorithm(dataBase64, algorithm);
+            }
+        }, promise);
+    }
 
-        final VirgilCrypto vc = this.crypto;
+    @ReactMethod
+    public void generateKeyPairAsync(final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return generateKeyPair();
+            }
+        }, promise);
+    }
 
-        threadPool.execute(new Runnable() {
+    @ReactMethod
+    public void generateKeyPairOfTypeAsync(final String type, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
             @Override
-            public void run() {
-                try (
-                        InputStream inStream = FS.getInputStreamFromPath(inputPath);
-                        OutputStream outStream = FS.getOutputStreamFromPath(resolvedOutputPath)
-                ) {
-                    vc.encrypt(inStream, outStream, publicKeys, enablePadding);
-                    promise.resolve(resolvedOutputPath);
-                } catch (FileNotFoundException e) {
-                    promise.reject(
-                            "invalid_input_file",
-                            String.format("File does not exist at path %s", inputPath)
-                    );
-                } catch (InvalidOutputFilePathException e) {
-                    promise.reject("invalid_output_file", e.getLocalizedMessage());
-                } catch (EncryptionException e) {
-                    promise.reject(
-                            "failed_to_encrypt",
-                            String.format("Could not encrypt file; %s", e.getLocalizedMessage())
-                    );
-                } catch (IOException e) {
-                    promise.reject("unexpected_error", e.getLocalizedMessage());
-                }
+            public WritableMap call() {
+                return generateKeyPairOfType(type);
             }
-        });
+        }, promise);
     }
 
     @ReactMethod
-    public void decryptFile(final String inputPath,
-                            String outputPath,
-                            String privateKeyBase64,
-                            final Promise promise) {
-        VirgilKeyPair keypair;
-        try {
-            keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
-        } catch (CryptoException e) {
-            promise.reject("invalid_private_key", "The given value is not a valid private key");
-            return;
-        }
+    public void generateKeyPairUsingSeedAsync(final String seedBase64, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return generateKeyPairUsingSeed(seedBase64);
+            }
+        }, promise);
+    }
 
-        final String resolvedOutputPath;
-        if (outputPath == null) {
-            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
-        } else {
-            resolvedOutputPath = outputPath;
-        }
+    @ReactMethod
+    public void generateKeyPairWithTypeAndSeedAsync(final String type, final String seedBase64, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return generateKeyPairWithTypeAndSeed(type, seedBase64);
+            }
+        }, promise);
+    }
 
-        final VirgilCrypto vc = this.crypto;
-        final VirgilPrivateKey privateKey = keypair.getPrivateKey();
+    @ReactMethod
+    public void encryptAsync(final String dataBase64,
+                             final ReadableArray recipientsBase64,
+                             final boolean enablePadding,
+                             final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return encrypt(dataBase64, recipientsBase64, enablePadding);
+            }
+        }, promise);
+    }
 
-        threadPool.execute(new Runnable() {
+    @ReactMethod
+    public void importPrivateKeyHandleAsync(final String privateKeyBase64, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
             @Override
-            public void run() {
-                try (
-                        InputStream inStream = FS.getInputStreamFromPath(inputPath);
-                        OutputStream outStream = FS.getOutputStreamFromPath(resolvedOutputPath)
-                ) {
-                    vc.decrypt(inStream, outStream, privateKey);
-                    promise.resolve(resolvedOutputPath);
-                } catch (FileNotFoundException e) {
-                    promise.reject(
-                            "invalid_input_file",
-                            String.format("File does not exist at path %s", inputPath)
-                    );
-                } catch (InvalidOutputFilePathException e) {
-                    promise.reject("invalid_output_file", e.getLocalizedMessage());
-                } catch (DecryptionException e) {
-                    promise.reject(
-                            "failed_to_decrypt",
-                            String.format("Could not decrypt file; %s", e.getLocalizedMessage())
-                    );
-                } catch (IOException e) {
-                    promise.reject("unexpected_error", e.getLocalizedMessage());
-                }
+            public WritableMap call() {
+                return importPrivateKeyHandle(privateKeyBase64);
             }
-        });
+        }, promise);
     }
 
     @ReactMethod
-    public void generateFileSignature(final String inputPath,
+    public void decryptWithKeyHandleAsync(final String dataBase64, final String keyHandle, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return decryptWithKeyHandle(dataBase64, keyHandle);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void generateSignatureWithKeyHandleAsync(final String dataBase64,
+                                                    final String keyHandle,
+                                                    final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return generateSignatureWithKeyHandle(dataBase64, keyHandle);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void verifySignatureAsync(final String signatureBase64,
+                                     final String dataBase64,
+                                     final String publicKeyBase64,
+                                     final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return verifySignature(signatureBase64, dataBase64, publicKeyBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void signAndEncryptWithKeyHandleAsync(final String dataBase64,
+                                                 final String keyHandle,
+                                                 final ReadableArray recipientsBase64,
+                                                 final boolean enablePadding,
+                                                 final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return signAndEncryptWithKeyHandle(dataBase64, keyHandle, recipientsBase64, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void decryptAndVerifyWithKeyHandleAsync(final String dataBase64,
+                                                   final String keyHandle,
+                                                   final ReadableArray sendersPublicKeysBase64,
+                                                   final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return decryptAndVerifyWithKeyHandle(dataBase64, keyHandle, sendersPublicKeysBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void signThenEncryptWithKeyHandleAsync(final String dataBase64,
+                                                  final String keyHandle,
+                                                  final ReadableArray recipientsBase64,
+                                                  final boolean enablePadding,
+                                                  final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return signThenEncryptWithKeyHandle(dataBase64, keyHandle, recipientsBase64, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void encryptWithRecipientSetAsync(final String dataBase64,
+                                             final String recipientSetHandle,
+                                             final boolean enablePadding,
+                                             final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return encryptWithRecipientSet(dataBase64, recipientSetHandle, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void signThenEncryptWithRecipientSetAsync(final String dataBase64,
+                                                     final String keyHandle,
+                                                     final String recipientSetHandle,
+                                                     final boolean enablePadding,
+                                                     final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return signThenEncryptWithRecipientSet(dataBase64, keyHandle, recipientSetHandle, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void decryptThenVerifyWithKeyHandleAsync(final String dataBase64,
+                                                    final String keyHandle,
+                                                    final ReadableArray sendersPublicKeysBase64,
+                                                    final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return decryptThenVerifyWithKeyHandle(dataBase64, keyHandle, sendersPublicKeysBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void generateRandomDataAsync(final Integer size, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return generateRandomData(size);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void signThenEncryptDetachedWithKeyHandleAsync(final String dataBase64,
+                                                          final String keyHandle,
+                                                          final ReadableArray recipientsBase64,
+                                                          final boolean enablePadding,
+                                                          final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return signThenEncryptDetachedWithKeyHandle(dataBase64, keyHandle, recipientsBase64, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void decryptThenVerifyDetachedWithKeyHandleAsync(final String dataBase64,
+                                                            final String metadataBase64,
+                                                            final String keyHandle,
+                                                            final ReadableArray sendersPublicKeysBase64,
+                                                            final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return decryptThenVerifyDetachedWithKeyHandle(dataBase64, metadataBase64, keyHandle, sendersPublicKeysBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void generateGroupSessionAsync(final String groupIdBase64, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return generateGroupSession(groupIdBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void importGroupSessionAsync(final ReadableArray epochMessagesBase64, final Promise promise) {
+        resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return importGroupSession(epochMessagesBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void encryptFile(final String inputPath,
+                            String outputPath,
+                            ReadableArray recipientsBase64,
+                            final boolean enablePadding,
+                            final String jobId,
+                            String lane,
+                            final int chunkSize,
+                            final boolean memoryMapped,
+                            final boolean pipelined,
+                            final Promise promise) {
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        }
+        catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        final String resolvedOutputPath;
+        if (outputPath == null) {
+            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
+        } else {
+            resolvedOutputPath = outputPath;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                VirgilCrypto vc = getCrypto();
+                boolean isOutputCreated = false;
+                boolean isWritten = false;
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, memoryMapped, pipelined)) {
+                    // The output is written out as it's closed, it's complete only after that
+                    try (OutputStream outStream = openOutputStream(resolvedOutputPath, chunkSize, pipelined)) {
+                        isOutputCreated = true;
+                        vc.encrypt(inStream, outStream, publicKeys, enablePadding);
+                    }
+                    isWritten = true;
+                    this.resolve(resolvedOutputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (InvalidOutputFilePathException e) {
+                    this.reject("invalid_output_file", e.getLocalizedMessage());
+                } catch (EncryptionException e) {
+                    this.reject(
+                            "failed_to_encrypt",
+                            String.format("Could not encrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    // A failed or incomplete write leaves a truncated output
+                    if (isOutputCreated && !isWritten) {
+                        FS.deleteFile(resolvedOutputPath);
+                    }
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                FS.deleteFile(resolvedOutputPath);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void decryptFile(final String inputPath,
+                            String outputPath,
+                            String privateKeyBase64,
+                            final String jobId,
+                            String lane,
+                            final int chunkSize,
+                            final boolean pipelined,
+                            final Promise promise) {
+        VirgilKeyPair keypair;
+        try {
+            keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+        } catch (CryptoException e) {
+            promise.reject("invalid_private_key", "The given value is not a valid private key");
+            return;
+        }
+
+        this.decryptFile(inputPath, outputPath, keypair.getPrivateKey(), jobId, lane, chunkSize, pipelined, promise);
+    }
+
+    @ReactMethod
+    public void decryptFileWithKeyHandle(final String inputPath,
+                                         String outputPath,
+                                         String keyHandle,
+                                         final String jobId,
+                                         String lane,
+                                         final int chunkSize,
+                                         final boolean pipelined,
+                                         final Promise promise) {
+        VirgilKeyPair keypair;
+        try {
+            keypair = keyPairs.get(keyHandle);
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        this.decryptFile(inputPath, outputPath, keypair.getPrivateKey(), jobId, lane, chunkSize, pipelined, promise);
+    }
+
+    private void decryptFile(final String inputPath,
+                             String outputPath,
+                             final VirgilPrivateKey privateKey,
+                             final String jobId,
+                             String lane,
+                             final int chunkSize,
+                             final boolean pipelined,
+                             final Promise promise) {
+        final String resolvedOutputPath;
+        if (outputPath == null) {
+            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
+        } else {
+            resolvedOutputPath = outputPath;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                VirgilCrypto vc = getCrypto();
+                boolean isOutputCreated = false;
+                boolean isWritten = false;
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, false, pipelined)) {
+                    // The output is written out as it's closed, it's complete only after that
+                    try (OutputStream outStream = openOutputStream(resolvedOutputPath, chunkSize, pipelined)) {
+                        isOutputCreated = true;
+                        vc.decrypt(inStream, outStream, privateKey);
+                    }
+                    isWritten = true;
+                    this.resolve(resolvedOutputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (InvalidOutputFilePathException e) {
+                    this.reject("invalid_output_file", e.getLocalizedMessage());
+                } catch (DecryptionException e) {
+                    this.reject(
+                            "failed_to_decrypt",
+                            String.format("Could not decrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    // A failed or incomplete write leaves a truncated output
+                    if (isOutputCreated && !isWritten) {
+                        FS.deleteFile(resolvedOutputPath);
+                    }
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                FS.deleteFile(resolvedOutputPath);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void encryptFiles(ReadableArray inputPaths,
+                             ReadableArray outputPaths,
+                             ReadableArray recipientsBase64,
+                             final boolean enablePadding,
+                             int concurrency,
+                             String jobId,
+                             String lane,
+                             int chunkSize,
+                             Promise promise) {
+        // Imported once for all files of the batch
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        }
+        catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        this.runFileBatch(inputPaths, outputPaths, "failed_to_encrypt", concurrency, jobId, lane, chunkSize, promise, new FileOperation() {
+            @Override
+            public void run(InputStream inStream, OutputStream outStream) throws IOException, CryptoException {
+                getCrypto().encrypt(inStream, outStream, publicKeys, enablePadding);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void decryptFilesWithKeyHandle(ReadableArray inputPaths,
+                                          ReadableArray outputPaths,
+                                          String keyHandle,
+                                          int concurrency,
+                                          String jobId,
+                                          String lane,
+                                          int chunkSize,
+                                          Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        this.runFileBatch(inputPaths, outputPaths, "failed_to_decrypt", concurrency, jobId, lane, chunkSize, promise, new FileOperation() {
+            @Override
+            public void run(InputStream inStream, OutputStream outStream) throws IOException, CryptoException {
+                getCrypto().decrypt(inStream, outStream, privateKey);
+            }
+        });
+    }
+
+    // Same shape as the per-item errors of batch calls
+    private static WritableMap createFileError(String code, String message) {
+        WritableMap error = Arguments.createMap();
+        error.putString("code", code);
+        error.putString("message", message);
+        WritableMap result = Arguments.createMap();
+        result.putMap("error", error);
+        return result;
+    }
+
+    private interface FileOperation {
+        void run(InputStream inStream, OutputStream outStream) throws IOException, CryptoException;
+    }
+
+    /**
+     * Runs the operation on every file of a batch as a single job, {@code concurrency} files at
+     * a time. The job thread takes files in order along with up to {@code concurrency - 1}
+     * helpers run in the same lane, so the lane's thread count caps the concurrency.
+     * The promise is resolved with a map per file, holding either the output path as
+     * {@code result} or the {@code error} of that file. If the job is cancelled, the output of every file written so far is removed.
+     * The same happens if a worker fails outside of a file, e.g. runs out of memory, and the promise is rejected.
+     */
+    private void runFileBatch(ReadableArray inputPaths,
+                              ReadableArray outputPaths,
+                              final String failureCode,
+                              int concurrency,
+                              final String jobId,
+                              String lane,
+                              final int chunkSize,
+                              Promise promise,
+                              final FileOperation operation) {
+        final int filesCount = inputPaths.size();
+        final String[] inputs = new String[filesCount];
+        final String[] outputs = new String[filesCount];
+        for (int i = 0; i < filesCount; i++) {
+            inputs[i] = inputPaths.getString(i);
+            outputs[i] = outputPaths == null || outputPaths.isNull(i)
+                    ? FS.getTempFilePath(FS.getFileExtension(inputs[i]))
+                    : outputPaths.getString(i);
+        }
+
+        final CryptoScheduler.Lane schedulerLane = getLane(lane, CryptoScheduler.Lane.BACKGROUND);
+        final int workersCount = Math.max(1, Math.min(
+                concurrency > 0 ? concurrency : scheduler.getThreadsCount(schedulerLane),
+                filesCount
+        ));
+
+        scheduler.submit(schedulerLane, jobId, new CryptoScheduler.Job(promise) {
+            private final AtomicInteger nextFile = new AtomicInteger();
+            // The job thread is a worker from the start, helpers are counted before they're started
+            private final AtomicInteger runningWorkers = new AtomicInteger(1);
+            private final AtomicReference<Throwable> failure = new AtomicReference<>();
+            private final WritableMap[] results = new WritableMap[filesCount];
+            private final Queue<String> writtenOutputs = new ConcurrentLinkedQueue<>();
+            private final long[] sizes = new long[filesCount];
+            private BatchProgress progress;
+
+            @Override
+            protected void execute() {
+                long totalBytes = 0;
+                for (int i = 0; i < filesCount; i++) {
+                    long size = this.sizes[i] = FS.getFileSize(inputs[i]);
+                    totalBytes = size < 0 || totalBytes < 0 ? -1 : totalBytes + size;
+                }
+                if (jobId != null) {
+                    this.progress = new BatchProgress(totalBytes, filesCount, new BatchProgress.Listener() {
+                        @Override
+                        public void onProgress(long bytesProcessed,
+                                               long totalBytes,
+                                               int filesProcessed,
+                                               int totalFiles,
+                                               double megabytesPerSecond) {
+                            WritableMap eventMap = Arguments.createMap();
+                            eventMap.putString("jobId", jobId);
+                            eventMap.putDouble("bytesProcessed", bytesProcessed);
+                            eventMap.putDouble("totalBytes", totalBytes);
+                            eventMap.putDouble("megabytesPerSecond", megabytesPerSecond);
+                            eventMap.putInt("filesProcessed", filesProcessed);
+                            eventMap.putInt("totalFiles", totalFiles);
+                            reactContext
+                                    .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                                    .emit(JOB_PROGRESS_EVENT, eventMap);
+                        }
+                    });
+                }
+
+                for (int i = 1; i < workersCount; i++) {
+                    this.runningWorkers.incrementAndGet();
+                    try {
+                        scheduler.execute(schedulerLane, new Runnable() {
+                            @Override
+                            public void run() {
+                                work();
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        // The lane is shutting down, the workers started so far take the remaining files
+                        this.runningWorkers.decrementAndGet();
+                        break;
+                    }
+                }
+                this.work();
+            }
+
+            private void work() {
+                try {
+                    int index;
+                    while (!this.isCancelled() && this.failure.get() == null && (index = this.nextFile.getAndIncrement()) < filesCount) {
+                        this.results[index] = this.processFile(index);
+                        if (this.progress != null) {
+                            this.progress.fileProcessed();
+                        }
+                    }
+                } catch (Throwable e) {
+                    // Files handle their own errors, this is e.g. an OutOfMemoryError
+                    this.failure.compareAndSet(null, e);
+                } finally {
+                    // The last worker to finish settles the job
+                    if (this.runningWorkers.decrementAndGet() == 0) {
+                        this.complete();
+                    }
+                }
+            }
+
+            private void complete() {
+                Throwable e = this.failure.get();
+                if (e != null) {
+                    // No paths are returned, so nothing written is of any use
+                    this.onCancelled();
+                    this.reject("unexpected_error", e.toString());
+                    return;
+                }
+                WritableArray resultsArray = Arguments.createArray();
+                for (WritableMap result : this.results) {
+                    resultsArray.pushMap(result);
+                }
+                this.resolve(resultsArray);
+            }
+
+            private WritableMap processFile(int index) {
+                String inputPath = inputs[index];
+                String outputPath = outputs[index];
+                boolean isOutputCreated = false;
+                try (
+                        InputStream inStream = this.openFile(inputPath, this.sizes[index]);
+                        OutputStream outStream = FS.getOutputStreamFromPath(outputPath, getChunkSize(chunkSize))
+                ) {
+                    isOutputCreated = true;
+                    this.writtenOutputs.add(outputPath);
+                    operation.run(inStream, outStream);
+                    WritableMap result = Arguments.createMap();
+                    result.putString("result", outputPath);
+                    return result;
+                } catch (FileNotFoundException e) {
+                    return createFileError("invalid_input_file", String.format("File does not exist at path %s", inputPath));
+                } catch (InvalidOutputFilePathException e) {
+                    return createFileError("invalid_output_file", e.getLocalizedMessage());
+                } catch (CryptoException e) {
+                    // Partial output is of no use
+                    FS.deleteFile(outputPath);
+                    return createFileError(failureCode, e.getLocalizedMessage());
+                } catch (IOException | RuntimeException e) {
+                    // A failed read or write leaves a truncated output, unless it's the input that failed to open
+                    if (isOutputCreated) {
+                        FS.deleteFile(outputPath);
+                    }
+                    return createFileError("unexpected_error", e.getLocalizedMessage());
+                }
+            }
+
+            private InputStream openFile(String inputPath, long size) throws IOException {
+                InputStream inStream = FS.getInputStreamFromPath(inputPath, getChunkSize(chunkSize));
+                if (this.progress != null) {
+                    inStream = new ProgressInputStream(inStream, size, this.progress.fileListener());
+                }
+                return this.cancellable(inStream);
+            }
+
+            @Override
+            protected void onCancelled() {
+                for (String outputPath : this.writtenOutputs) {
+                    FS.deleteFile(outputPath);
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void generateFileSignature(final String inputPath,
                                       String privateKeyBase64,
+                                      final String jobId,
+                                      String lane,
+                                      final int chunkSize,
+                                      final boolean memoryMapped,
                                       final Promise promise) {
         VirgilKeyPair keypair;
         try {
-            keypair = this.crypto.importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
+            keypair = this.getCrypto().importPrivateKey(Encodings.decodeBase64(privateKeyBase64));
         } catch (CryptoException e) {
             promise.reject("invalid_private_key", "The given value is not a valid private key");
             return;
         }
 
-        final VirgilCrypto vc = this.crypto;
-        final VirgilPrivateKey privateKey = keypair.getPrivateKey();
+        this.generateFileSignature(inputPath, keypair.getPrivateKey(), jobId, lane, chunkSize, memoryMapped, promise);
+    }
+
+    @ReactMethod
+    public void generateFileSignatureWithKeyHandle(final String inputPath,
+                                                   String keyHandle,
+                                                   final String jobId,
+                                                   String lane,
+                                                   final int chunkSize,
+                                                   final boolean memoryMapped,
+                                                   final Promise promise) {
+        VirgilKeyPair keypair;
+        try {
+            keypair = keyPairs.get(keyHandle);
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        this.generateFileSignature(inputPath, keypair.getPrivateKey(), jobId, lane, chunkSize, memoryMapped, promise);
+    }
 
-        threadPool.execute(new Runnable() {
+    private void generateFileSignature(final String inputPath,
+                                       final VirgilPrivateKey privateKey,
+                                       final String jobId,
+                                       String lane,
+                                       final int chunkSize,
+                                       final boolean memoryMapped,
+                                       final Promise promise) {
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
             @Override
-            public void run() {
-                try (InputStream inStream = FS.getInputStreamFromPath(inputPath)) {
+            protected void execute() {
+                VirgilCrypto vc = getCrypto();
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, memoryMapped)) {
                     byte[] signature = vc.generateSignature(inStream, privateKey);
-                    promise.resolve(Encodings.encodeBase64(signature));
+                    this.resolve(Encodings.encodeBase64(signature));
                 } catch (FileNotFoundException e) {
-                    promise.reject(
+                    this.reject(
                             "invalid_input_file",
                             String.format("File does not exist at path %s", inputPath)
                     );
                 } catch (SigningException e) {
-                    promise.reject("failed_to_sign", e.getLocalizedMessage());
+                    this.reject("failed_to_sign", e.getLocalizedMessage());
                 } catch (IOException e) {
-                    promise.reject("unexpected_error", e.getLocalizedMessage());
+                    this.reject("unexpected_error", e.getLocalizedMessage());
                 }
             }
         });
@@ -600,62 +1524,1039 @@ public class RNVirgilCryptoModule extends ReactContextBaseJavaModule {
     public void verifyFileSignature(String signatureBase64,
                                     final String inputPath,
                                     String publicKeyBase64,
+                                    final String jobId,
+                                    String lane,
+                                    final int chunkSize,
                                     final Promise promise) {
         final VirgilPublicKey publicKey;
         try {
-            publicKey = this.crypto.importPublicKey(Encodings.decodeBase64(publicKeyBase64));
+            publicKey = publicKeyCache.importPublicKey(this.getCrypto(), Encodings.decodeBase64(publicKeyBase64));
         } catch (CryptoException e) {
             promise.reject("invalid_public_key", "The given value is not a valid public key");
             return;
         }
 
         final byte[] signature = Encodings.decodeBase64(signatureBase64);
-        final VirgilCrypto vc = this.crypto;
-
-
-        threadPool.execute(new Runnable() {
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
             @Override
-            public void run() {
-                try (InputStream inStream = FS.getInputStreamFromPath(inputPath)) {
+            protected void execute() {
+                VirgilCrypto vc = getCrypto();
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, false)) {
                     boolean isVerified = vc.verifySignature(signature, inStream, publicKey);
-                    promise.resolve(isVerified);
+                    this.resolve(isVerified);
                 } catch (FileNotFoundException e) {
-                    promise.reject(
+                    this.reject(
                             "invalid_input_file",
                             String.format("File does not exist at path %s", inputPath)
                     );
                 } catch (VerificationException e) {
-                    promise.reject("failed_to_verify", e.getLocalizedMessage());
+                    this.reject("failed_to_verify", e.getLocalizedMessage());
                 } catch (IOException e) {
-                    promise.reject("unexpected_error", e.getLocalizedMessage());
+                    this.reject("unexpected_error", e.getLocalizedMessage());
                 }
             }
         });
     }
 
+    @ReactMethod
+    public void signThenEncryptFileWithKeyHandle(final String inputPath,
+                                                 String outputPath,
+                                                 String keyHandle,
+                                                 ReadableArray recipientsBase64,
+                                                 final boolean enablePadding,
+                                                 final String jobId,
+                                                 String lane,
+                                                 final int chunkSize,
+                                                 final Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        }
+        catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        final String resolvedOutputPath;
+        if (outputPath == null) {
+            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
+        } else {
+            resolvedOutputPath = outputPath;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                // The signed message info holds the length of the data, it's written before the data
+                long inputSize = FS.getFileSize(inputPath);
+                if (inputSize < 0) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s or its size is unknown", inputPath)
+                    );
+                    return;
+                }
+                boolean isOutputCreated = false;
+                boolean isWritten = false;
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, false)) {
+                    // The last chunk is written out as the output is closed
+                    try (OutputStream outStream = FS.getOutputStreamFromPath(resolvedOutputPath, getChunkSize(chunkSize))) {
+                        isOutputCreated = true;
+                        SignedStreams.signThenEncrypt(
+                                inStream,
+                                inputSize,
+                                outStream,
+                                privateKey,
+                                publicKeys,
+                                enablePadding,
+                                getChunkSize(chunkSize)
+                        );
+                    }
+                    isWritten = true;
+                    this.resolve(resolvedOutputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (InvalidOutputFilePathException e) {
+                    this.reject("invalid_output_file", e.getLocalizedMessage());
+                } catch (EncryptionException e) {
+                    this.reject(
+                            "failed_to_encrypt",
+                            String.format("Could not encrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    // A failed or incomplete write leaves a truncated output
+                    if (isOutputCreated && !isWritten) {
+                        FS.deleteFile(resolvedOutputPath);
+                    }
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                FS.deleteFile(resolvedOutputPath);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void decryptThenVerifyFileWithKeyHandle(final String inputPath,
+                                                   String outputPath,
+                                                   String keyHandle,
+                                                   ReadableArray sendersPublicKeysBase64,
+                                                   final String jobId,
+                                                   String lane,
+                                                   final int chunkSize,
+                                                   final Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
+        }
+        catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        final String resolvedOutputPath;
+        if (outputPath == null) {
+            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
+        } else {
+            resolvedOutputPath = outputPath;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                boolean isOutputCreated = false;
+                boolean isVerified = false;
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, false)) {
+                    try (OutputStream outStream = FS.getOutputStreamFromPath(resolvedOutputPath, getChunkSize(chunkSize))) {
+                        isOutputCreated = true;
+                        SignedStreams.decryptThenVerify(inStream, outStream, privateKey, publicKeys, getChunkSize(chunkSize));
+                    }
+                    isVerified = true;
+                    this.resolve(resolvedOutputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (InvalidOutputFilePathException e) {
+                    this.reject("invalid_output_file", e.getLocalizedMessage());
+                } catch (DecryptionException e) {
+                    this.reject(
+                            "failed_to_decrypt",
+                            String.format("Could not decrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (VerificationException e) {
+                    this.reject("failed_to_verify", e.getLocalizedMessage());
+                } catch (IOException | RuntimeException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    // Plaintext that is not verified must not be left behind, whatever the failure
+                    if (isOutputCreated && !isVerified) {
+                        FS.deleteFile(resolvedOutputPath);
+                    }
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                FS.deleteFile(resolvedOutputPath);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void hashFile(final String inputPath,
+                         ReadableArray algorithms,
+                         final String jobId,
+                         String lane,
+                         final int chunkSize,
+                         final Promise promise) {
+        final HashAlgorithm[] hashAlgorithms = new HashAlgorithm[algorithms.size()];
+        for (int i = 0; i < hashAlgorithms.length; i++) {
+            hashAlgorithms[i] = HashAlgorithm.valueOf(algorithms.getString(i));
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                // The file is read once, every chunk goes to all of the hashes
+                Hash[] hashes = new Hash[hashAlgorithms.length];
+                for (int i = 0; i < hashes.length; i++) {
+                    hashes[i] = Hashes.start(hashAlgorithms[i]);
+                }
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, false)) {
+                    byte[] buffer = new byte[getChunkSize(chunkSize)];
+                    int length;
+                    while ((length = inStream.read(buffer)) != -1) {
+                        byte[] chunk = length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+                        for (Hash hash : hashes) {
+                            hash.update(chunk);
+                        }
+                    }
+
+                    WritableArray digests = Arguments.createArray();
+                    for (Hash hash : hashes) {
+                        digests.pushString(Encodings.encodeBase64(hash.finish()));
+                    }
+                    this.resolve(digests);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    for (Hash hash : hashes) {
+                        Hashes.close(hash);
+                    }
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void encryptFileSeekable(final String inputPath,
+                                    String outputPath,
+                                    ReadableArray recipientsBase64,
+                                    final String jobId,
+                                    String lane,
+                                    final int chunkSize,
+                                    final boolean parallel,
+                                    boolean resumable,
+                                    final Promise promise) {
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        }
+        catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        if (resumable) {
+            this.encryptFileSeekableResumable(inputPath, outputPath, publicKeys, jobId, lane, chunkSize, parallel, promise);
+            return;
+        }
+
+        final String resolvedOutputPath;
+        if (outputPath == null) {
+            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
+        } else {
+            resolvedOutputPath = outputPath;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                boolean isOutputCreated = false;
+                boolean isWritten = false;
+                try (InputStream inStream = openInputStream(this, jobId, inputPath, chunkSize, false)) {
+                    // The last chunk and its tag are written out as the output is closed
+                    try (OutputStream outStream = FS.getOutputStreamFromPath(resolvedOutputPath, getChunkSize(chunkSize))) {
+                        isOutputCreated = true;
+                        SeekableFile.encrypt(
+                                getCrypto(),
+                                inStream,
+                                outStream,
+                                publicKeys,
+                                getChunkSize(chunkSize),
+                                CHUNK_EXECUTOR,
+                                getParallelism(parallel)
+                        );
+                    }
+                    isWritten = true;
+                    this.resolve(resolvedOutputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (InvalidOutputFilePathException e) {
+                    this.reject("invalid_output_file", e.getLocalizedMessage());
+                } catch (CryptoException e) {
+                    this.reject(
+                            "failed_to_encrypt",
+                            String.format("Could not encrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    // A failed or incomplete write leaves a truncated output
+                    if (isOutputCreated && !isWritten) {
+                        FS.deleteFile(resolvedOutputPath);
+                    }
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                FS.deleteFile(resolvedOutputPath);
+            }
+        });
+    }
+
+    /**
+     * Both files must be local, the input is read at the offset of the last committed chunk and
+     * the output is kept between runs together with its journal, see {@link ResumableEncryption}.
+     */
+    private void encryptFileSeekableResumable(final String inputPath,
+                                              final String outputPath,
+                                              final List<VirgilPublicKey> publicKeys,
+                                              final String jobId,
+                                              String lane,
+                                              final int chunkSize,
+                                              final boolean parallel,
+                                              Promise promise) {
+        final File inputFile = FS.getLocalFile(inputPath);
+        if (inputFile == null || !inputFile.isFile()) {
+            promise.reject(
+                    "invalid_input_file",
+                    String.format("Resumable jobs need a local input file, got '%s'", inputPath)
+            );
+            return;
+        }
+        final File outputFile = FS.getLocalFile(outputPath);
+        if (outputFile == null || outputFile.isDirectory()) {
+            promise.reject(
+                    "invalid_output_file",
+                    String.format("Resumable jobs need a local output file, got '%s'", outputPath)
+            );
+            return;
+        }
+        File outputDir = outputFile.getAbsoluteFile().getParentFile();
+        if (outputDir != null && !outputDir.isDirectory() && !outputDir.mkdirs()) {
+            promise.reject(
+                    "invalid_output_file",
+                    String.format("Failed to create parent directory of '%s'", outputPath)
+            );
+            return;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                final CryptoScheduler.Job job = this;
+                try {
+                    ResumableEncryption.encrypt(
+                            getCrypto(),
+                            inputFile,
+                            outputFile,
+                            publicKeys,
+                            getChunkSize(chunkSize),
+                            CHUNK_EXECUTOR,
+                            getParallelism(parallel),
+                            new ResumableEncryption.InputTracker() {
+                                @Override
+                                public InputStream track(InputStream inputStream, long totalBytes) {
+                                    return trackInputStream(job, jobId, inputStream, totalBytes);
+                                }
+                            }
+                    );
+                    this.resolve(outputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (CryptoException e) {
+                    this.reject(
+                            "failed_to_encrypt",
+                            String.format("Could not encrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                // A cancelled job isn't resumed, unlike one that failed or was killed with the app
+                outputFile.delete();
+                ResumableEncryption.deleteJournal(ResumableEncryption.getJournalFile(outputFile.getPath()));
+            }
+        });
+    }
+
+    /**
+     * Removes the journal and the partial output of a resumable job that won't be started again.
+     * Resolves with false if there's no unfinished job for the output or it's still running.
+     */
+    @ReactMethod
+    public void discardResumableJob(final String outputPath, Promise promise) {
+        final File outputFile = FS.getLocalFile(outputPath);
+        if (outputFile == null) {
+            promise.reject(
+                    "invalid_output_file",
+                    String.format("Resumable jobs need a local output file, got '%s'", outputPath)
+            );
+            return;
+        }
+
+        scheduler.submit(CryptoScheduler.Lane.INTERACTIVE, null, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                this.resolve(ResumableEncryption.discard(outputFile));
+            }
+        });
+    }
+
+    /**
+     * Discards the unfinished resumable jobs of the outputs in the directory that haven't made
+     * progress for {@code maxAge} milliseconds. Resolves with the number of discarded jobs.
+     */
+    @ReactMethod
+    public void discardStaleResumableJobs(final String directoryPath, final double maxAge, Promise promise) {
+        final File directory = FS.getLocalFile(directoryPath);
+        if (directory == null || !directory.isDirectory()) {
+            promise.reject(
+                    "invalid_output_file",
+                    String.format("Expected a local directory, got '%s'", directoryPath)
+            );
+            return;
+        }
+
+        scheduler.submit(CryptoScheduler.Lane.INTERACTIVE, null, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                this.resolve(ResumableEncryption.discardStale(directory, (long) maxAge));
+            }
+        });
+    }
+
+    @ReactMethod
+    public void decryptFileSeekableWithKeyHandle(final String inputPath,
+                                                 String outputPath,
+                                                 String keyHandle,
+                                                 final String jobId,
+                                                 String lane,
+                                                 final int chunkSize,
+                                                 final boolean parallel,
+                                                 final Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        final String resolvedOutputPath;
+        if (outputPath == null) {
+            resolvedOutputPath = FS.getTempFilePath(FS.getFileExtension(inputPath));
+        } else {
+            resolvedOutputPath = outputPath;
+        }
+
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.BACKGROUND), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                boolean isOutputCreated = false;
+                boolean isWritten = false;
+                try (
+                        SeekableFile file = SeekableFile.open(getCrypto(), FS.getFileChannelFromPath(inputPath), privateKey);
+                        InputStream chunks = trackInputStream(this, jobId, file.openChunks(), FS.getFileSize(inputPath))
+                ) {
+                    // The last chunk is written out as the output is closed
+                    try (OutputStream outStream = FS.getOutputStreamFromPath(resolvedOutputPath, getChunkSize(chunkSize))) {
+                        isOutputCreated = true;
+                        file.decrypt(chunks, outStream, CHUNK_EXECUTOR, getParallelism(parallel));
+                    }
+                    isWritten = true;
+                    this.resolve(resolvedOutputPath);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (SeekableFile.FormatException e) {
+                    this.reject("invalid_input_file", e.getLocalizedMessage());
+                } catch (InvalidOutputFilePathException e) {
+                    this.reject("invalid_output_file", e.getLocalizedMessage());
+                } catch (DecryptionException e) {
+                    this.reject(
+                            "failed_to_decrypt",
+                            String.format("Could not decrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                } finally {
+                    // A failed or incomplete write leaves a truncated output
+                    if (isOutputCreated && !isWritten) {
+                        FS.deleteFile(resolvedOutputPath);
+                    }
+                }
+            }
+
+            @Override
+            protected void onCancelled() {
+                FS.deleteFile(resolvedOutputPath);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void decryptFileRangeWithKeyHandle(final String inputPath,
+                                              String keyHandle,
+                                              final double offset,
+                                              final int length,
+                                              final String jobId,
+                                              String lane,
+                                              final Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        // A range is usually needed right away, e.g. by a video player
+        scheduler.submit(getLane(lane, CryptoScheduler.Lane.INTERACTIVE), jobId, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                try (SeekableFile file = SeekableFile.open(getCrypto(), FS.getFileChannelFromPath(inputPath), privateKey)) {
+                    byte[] data = file.read((long) offset, length);
+                    WritableMap resultMap = Arguments.createMap();
+                    resultMap.putString("data", Encodings.encodeBase64(data));
+                    resultMap.putDouble("size", file.getSize());
+                    this.resolve(resultMap);
+                } catch (FileNotFoundException e) {
+                    this.reject(
+                            "invalid_input_file",
+                            String.format("File does not exist at path %s", inputPath)
+                    );
+                } catch (SeekableFile.FormatException e) {
+                    this.reject("invalid_input_file", e.getLocalizedMessage());
+                } catch (DecryptionException e) {
+                    this.reject(
+                            "failed_to_decrypt",
+                            String.format("Could not decrypt file; %s", e.getLocalizedMessage())
+                    );
+                } catch (IOException e) {
+                    this.reject("unexpected_error", e.getLocalizedMessage());
+                }
+            }
+        });
+    }
+
+    // Required by NativeEventEmitter, progress events are sent regardless of listeners
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    @ReactMethod
+    public void removeListeners(int count) {
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap cancelJob(String jobId) {
+        return ResponseFactory.createBooleanResponse(scheduler.cancel(jobId));
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getSchedulerStats() {
+        return ResponseFactory.createMapResponse(scheduler.getStats());
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getBufferPoolStats() {
+        return ResponseFactory.createMapResponse(ByteArrayPool.getStats());
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap configureScheduler(int interactiveThreads, int backgroundThreads, int queueCapacity) {
+        if (interactiveThreads < 1 || backgroundThreads < 1 || queueCapacity < 0) {
+            return ResponseFactory.createErrorResponse(
+                    new IllegalArgumentException("Thread counts must be positive and queue capacity must not be negative")
+            );
+        }
+        scheduler.configure(interactiveThreads, backgroundThreads, queueCapacity);
+        return ResponseFactory.createBooleanResponse(true);
+    }
+
+    @ReactMethod
+    public void encryptBatch(ReadableArray itemsBase64,
+                             ReadableArray recipientsBase64,
+                             final boolean enablePadding,
+                             Promise promise) {
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        } catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        this.runBatch(itemsBase64, new BatchOperation() {
+            @Override
+            public byte[] process(VirgilCrypto vc, byte[] data) throws CryptoException {
+                return vc.encrypt(data, publicKeys, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void decryptBatchWithKeyHandle(ReadableArray itemsBase64, String keyHandle, Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        this.runBatch(itemsBase64, new BatchOperation() {
+            @Override
+            public byte[] process(VirgilCrypto vc, byte[] data) throws CryptoException {
+                return vc.decrypt(data, privateKey);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void signThenEncryptBatchWithKeyHandle(ReadableArray itemsBase64,
+                                                  String keyHandle,
+                                                  ReadableArray recipientsBase64,
+                                                  final boolean enablePadding,
+                                                  Promise promise) {
+        final VirgilPrivateKey privateKey;
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+            publicKeys = this.decodeAndImportPublicKeys(recipientsBase64);
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        } catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        this.runBatch(itemsBase64, new BatchOperation() {
+            @Override
+            public byte[] process(VirgilCrypto vc, byte[] data) throws CryptoException {
+                return vc.signThenEncrypt(data, privateKey, publicKeys, enablePadding);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void decryptThenVerifyBatchWithKeyHandle(ReadableArray itemsBase64,
+                                                    String keyHandle,
+                                                    ReadableArray sendersPublicKeysBase64,
+                                                    Promise promise) {
+        final VirgilPrivateKey privateKey;
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+            publicKeys = this.decodeAndImportPublicKeys(sendersPublicKeysBase64);
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        } catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        this.runBatch(itemsBase64, new BatchOperation() {
+            @Override
+            public byte[] process(VirgilCrypto vc, byte[] data) throws CryptoException {
+                return vc.decryptThenVerify(data, privateKey, publicKeys);
+            }
+        }, promise);
+    }
+
+    @ReactMethod
+    public void generateSignaturesWithKeyHandle(ReadableArray itemsBase64, String keyHandle, Promise promise) {
+        final VirgilPrivateKey privateKey;
+        try {
+            privateKey = keyPairs.get(keyHandle).getPrivateKey();
+        } catch (HandleNotFoundException e) {
+            promise.reject("handle_not_found", e.getLocalizedMessage());
+            return;
+        }
+
+        this.runBatch(itemsBase64, new BatchOperation() {
+            @Override
+            public byte[] process(VirgilCrypto vc, byte[] data) throws CryptoException {
+                return vc.generateSignature(data, privateKey);
+            }
+        }, promise);
+    }
+
+    /**
+     * Verifies signature {@code i} of data {@code i} with public key {@code publicKeyIndexes[i]}.
+     * Each distinct public key is passed and imported once. Resolves with a base64 bitset,
+     * bit {@code i} (least significant bit first) is set when signature {@code i} is valid.
+     */
+    @ReactMethod
+    public void verifySignatures(ReadableArray signaturesBase64,
+                                 ReadableArray dataBase64,
+                                 ReadableArray publicKeyIndexes,
+                                 ReadableArray publicKeysBase64,
+                                 final Promise promise) {
+        final List<VirgilPublicKey> publicKeys;
+        try {
+            publicKeys = this.decodeAndImportPublicKeys(publicKeysBase64);
+        } catch (CryptoException e) {
+            promise.reject("invalid_public_key", "Public keys array contains invalid public keys");
+            return;
+        }
+
+        final int itemsCount = signaturesBase64.size();
+        final String[] signatures = new String[itemsCount];
+        final String[] items = new String[itemsCount];
+        final int[] keyIndexes = new int[itemsCount];
+        for (int i = 0; i < itemsCount; i++) {
+            signatures[i] = signaturesBase64.getString(i);
+            items[i] = dataBase64.getString(i);
+            keyIndexes[i] = publicKeyIndexes.getInt(i);
+        }
+
+        final boolean[] verified = new boolean[itemsCount];
+        this.runInChunks(itemsCount, new ChunkTask() {
+            @Override
+            public void run(VirgilCrypto vc, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        verified[i] = vc.verifySignature(
+                                Encodings.decodeBase64(signatures[i]),
+                                Encodings.decodeBase64(items[i]),
+                                publicKeys.get(keyIndexes[i])
+                        );
+                    } catch (CryptoException | RuntimeException e) {
+                        // Malformed signature is reported the same way as a wrong one
+                        verified[i] = false;
+                    }
+                }
+            }
+        }, new Completion(promise) {
+            @Override
+            protected Object getResult() {
+                byte[] bitset = new byte[(itemsCount + 7) / 8];
+                for (int i = 0; i < itemsCount; i++) {
+                    if (verified[i]) {
+                        bitset[i / 8] |= 1 << (i % 8);
+                    }
+                }
+                return Encodings.encodeBase64(bitset);
+            }
+        });
+    }
+
+    private interface BatchOperation {
+        byte[] process(VirgilCrypto vc, byte[] data) throws CryptoException;
+    }
+
+    private interface ChunkTask {
+        void run(VirgilCrypto vc, int from, int to);
+    }
+
+    /**
+     * Resolves the promise with a response ({@code result} or {@code error}) per item,
+     * in the order of the items.
+     */
+    private void runBatch(ReadableArray itemsBase64, final BatchOperation operation, final Promise promise) {
+        final int itemsCount = itemsBase64.size();
+        final String[] items = new String[itemsCount];
+        for (int i = 0; i < itemsCount; i++) {
+            items[i] = itemsBase64.getString(i);
+        }
+
+        final WritableMap[] responses = new WritableMap[itemsCount];
+        this.runInChunks(itemsCount, new ChunkTask() {
+            @Override
+            public void run(VirgilCrypto vc, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        byte[] result = operation.process(vc, Encodings.decodeBase64(items[i]));
+                        responses[i] = ResponseFactory.createStringResponse(Encodings.encodeBase64(result));
+                    } catch (CryptoException | RuntimeException e) {
+                        responses[i] = ResponseFactory.createErrorResponse(e);
+                    }
+                }
+            }
+        }, new Completion(promise) {
+            @Override
+            protected Object getResult() {
+                WritableArray results = Arguments.createArray();
+                for (WritableMap response : responses) {
+                    results.pushMap(response);
+                }
+                return results;
+            }
+        });
+    }
+
+    /**
+     * Resolves the promise of a chunked job with the result collected from the chunks.
+     */
+    private abstract static class Completion {
+        private final Promise promise;
+
+        Completion(Promise promise) {
+            this.promise = promise;
+        }
+
+        protected abstract Object getResult();
+    }
+
+    /**
+     * Splits {@code itemsCount} items into one chunk per interactive thread. The whole batch is
+     * a single scheduler job, it resolves once the last chunk is done.
+     */
+    private void runInChunks(final int itemsCount, final ChunkTask task, final Completion completion) {
+        scheduler.submit(CryptoScheduler.Lane.INTERACTIVE, null, new CryptoScheduler.Job(completion.promise) {
+            @Override
+            protected void execute() {
+                runChunks(itemsCount, task, this, completion);
+            }
+        });
+    }
+
+    private void runChunks(int itemsCount,
+                           final ChunkTask task,
+                           final CryptoScheduler.Job job,
+                           final Completion completion) {
+        if (itemsCount == 0) {
+            job.resolve(completion.getResult());
+            return;
+        }
+
+        int threadsCount = scheduler.getThreadsCount(CryptoScheduler.Lane.INTERACTIVE);
+        final int chunkSize = (itemsCount + threadsCount - 1) / threadsCount;
+        final AtomicInteger pendingChunks = new AtomicInteger((itemsCount + chunkSize - 1) / chunkSize);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int chunkStart = 0; chunkStart < itemsCount; chunkStart += chunkSize) {
+            final int from = chunkStart;
+            final int to = Math.min(chunkStart + chunkSize, itemsCount);
+            scheduler.execute(CryptoScheduler.Lane.INTERACTIVE, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // The random generator of VirgilCrypto isn't thread safe, the chunk uses the one of its thread
+                        task.run(getThreadCrypto(), from, to);
+                    } catch (Throwable e) {
+                        // Items handle their own errors, this is e.g. an OutOfMemoryError
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        // Decrement publishes the chunk's results to the thread running the completion
+                        if (pendingChunks.decrementAndGet() == 0) {
+                            Throwable e = failure.get();
+                            if (e != null) {
+                                job.reject("unexpected_error", e.toString());
+                            } else {
+                                job.resolve(completion.getResult());
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the task in the interactive lane and resolves the promise with the response map it builds.
+     */
+    static void resolveAsync(final Callable<WritableMap> task, final Promise promise) {
+        scheduler.submit(CryptoScheduler.Lane.INTERACTIVE, null, new CryptoScheduler.Job(promise) {
+            @Override
+            protected void execute() {
+                try {
+                    this.resolve(task.call());
+                } catch (Exception e) {
+                    this.resolve(ResponseFactory.createErrorResponse(e));
+                }
+            }
+        });
+    }
+
+    private InputStream openInputStream(CryptoScheduler.Job job,
+                                        final String jobId,
+                                        String inputPath,
+                                        int chunkSize,
+                                        boolean memoryMapped) throws IOException {
+        return openInputStream(job, jobId, inputPath, chunkSize, memoryMapped, false);
+    }
+
+    /**
+     * Opens the input file of a job, memory mapped or read ahead on an I/O thread if requested,
+     * see {@link #trackInputStream}. A mapped file is never read ahead, its pages are read
+     * on access anyway.
+     */
+    private InputStream openInputStream(CryptoScheduler.Job job,
+                                        final String jobId,
+                                        String inputPath,
+                                        int chunkSize,
+                                        boolean memoryMapped,
+                                        boolean pipelined) throws IOException {
+        InputStream inStream;
+        if (memoryMapped) {
+            inStream = FS.getMappedInputStreamFromPath(inputPath, FS.MAPPING_WINDOW_SIZE);
+        } else if (pipelined) {
+            inStream = FS.getPipelinedInputStreamFromPath(inputPath, getChunkSize(chunkSize), IO_EXECUTOR);
+        } else {
+            inStream = FS.getInputStreamFromPath(inputPath, getChunkSize(chunkSize));
+        }
+        return trackInputStream(job, jobId, inStream, FS.getFileSize(inputPath));
+    }
+
+    /**
+     * Opens the output file of a job, written behind the cipher on an I/O thread if requested.
+     * Either way the last chunk is written, and a failed write of a pipelined stream reported,
+     * only when the stream is closed, so a job must close it before it resolves.
+     */
+    private static OutputStream openOutputStream(String outputPath,
+                                                 int chunkSize,
+                                                 boolean pipelined) throws InvalidOutputFilePathException {
+        return pipelined
+                ? FS.getPipelinedOutputStreamFromPath(outputPath, getChunkSize(chunkSize), IO_EXECUTOR)
+                : FS.getOutputStreamFromPath(outputPath, getChunkSize(chunkSize));
+    }
+
+    /**
+     * Makes reading fail once the job is cancelled and, if the job has an id, reports the bytes
+     * read to JS with {@link #JOB_PROGRESS_EVENT}.
+     */
+    private InputStream trackInputStream(CryptoScheduler.Job job,
+                                         final String jobId,
+                                         InputStream inStream,
+                                         long totalBytes) {
+        if (jobId != null) {
+            inStream = new ProgressInputStream(inStream, totalBytes, new ProgressInputStream.Listener() {
+                @Override
+                public void onProgress(long bytesProcessed, long totalBytes, double megabytesPerSecond) {
+                    emitJobProgress(jobId, bytesProcessed, totalBytes, megabytesPerSecond);
+                }
+            });
+        }
+        return job.cancellable(inStream);
+    }
+
+    private void emitJobProgress(String jobId, long bytesProcessed, long totalBytes, double megabytesPerSecond) {
+        WritableMap eventMap = Arguments.createMap();
+        eventMap.putString("jobId", jobId);
+        eventMap.putDouble("bytesProcessed", bytesProcessed);
+        eventMap.putDouble("totalBytes", totalBytes);
+        eventMap.putDouble("megabytesPerSecond", megabytesPerSecond);
+        this.reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(JOB_PROGRESS_EVENT, eventMap);
+    }
+
+    private static CryptoScheduler.Lane getLane(String lane, CryptoScheduler.Lane defaultLane) {
+        return lane == null ? defaultLane : CryptoScheduler.Lane.valueOf(lane);
+    }
+
+    // JS passes 0 when no chunk size is given
+    private static int getChunkSize(int chunkSize) {
+        return chunkSize > 0 ? chunkSize : FS.DEFAULT_CHUNK_SIZE;
+    }
+
+    private static int getParallelism(boolean parallel) {
+        return parallel ? scheduler.getThreadsCount(CryptoScheduler.Lane.INTERACTIVE) : 1;
+    }
+
+    private VirgilCrypto getCrypto() {
+        return threadCrypto.get();
+    }
+
+    /**
+     * Crypto of the calling thread, for the other modules of the package.
+     */
+    static VirgilCrypto getThreadCrypto() {
+        return threadCrypto.get();
+    }
+
     private List<VirgilPublicKey> decodeAndImportPublicKeys(ReadableArray publicKeysBase64) throws CryptoException {
         List<VirgilPublicKey> publicKeys = new ArrayList<>(publicKeysBase64.size());
-        for(Object publicKeyBase64 : publicKeysBase64.toArrayList()) {
-            publicKeys.add(this.crypto.importPublicKey(Encodings.decodeBase64((String)publicKeyBase64)));
+        for (int i = 0; i < publicKeysBase64.size(); i++) {
+            publicKeys.add(publicKeyCache.importPublicKey(this.getCrypto(), Encodings.decodeBase64(publicKeysBase64.getString(i))));
         }
         return publicKeys;
     }
 
     private WritableMap exportAndEncodeKeyPair(VirgilKeyPair keypair) throws CryptoException {
         VirgilPrivateKey privateKey = keypair.getPrivateKey();
-        final byte[] privateKeyData = this.crypto.exportPrivateKey(privateKey);
-        final byte[] publicKeyData = this.crypto.exportPublicKey(keypair.getPublicKey());
+        final byte[] privateKeyData = this.getCrypto().exportPrivateKey(privateKey);
+        final byte[] publicKeyData = this.getCrypto().exportPublicKey(keypair.getPublicKey());
         WritableMap keypairMap = Arguments.createMap();
         keypairMap.putString("privateKey", Encodings.encodeBase64(privateKeyData));
         keypairMap.putString("publicKey", Encodings.encodeBase64(publicKeyData));
+        // The identifier doubles as the key handle. Generated keys aren't registered, so generating
+        // many of them doesn't evict imported ones; a key is registered on its first use instead.
         keypairMap.putString("identifier", Encodings.encodeBase64(privateKey.getIdentifier()));
         return keypairMap;
     }
 
-    private byte[] concatByteArrays(byte[] a, byte[] b) {
-        byte[] destination = new byte[a.length + b.length];
-        System.arraycopy(a, 0, destination, 0, a.length);
-        System.arraycopy(b, 0, destination, a.length, b.length);
-        return destination;
+    private String registerKeyPair(VirgilKeyPair keypair) {
+        String keyHandle = Encodings.encodeBase64(keypair.getPrivateKey().getIdentifier());
+        keyPairs.put(keyHandle, keypair);
+        return keyHandle;
     }
 }
\ No newline at end of file
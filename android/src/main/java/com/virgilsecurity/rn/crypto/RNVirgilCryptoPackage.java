@@ -17,7 +17,8 @@ public class RNVirgilCryptoPackage implements ReactPackage {
       return Arrays.<NativeModule>asList(
               new RNVirgilCryptoModule(reactContext),
               new RNVirgilBrainKeyCryptoModule(reactContext),
-              new RNVirgilGroupSessionModule(reactContext)
+              new RNVirgilGroupSessionModule(reactContext),
+              new RNVirgilCryptoStreamsModule(reactContext)
       );
     }
 
@@ -0,0 +1,496 @@
+package com.virgilsecurity.rn.crypto;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.virgilsecurity.crypto.foundation.FoundationException;
+import com.virgilsecurity.crypto.foundation.Hash;
+import com.virgilsecurity.crypto.foundation.PrivateKey;
+import com.virgilsecurity.crypto.foundation.RecipientCipher;
+import com.virgilsecurity.crypto.foundation.Sha512;
+import com.virgilsecurity.crypto.foundation.Signer;
+import com.virgilsecurity.crypto.foundation.Verifier;
+import com.virgilsecurity.sdk.crypto.HashAlgorithm;
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+import com.virgilsecurity.sdk.crypto.VirgilPrivateKey;
+import com.virgilsecurity.sdk.crypto.VirgilPublicKey;
+import com.virgilsecurity.sdk.crypto.exceptions.CryptoException;
+import com.virgilsecurity.sdk.crypto.exceptions.VerificationException;
+import com.virgilsecurity.rn.crypto.utils.CipherPool;
+import com.virgilsecurity.rn.crypto.utils.Encodings;
+import com.virgilsecurity.rn.crypto.utils.HandleNotFoundException;
+import com.virgilsecurity.rn.crypto.utils.HandleRegistry;
+import com.virgilsecurity.rn.crypto.utils.Hashes;
+import com.virgilsecurity.rn.crypto.utils.ResponseFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Streams that process data chunk by chunk as JS produces it, so the whole payload never has to be
+ * held in memory. JS refers to a stream by handle until it's finished or aborted.
+ */
+public class RNVirgilCryptoStreamsModule extends ReactContextBaseJavaModule {
+    // Streams that are not used for a while are dropped, e.g. when JS loses the stream object
+    private static final int STREAMS_CAPACITY = 32;
+    private static final long STREAM_MAX_IDLE_MILLIS = 5 * 60 * 1000;
+    public static final HandleRegistry<EncryptStream> encryptStreams = new HandleRegistry<>(
+            STREAMS_CAPACITY,
+            STREAM_MAX_IDLE_MILLIS,
+            new HandleRegistry.EvictionListener<EncryptStream>() {
+                @Override
+                public void onEvicted(EncryptStream stream) {
+                    // Gives the cipher pool entry and the signer back, as finishing or aborting does
+                    stream.close();
+                }
+            }
+    );
+    public static final HandleRegistry<DecryptStream> decryptStreams = new HandleRegistry<>(
+            STREAMS_CAPACITY,
+            STREAM_MAX_IDLE_MILLIS,
+            new HandleRegistry.EvictionListener<DecryptStream>() {
+                @Override
+                public void onEvicted(DecryptStream stream) {
+                    // Frees the cipher and the verifiers, as finishing or aborting does
+                    stream.close();
+                }
+            }
+    );
+    public static final HandleRegistry<Hash> hashes = new HandleRegistry<>(
+            STREAMS_CAPACITY,
+            STREAM_MAX_IDLE_MILLIS,
+            new HandleRegistry.EvictionListener<Hash>() {
+                @Override
+                public void onEvicted(Hash hash) {
+                    synchronized (hash) {
+                        Hashes.close(hash);
+                    }
+                }
+            }
+    );
+
+    public RNVirgilCryptoStreamsModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public String getName() {
+        return "RNVirgilCryptoStreams";
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap createEncryptStream(ReadableArray recipientsBase64, String signingKeyHandle, boolean enablePadding) {
+        try {
+            VirgilPublicKey[] publicKeys = importPublicKeys(recipientsBase64);
+            PrivateKey signingKey = signingKeyHandle == null
+                    ? null
+                    : RNVirgilCryptoModule.keyPairs.get(signingKeyHandle).getPrivateKey().getPrivateKey();
+
+            String streamHandle = UUID.randomUUID().toString();
+            encryptStreams.put(streamHandle, new EncryptStream(publicKeys, signingKey, enablePadding));
+            return ResponseFactory.createStringResponse(streamHandle);
+        } catch (CryptoException | FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap updateEncryptStream(String streamHandle, String dataBase64) {
+        try {
+            byte[] encryptedData = encryptStreams.get(streamHandle).update(Encodings.decodeBase64(dataBase64));
+            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedData));
+        } catch (FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void updateEncryptStreamAsync(final String streamHandle, final String dataBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return updateEncryptStream(streamHandle, dataBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap finishEncryptStream(String streamHandle) {
+        try {
+            EncryptStream stream = encryptStreams.get(streamHandle);
+            encryptStreams.release(streamHandle);
+            try {
+                return ResponseFactory.createMapResponse(stream.finish());
+            } finally {
+                stream.close();
+            }
+        } catch (FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void finishEncryptStreamAsync(final String streamHandle, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return finishEncryptStream(streamHandle);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap abortEncryptStream(String streamHandle) {
+        try {
+            EncryptStream stream = encryptStreams.get(streamHandle);
+            encryptStreams.release(streamHandle);
+            stream.close();
+            return ResponseFactory.createBooleanResponse(true);
+        } catch (HandleNotFoundException e) {
+            return ResponseFactory.createBooleanResponse(false);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap createDecryptStream(String keyHandle,
+                                           String messageInfoBase64,
+                                           ReadableArray verifyingPublicKeysBase64,
+                                           String signatureBase64) {
+        try {
+            VirgilPrivateKey privateKey = RNVirgilCryptoModule.keyPairs.get(keyHandle).getPrivateKey();
+            byte[] messageInfo = messageInfoBase64 == null ? new byte[0] : Encodings.decodeBase64(messageInfoBase64);
+            byte[] signature = signatureBase64 == null ? null : Encodings.decodeBase64(signatureBase64);
+
+            String streamHandle = UUID.randomUUID().toString();
+            decryptStreams.put(
+                    streamHandle,
+                    new DecryptStream(privateKey, messageInfo, importPublicKeys(verifyingPublicKeysBase64), signature)
+            );
+            return ResponseFactory.createStringResponse(streamHandle);
+        } catch (CryptoException | FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap updateDecryptStream(String streamHandle, String dataBase64) {
+        try {
+            byte[] decryptedData = decryptStreams.get(streamHandle).update(Encodings.decodeBase64(dataBase64));
+            return ResponseFactory.createStringResponse(Encodings.encodeBase64(decryptedData));
+        } catch (VerificationException | FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void updateDecryptStreamAsync(final String streamHandle, final String dataBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return updateDecryptStream(streamHandle, dataBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap finishDecryptStream(String streamHandle) {
+        try {
+            DecryptStream stream = decryptStreams.get(streamHandle);
+            decryptStreams.release(streamHandle);
+            try {
+                return ResponseFactory.createStringResponse(Encodings.encodeBase64(stream.finish()));
+            } finally {
+                stream.close();
+            }
+        } catch (VerificationException | FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void finishDecryptStreamAsync(final String streamHandle, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return finishDecryptStream(streamHandle);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap abortDecryptStream(String streamHandle) {
+        try {
+            DecryptStream stream = decryptStreams.get(streamHandle);
+            decryptStreams.release(streamHandle);
+            stream.close();
+            return ResponseFactory.createBooleanResponse(true);
+        } catch (HandleNotFoundException e) {
+            return ResponseFactory.createBooleanResponse(false);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap createHash(String algorithm) {
+        String hashHandle = UUID.randomUUID().toString();
+        hashes.put(hashHandle, Hashes.start(HashAlgorithm.valueOf(algorithm)));
+        return ResponseFactory.createStringResponse(hashHandle);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap updateHash(String hashHandle, String dataBase64) {
+        try {
+            Hash hash = hashes.get(hashHandle);
+            synchronized (hash) {
+                hash.update(Encodings.decodeBase64(dataBase64));
+            }
+            return ResponseFactory.createBooleanResponse(true);
+        } catch (HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void updateHashAsync(final String hashHandle, final String dataBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return updateHash(hashHandle, dataBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap digestHash(String hashHandle) {
+        try {
+            Hash hash = hashes.get(hashHandle);
+            hashes.release(hashHandle);
+            synchronized (hash) {
+                try {
+                    return ResponseFactory.createStringResponse(Encodings.encodeBase64(hash.finish()));
+                } finally {
+                    Hashes.close(hash);
+                }
+            }
+        } catch (HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap abortHash(String hashHandle) {
+        try {
+            Hash hash = hashes.get(hashHandle);
+            hashes.release(hashHandle);
+            synchronized (hash) {
+                Hashes.close(hash);
+            }
+            return ResponseFactory.createBooleanResponse(true);
+        } catch (HandleNotFoundException e) {
+            return ResponseFactory.createBooleanResponse(false);
+        }
+    }
+
+    private static VirgilPublicKey[] importPublicKeys(ReadableArray publicKeysBase64) throws CryptoException {
+        VirgilPublicKey[] publicKeys = new VirgilPublicKey[publicKeysBase64.size()];
+        for (int i = 0; i < publicKeys.length; i++) {
+            publicKeys[i] = RNVirgilCryptoModule.publicKeyCache.importPublicKey(
+                    RNVirgilCryptoModule.getThreadCrypto(),
+                    Encodings.decodeBase64(publicKeysBase64.getString(i))
+            );
+        }
+        return publicKeys;
+    }
+
+    /**
+     * Encrypts the data for the recipients chunk by chunk. The message info goes before the first
+     * encrypted chunk, so the outputs put together are the same as the output of
+     * {@link VirgilCrypto#encrypt}. If a signing key is given, the plaintext is signed as it goes
+     * and the signature is returned by {@link #finish()}.
+     * Chunks of the same stream may come from different worker threads, so the methods are
+     * synchronized and the stream holds a {@link CipherPool} entry, random generator included,
+     * until it's closed.
+     */
+    static final class EncryptStream implements AutoCloseable {
+        private final CipherPool.Entry entry;
+        private final RecipientCipher cipher;
+        private final Signer signer;
+        private final PrivateKey signingKey;
+        private byte[] messageInfo;
+        private boolean isClosed;
+
+        EncryptStream(VirgilPublicKey[] publicKeys, PrivateKey signingKey, boolean enablePadding) {
+            this.entry = CipherPool.acquire(enablePadding);
+            this.cipher = this.entry.getCipher();
+
+            for (VirgilPublicKey publicKey : publicKeys) {
+                this.cipher.addKeyRecipient(publicKey.getIdentifier(), publicKey.getPublicKey());
+            }
+
+            this.signingKey = signingKey;
+            if (signingKey != null) {
+                this.signer = new Signer();
+                this.signer.setRandom(this.entry.getRandom());
+                this.signer.setHash(new Sha512());
+                this.signer.reset();
+            } else {
+                this.signer = null;
+            }
+
+            this.cipher.startEncryption();
+            this.messageInfo = this.cipher.packMessageInfo();
+        }
+
+        synchronized byte[] update(byte[] data) {
+            if (this.signer != null) {
+                this.signer.appendData(data);
+            }
+            return this.withMessageInfo(this.cipher.processEncryption(data));
+        }
+
+        synchronized WritableMap finish() {
+            WritableMap resultMap = Arguments.createMap();
+            resultMap.putString("encryptedData", Encodings.encodeBase64(this.withMessageInfo(this.cipher.finishEncryption())));
+            if (this.signer != null) {
+                resultMap.putString("signature", Encodings.encodeBase64(this.signer.sign(this.signingKey)));
+            }
+            this.entry.recycle();
+            return resultMap;
+        }
+
+        private byte[] withMessageInfo(byte[] encryptedData) {
+            if (this.messageInfo == null) {
+                return encryptedData;
+            }
+            byte[] result = new byte[this.messageInfo.length + encryptedData.length];
+            System.arraycopy(this.messageInfo, 0, result, 0, this.messageInfo.length);
+            System.arraycopy(encryptedData, 0, result, this.messageInfo.length, encryptedData.length);
+            this.messageInfo = null;
+            return result;
+        }
+
+        @Override
+        public synchronized void close() {
+            // A stream evicted from the registry may still be closed by a call that got it just before
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            if (this.signer != null) {
+                this.signer.close();
+            }
+            this.entry.close();
+        }
+    }
+
+    /**
+     * Decrypts the data chunk by chunk. The message info is either given upfront, e.g. the metadata
+     * of {@code signThenEncryptDetached}, or read from the beginning of the data.
+     * If verifying keys are given, the plaintext is verified as it goes and {@link #finish()} fails
+     * unless the signature is valid. The signature is either given upfront, e.g. the one returned by
+     * an encrypt stream, or taken from the message info as {@link VirgilCrypto#decryptThenVerify} does.
+     * Plaintext chunks are returned before the signature is checked, so they must not be trusted
+     * until the stream is finished.
+     */
+    static final class DecryptStream implements AutoCloseable {
+        private final RecipientCipher cipher = new RecipientCipher();
+        private final VirgilPublicKey[] verifyingKeys;
+        private final byte[] signature;
+        private final List<Verifier> verifiers = new ArrayList<>();
+        private final List<VirgilPublicKey> signerKeys = new ArrayList<>();
+        private boolean isVerificationStarted;
+        private boolean isClosed;
+
+        DecryptStream(VirgilPrivateKey privateKey, byte[] messageInfo, VirgilPublicKey[] verifyingKeys, byte[] signature) {
+            this.verifyingKeys = verifyingKeys;
+            this.signature = signature;
+            this.cipher.startDecryptionWithKey(privateKey.getIdentifier(), privateKey.getPrivateKey(), messageInfo);
+        }
+
+        synchronized byte[] update(byte[] data) throws VerificationException {
+            byte[] decryptedData = this.cipher.processDecryption(data);
+            // The message info is parsed by the time the first plaintext comes out
+            if (decryptedData.length > 0) {
+                this.appendToVerifiers(decryptedData);
+            }
+            return decryptedData;
+        }
+
+        synchronized byte[] finish() throws VerificationException {
+            byte[] decryptedData = this.cipher.finishDecryption();
+            this.appendToVerifiers(decryptedData);
+
+            if (this.verifyingKeys.length == 0) {
+                return decryptedData;
+            }
+            for (int i = 0; i < this.verifiers.size(); i++) {
+                if (this.verifiers.get(i).verify(this.signerKeys.get(i).getPublicKey())) {
+                    return decryptedData;
+                }
+            }
+            throw new VerificationException("Signature verification failed");
+        }
+
+        private void appendToVerifiers(byte[] decryptedData) throws VerificationException {
+            if (this.verifyingKeys.length == 0) {
+                return;
+            }
+            if (!this.isVerificationStarted) {
+                this.startVerification();
+            }
+            for (Verifier verifier : this.verifiers) {
+                verifier.appendData(decryptedData);
+            }
+        }
+
+        private void startVerification() throws VerificationException {
+            this.isVerificationStarted = true;
+            byte[] signature = this.signature;
+            if (signature != null) {
+                // No signer id comes with a detached signature, so any of the keys may match
+                this.signerKeys.addAll(Arrays.asList(this.verifyingKeys));
+            } else {
+                byte[] signerId;
+                try {
+                    signature = this.cipher.customParams().findData(VirgilCrypto.CUSTOM_PARAM_SIGNATURE);
+                    signerId = this.cipher.customParams().findData(VirgilCrypto.CUSTOM_PARAM_SIGNER_ID);
+                } catch (FoundationException e) {
+                    throw new VerificationException("Data is not signed");
+                }
+                for (VirgilPublicKey publicKey : this.verifyingKeys) {
+                    if (Arrays.equals(publicKey.getIdentifier(), signerId)) {
+                        this.signerKeys.add(publicKey);
+                        break;
+                    }
+                }
+                if (this.signerKeys.isEmpty()) {
+                    throw new VerificationException("Signer public key is not found");
+                }
+            }
+            for (int i = 0; i < this.signerKeys.size(); i++) {
+                Verifier verifier = new Verifier();
+                this.verifiers.add(verifier);
+                verifier.reset(signature);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            // A stream evicted from the registry may still be closed by a call that got it just before
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            for (Verifier verifier : this.verifiers) {
+                verifier.close();
+            }
+            this.cipher.close();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.virgilsecurity.rn.crypto;
 
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
@@ -14,13 +15,23 @@ import com.virgilsecurity.crypto.foundation.GroupSessionTicket;
 import com.virgilsecurity.crypto.foundation.KeyProvider;
 import com.virgilsecurity.crypto.foundation.PrivateKey;
 import com.virgilsecurity.crypto.foundation.PublicKey;
+import com.virgilsecurity.sdk.crypto.VirgilKeyPair;
+import com.virgilsecurity.sdk.crypto.exceptions.CryptoException;
 import com.virgilsecurity.rn.crypto.utils.Encodings;
+import com.virgilsecurity.rn.crypto.utils.HandleNotFoundException;
+import com.virgilsecurity.rn.crypto.utils.HandleRegistry;
 import com.virgilsecurity.rn.crypto.utils.ResponseFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 public class RNVirgilGroupSessionModule extends ReactContextBaseJavaModule {
+    // Live sessions that JS refers to by handle, dropped when not used for a while
+    private static final int SESSIONS_CAPACITY = 32;
+    private static final long SESSION_MAX_IDLE_MILLIS = 5 * 60 * 1000;
+    public static final HandleRegistry<GroupSession> sessions = new HandleRegistry<>(SESSIONS_CAPACITY, SESSION_MAX_IDLE_MILLIS);
+
     private final ReactApplicationContext reactContext;
     private final CtrDrbg rng;
     private final KeyProvider keyProvider;
@@ -43,14 +54,28 @@ public class RNVirgilGroupSessionModule extends ReactContextBaseJavaModule {
     public WritableMap encrypt(String dataBase64, String signingKeyBase64, ReadableArray epochMessagesBase64) {
         try {
             PrivateKey privateKey = this.keyProvider.importPrivateKey(Encodings.decodeBase64(signingKeyBase64));
-            GroupSession session = this.createSession(epochMessagesBase64);
-            GroupSessionMessage encryptedMessage = session.encrypt(Encodings.decodeBase64(dataBase64), privateKey);
-            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedMessage.serialize()));
+            return this.encrypt(dataBase64, privateKey, epochMessagesBase64);
         } catch (FoundationException e) {
             return ResponseFactory.createErrorResponse(e);
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap encryptWithKeyHandle(String dataBase64, String signingKeyHandle, ReadableArray epochMessagesBase64) {
+        try {
+            VirgilKeyPair keypair = RNVirgilCryptoModule.keyPairs.get(signingKeyHandle);
+            return this.encrypt(dataBase64, keypair.getPrivateKey().getPrivateKey(), epochMessagesBase64);
+        } catch (FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    private WritableMap encrypt(String dataBase64, PrivateKey privateKey, ReadableArray epochMessagesBase64) throws FoundationException {
+        GroupSession session = this.createSession(epochMessagesBase64);
+        GroupSessionMessage encryptedMessage = session.encrypt(Encodings.decodeBase64(dataBase64), privateKey);
+        return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedMessage.serialize()));
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap decrypt(String encryptedMessageBase64, String verifyingKeyBase64, ReadableArray epochMessagesBase64) {
         try {
@@ -77,6 +102,117 @@ public class RNVirgilGroupSessionModule extends ReactContextBaseJavaModule {
         }
     }
 
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap openSession(ReadableArray epochMessagesBase64) {
+        try {
+            GroupSession session = this.createSession(epochMessagesBase64);
+            return ResponseFactory.createStringResponse(registerSession(session));
+        } catch (FoundationException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void openSessionAsync(final ReadableArray epochMessagesBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return openSession(epochMessagesBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap closeSession(String sessionHandle) {
+        return ResponseFactory.createBooleanResponse(sessions.release(sessionHandle));
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap encryptWithSession(String sessionHandle, String dataBase64, String signingKeyHandle) {
+        try {
+            GroupSession session = sessions.get(sessionHandle);
+            VirgilKeyPair keypair = RNVirgilCryptoModule.keyPairs.get(signingKeyHandle);
+            GroupSessionMessage encryptedMessage;
+            synchronized (session) {
+                encryptedMessage = session.encrypt(
+                        Encodings.decodeBase64(dataBase64),
+                        keypair.getPrivateKey().getPrivateKey()
+                );
+            }
+            return ResponseFactory.createStringResponse(Encodings.encodeBase64(encryptedMessage.serialize()));
+        } catch (FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void encryptWithSessionAsync(final String sessionHandle, final String dataBase64, final String signingKeyHandle, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return encryptWithSession(sessionHandle, dataBase64, signingKeyHandle);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap decryptWithSession(String sessionHandle, String encryptedMessageBase64, String verifyingKeyBase64) {
+        try {
+            GroupSession session = sessions.get(sessionHandle);
+            PublicKey publicKey = RNVirgilCryptoModule.publicKeyCache
+                    .importPublicKey(RNVirgilCryptoModule.getThreadCrypto(), Encodings.decodeBase64(verifyingKeyBase64))
+                    .getPublicKey();
+            GroupSessionMessage encryptedMessage = GroupSessionMessage.deserialize(Encodings.decodeBase64(encryptedMessageBase64));
+            byte[] decrypted;
+            synchronized (session) {
+                decrypted = session.decrypt(encryptedMessage, publicKey);
+            }
+            return ResponseFactory.createStringResponse(Encodings.encodeBase64(decrypted));
+        } catch (CryptoException | FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void decryptWithSessionAsync(final String sessionHandle, final String encryptedMessageBase64, final String verifyingKeyBase64, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return decryptWithSession(sessionHandle, encryptedMessageBase64, verifyingKeyBase64);
+            }
+        }, promise);
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap addNewEpochWithSession(String sessionHandle) {
+        try {
+            GroupSession session = sessions.get(sessionHandle);
+            GroupSessionMessage epochMessage;
+            synchronized (session) {
+                GroupSessionTicket epochTicket = session.createGroupTicket();
+                epochMessage = epochTicket.getTicketMessage();
+                session.addEpoch(epochMessage);
+            }
+            // The handle names the epoch, so the session moves to a new one
+            sessions.release(sessionHandle);
+            WritableMap messageMap = this.groupSessionMessageToDictionary(epochMessage);
+            messageMap.putString("handle", registerSession(session));
+            return ResponseFactory.createMapResponse(messageMap);
+        } catch (FoundationException | HandleNotFoundException e) {
+            return ResponseFactory.createErrorResponse(e);
+        }
+    }
+
+    @ReactMethod
+    public void addNewEpochWithSessionAsync(final String sessionHandle, final Promise promise) {
+        RNVirgilCryptoModule.resolveAsync(new Callable<WritableMap>() {
+            @Override
+            public WritableMap call() {
+                return addNewEpochWithSession(sessionHandle);
+            }
+        }, promise);
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap parseMessage(String messageBase64) {
         try {
@@ -99,6 +235,27 @@ public class RNVirgilGroupSessionModule extends ReactContextBaseJavaModule {
         return messageMap;
     }
 
+    /**
+     * Registers the session under a handle made of its id and current epoch, so JS objects holding
+     * different epochs of the same session never share state.
+     * Registered sessions may be used from the worker pool, so each one gets a random generator
+     * of its own instead of the module one.
+     */
+    static String registerSession(GroupSession session) {
+        CtrDrbg sessionRng = new CtrDrbg();
+        sessionRng.setupDefaults();
+        synchronized (session) {
+            session.setRng(sessionRng);
+        }
+        String sessionHandle = String.format(
+                "%s:%d",
+                Encodings.encodeBase64(session.getSessionId()),
+                session.getCurrentEpoch()
+        );
+        sessions.put(sessionHandle, session);
+        return sessionHandle;
+    }
+
     private GroupSession createSession(ReadableArray epochMessagesBase64) throws FoundationException {
         List<GroupSessionMessage> epochMessages = new ArrayList<>(epochMessagesBase64.size());
         for(Object epochMessageBase64 : epochMessagesBase64.toArrayList()) {
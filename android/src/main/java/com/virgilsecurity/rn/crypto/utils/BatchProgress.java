@@ -0,0 +1,82 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import android.os.SystemClock;
+
+/**
+ * Adds up the progress of the files of a batch job, which are read on several threads at once,
+ * and reports the sum at most once per {@link ProgressInputStream#REPORT_INTERVAL_MILLIS},
+ * plus once per processed file. The throughput is that of the whole batch since it started.
+ */
+public final class BatchProgress {
+    public interface Listener {
+        void onProgress(long bytesProcessed,
+                        long totalBytes,
+                        int filesProcessed,
+                        int totalFiles,
+                        double megabytesPerSecond);
+    }
+
+    private static final double BYTES_IN_MEGABYTE = 1024 * 1024;
+
+    private final long totalBytes;
+    private final int totalFiles;
+    private final Listener listener;
+    private final long startedAt;
+    private long bytesProcessed;
+    private int filesProcessed;
+    private long reportedAt;
+
+    /**
+     * @param totalBytes Size of all files, -1 if the size of any of them is unknown.
+     */
+    public BatchProgress(long totalBytes, int totalFiles, Listener listener) {
+        this.totalBytes = totalBytes;
+        this.totalFiles = totalFiles;
+        this.listener = listener;
+        this.startedAt = SystemClock.elapsedRealtime();
+        this.reportedAt = this.startedAt;
+    }
+
+    /**
+     * Returns a listener for the {@link ProgressInputStream} of one file of the batch.
+     */
+    public ProgressInputStream.Listener fileListener() {
+        return new ProgressInputStream.Listener() {
+            private long reportedBytes;
+
+            @Override
+            public void onProgress(long bytesProcessed, long totalBytes, double megabytesPerSecond) {
+                addBytes(bytesProcessed - this.reportedBytes);
+                this.reportedBytes = bytesProcessed;
+            }
+        };
+    }
+
+    public synchronized void fileProcessed() {
+        this.filesProcessed++;
+        this.report(SystemClock.elapsedRealtime());
+    }
+
+    private synchronized void addBytes(long count) {
+        this.bytesProcessed += count;
+        long now = SystemClock.elapsedRealtime();
+        if (now - this.reportedAt >= ProgressInputStream.REPORT_INTERVAL_MILLIS) {
+            this.report(now);
+        }
+    }
+
+    private void report(long now) {
+        this.reportedAt = now;
+        long elapsedMillis = now - this.startedAt;
+        double megabytesPerSecond = elapsedMillis == 0
+                ? 0
+                : this.bytesProcessed / BYTES_IN_MEGABYTE / (elapsedMillis / 1000.0);
+        this.listener.onProgress(
+                this.bytesProcessed,
+                this.totalBytes,
+                this.filesProcessed,
+                this.totalFiles,
+                megabytesPerSecond
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Direct buffers of file jobs. Allocating a direct buffer is expensive and its memory is only
+ * freed by GC, so buffers are returned to the pool when a job is done and reused by the next one.
+ * Only a few buffers of each size are kept, the rest are left to GC.
+ */
+public final class BufferPool {
+    private static final int MAX_POOLED_PER_SIZE = 4;
+
+    private static final ConcurrentHashMap<Integer, ConcurrentLinkedQueue<ByteBuffer>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a cleared direct buffer with the given capacity.
+     */
+    public static ByteBuffer acquire(int capacity) {
+        ByteBuffer buffer = getPool(capacity).poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool. The buffer must not be used afterwards.
+     */
+    public static void release(ByteBuffer buffer) {
+        ConcurrentLinkedQueue<ByteBuffer> pool = getPool(buffer.capacity());
+        // The size check is racy, so the pool may briefly hold a buffer or two more than the limit
+        if (pool.size() < MAX_POOLED_PER_SIZE) {
+            pool.offer(buffer);
+        }
+    }
+
+    private static ConcurrentLinkedQueue<ByteBuffer> getPool(int capacity) {
+        ConcurrentLinkedQueue<ByteBuffer> pool = pools.get(capacity);
+        if (pool == null) {
+            ConcurrentLinkedQueue<ByteBuffer> newPool = new ConcurrentLinkedQueue<>();
+            pool = pools.putIfAbsent(capacity, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,127 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scratch byte arrays of the hot paths: base64 coding, the detached methods and the chunks of
+ * seekable files being encrypted. Arrays come in power of two size classes from 1 KB to 16 MB, so an acquired
+ * array may be longer than requested. Each thread keeps one array per class up to 1 MB, an array
+ * that finds the slot of its thread taken goes to a small pool shared by all threads, e.g. a chunk
+ * read on a job thread and released by the thread that encrypted it. Longer arrays aren't pooled.
+ *
+ * Arrays the hot paths hand over to the SDK or to JS must have an exact size and are allocated
+ * with {@link #allocate(int)}, so the counters cover every array the hot paths allocate.
+ */
+public final class ByteArrayPool {
+    private static final int MIN_CLASS_SHIFT = 10;
+    private static final int MAX_LOCAL_CLASS_SHIFT = 20;
+    private static final int MAX_CLASS_SHIFT = 24;
+    private static final int MAX_SHARED_PER_CLASS = 4;
+
+    private static final ThreadLocal<byte[][]> localArrays = new ThreadLocal<byte[][]>() {
+        @Override
+        protected byte[][] initialValue() {
+            return new byte[MAX_LOCAL_CLASS_SHIFT - MIN_CLASS_SHIFT + 1][];
+        }
+    };
+    private static final List<ConcurrentLinkedQueue<byte[]>> sharedArrays = new ArrayList<>();
+    static {
+        for (int shift = MIN_CLASS_SHIFT; shift <= MAX_CLASS_SHIFT; shift++) {
+            sharedArrays.add(new ConcurrentLinkedQueue<byte[]>());
+        }
+    }
+
+    private static final AtomicLong allocations = new AtomicLong();
+    private static final AtomicLong allocatedBytes = new AtomicLong();
+    private static final AtomicLong reuses = new AtomicLong();
+
+    private ByteArrayPool() {
+    }
+
+    /**
+     * Returns an array of at least {@code minLength} bytes with undefined content.
+     */
+    public static byte[] acquire(int minLength) {
+        int sizeClass = getSizeClass(minLength);
+        if (sizeClass < 0) {
+            return allocate(minLength);
+        }
+        byte[] array = null;
+        if (sizeClass <= MAX_LOCAL_CLASS_SHIFT - MIN_CLASS_SHIFT) {
+            byte[][] local = localArrays.get();
+            array = local[sizeClass];
+            local[sizeClass] = null;
+        }
+        if (array == null) {
+            array = sharedArrays.get(sizeClass).poll();
+        }
+        if (array == null) {
+            return allocate(1 << (sizeClass + MIN_CLASS_SHIFT));
+        }
+        reuses.incrementAndGet();
+        return array;
+    }
+
+    /**
+     * Returns the array to the pool, arrays that don't fit a size class are left to GC.
+     * The array must not be used afterwards.
+     */
+    public static void release(byte[] array) {
+        int sizeClass = getSizeClass(array.length);
+        if (sizeClass < 0 || array.length != 1 << (sizeClass + MIN_CLASS_SHIFT)) {
+            return;
+        }
+        if (sizeClass <= MAX_LOCAL_CLASS_SHIFT - MIN_CLASS_SHIFT) {
+            byte[][] local = localArrays.get();
+            if (local[sizeClass] == null) {
+                local[sizeClass] = array;
+                return;
+            }
+        }
+        ConcurrentLinkedQueue<byte[]> shared = sharedArrays.get(sizeClass);
+        // The size check is racy, so the pool may briefly hold an array or two more than the limit
+        if (shared.size() < MAX_SHARED_PER_CLASS) {
+            shared.offer(array);
+        }
+    }
+
+    /**
+     * Returns true if arrays acquired for {@code length} bytes are exactly that long.
+     */
+    public static boolean isSizeClass(int length) {
+        int sizeClass = getSizeClass(length);
+        return sizeClass >= 0 && length == 1 << (sizeClass + MIN_CLASS_SHIFT);
+    }
+
+    /**
+     * Allocates an array of exactly {@code length} bytes, counting it.
+     */
+    public static byte[] allocate(int length) {
+        allocations.incrementAndGet();
+        allocatedBytes.addAndGet(length);
+        return new byte[length];
+    }
+
+    public static WritableMap getStats() {
+        WritableMap statsMap = Arguments.createMap();
+        statsMap.putDouble("allocations", allocations.get());
+        statsMap.putDouble("allocatedBytes", allocatedBytes.get());
+        statsMap.putDouble("reuses", reuses.get());
+        return statsMap;
+    }
+
+    // Index of the smallest class that fits the length, -1 if it doesn't fit any
+    private static int getSizeClass(int length) {
+        if (length > 1 << MAX_CLASS_SHIFT) {
+            return -1;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+        return Math.max(shift, MIN_CLASS_SHIFT) - MIN_CLASS_SHIFT;
+    }
+}
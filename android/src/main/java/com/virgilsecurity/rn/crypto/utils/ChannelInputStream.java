@@ -0,0 +1,91 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the channel a chunk at a time into a pooled direct buffer, so the number of reads
+ * from the file doesn't depend on how little the consumer asks for at once.
+ */
+public final class ChannelInputStream extends InputStream {
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private boolean isEndOfStream;
+
+    public ChannelInputStream(ReadableByteChannel channel, int chunkSize) {
+        this.channel = channel;
+        this.buffer = BufferPool.acquire(chunkSize);
+        // Nothing has been read yet
+        this.buffer.flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.fill()) {
+            return -1;
+        }
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.fill()) {
+            return -1;
+        }
+        int count = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        this.ensureOpen();
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.buffer == null) {
+            return;
+        }
+        BufferPool.release(this.buffer);
+        this.buffer = null;
+        this.channel.close();
+    }
+
+    /**
+     * Reads the next chunk if the buffer is drained.
+     * @return {@code false} if the end of the stream is reached.
+     */
+    private boolean fill() throws IOException {
+        this.ensureOpen();
+        if (this.buffer.hasRemaining()) {
+            return true;
+        }
+        if (this.isEndOfStream) {
+            return false;
+        }
+        this.buffer.clear();
+        int count = 0;
+        while (count == 0) {
+            count = this.channel.read(this.buffer);
+        }
+        this.buffer.flip();
+        if (count == -1) {
+            this.isEndOfStream = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.buffer == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Collects the output in a pooled direct buffer and writes it to the channel a chunk at a time,
+ * so the number of writes to the file doesn't depend on how little the producer writes at once.
+ */
+public final class ChannelOutputStream extends OutputStream {
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+
+    public ChannelOutputStream(WritableByteChannel channel, int chunkSize) {
+        this.channel = channel;
+        this.buffer = BufferPool.acquire(chunkSize);
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        this.ensureOpen();
+        if (!this.buffer.hasRemaining()) {
+            this.drain();
+        }
+        this.buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        this.ensureOpen();
+        while (length > 0) {
+            if (!this.buffer.hasRemaining()) {
+                this.drain();
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.ensureOpen();
+        this.drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.buffer == null) {
+            return;
+        }
+        try {
+            this.drain();
+        } finally {
+            BufferPool.release(this.buffer);
+            this.buffer = null;
+            this.channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.buffer == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
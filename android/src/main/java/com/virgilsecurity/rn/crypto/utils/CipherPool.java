@@ -0,0 +1,123 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import com.virgilsecurity.crypto.foundation.Aes256Gcm;
+import com.virgilsecurity.crypto.foundation.CtrDrbg;
+import com.virgilsecurity.crypto.foundation.PaddingParams;
+import com.virgilsecurity.crypto.foundation.RandomPadding;
+import com.virgilsecurity.crypto.foundation.RecipientCipher;
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+
+/**
+ * Foundation objects of message encryption kept per thread: a {@link RecipientCipher} set up with
+ * an {@link Aes256Gcm}, a random generator of its own and, for padded messages, a
+ * {@link RandomPadding}. All of them hold native memory and the generator is seeded from system
+ * entropy, so setting them up costs more than encrypting a small message.
+ *
+ * An entry is cleared of recipients, signers and custom params when it's acquired. It goes back
+ * to the slot of the thread that closes it only if {@link Entry#recycle()} was called, so an entry
+ * left in an unknown state by a failure is freed instead. Each thread keeps one entry with padding
+ * and one without. An entry may be closed on another thread than the one that acquired it, e.g. by
+ * a stream whose chunks come from different worker threads, it's the closing thread that keeps it.
+ */
+public final class CipherPool {
+    public static final class Entry implements AutoCloseable {
+        private final CtrDrbg rng = new CtrDrbg();
+        private final Aes256Gcm aesGcm = new Aes256Gcm();
+        private final RecipientCipher cipher = new RecipientCipher();
+        private final RandomPadding randomPadding;
+        private final boolean enablePadding;
+        private boolean isRecyclable;
+
+        private Entry(boolean enablePadding) {
+            this.enablePadding = enablePadding;
+            this.rng.setupDefaults();
+            this.cipher.setEncryptionCipher(this.aesGcm);
+            this.cipher.setRandom(this.rng);
+            if (enablePadding) {
+                this.randomPadding = new RandomPadding();
+                this.randomPadding.setRandom(this.rng);
+                this.cipher.setEncryptionPadding(this.randomPadding);
+                this.cipher.setPaddingParams(new PaddingParams(VirgilCrypto.PADDING_LENGTH, VirgilCrypto.PADDING_LENGTH));
+            } else {
+                this.randomPadding = null;
+            }
+        }
+
+        public RecipientCipher getCipher() {
+            return this.cipher;
+        }
+
+        /**
+         * Random generator of the entry, it must only be used by the thread holding the entry.
+         */
+        public CtrDrbg getRandom() {
+            return this.rng;
+        }
+
+        /**
+         * Marks the entry as done with, so it's returned to the pool on close instead of freed.
+         */
+        public void recycle() {
+            this.isRecyclable = true;
+        }
+
+        @Override
+        public void close() {
+            if (!this.isRecyclable || !release(this)) {
+                this.free();
+            }
+        }
+
+        private void reset() {
+            this.isRecyclable = false;
+            this.cipher.clearRecipients();
+            this.cipher.clearSigners();
+            this.cipher.customParams().clear();
+        }
+
+        private void free() {
+            this.cipher.close();
+            this.aesGcm.close();
+            if (this.randomPadding != null) {
+                this.randomPadding.close();
+            }
+            this.rng.close();
+        }
+    }
+
+    private static final ThreadLocal<Entry[]> localEntries = new ThreadLocal<Entry[]>() {
+        @Override
+        protected Entry[] initialValue() {
+            return new Entry[2];
+        }
+    };
+
+    private CipherPool() {
+    }
+
+    /**
+     * Returns the entry of the current thread, or a new one if the thread has none to spare.
+     * The entry must be closed when done with.
+     */
+    public static Entry acquire(boolean enablePadding) {
+        Entry[] entries = localEntries.get();
+        int slot = enablePadding ? 1 : 0;
+        Entry entry = entries[slot];
+        entries[slot] = null;
+        if (entry == null) {
+            return new Entry(enablePadding);
+        }
+        entry.reset();
+        return entry;
+    }
+
+    private static boolean release(Entry entry) {
+        Entry[] entries = localEntries.get();
+        int slot = entry.enablePadding ? 1 : 0;
+        if (entries[slot] != null) {
+            return false;
+        }
+        entries[slot] = entry;
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of what content providers report about their URIs, i.e. the size and
+ * the display name, keyed by the URI string. Entries are kept in access order, so once
+ * the capacity is exceeded the least recently used one is dropped.
+ * The cache is shared by all threads, metadata is loaded outside of the lock.
+ */
+public final class ContentMetadataCache {
+
+    public static final class Metadata {
+        private final long size;
+        private final String displayName;
+
+        /**
+         * @param size Size in bytes, or -1 if the provider doesn't know it.
+         * @param displayName Name of the document, or null if the provider doesn't have one.
+         */
+        public Metadata(long size, String displayName) {
+            this.size = size;
+            this.displayName = displayName;
+        }
+
+        public long getSize() {
+            return this.size;
+        }
+
+        public String getDisplayName() {
+            return this.displayName;
+        }
+    }
+
+    public interface Loader {
+        /**
+         * @return Metadata of the URI, or null if the provider can't be queried for now.
+         */
+        Metadata load(String uri);
+    }
+
+    private final LinkedHashMap<String, Metadata> entries;
+    private final int capacity;
+    private long hits;
+    private long misses;
+
+    public ContentMetadataCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Metadata>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Metadata> eldest) {
+                return size() > ContentMetadataCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached metadata of the URI, or loads it on a miss. Results of a failed
+     * load are not cached, the provider may just be unavailable for now.
+     */
+    public Metadata get(String uri, Loader loader) {
+        synchronized (this) {
+            Metadata metadata = this.entries.get(uri);
+            if (metadata != null) {
+                this.hits++;
+                return metadata;
+            }
+            this.misses++;
+        }
+
+        // Load outside of the lock, a duplicate query on a race is cheaper than serializing all jobs
+        Metadata metadata = loader.load(uri);
+        if (metadata != null) {
+            synchronized (this) {
+                this.entries.put(uri, metadata);
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Replaces the size of a cached entry, e.g. with the size of a descriptor just opened
+     * for the URI. Nothing is cached if the URI isn't.
+     */
+    public synchronized void updateSize(String uri, long size) {
+        Metadata metadata = this.entries.get(uri);
+        if (metadata != null && metadata.size != size) {
+            this.entries.put(uri, new Metadata(size, metadata.displayName));
+        }
+    }
+
+    /**
+     * Drops the entry of the URI, so it's loaded again next time.
+     */
+    public synchronized void invalidate(String uri) {
+        this.entries.remove(uri);
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+}
@@ -0,0 +1,290 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Runs native jobs in two lanes with their own threads, so a backlog of background
+ * work (e.g. file encryption) never delays interactive calls. Each lane accepts a limited
+ * number of queued jobs, jobs over the limit are rejected with {@code queue_full}.
+ * Jobs submitted with an id can be cancelled from JS.
+ */
+public final class CryptoScheduler {
+    public enum Lane {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    public static final String REJECTION_QUEUE_FULL = "queue_full";
+    public static final String REJECTION_CANCELLED = "cancelled";
+
+    private static final long KEEP_ALIVE_MILLIS = 5000;
+
+    private final ThreadPoolExecutor interactivePool;
+    private final ThreadPoolExecutor backgroundPool;
+    // Read and write stages of pipelined file jobs block on storage most of the time, so they
+    // get threads of their own instead of waiting behind crypto work in the lanes
+    private final ThreadPoolExecutor ioPool = new ThreadPoolExecutor(
+            0,
+            Integer.MAX_VALUE,
+            KEEP_ALIVE_MILLIS,
+            TimeUnit.MILLISECONDS,
+            new SynchronousQueue<Runnable>(),
+            createThreadFactory("io", Thread.NORM_PRIORITY)
+    );
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+    private volatile int queueCapacity;
+
+    public CryptoScheduler(int interactiveThreads, int backgroundThreads, int queueCapacity) {
+        this.interactivePool = createPool("interactive", interactiveThreads, Thread.NORM_PRIORITY);
+        this.backgroundPool = createPool("background", backgroundThreads, Thread.MIN_PRIORITY);
+        this.queueCapacity = queueCapacity;
+    }
+
+    private static ThreadPoolExecutor createPool(String name, int threads, int priority) {
+        // The queue is unbounded, so the pool never grows past the core size. The capacity
+        // of the lane is checked on submit instead, so it can be changed at runtime.
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE_MILLIS,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                createThreadFactory(name, priority));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory createThreadFactory(final String name, final int priority) {
+        return new ThreadFactory() {
+            private final AtomicInteger threadsCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "RNVirgilCrypto-" + name + "-" + threadsCount.incrementAndGet());
+                thread.setPriority(priority);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Queues the job, or rejects it if the lane already has {@code queueCapacity} queued jobs.
+     * A job with a non-null id can be cancelled with {@link #cancel(String)} until it settles.
+     */
+    public void submit(Lane lane, String jobId, Job job) {
+        ThreadPoolExecutor pool = this.getPool(lane);
+        if (pool.getQueue().size() >= this.queueCapacity) {
+            job.reject(
+                    REJECTION_QUEUE_FULL,
+                    String.format("The %s queue is full (%d jobs)", lane.name().toLowerCase(), this.queueCapacity)
+            );
+            return;
+        }
+
+        job.scheduler = this;
+        job.pool = pool;
+        if (jobId != null) {
+            job.id = jobId;
+            this.jobs.put(jobId, job);
+        }
+        pool.execute(job);
+    }
+
+    /**
+     * Runs internal work of an already accepted job, e.g. the chunks of a batch.
+     * It doesn't count against the queue capacity and can't be cancelled.
+     */
+    public void execute(Lane lane, Runnable runnable) {
+        this.getPool(lane).execute(runnable);
+    }
+
+    /**
+     * Runs blocking I/O of an already accepted job, e.g. reads ahead of the cipher.
+     * A thread is started if none is idle, so I/O never waits for other work.
+     */
+    public void executeIo(Runnable runnable) {
+        this.ioPool.execute(runnable);
+    }
+
+    /**
+     * Cancels the job with the given id. A queued job is rejected right away, a running one
+     * is rejected once it notices the cancellation or finishes.
+     * @return {@code false} if there is no such job or it has already settled.
+     */
+    public boolean cancel(String jobId) {
+        Job job = this.jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.isCancelled = true;
+        if (job.pool.remove(job)) {
+            job.reject(REJECTION_CANCELLED, "The job was cancelled");
+        }
+        return true;
+    }
+
+    public int getThreadsCount(Lane lane) {
+        return this.getPool(lane).getMaximumPoolSize();
+    }
+
+    public void configure(int interactiveThreads, int backgroundThreads, int queueCapacity) {
+        resize(this.interactivePool, interactiveThreads);
+        resize(this.backgroundPool, backgroundThreads);
+        this.queueCapacity = queueCapacity;
+    }
+
+    private static void resize(ThreadPoolExecutor pool, int threads) {
+        // Core size must never exceed the maximum size, even between the two calls
+        if (threads > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+        } else {
+            pool.setCorePoolSize(threads);
+            pool.setMaximumPoolSize(threads);
+        }
+    }
+
+    public WritableMap getStats() {
+        WritableMap statsMap = Arguments.createMap();
+        statsMap.putMap("interactive", getLaneStats(this.interactivePool));
+        statsMap.putMap("background", getLaneStats(this.backgroundPool));
+        statsMap.putInt("queueCapacity", this.queueCapacity);
+        statsMap.putInt("cancellableJobs", this.jobs.size());
+        return statsMap;
+    }
+
+    private static WritableMap getLaneStats(ThreadPoolExecutor pool) {
+        WritableMap laneMap = Arguments.createMap();
+        laneMap.putInt("queued", pool.getQueue().size());
+        laneMap.putInt("active", pool.getActiveCount());
+        laneMap.putInt("threads", pool.getPoolSize());
+        laneMap.putInt("maxThreads", pool.getMaximumPoolSize());
+        laneMap.putDouble("completed", pool.getCompletedTaskCount());
+        return laneMap;
+    }
+
+    private ThreadPoolExecutor getPool(Lane lane) {
+        return lane == Lane.INTERACTIVE ? this.interactivePool : this.backgroundPool;
+    }
+
+    /**
+     * Unit of work settling a promise. Implementations call {@link #resolve(Object)} or
+     * {@link #reject(String, String)} instead of the promise, so a cancelled job is always
+     * rejected with {@code cancelled} no matter how it ends.
+     */
+    public abstract static class Job implements Runnable {
+        private final Promise promise;
+        private final AtomicBoolean isSettled = new AtomicBoolean(false);
+        private volatile boolean isCancelled;
+        private volatile boolean isStarted;
+        private CryptoScheduler scheduler;
+        private ThreadPoolExecutor pool;
+        private String id;
+
+        protected Job(Promise promise) {
+            this.promise = promise;
+        }
+
+        protected abstract void execute();
+
+        /**
+         * Called when a job that has already started is cancelled, e.g. to remove partial output.
+         */
+        protected void onCancelled() {
+        }
+
+        @Override
+        public final void run() {
+            if (this.isCancelled) {
+                this.reject(REJECTION_CANCELLED, "The job was cancelled");
+                return;
+            }
+            this.isStarted = true;
+            try {
+                this.execute();
+            } catch (RuntimeException e) {
+                this.reject("unexpected_error", e.getLocalizedMessage());
+            } catch (Error e) {
+                // E.g. OutOfMemoryError on a big input, the promise must still settle and the worker live on
+                this.reject("unexpected_error", e.toString());
+            }
+        }
+
+        public boolean isCancelled() {
+            return this.isCancelled;
+        }
+
+        /**
+         * Wraps the stream so reading from it fails once the job is cancelled.
+         */
+        public InputStream cancellable(InputStream inputStream) {
+            return new FilterInputStream(inputStream) {
+                @Override
+                public int read() throws IOException {
+                    throwIfCancelled();
+                    return super.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    throwIfCancelled();
+                    return super.read(buffer, offset, length);
+                }
+            };
+        }
+
+        private void throwIfCancelled() throws InterruptedIOException {
+            if (this.isCancelled) {
+                throw new InterruptedIOException("The job was cancelled");
+            }
+        }
+
+        public void resolve(Object value) {
+            if (this.isCancelled) {
+                this.reject(REJECTION_CANCELLED, "The job was cancelled");
+                return;
+            }
+            if (this.settle()) {
+                this.promise.resolve(value);
+            }
+        }
+
+        public void reject(String code, String message) {
+            if (this.isCancelled) {
+                code = REJECTION_CANCELLED;
+                message = "The job was cancelled";
+            }
+            if (this.settle()) {
+                if (this.isCancelled && this.isStarted) {
+                    this.onCancelled();
+                }
+                this.promise.reject(code, message);
+            }
+        }
+
+        private boolean settle() {
+            if (!this.isSettled.compareAndSet(false, true)) {
+                return false;
+            }
+            if (this.id != null) {
+                this.scheduler.jobs.remove(this.id, this);
+            }
+            return true;
+        }
+    }
+}
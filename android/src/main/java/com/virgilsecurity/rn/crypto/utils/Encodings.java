@@ -2,12 +2,159 @@ package com.virgilsecurity.rn.crypto.utils;
 
 import android.util.Base64;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Base64 of the bridge. The common case, canonical base64 without line breaks, is coded here with
+ * a single allocation for the result: the characters are encoded into a pooled array and decoded
+ * straight from the string. Anything else goes to {@link Base64}, which is lenient about it.
+ */
 public final class Encodings {
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final int[] DECODE_TABLE = new int[128];
+    static {
+        Arrays.fill(DECODE_TABLE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE_TABLE[ALPHABET[i]] = i;
+        }
+    }
+
     public static final String encodeBase64(byte[] data) {
-        return Base64.encodeToString(data, Base64.NO_WRAP);
+        return encodeBase64(data, 0, data.length);
+    }
+
+    public static final String encodeBase64(byte[] data, int offset, int length) {
+        byte[] chars = ByteArrayPool.acquire(getEncodedLength(length));
+        try {
+            int count = encode(data, offset, length, chars);
+            return new String(chars, 0, count, StandardCharsets.US_ASCII);
+        } finally {
+            ByteArrayPool.release(chars);
+        }
+    }
+
+    /**
+     * Encodes the concatenation of both arrays.
+     */
+    public static final String encodeBase64(byte[] first, byte[] second) {
+        int length = first.length + second.length;
+        byte[] data = ByteArrayPool.acquire(length);
+        try {
+            System.arraycopy(first, 0, data, 0, first.length);
+            System.arraycopy(second, 0, data, first.length, second.length);
+            return encodeBase64(data, 0, length);
+        } finally {
+            ByteArrayPool.release(data);
+        }
     }
 
     public static final byte[] decodeBase64(String str) {
-        return Base64.decode(str, Base64.NO_WRAP);
+        int length = getDecodedLength(str);
+        if (length < 0) {
+            return Base64.decode(str, Base64.NO_WRAP);
+        }
+        byte[] data = ByteArrayPool.allocate(length);
+        decode(str, data, 0);
+        return data;
+    }
+
+    /**
+     * Decodes both strings into one array, the bytes of the first one go first.
+     */
+    public static final byte[] decodeBase64(String first, String second) {
+        int firstLength = getDecodedLength(first);
+        int secondLength = getDecodedLength(second);
+        if (firstLength < 0 || secondLength < 0) {
+            byte[] firstData = Base64.decode(first, Base64.NO_WRAP);
+            byte[] secondData = Base64.decode(second, Base64.NO_WRAP);
+            byte[] data = ByteArrayPool.allocate(firstData.length + secondData.length);
+            System.arraycopy(firstData, 0, data, 0, firstData.length);
+            System.arraycopy(secondData, 0, data, firstData.length, secondData.length);
+            return data;
+        }
+        byte[] data = ByteArrayPool.allocate(firstLength + secondLength);
+        decode(first, data, 0);
+        decode(second, data, firstLength);
+        return data;
+    }
+
+    private static int getEncodedLength(int length) {
+        return (length + 2) / 3 * 4;
+    }
+
+    private static int encode(byte[] data, int offset, int length, byte[] chars) {
+        int count = 0;
+        int end = offset + length;
+        int i = offset;
+        for (; i + 3 <= end; i += 3) {
+            int bits = (data[i] & 0xff) << 16 | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff);
+            chars[count++] = (byte) ALPHABET[bits >>> 18];
+            chars[count++] = (byte) ALPHABET[(bits >>> 12) & 0x3f];
+            chars[count++] = (byte) ALPHABET[(bits >>> 6) & 0x3f];
+            chars[count++] = (byte) ALPHABET[bits & 0x3f];
+        }
+        int rest = end - i;
+        if (rest > 0) {
+            int bits = (data[i] & 0xff) << 16 | (rest == 2 ? (data[i + 1] & 0xff) << 8 : 0);
+            chars[count++] = (byte) ALPHABET[bits >>> 18];
+            chars[count++] = (byte) ALPHABET[(bits >>> 12) & 0x3f];
+            chars[count++] = rest == 2 ? (byte) ALPHABET[(bits >>> 6) & 0x3f] : (byte) '=';
+            chars[count++] = '=';
+        }
+        return count;
+    }
+
+    // Length of the decoded canonical base64, -1 for anything else
+    private static int getDecodedLength(String str) {
+        int length = str.length();
+        int padding = 0;
+        if (length > 0 && str.charAt(length - 1) == '=') {
+            padding = length > 1 && str.charAt(length - 2) == '=' ? 2 : 1;
+            if (length % 4 != 0) {
+                return -1;
+            }
+        }
+        int significant = length - padding;
+        if (significant % 4 == 1) {
+            return -1;
+        }
+        for (int i = 0; i < significant; i++) {
+            char c = str.charAt(i);
+            if (c >= DECODE_TABLE.length || DECODE_TABLE[c] < 0) {
+                return -1;
+            }
+        }
+        return significant / 4 * 3 + Math.max(0, significant % 4 - 1);
+    }
+
+    // The string must have passed getDecodedLength
+    private static void decode(String str, byte[] data, int offset) {
+        int length = str.length();
+        while (length > 0 && str.charAt(length - 1) == '=') {
+            length--;
+        }
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int bits = DECODE_TABLE[str.charAt(i)] << 18
+                    | DECODE_TABLE[str.charAt(i + 1)] << 12
+                    | DECODE_TABLE[str.charAt(i + 2)] << 6
+                    | DECODE_TABLE[str.charAt(i + 3)];
+            data[offset++] = (byte) (bits >>> 16);
+            data[offset++] = (byte) (bits >>> 8);
+            data[offset++] = (byte) bits;
+        }
+        int rest = length - i;
+        if (rest >= 2) {
+            int bits = DECODE_TABLE[str.charAt(i)] << 18 | DECODE_TABLE[str.charAt(i + 1)] << 12;
+            if (rest == 3) {
+                bits |= DECODE_TABLE[str.charAt(i + 2)] << 6;
+            }
+            data[offset++] = (byte) (bits >>> 16);
+            if (rest == 3) {
+                data[offset] = (byte) (bits >>> 8);
+            }
+        }
     }
 }
@@ -1,22 +1,104 @@
 package com.virgilsecurity.rn.crypto.utils;
 
+import android.content.ContentResolver;
+import android.content.res.AssetFileDescriptor;
+import android.database.Cursor;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
 
 import com.virgilsecurity.rn.crypto.RNVirgilCryptoModule;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
 
 public final class FS {
 
     public static final String FILE_PREFIX_BUNDLE_ASSET = "bundle-assets://";
+    public static final String FILE_PREFIX_CONTENT = "content://";
+
+    // Big enough for a read to cost far less than the crypto on the data it returns
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    // Large enough to map rarely, small enough to fit the address space of 32-bit devices
+    public static final long MAPPING_WINDOW_SIZE = 64 * 1024 * 1024;
+    // Chunks a pipelined stream can be ahead of (or behind) the cipher
+    public static final int PIPELINE_DEPTH = 4;
+
+    private static final Pattern URI_PATTERN = Pattern.compile("\\w+:.*");
+    // Every file job asks for the size of its input and most for its extension, each a content
+    // provider query, and batches of file jobs (e.g. over gallery items) ask about the same
+    // URIs again and again.
+    private static final int CONTENT_METADATA_CAPACITY = 256;
+    private static final ContentMetadataCache contentMetadata = new ContentMetadataCache(CONTENT_METADATA_CAPACITY);
+    private static final ContentMetadataCache.Loader contentMetadataLoader = new ContentMetadataCache.Loader() {
+        @Override
+        public ContentMetadataCache.Metadata load(String uri) {
+            return queryContentMetadata(Uri.parse(uri));
+        }
+    };
 
     public static InputStream getInputStreamFromPath(String path) throws IOException {
+        return getInputStreamFromPath(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the file, asset or content URI for reading in chunks of the given size.
+     */
+    public static InputStream getInputStreamFromPath(String path, int chunkSize) throws IOException {
+        return new ChannelInputStream(getChannel(openInputStream(path)), chunkSize);
+    }
+
+    /**
+     * Opens the file, asset or content URI for reading in chunks of the given size, read ahead
+     * of the consumer by a task run on the executor.
+     */
+    public static InputStream getPipelinedInputStreamFromPath(String path, int chunkSize, Executor executor) throws IOException {
+        return new PipelinedInputStream(getChannel(openInputStream(path)), chunkSize, PIPELINE_DEPTH, executor);
+    }
+
+    /**
+     * Opens the file for reading through memory mappings of the given size. Only local files
+     * can be mapped, assets and content URIs are read in chunks of {@link #DEFAULT_CHUNK_SIZE}.
+     */
+    public static InputStream getMappedInputStreamFromPath(String path, long windowSize) throws IOException {
+        InputStream inputStream = openInputStream(path);
+        if (inputStream instanceof FileInputStream) {
+            return new MappedInputStream(((FileInputStream) inputStream).getChannel(), windowSize);
+        }
+        return new ChannelInputStream(getChannel(inputStream), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the file for reads at any position. Assets and content URIs that aren't backed by
+     * a file can't be opened this way.
+     */
+    public static FileChannel getFileChannelFromPath(String path) throws IOException {
+        InputStream inputStream = openInputStream(path);
+        if (!(inputStream instanceof FileInputStream)) {
+            inputStream.close();
+            throw new IOException(String.format("'%s' can't be read at random positions", path));
+        }
+        return ((FileInputStream) inputStream).getChannel();
+    }
+
+    private static InputStream openInputStream(String path) throws IOException {
+        if (isContentUri(path)) {
+            return openContentInputStream(path);
+        }
+
         String resolved = normalizePath(path);
         if (resolved != null) {
             path = resolved;
@@ -36,7 +118,78 @@ public final class FS {
         return new FileInputStream(f);
     }
 
+    /**
+     * Content URIs are read straight from their provider, never through a copy in the cache.
+     * Most providers hand out a file descriptor, which is read through a FileChannel, can be
+     * mapped and read at random positions. Its size refreshes the cached one, so a document
+     * changed since it was last asked about isn't reported with the old size.
+     */
+    private static InputStream openContentInputStream(String path) throws IOException {
+        Uri uri = Uri.parse(path);
+        ContentResolver resolver = RNVirgilCryptoModule.RCTContext.getContentResolver();
+        ParcelFileDescriptor descriptor;
+        try {
+            descriptor = resolver.openFileDescriptor(uri, "r");
+        } catch (FileNotFoundException | UnsupportedOperationException e) {
+            descriptor = null;
+        }
+        if (descriptor != null) {
+            long size = descriptor.getStatSize();
+            if (size >= 0) {
+                contentMetadata.updateSize(path, size);
+            }
+            return new ParcelFileDescriptor.AutoCloseInputStream(descriptor);
+        }
+        InputStream inputStream;
+        try {
+            inputStream = resolver.openInputStream(uri);
+        } catch (FileNotFoundException e) {
+            // The document may have been deleted since it was asked about
+            contentMetadata.invalidate(path);
+            throw e;
+        }
+        if (inputStream == null) {
+            contentMetadata.invalidate(path);
+            throw new FileNotFoundException(String.format("Content provider of '%s' returned no data", uri));
+        }
+        return inputStream;
+    }
+
+    // Content URIs are opened as file descriptors, so most of them are read through a FileChannel too
+    private static ReadableByteChannel getChannel(InputStream inputStream) {
+        if (inputStream instanceof FileInputStream) {
+            return ((FileInputStream) inputStream).getChannel();
+        }
+        return Channels.newChannel(inputStream);
+    }
+
     public static OutputStream getOutputStreamFromPath(String path) throws InvalidOutputFilePathException {
+        return getOutputStreamFromPath(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the file for writing in chunks of the given size, creating it and its parent directory
+     * if needed.
+     */
+    public static OutputStream getOutputStreamFromPath(String path, int chunkSize) throws InvalidOutputFilePathException {
+        return new ChannelOutputStream(openOutputChannel(path), chunkSize);
+    }
+
+    /**
+     * Same as {@link #getOutputStreamFromPath(String, int)}, but the data is written behind
+     * the producer by a task run on the executor.
+     */
+    public static OutputStream getPipelinedOutputStreamFromPath(String path, int chunkSize, Executor executor) throws InvalidOutputFilePathException {
+        return new PipelinedOutputStream(openOutputChannel(path), chunkSize, PIPELINE_DEPTH, executor);
+    }
+
+    private static WritableByteChannel openOutputChannel(String path) throws InvalidOutputFilePathException {
+        if (isContentUri(path)) {
+            // The document is about to be rewritten, its cached size is no longer valid
+            contentMetadata.invalidate(path);
+            return openContentOutputChannel(Uri.parse(path));
+        }
+
         File dest = new File(path);
         File dir = dest.getParentFile();
 
@@ -62,7 +215,7 @@ public final class FS {
                 );
             }
 
-            return new FileOutputStream(path, false);
+            return new FileOutputStream(path, false).getChannel();
         } catch (IOException e) {
             throw new InvalidOutputFilePathException(
                     String.format(
@@ -74,6 +227,57 @@ public final class FS {
         }
     }
 
+    /**
+     * Opens a content URI, e.g. a document picked with the Storage Access Framework, for
+     * writing. Existing content is truncated.
+     */
+    private static WritableByteChannel openContentOutputChannel(Uri uri) throws InvalidOutputFilePathException {
+        ContentResolver resolver = RNVirgilCryptoModule.RCTContext.getContentResolver();
+        try {
+            ParcelFileDescriptor descriptor;
+            try {
+                descriptor = resolver.openFileDescriptor(uri, "wt");
+            } catch (FileNotFoundException | UnsupportedOperationException e) {
+                descriptor = null;
+            }
+            if (descriptor != null) {
+                return new ParcelFileDescriptor.AutoCloseOutputStream(descriptor).getChannel();
+            }
+            OutputStream outputStream = resolver.openOutputStream(uri, "wt");
+            if (outputStream == null) {
+                throw new FileNotFoundException("Content provider returned no stream");
+            }
+            return Channels.newChannel(outputStream);
+        } catch (IOException | SecurityException e) {
+            throw new InvalidOutputFilePathException(
+                    String.format(
+                            "Failed to create write stream at URI: '%s'; %s",
+                            uri,
+                            e.getLocalizedMessage()
+                    )
+            );
+        }
+    }
+
+    /**
+     * Returns the file behind the path or URI, or null for assets and content URIs that can't
+     * be resolved to a file.
+     */
+    public static File getLocalFile(String path) {
+        if (path == null || isContentUri(path)) {
+            return null;
+        }
+        String resolved = normalizePath(path);
+        if (resolved == null || resolved.startsWith(FILE_PREFIX_BUNDLE_ASSET)) {
+            return null;
+        }
+        return new File(resolved);
+    }
+
+    private static boolean isContentUri(String path) {
+        return path != null && path.startsWith(FILE_PREFIX_CONTENT);
+    }
+
     /**
      * Normalize the path, remove URI scheme (xxx://) so that we can handle it.
      * @param path URI string.
@@ -82,18 +286,62 @@ public final class FS {
     public static String normalizePath(String path) {
         if(path == null)
             return null;
-        if(!path.matches("\\w+:.*"))
+        if(!URI_PATTERN.matcher(path).matches())
             return path;
         if(path.startsWith("file://")) {
             return path.replace("file://", "");
         }
 
-        Uri uri = Uri.parse(path);
         if(path.startsWith(FS.FILE_PREFIX_BUNDLE_ASSET)) {
             return path;
         }
 
-        return PathResolver.getRealPathFromURI(RNVirgilCryptoModule.RCTContext, uri);
+        return PathResolver.getRealPathFromURI(RNVirgilCryptoModule.RCTContext, Uri.parse(path));
+    }
+
+    /**
+     * Queries the provider of a content URI for the size and display name of the document.
+     * Providers that don't report the size are asked for a descriptor of the document instead.
+     * @return Metadata of the document, or null if the provider knows nothing about it.
+     */
+    private static ContentMetadataCache.Metadata queryContentMetadata(Uri uri) {
+        ContentResolver resolver = RNVirgilCryptoModule.RCTContext.getContentResolver();
+        long size = -1;
+        String displayName = null;
+        boolean isFound = false;
+        try (Cursor cursor = resolver.query(
+                uri,
+                new String[] { OpenableColumns.SIZE, OpenableColumns.DISPLAY_NAME },
+                null,
+                null,
+                null
+        )) {
+            if (cursor != null && cursor.moveToFirst()) {
+                isFound = true;
+                int sizeIndex = cursor.getColumnIndex(OpenableColumns.SIZE);
+                if (sizeIndex >= 0 && !cursor.isNull(sizeIndex)) {
+                    size = cursor.getLong(sizeIndex);
+                }
+                int nameIndex = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                if (nameIndex >= 0 && !cursor.isNull(nameIndex)) {
+                    displayName = cursor.getString(nameIndex);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Not every provider can be queried, the descriptor may still tell the size
+        }
+
+        if (size < 0) {
+            try (AssetFileDescriptor descriptor = resolver.openAssetFileDescriptor(uri, "r")) {
+                if (descriptor != null) {
+                    isFound = true;
+                    size = descriptor.getLength();
+                }
+            } catch (IOException | RuntimeException e) {
+                // The size stays unknown
+            }
+        }
+        return isFound ? new ContentMetadataCache.Metadata(size, displayName) : null;
     }
 
     public static String getTempFilePath(String extension) {
@@ -105,8 +353,56 @@ public final class FS {
         return String.format("%s/%s", cacheDir, fileName);
     }
 
+    /**
+     * Returns the size of the file in bytes, or -1 if it's unknown (e.g. for some content URIs).
+     */
+    public static long getFileSize(String path) {
+        if (isContentUri(path)) {
+            ContentMetadataCache.Metadata metadata = contentMetadata.get(path, contentMetadataLoader);
+            return metadata == null ? -1 : metadata.getSize();
+        }
+        String resolved = normalizePath(path);
+        if (resolved == null) {
+            try (AssetFileDescriptor descriptor = RNVirgilCryptoModule.RCTContext.getContentResolver()
+                    .openAssetFileDescriptor(Uri.parse(path), "r")) {
+                return descriptor == null ? -1 : descriptor.getLength();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        if (resolved.startsWith(FILE_PREFIX_BUNDLE_ASSET)) {
+            return -1;
+        }
+        File f = new File(resolved);
+        return f.isFile() ? f.length() : -1;
+    }
+
+    /**
+     * Deletes the file. Content URIs can only be deleted if they refer to a document of
+     * a provider that supports it.
+     */
+    public static boolean deleteFile(String path) {
+        if (isContentUri(path)) {
+            contentMetadata.invalidate(path);
+            try {
+                return DocumentsContract.deleteDocument(
+                        RNVirgilCryptoModule.RCTContext.getContentResolver(),
+                        Uri.parse(path)
+                );
+            } catch (FileNotFoundException | RuntimeException e) {
+                return false;
+            }
+        }
+        return new File(path).delete();
+    }
+
     public static String getFileExtension(String path) {
-        path = normalizePath(path);
+        if (isContentUri(path)) {
+            ContentMetadataCache.Metadata metadata = contentMetadata.get(path, contentMetadataLoader);
+            path = metadata == null ? null : metadata.getDisplayName();
+        } else {
+            path = normalizePath(path);
+        }
         if (path == null) {
             return null;
         }
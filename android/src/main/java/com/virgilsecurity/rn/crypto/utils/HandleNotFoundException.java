@@ -0,0 +1,7 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+public class HandleNotFoundException extends Exception {
+    public HandleNotFoundException(String handle) {
+        super(String.format("Handle '%s' is not registered or has already been released", handle));
+    }
+}
@@ -0,0 +1,145 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded registry of native objects that JS refers to by string handles.
+ * Entries are kept in access order, so once the capacity is exceeded the least
+ * recently used entry is dropped. Optionally entries that were not accessed for
+ * longer than the given idle timeout are dropped as well.
+ * Objects holding native resources get an eviction listener to free them, objects
+ * released by handle are freed by whoever releases them.
+ * @param <T> Type of the registered objects.
+ */
+public final class HandleRegistry<T> {
+    private static final long NO_IDLE_TIMEOUT = 0;
+
+    public interface EvictionListener<T> {
+        /**
+         * Called for each object dropped for being least recently used or idle, outside of
+         * the registry lock. The object can't be reached by its handle anymore.
+         */
+        void onEvicted(T value);
+    }
+
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxIdleNanos;
+    private final EvictionListener<T> evictionListener;
+    private int capacity;
+
+    public HandleRegistry(int capacity) {
+        this(capacity, NO_IDLE_TIMEOUT);
+    }
+
+    public HandleRegistry(int capacity, long maxIdleMillis) {
+        this(capacity, maxIdleMillis, null);
+    }
+
+    public HandleRegistry(int capacity, long maxIdleMillis, EvictionListener<T> evictionListener) {
+        this.capacity = capacity;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.evictionListener = evictionListener;
+    }
+
+    public void put(String handle, T value) {
+        List<T> evicted;
+        synchronized (this) {
+            long now = System.nanoTime();
+            evicted = this.evictIdle(now);
+            this.entries.put(handle, new Entry<>(value, now));
+            // Access order means the least recently used entries are at the head of the map
+            Iterator<Entry<T>> iterator = this.entries.values().iterator();
+            while (this.entries.size() > this.capacity) {
+                Entry<T> eldest = iterator.next();
+                iterator.remove();
+                evicted = this.collect(eldest.value, evicted);
+            }
+        }
+        this.notifyEvicted(evicted);
+    }
+
+    public T get(String handle) throws HandleNotFoundException {
+        List<T> evicted;
+        Entry<T> entry;
+        synchronized (this) {
+            long now = System.nanoTime();
+            evicted = this.evictIdle(now);
+            entry = this.entries.get(handle);
+            if (entry != null) {
+                entry.lastAccess = now;
+            }
+        }
+        this.notifyEvicted(evicted);
+        if (entry == null) {
+            throw new HandleNotFoundException(handle);
+        }
+        return entry.value;
+    }
+
+    public synchronized boolean contains(String handle) {
+        return this.entries.containsKey(handle);
+    }
+
+    public synchronized boolean release(String handle) {
+        return this.entries.remove(handle) != null;
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private List<T> evictIdle(long now) {
+        List<T> evicted = Collections.emptyList();
+        if (this.maxIdleNanos == NO_IDLE_TIMEOUT) {
+            return evicted;
+        }
+        // Access order means the idle entries are all at the head of the map
+        Iterator<Entry<T>> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (now - entry.lastAccess <= this.maxIdleNanos) {
+                break;
+            }
+            iterator.remove();
+            evicted = this.collect(entry.value, evicted);
+        }
+        return evicted;
+    }
+
+    private List<T> collect(T value, List<T> evicted) {
+        // The list is only allocated if something is evicted and there is a listener to tell
+        if (this.evictionListener == null) {
+            return evicted;
+        }
+        if (evicted.isEmpty()) {
+            evicted = new ArrayList<>();
+        }
+        evicted.add(value);
+        return evicted;
+    }
+
+    private void notifyEvicted(List<T> evicted) {
+        for (T value : evicted) {
+            this.evictionListener.onEvicted(value);
+        }
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        long lastAccess;
+
+        Entry(T value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
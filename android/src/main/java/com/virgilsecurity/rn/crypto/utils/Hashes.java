@@ -0,0 +1,50 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import com.virgilsecurity.crypto.foundation.Hash;
+import com.virgilsecurity.crypto.foundation.Sha224;
+import com.virgilsecurity.crypto.foundation.Sha256;
+import com.virgilsecurity.crypto.foundation.Sha384;
+import com.virgilsecurity.crypto.foundation.Sha512;
+import com.virgilsecurity.sdk.crypto.HashAlgorithm;
+
+/**
+ * Incremental hashes, for data that doesn't come in one piece.
+ */
+public final class Hashes {
+    /**
+     * Creates a hash of the given algorithm, ready to be updated.
+     */
+    public static Hash start(HashAlgorithm algorithm) {
+        Hash hash;
+        switch (algorithm) {
+            case SHA224:
+                hash = new Sha224();
+                break;
+            case SHA256:
+                hash = new Sha256();
+                break;
+            case SHA384:
+                hash = new Sha384();
+                break;
+            default:
+                hash = new Sha512();
+                break;
+        }
+        hash.start();
+        return hash;
+    }
+
+    /**
+     * Frees the native context of the hash.
+     */
+    public static void close(Hash hash) {
+        // All the hashes created by start are closeable, the interface just doesn't say so
+        if (hash instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) hash).close();
+            } catch (Exception e) {
+                // Nothing to do, the context is freed anyway
+            }
+        }
+    }
+}
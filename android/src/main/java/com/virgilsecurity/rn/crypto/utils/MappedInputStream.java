@@ -0,0 +1,93 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a local file through read-only memory mappings of at most {@code windowSize} bytes,
+ * so the data is copied once, from the page cache straight into the consumer's buffer.
+ * Only one window is mapped at a time, which keeps the address space used by multi-GB files
+ * bounded on 32-bit devices.
+ */
+public final class MappedInputStream extends InputStream {
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean isClosed;
+
+    public MappedInputStream(FileChannel channel, long windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.map()) {
+            return -1;
+        }
+        return this.window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.map()) {
+            return -1;
+        }
+        int count = Math.min(length, this.window.remaining());
+        this.window.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        this.ensureOpen();
+        return this.window == null ? 0 : this.window.remaining();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.isClosed) {
+            return;
+        }
+        this.isClosed = true;
+        // The mapping itself is released once the buffer is collected
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * Maps the next window if the current one is drained.
+     * @return {@code false} if the end of the file is reached.
+     */
+    private boolean map() throws IOException {
+        this.ensureOpen();
+        if (this.window != null && this.window.hasRemaining()) {
+            return true;
+        }
+        long position = this.window == null ? 0 : this.windowStart + this.window.capacity();
+        if (position >= this.size) {
+            return false;
+        }
+        this.window = this.channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                position,
+                Math.min(this.windowSize, this.size - position)
+        );
+        this.windowStart = position;
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.isClosed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
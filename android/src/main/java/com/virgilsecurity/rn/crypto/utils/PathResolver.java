@@ -10,12 +10,6 @@ import android.provider.DocumentsContract;
 import android.provider.MediaStore;
 import android.content.ContentUris;
 import android.os.Environment;
-import android.content.ContentResolver;
-import android.util.Log;
-
-import java.io.File;
-import java.io.InputStream;
-import java.io.FileOutputStream;
 
 public class PathResolver {
 
@@ -76,29 +70,7 @@ public class PathResolver {
 
                 return getDataColumn(context, uri, null, null);
             }
-            // Other Providers
-            else{
-                try {
-                    InputStream attachment = context.getContentResolver().openInputStream(uri);
-                    if (attachment != null) {
-                        String filename = getContentName(context.getContentResolver(), uri);
-                        if (filename != null) {
-                            File file = new File(context.getCacheDir(), filename);
-                            FileOutputStream tmp = new FileOutputStream(file);
-                            byte[] buffer = new byte[1024];
-                            while (attachment.read(buffer) > 0) {
-                                tmp.write(buffer);
-                            }
-                            tmp.close();
-                            attachment.close();
-                            return file.getAbsolutePath();
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.w("PathResolver", e.toString());
-                    return null;
-                }
-            }
+            // Other Providers are read through the content resolver, see FS
         }
         // MediaStore (and general)
         else if ("content".equalsIgnoreCase(uri.getScheme())) {
@@ -117,18 +89,6 @@ public class PathResolver {
         return null;
     }
 
-    private static String getContentName(ContentResolver resolver, Uri uri) {
-        Cursor cursor = resolver.query(uri, null, null, null, null);
-        cursor.moveToFirst();
-        int nameIndex = cursor.getColumnIndex(MediaStore.MediaColumns.DISPLAY_NAME);
-        if (nameIndex >= 0) {
-            String name = cursor.getString(nameIndex);
-            cursor.close();
-            return name;
-        }
-        return null;
-    }
-
     /**
      * Get the value of the data column for this Uri. This is useful for
      * MediaStore Uris, and other file-based ContentProviders.
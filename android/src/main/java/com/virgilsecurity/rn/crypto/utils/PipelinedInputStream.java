@@ -0,0 +1,171 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads the channel ahead of the consumer on a thread of its own, so the next chunks are read
+ * from storage while the current one goes through the cipher. Chunks are passed in a ring of
+ * {@code depth} pooled direct buffers: the reader waits for a free buffer once it's
+ * {@code depth} chunks ahead, the consumer waits for a filled one once it catches up.
+ */
+public final class PipelinedInputStream extends InputStream {
+    // Goes after the last filled buffer, or to the free ones to stop the reader
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final ReadableByteChannel channel;
+    private final List<ByteBuffer> buffers;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+    private final CountDownLatch readerFinished = new CountDownLatch(1);
+    private volatile boolean isClosed;
+    private volatile IOException readError;
+    private ByteBuffer buffer;
+    private boolean isEndOfStream;
+
+    public PipelinedInputStream(ReadableByteChannel channel, int chunkSize, int depth, Executor executor) {
+        this.channel = channel;
+        this.buffers = new ArrayList<>(depth);
+        this.freeBuffers = new ArrayBlockingQueue<>(depth + 1);
+        this.filledBuffers = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; i++) {
+            ByteBuffer buffer = BufferPool.acquire(chunkSize);
+            this.buffers.add(buffer);
+            this.freeBuffers.add(buffer);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                readAhead();
+            }
+        });
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.fill()) {
+            return -1;
+        }
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.fill()) {
+            return -1;
+        }
+        int count = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        this.ensureOpen();
+        return this.buffer == null ? 0 : this.buffer.remaining();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.isClosed) {
+            return;
+        }
+        this.isClosed = true;
+        this.freeBuffers.offer(END);
+        try {
+            this.readerFinished.await();
+            for (ByteBuffer buffer : this.buffers) {
+                BufferPool.release(buffer);
+            }
+        } catch (InterruptedException e) {
+            // The reader may still use the buffers, they are left to GC
+            Thread.currentThread().interrupt();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void readAhead() {
+        try {
+            while (true) {
+                ByteBuffer buffer = this.freeBuffers.take();
+                if (buffer == END || this.isClosed) {
+                    return;
+                }
+                buffer.clear();
+                int count = 0;
+                while (buffer.hasRemaining() && count != -1) {
+                    count = this.channel.read(buffer);
+                }
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    this.filledBuffers.put(buffer);
+                }
+                if (count == -1) {
+                    this.filledBuffers.put(END);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            this.readError = e;
+            this.filledBuffers.offer(END);
+        } catch (InterruptedException e) {
+            this.readError = new InterruptedIOException("Reading was interrupted");
+            this.filledBuffers.offer(END);
+        } finally {
+            this.readerFinished.countDown();
+        }
+    }
+
+    /**
+     * Takes the next filled buffer if the current one is drained.
+     * @return {@code false} if the end of the stream is reached.
+     */
+    private boolean fill() throws IOException {
+        this.ensureOpen();
+        if (this.buffer != null && this.buffer.hasRemaining()) {
+            return true;
+        }
+        if (this.isEndOfStream) {
+            return false;
+        }
+        if (this.buffer != null) {
+            this.freeBuffers.offer(this.buffer);
+            this.buffer = null;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = this.filledBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Waiting for data was interrupted");
+        }
+        if (buffer == END) {
+            this.isEndOfStream = true;
+            if (this.readError != null) {
+                throw this.readError;
+            }
+            return false;
+        }
+        this.buffer = buffer;
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.isClosed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
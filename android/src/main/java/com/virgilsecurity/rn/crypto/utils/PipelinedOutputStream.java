@@ -0,0 +1,191 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes to the channel behind the producer on a thread of its own, so storage is written while
+ * the cipher works on the next chunks. Chunks are passed in a ring of {@code depth} pooled
+ * direct buffers: the producer waits for a free buffer once the writer is {@code depth} chunks
+ * behind. A failed write is reported by the next call of the producer and by {@link #close()}.
+ * Data handed over last is only known to be written once {@link #close()} returns, so the
+ * output is complete only if it doesn't throw.
+ */
+public final class PipelinedOutputStream extends OutputStream {
+    // Goes after the last filled buffer to stop the writer
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final WritableByteChannel channel;
+    private final List<ByteBuffer> buffers;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+    private final CountDownLatch writerFinished = new CountDownLatch(1);
+    private volatile IOException writeError;
+    private ByteBuffer buffer;
+    private boolean isClosed;
+
+    public PipelinedOutputStream(WritableByteChannel channel, int chunkSize, int depth, Executor executor) {
+        this.channel = channel;
+        this.buffers = new ArrayList<>(depth);
+        this.freeBuffers = new ArrayBlockingQueue<>(depth);
+        this.filledBuffers = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; i++) {
+            ByteBuffer buffer = BufferPool.acquire(chunkSize);
+            this.buffers.add(buffer);
+            this.freeBuffers.add(buffer);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeBehind();
+            }
+        });
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        this.write(new byte[] { (byte) value }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        this.ensureOpen();
+        while (length > 0) {
+            if (this.buffer == null) {
+                this.buffer = this.takeFreeBuffer();
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+            if (!this.buffer.hasRemaining()) {
+                this.handOff();
+            }
+        }
+    }
+
+    /**
+     * Hands the collected data to the writer without waiting for it to be written, a failed
+     * write of that data is reported by {@link #close()}.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.ensureOpen();
+        if (this.buffer != null && this.buffer.position() > 0) {
+            this.handOff();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.isClosed) {
+            return;
+        }
+        this.isClosed = true;
+        IOException error = null;
+        try {
+            // The writer must get the end marker even if it has failed, so nothing can throw before
+            if (this.buffer != null) {
+                this.buffer.flip();
+                if (this.buffer.hasRemaining()) {
+                    this.filledBuffers.put(this.buffer);
+                }
+                this.buffer = null;
+            }
+            this.filledBuffers.put(END);
+            this.writerFinished.await();
+            for (ByteBuffer buffer : this.buffers) {
+                BufferPool.release(buffer);
+            }
+            error = this.writeError;
+        } catch (InterruptedException e) {
+            // The writer may still use the buffers, they are left to GC
+            Thread.currentThread().interrupt();
+            error = new InterruptedIOException("Waiting for the data to be written was interrupted");
+        }
+        // A failed write is the cause of a truncated output, it's reported even if closing fails too
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            } else {
+                error.addSuppressed(e);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void writeBehind() {
+        try {
+            while (true) {
+                ByteBuffer buffer = this.filledBuffers.take();
+                if (buffer == END) {
+                    return;
+                }
+                // After a failure the rest is dropped, the buffers still go back to the producer
+                if (this.writeError == null) {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            this.channel.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        this.writeError = e;
+                    }
+                }
+                buffer.clear();
+                this.freeBuffers.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            this.writeError = new InterruptedIOException("Writing was interrupted");
+        } finally {
+            this.writerFinished.countDown();
+        }
+    }
+
+    private ByteBuffer takeFreeBuffer() throws IOException {
+        this.throwIfFailed();
+        try {
+            return this.freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Waiting for a free buffer was interrupted");
+        }
+    }
+
+    private void handOff() throws IOException {
+        this.buffer.flip();
+        try {
+            this.filledBuffers.put(this.buffer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Waiting for the writer was interrupted");
+        } finally {
+            this.buffer = null;
+        }
+        this.throwIfFailed();
+    }
+
+    private void throwIfFailed() throws IOException {
+        if (this.writeError != null) {
+            throw this.writeError;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.isClosed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
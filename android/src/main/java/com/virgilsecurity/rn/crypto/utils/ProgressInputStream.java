@@ -0,0 +1,82 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import android.os.SystemClock;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts bytes read from the wrapped stream and reports them at most once per
+ * {@link #REPORT_INTERVAL_MILLIS}, plus once when the end of the stream is reached.
+ * Along with the bytes goes the throughput since the stream was opened, so the last report
+ * has the effective throughput of the whole job.
+ */
+public final class ProgressInputStream extends FilterInputStream {
+    public interface Listener {
+        void onProgress(long bytesProcessed, long totalBytes, double megabytesPerSecond);
+    }
+
+    public static final long REPORT_INTERVAL_MILLIS = 100;
+    private static final double BYTES_IN_MEGABYTE = 1024 * 1024;
+
+    private final long totalBytes;
+    private final Listener listener;
+    private long bytesProcessed;
+    private final long openedAt;
+    private long reportedAt;
+    private boolean isFinished;
+
+    public ProgressInputStream(InputStream inputStream, long totalBytes, Listener listener) {
+        super(inputStream);
+        this.totalBytes = totalBytes;
+        this.listener = listener;
+        this.openedAt = SystemClock.elapsedRealtime();
+        this.reportedAt = this.openedAt;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        this.onRead(value == -1 ? -1 : 1);
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+        this.onRead(count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = super.skip(count);
+        this.onRead(skipped);
+        return skipped;
+    }
+
+    private void onRead(long count) {
+        if (count == -1) {
+            if (!this.isFinished) {
+                this.isFinished = true;
+                this.report(SystemClock.elapsedRealtime());
+            }
+            return;
+        }
+        this.bytesProcessed += count;
+        long now = SystemClock.elapsedRealtime();
+        if (now - this.reportedAt >= REPORT_INTERVAL_MILLIS) {
+            this.reportedAt = now;
+            this.report(now);
+        }
+    }
+
+    private void report(long now) {
+        long elapsedMillis = now - this.openedAt;
+        double megabytesPerSecond = elapsedMillis == 0
+                ? 0
+                : this.bytesProcessed / BYTES_IN_MEGABYTE / (elapsedMillis / 1000.0);
+        this.listener.onProgress(this.bytesProcessed, this.totalBytes, megabytesPerSecond);
+    }
+}
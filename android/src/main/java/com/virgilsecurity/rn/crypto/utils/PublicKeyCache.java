@@ -0,0 +1,93 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+import com.virgilsecurity.sdk.crypto.VirgilPublicKey;
+import com.virgilsecurity.sdk.crypto.exceptions.CryptoException;
+
+/**
+ * Bounded cache of imported public keys keyed by SHA-256 digest of the raw key bytes.
+ * Entries are kept in access order, so once the capacity is exceeded the least
+ * recently used key is dropped.
+ * The cache is shared by all threads, so keys are imported with the crypto of the calling thread.
+ */
+public final class PublicKeyCache {
+    private final LinkedHashMap<String, VirgilPublicKey> entries;
+    private int capacity;
+    private long hits;
+    private long misses;
+
+    public PublicKeyCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, VirgilPublicKey>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VirgilPublicKey> eldest) {
+                return size() > PublicKeyCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @param crypto Crypto of the calling thread, it's used to import the key on a miss.
+     */
+    public VirgilPublicKey importPublicKey(VirgilCrypto crypto, byte[] publicKeyData) throws CryptoException {
+        String digest = Encodings.encodeBase64(digest(publicKeyData));
+        synchronized (this) {
+            VirgilPublicKey publicKey = this.entries.get(digest);
+            if (publicKey != null) {
+                this.hits++;
+                return publicKey;
+            }
+            this.misses++;
+        }
+
+        // Import outside of the lock, a duplicate import on a race is cheaper than serializing all callers
+        VirgilPublicKey publicKey = crypto.importPublicKey(publicKeyData);
+        synchronized (this) {
+            this.entries.put(digest, publicKey);
+        }
+        return publicKey;
+    }
+
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        while (this.entries.size() > capacity) {
+            String eldest = this.entries.keySet().iterator().next();
+            this.entries.remove(eldest);
+        }
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    public synchronized int getCapacity() {
+        return this.capacity;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    private static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+public class RecipientSetNotFoundException extends Exception {
+    public RecipientSetNotFoundException(String handle) {
+        super(String.format("Recipient set '%s' is not registered or has already been released", handle));
+    }
+}
@@ -10,6 +10,8 @@ public final class ResponseFactory {
     private static final int ERROR_STACK_FRAME_LIMIT = 50;
     private static final String ERROR_DEFAULT_CODE = "EUNSPECIFIED";
     private static final String ERROR_DEFAULT_MESSAGE = "Error not specified.";
+    private static final String ERROR_HANDLE_NOT_FOUND_CODE = "EHANDLENOTFOUND";
+    private static final String ERROR_RECIPIENT_SET_NOT_FOUND_CODE = "ERECIPIENTSETNOTFOUND";
 
     // Keys for error's WritableMap
     private static final String ERROR_MAP_KEY_CODE = "code";
@@ -24,17 +26,38 @@ public final class ResponseFactory {
     private static final String STACK_FRAME_KEY_LINE_NUMBER = "lineNumber";
     private static final String STACK_FRAME_KEY_METHOD_NAME = "methodName";
 
-    private static final WritableMap createErrorInfoMap(Throwable throwable) {
-        WritableNativeMap errorInfo = new WritableNativeMap();
-        errorInfo.putString(ERROR_MAP_KEY_CODE, ERROR_DEFAULT_CODE);
+    public static final String getErrorCode(Throwable throwable) {
+        if (throwable instanceof HandleNotFoundException) {
+            // Lets JS re-register the object and retry instead of failing
+            return ERROR_HANDLE_NOT_FOUND_CODE;
+        }
+        if (throwable instanceof RecipientSetNotFoundException) {
+            // Same as above, but JS registers the recipient set again, not the private key
+            return ERROR_RECIPIENT_SET_NOT_FOUND_CODE;
+        }
+        return ERROR_DEFAULT_CODE;
+    }
+
+    public static final String getErrorMessage(Throwable throwable) {
         if (throwable instanceof DecryptionException) {
             // For consistency with iOS and JS
-            errorInfo.putString(ERROR_MAP_KEY_MESSAGE, "Recipient defined with id is not found within message info during data decryption.");
-            errorInfo.putString(ERROR_MAP_KEY_DOMAIN, "FoundationError");
-        } else {
-            errorInfo.putString(ERROR_MAP_KEY_MESSAGE, throwable.getMessage());
-            errorInfo.putString(ERROR_MAP_KEY_DOMAIN, throwable.getClass().getCanonicalName());
+            return "Recipient defined with id is not found within message info during data decryption.";
+        }
+        return throwable.getMessage();
+    }
+
+    public static final String getErrorDomain(Throwable throwable) {
+        if (throwable instanceof DecryptionException) {
+            return "FoundationError";
         }
+        return throwable.getClass().getCanonicalName();
+    }
+
+    private static final WritableMap createErrorInfoMap(Throwable throwable) {
+        WritableNativeMap errorInfo = new WritableNativeMap();
+        errorInfo.putString(ERROR_MAP_KEY_CODE, getErrorCode(throwable));
+        errorInfo.putString(ERROR_MAP_KEY_MESSAGE, getErrorMessage(throwable));
+        errorInfo.putString(ERROR_MAP_KEY_DOMAIN, getErrorDomain(throwable));
 
         // For consistency with iOS ensure userInfo key exists, even if we null it.
         // iOS: /React/Base/RCTUtils.m -> RCTJSErrorFromCodeMessageAndNSError
@@ -0,0 +1,375 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+import com.virgilsecurity.sdk.crypto.VirgilPublicKey;
+import com.virgilsecurity.sdk.crypto.exceptions.CryptoException;
+import com.virgilsecurity.sdk.crypto.exceptions.DecryptionException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Encrypts a file to the {@link SeekableFile} format so that an interrupted job, e.g. one whose
+ * process was killed, continues from the last committed chunk when started again with the same
+ * input, output and recipients.
+ *
+ * The progress is committed to a journal next to the output every {@link #CHECKPOINT_BYTES} or so:
+ *
+ * <pre>
+ * "VSKJ" | version (1 byte) | chunk size (4 bytes) | input size (8 bytes) | input modification time (8 bytes) |
+ * recipients digest (32 bytes) | file key (32 bytes) | data offset (8 bytes) | committed chunks (8 bytes)
+ * </pre>
+ *
+ * Chunks are flushed to storage before the journal is replaced, so committed chunks are always
+ * there after a crash. The journal holds the file key until the output is complete, it's deleted
+ * then. A journal that doesn't match the input, the chunk size or the recipients is ignored and
+ * the file is encrypted from the start under a new key, as is one whose last committed chunk
+ * doesn't decrypt to the input, so a key is never used for different data at the same index.
+ *
+ * The journal is key material: a job that won't be started again must be discarded with
+ * {@link #discard(File)}, which removes the journal along with the partial output.
+ */
+public final class ResumableEncryption {
+    public interface InputTracker {
+        /**
+         * Wraps the input stream of the job, e.g. to report progress. The part that's already
+         * encrypted is skipped on the returned stream.
+         */
+        InputStream track(InputStream inputStream, long totalBytes);
+    }
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte[] MAGIC = { 'V', 'S', 'K', 'J' };
+    private static final byte VERSION = 1;
+    private static final int DIGEST_LENGTH = 32;
+    private static final long CHECKPOINT_BYTES = 4 * 1024 * 1024;
+    // Absolute paths of the outputs being encrypted, their journals must not be discarded
+    private static final Set<String> activeOutputs = new HashSet<>();
+
+    private ResumableEncryption() {
+    }
+
+    public static File getJournalFile(String outputPath) {
+        return new File(outputPath + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Encrypts the input file for the recipients, continuing the previous job if the journal
+     * of the output allows it. The journal and the partial output are left in place if this
+     * fails, so the job can be started again. Only one job at a time can encrypt to an output.
+     */
+    public static void encrypt(VirgilCrypto vc,
+                               File inputFile,
+                               File outputFile,
+                               List<VirgilPublicKey> publicKeys,
+                               int chunkSize,
+                               Executor executor,
+                               int parallelism,
+                               InputTracker tracker) throws IOException, CryptoException {
+        String activeOutput = outputFile.getAbsolutePath();
+        synchronized (activeOutputs) {
+            if (!activeOutputs.add(activeOutput)) {
+                throw new IOException(String.format("'%s' is being encrypted by another job", outputFile.getPath()));
+            }
+        }
+        try {
+            encryptOrResume(vc, inputFile, outputFile, publicKeys, chunkSize, executor, parallelism, tracker);
+        } finally {
+            synchronized (activeOutputs) {
+                activeOutputs.remove(activeOutput);
+            }
+        }
+    }
+
+    private static void encryptOrResume(VirgilCrypto vc,
+                                        File inputFile,
+                                        File outputFile,
+                                        List<VirgilPublicKey> publicKeys,
+                                        int chunkSize,
+                                        Executor executor,
+                                        int parallelism,
+                                        InputTracker tracker) throws IOException, CryptoException {
+        final File journalFile = getJournalFile(outputFile.getPath());
+        long inputSize = inputFile.length();
+        long inputModified = inputFile.lastModified();
+        byte[] recipientsDigest = digest(publicKeys);
+
+        try (
+                RandomAccessFile output = new RandomAccessFile(outputFile, "rw");
+                FileInputStream input = new FileInputStream(inputFile)
+        ) {
+            final FileChannel outputChannel = output.getChannel();
+            Journal journal = Journal.read(journalFile);
+            if (journal == null
+                    || journal.chunkSize != chunkSize
+                    || journal.inputSize != inputSize
+                    || journal.inputModified != inputModified
+                    || !Arrays.equals(journal.recipientsDigest, recipientsDigest)
+                    || !canResume(journal, input.getChannel(), outputChannel)) {
+                byte[] key = vc.generateRandomData(SeekableFile.KEY_LENGTH);
+                byte[] header = SeekableFile.createHeader(vc, key, SeekableFile.createFixedHeader(chunkSize), publicKeys);
+                outputChannel.truncate(0);
+                writeFully(outputChannel, ByteBuffer.wrap(header), 0);
+                outputChannel.force(false);
+                journal = new Journal(chunkSize, inputSize, inputModified, recipientsDigest, key, header.length, 0);
+                journal.commit(journalFile);
+            }
+
+            if (journal.committedChunks > 0 && journal.committedChunks * chunkSize >= inputSize) {
+                // Only the journal was left after the last chunk had been written
+                deleteJournal(journalFile);
+                return;
+            }
+
+            long encryptedChunkSize = (long) chunkSize + SeekableFile.TAG_LENGTH;
+            long resumedLength = journal.dataOffset + journal.committedChunks * encryptedChunkSize;
+            outputChannel.truncate(resumedLength);
+            outputChannel.position(resumedLength);
+
+            InputStream inStream = tracker.track(input, inputSize);
+            skipFully(inStream, journal.committedChunks * chunkSize);
+
+            final Journal progress = journal;
+            final long firstIndex = journal.committedChunks;
+            final long checkpointChunks = Math.max(1, CHECKPOINT_BYTES / chunkSize);
+            SeekableFile.encryptChunks(
+                    inStream,
+                    Channels.newOutputStream(outputChannel),
+                    journal.key,
+                    SeekableFile.createFixedHeader(chunkSize),
+                    firstIndex,
+                    chunkSize,
+                    executor,
+                    parallelism,
+                    new SeekableFile.ChunkListener() {
+                        @Override
+                        public void onChunksWritten(long count) throws IOException {
+                            if (firstIndex + count - progress.committedChunks >= checkpointChunks) {
+                                outputChannel.force(false);
+                                progress.committedChunks = firstIndex + count;
+                                progress.commit(journalFile);
+                            }
+                        }
+                    }
+            );
+            outputChannel.force(false);
+        }
+        deleteJournal(journalFile);
+    }
+
+    public static void deleteJournal(File journalFile) {
+        journalFile.delete();
+        new File(journalFile.getPath() + TEMP_SUFFIX).delete();
+    }
+
+    /**
+     * Removes what an unfinished job left for the output: its journal, which holds the file key,
+     * and the partial output. A complete output has no journal and is kept, as is the output of
+     * a job that's still running.
+     * @return true if an unfinished job was discarded.
+     */
+    public static boolean discard(File outputFile) {
+        File journalFile = getJournalFile(outputFile.getPath());
+        synchronized (activeOutputs) {
+            if (activeOutputs.contains(outputFile.getAbsolutePath())) {
+                return false;
+            }
+            if (!journalFile.exists() && !new File(journalFile.getPath() + TEMP_SUFFIX).exists()) {
+                return false;
+            }
+            // The key goes first, the partial output can't be decrypted without it
+            deleteJournal(journalFile);
+            outputFile.delete();
+        }
+        return true;
+    }
+
+    /**
+     * Discards the unfinished jobs of the outputs in the directory whose journal hasn't been
+     * committed for {@code maxAge} milliseconds, e.g. on start for jobs that won't be resumed.
+     * @return Number of discarded jobs.
+     */
+    public static int discardStale(File directory, long maxAge) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long modifiedBefore = System.currentTimeMillis() - maxAge;
+        int discardedCount = 0;
+        for (File file : files) {
+            String name = file.getName();
+            String outputName;
+            if (name.endsWith(JOURNAL_SUFFIX)) {
+                outputName = name.substring(0, name.length() - JOURNAL_SUFFIX.length());
+            } else if (name.endsWith(JOURNAL_SUFFIX + TEMP_SUFFIX)) {
+                outputName = name.substring(0, name.length() - JOURNAL_SUFFIX.length() - TEMP_SUFFIX.length());
+            } else {
+                continue;
+            }
+            if (file.lastModified() < modifiedBefore && discard(new File(directory, outputName))) {
+                discardedCount++;
+            }
+        }
+        return discardedCount;
+    }
+
+    /**
+     * Checks that the committed chunks are in the output and that the last one decrypts to
+     * the same part of the input.
+     */
+    private static boolean canResume(Journal journal, FileChannel input, FileChannel output) throws IOException {
+        if (journal.committedChunks == 0) {
+            return false;
+        }
+        long lastIndex = journal.committedChunks - 1;
+        long encryptedChunkSize = (long) journal.chunkSize + SeekableFile.TAG_LENGTH;
+        long dataLength = Math.min(journal.chunkSize, journal.inputSize - lastIndex * journal.chunkSize);
+        if (dataLength < 0 || output.size() < journal.dataOffset + lastIndex * encryptedChunkSize + dataLength + SeekableFile.TAG_LENGTH) {
+            return false;
+        }
+
+        ByteBuffer encryptedData = ByteBuffer.allocate((int) dataLength);
+        ByteBuffer tag = ByteBuffer.allocate(SeekableFile.TAG_LENGTH);
+        ByteBuffer inputChunk = ByteBuffer.allocate((int) dataLength);
+        SeekableFile.readChunk(output, encryptedData, tag, journal.dataOffset + lastIndex * encryptedChunkSize);
+        SeekableFile.readFully(input, inputChunk, lastIndex * journal.chunkSize);
+        byte[] fixedHeader = SeekableFile.createFixedHeader(journal.chunkSize);
+        boolean isLast = journal.committedChunks * journal.chunkSize >= journal.inputSize;
+        try {
+            byte[] data = SeekableFile.decryptChunk(journal.key, fixedHeader, lastIndex, isLast, encryptedData.array(), tag.array());
+            return MessageDigest.isEqual(data, inputChunk.array());
+        } catch (DecryptionException e) {
+            return false;
+        }
+    }
+
+    private static byte[] digest(List<VirgilPublicKey> publicKeys) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (VirgilPublicKey publicKey : publicKeys) {
+                digest.update(publicKey.getIdentifier());
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void skipFully(InputStream inputStream, long count) throws IOException {
+        while (count > 0) {
+            long skipped = inputStream.skip(count);
+            if (skipped <= 0) {
+                throw new EOFException("Input file is shorter than its encrypted part");
+            }
+            count -= skipped;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static final class Journal {
+        final int chunkSize;
+        final long inputSize;
+        final long inputModified;
+        final byte[] recipientsDigest;
+        final byte[] key;
+        final long dataOffset;
+        long committedChunks;
+
+        Journal(int chunkSize,
+                long inputSize,
+                long inputModified,
+                byte[] recipientsDigest,
+                byte[] key,
+                long dataOffset,
+                long committedChunks) {
+            this.chunkSize = chunkSize;
+            this.inputSize = inputSize;
+            this.inputModified = inputModified;
+            this.recipientsDigest = recipientsDigest;
+            this.key = key;
+            this.dataOffset = dataOffset;
+            this.committedChunks = committedChunks;
+        }
+
+        /**
+         * Returns null if there's no journal or it can't be read.
+         */
+        static Journal read(File file) {
+            if (!file.isFile()) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                byte[] magic = new byte[MAGIC.length];
+                in.readFully(magic);
+                if (!Arrays.equals(magic, MAGIC) || in.readByte() != VERSION) {
+                    return null;
+                }
+                int chunkSize = in.readInt();
+                long inputSize = in.readLong();
+                long inputModified = in.readLong();
+                byte[] recipientsDigest = new byte[DIGEST_LENGTH];
+                in.readFully(recipientsDigest);
+                byte[] key = new byte[SeekableFile.KEY_LENGTH];
+                in.readFully(key);
+                long dataOffset = in.readLong();
+                long committedChunks = in.readLong();
+                if (chunkSize <= 0 || dataOffset <= 0 || committedChunks < 0) {
+                    return null;
+                }
+                return new Journal(chunkSize, inputSize, inputModified, recipientsDigest, key, dataOffset, committedChunks);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Replaces the journal atomically: it's written and synced to a temporary file first.
+         */
+        void commit(File file) throws IOException {
+            File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+            try (FileOutputStream fileStream = new FileOutputStream(tempFile)) {
+                // The journal holds the file key, no one else should read it
+                tempFile.setReadable(false, false);
+                tempFile.setReadable(true, true);
+                DataOutputStream out = new DataOutputStream(fileStream);
+                out.write(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(this.chunkSize);
+                out.writeLong(this.inputSize);
+                out.writeLong(this.inputModified);
+                out.write(this.recipientsDigest);
+                out.write(this.key);
+                out.writeLong(this.dataOffset);
+                out.writeLong(this.committedChunks);
+                out.flush();
+                fileStream.getFD().sync();
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException(String.format("Failed to replace journal '%s'", file.getPath()));
+            }
+        }
+    }
+}
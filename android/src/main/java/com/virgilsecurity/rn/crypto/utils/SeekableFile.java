@@ -0,0 +1,445 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import com.virgilsecurity.crypto.foundation.Aes256Gcm;
+import com.virgilsecurity.crypto.foundation.AuthEncryptAuthEncryptResult;
+import com.virgilsecurity.crypto.foundation.FoundationException;
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+import com.virgilsecurity.sdk.crypto.VirgilPrivateKey;
+import com.virgilsecurity.sdk.crypto.VirgilPublicKey;
+import com.virgilsecurity.sdk.crypto.exceptions.CryptoException;
+import com.virgilsecurity.sdk.crypto.exceptions.DecryptionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Encrypted file format that can be decrypted at any offset.
+ *
+ * <pre>
+ * "VSKF" | version (1 byte) | chunk size (4 bytes) | wrapped key length (4 bytes) | wrapped key | chunks
+ * </pre>
+ *
+ * The data is split into chunks of the given size, each one is encrypted with AES-256-GCM
+ * under a random file key and followed by its tag, so the position of any chunk follows from the
+ * chunk size. The file key is encrypted for the recipients the same way as regular messages.
+ * The nonce of a chunk is its index plus a flag set for the last chunk only, so chunks can't be
+ * reordered and the file can't be truncated without failing authentication. The fixed part of
+ * the header is authenticated with every chunk.
+ *
+ * Chunks don't depend on each other, so whole files can be encrypted and decrypted on several
+ * threads at once, the results are still written in order.
+ */
+public final class SeekableFile implements AutoCloseable {
+    public static final class FormatException extends IOException {
+        FormatException(String message) {
+            super(message);
+        }
+    }
+
+    private static final byte[] MAGIC = { 'V', 'S', 'K', 'F' };
+    private static final byte VERSION = 1;
+    private static final int FIXED_HEADER_LENGTH = 9;
+    static final int KEY_LENGTH = 32;
+    private static final int NONCE_LENGTH = 12;
+    static final int TAG_LENGTH = 16;
+    // Big enough for the wrapped key of a few hundred recipients
+    private static final int MAX_WRAPPED_KEY_LENGTH = 1024 * 1024;
+    // Chunks are decrypted in memory, a hostile header mustn't make the reader allocate more
+    static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    // Chunks being processed per thread, so a thread always has the next chunk ready
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private final FileChannel channel;
+    private final byte[] key;
+    private final byte[] fixedHeader;
+    private final int chunkSize;
+    private final long dataOffset;
+    private final long chunksCount;
+    private final long size;
+
+    private SeekableFile(FileChannel channel, byte[] fixedHeader, int chunkSize, long dataOffset, byte[] key) throws IOException {
+        this.channel = channel;
+        this.key = key;
+        this.fixedHeader = fixedHeader;
+        this.chunkSize = chunkSize;
+        this.dataOffset = dataOffset;
+
+        long bodyLength = channel.size() - dataOffset;
+        long encryptedChunkSize = (long) chunkSize + TAG_LENGTH;
+        this.chunksCount = (bodyLength + encryptedChunkSize - 1) / encryptedChunkSize;
+        if (this.chunksCount == 0 || bodyLength - (this.chunksCount - 1) * encryptedChunkSize < TAG_LENGTH) {
+            throw new FormatException("Encrypted file is truncated");
+        }
+        this.size = bodyLength - this.chunksCount * TAG_LENGTH;
+    }
+
+    /**
+     * Encrypts the stream for the recipients in chunks of {@code chunkSize} bytes. With
+     * {@code parallelism} above 1 the chunks are encrypted by the executor, that many at a time.
+     */
+    public static void encrypt(VirgilCrypto vc,
+                               InputStream inputStream,
+                               OutputStream outputStream,
+                               List<VirgilPublicKey> publicKeys,
+                               int chunkSize,
+                               Executor executor,
+                               int parallelism) throws IOException, CryptoException {
+        byte[] key = vc.generateRandomData(KEY_LENGTH);
+        byte[] fixedHeader = createFixedHeader(chunkSize);
+        outputStream.write(createHeader(vc, key, fixedHeader, publicKeys));
+        encryptChunks(inputStream, outputStream, key, fixedHeader, 0, chunkSize, executor, parallelism, null);
+    }
+
+    /**
+     * Encrypts the chunks read from the stream, the first one gets index {@code firstIndex}.
+     * The listener, if any, is told the number of chunks written so far after each chunk.
+     */
+    static void encryptChunks(InputStream inputStream,
+                              OutputStream outputStream,
+                              final byte[] key,
+                              final byte[] fixedHeader,
+                              long firstIndex,
+                              int chunkSize,
+                              Executor executor,
+                              int parallelism,
+                              ChunkListener listener) throws IOException, CryptoException {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(String.format("Chunk size must be from 1 to %d bytes", MAX_CHUNK_SIZE));
+        }
+        OrderedWriter writer = new OrderedWriter(outputStream, executor, parallelism, listener);
+        // The cipher takes whole arrays, so chunks are read into arrays of exactly the chunk size.
+        // Pooled arrays have that size only if it's a size class of the pool, e.g. the default 64 KB.
+        boolean isPooled = ByteArrayPool.isSizeClass(chunkSize);
+        try {
+            // A chunk is only known to be the last one once the next read comes back empty
+            byte[] chunk = isPooled ? ByteArrayPool.acquire(chunkSize) : ByteArrayPool.allocate(chunkSize);
+            int length = readFully(inputStream, chunk, chunkSize);
+            for (long index = firstIndex; ; index++) {
+                byte[] nextChunk = null;
+                int nextLength = 0;
+                if (length == chunkSize) {
+                    nextChunk = isPooled ? ByteArrayPool.acquire(chunkSize) : ByteArrayPool.allocate(chunkSize);
+                    nextLength = readFully(inputStream, nextChunk, chunkSize);
+                }
+                final long chunkIndex = index;
+                final boolean isLast = nextLength == 0;
+                // Only a short last chunk is copied
+                final byte[] data;
+                final byte[] pooledChunk;
+                if (length == chunk.length) {
+                    data = chunk;
+                    pooledChunk = isPooled ? chunk : null;
+                } else {
+                    data = Arrays.copyOf(chunk, length);
+                    pooledChunk = null;
+                    ByteArrayPool.release(chunk);
+                }
+                writer.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() {
+                        byte[] encryptedChunk = encryptChunk(key, fixedHeader, chunkIndex, isLast, data);
+                        if (pooledChunk != null) {
+                            ByteArrayPool.release(pooledChunk);
+                        }
+                        return encryptedChunk;
+                    }
+                });
+                if (isLast) {
+                    if (nextChunk != null) {
+                        ByteArrayPool.release(nextChunk);
+                    }
+                    break;
+                }
+                chunk = nextChunk;
+                length = nextLength;
+            }
+            writer.finish();
+        } catch (IOException | DecryptionException | RuntimeException e) {
+            writer.cancel();
+            throw e;
+        }
+    }
+
+    static byte[] createFixedHeader(int chunkSize) {
+        return ByteBuffer.allocate(FIXED_HEADER_LENGTH)
+                .put(MAGIC)
+                .put(VERSION)
+                .putInt(chunkSize)
+                .array();
+    }
+
+    /**
+     * Returns the whole header: the fixed part followed by the file key wrapped for the recipients.
+     */
+    static byte[] createHeader(VirgilCrypto vc, byte[] key, byte[] fixedHeader, List<VirgilPublicKey> publicKeys) throws CryptoException {
+        byte[] wrappedKey = vc.encrypt(key, publicKeys, false);
+        return ByteBuffer.allocate(fixedHeader.length + 4 + wrappedKey.length)
+                .put(fixedHeader)
+                .putInt(wrappedKey.length)
+                .put(wrappedKey)
+                .array();
+    }
+
+    /**
+     * Reads the header of the file and decrypts its key. The file is closed with the returned object.
+     */
+    public static SeekableFile open(VirgilCrypto vc, FileChannel channel, VirgilPrivateKey privateKey) throws IOException, DecryptionException {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_LENGTH + 4);
+            readFully(channel, header, 0);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || header.get() != VERSION) {
+                throw new FormatException("Not a seekable encrypted file");
+            }
+            int chunkSize = header.getInt();
+            int wrappedKeyLength = header.getInt();
+            if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || wrappedKeyLength <= 0 || wrappedKeyLength > MAX_WRAPPED_KEY_LENGTH) {
+                throw new FormatException("Not a seekable encrypted file");
+            }
+
+            ByteBuffer wrappedKey = ByteBuffer.allocate(wrappedKeyLength);
+            readFully(channel, wrappedKey, header.capacity());
+            byte[] key = vc.decrypt(wrappedKey.array(), privateKey);
+            byte[] fixedHeader = Arrays.copyOf(header.array(), FIXED_HEADER_LENGTH);
+            return new SeekableFile(channel, fixedHeader, chunkSize, header.capacity() + wrappedKeyLength, key);
+        } catch (IOException | DecryptionException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Size of the decrypted data.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Opens the encrypted chunks for reading from the first one, e.g. to pass them to
+     * {@link #decrypt(InputStream, OutputStream, Executor, int)} through a stream that reports progress.
+     */
+    public InputStream openChunks() throws IOException {
+        return Channels.newInputStream(this.channel.position(this.dataOffset));
+    }
+
+    /**
+     * Decrypts up to {@code length} bytes starting at {@code offset} of the decrypted data,
+     * reading only the chunks that cover the range.
+     */
+    public byte[] read(long offset, int length) throws IOException, DecryptionException {
+        if (offset >= this.size || length <= 0) {
+            return new byte[0];
+        }
+        int count = (int) Math.min(length, this.size - offset);
+        ByteBuffer result = ByteBuffer.allocate(count);
+        long encryptedChunkSize = (long) this.chunkSize + TAG_LENGTH;
+        for (long index = offset / this.chunkSize; result.hasRemaining(); index++) {
+            long chunkStart = index * this.chunkSize;
+            byte[] chunk = this.decryptChunk(index, this.dataOffset + index * encryptedChunkSize);
+
+            int from = (int) Math.max(0, offset - chunkStart);
+            result.put(chunk, from, Math.min(chunk.length - from, result.remaining()));
+        }
+        return result.array();
+    }
+
+    /**
+     * Decrypts all chunks read from {@code chunks}, see {@link #openChunks()}. With
+     * {@code parallelism} above 1 the chunks are decrypted by the executor, that many at a time.
+     */
+    public void decrypt(InputStream chunks, OutputStream outputStream, Executor executor, int parallelism) throws IOException, DecryptionException {
+        OrderedWriter writer = new OrderedWriter(outputStream, executor, parallelism);
+        try {
+            for (long index = 0; index < this.chunksCount; index++) {
+                final long chunkIndex = index;
+                // The cipher takes whole arrays, so the data and the tag are read into arrays of their own
+                // size instead of being copied out of a pooled one. They're handed over to the writer's
+                // thread, which would only move them from pool to pool.
+                final byte[] data = ByteArrayPool.allocate(this.getChunkLength(index));
+                final byte[] tag = new byte[TAG_LENGTH];
+                if (readFully(chunks, data, data.length) != data.length || readFully(chunks, tag, TAG_LENGTH) != TAG_LENGTH) {
+                    throw new FormatException("Encrypted file is truncated");
+                }
+                writer.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws DecryptionException {
+                        return decryptChunk(key, fixedHeader, chunkIndex, chunkIndex == chunksCount - 1, data, tag);
+                    }
+                });
+            }
+            writer.finish();
+        } catch (IOException | DecryptionException | RuntimeException e) {
+            writer.cancel();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private int getChunkLength(long index) {
+        return (int) Math.min(this.chunkSize, this.size - index * this.chunkSize);
+    }
+
+    static byte[] encryptChunk(byte[] key, byte[] fixedHeader, long index, boolean isLast, byte[] data) {
+        // Instances aren't thread safe and cheap compared to the encryption of a chunk
+        try (Aes256Gcm aesGcm = new Aes256Gcm()) {
+            aesGcm.setKey(key);
+            aesGcm.setNonce(nonce(index, isLast));
+            AuthEncryptAuthEncryptResult result = aesGcm.authEncrypt(data, fixedHeader);
+            byte[] encryptedChunk = Arrays.copyOf(result.out, result.out.length + TAG_LENGTH);
+            System.arraycopy(result.tag, 0, encryptedChunk, result.out.length, TAG_LENGTH);
+            return encryptedChunk;
+        }
+    }
+
+    private byte[] decryptChunk(long index, long position) throws IOException, DecryptionException {
+        ByteBuffer data = ByteBuffer.allocate(this.getChunkLength(index));
+        ByteBuffer tag = ByteBuffer.allocate(TAG_LENGTH);
+        readChunk(this.channel, data, tag, position);
+        return decryptChunk(this.key, this.fixedHeader, index, index == this.chunksCount - 1, data.array(), tag.array());
+    }
+
+    /**
+     * Reads the data of the chunk at the position and its tag, each into its own buffer.
+     */
+    static void readChunk(FileChannel channel, ByteBuffer data, ByteBuffer tag, long position) throws IOException {
+        readFully(channel, data, position);
+        readFully(channel, tag, position + data.limit());
+    }
+
+    static byte[] decryptChunk(byte[] key, byte[] fixedHeader, long index, boolean isLast, byte[] data, byte[] tag) throws DecryptionException {
+        try (Aes256Gcm aesGcm = new Aes256Gcm()) {
+            aesGcm.setKey(key);
+            aesGcm.setNonce(nonce(index, isLast));
+            return aesGcm.authDecrypt(data, fixedHeader, tag);
+        } catch (FoundationException e) {
+            throw new DecryptionException(String.format("Chunk %d is corrupted; %s", index, e.getLocalizedMessage()));
+        }
+    }
+
+    private static byte[] nonce(long index, boolean isLast) {
+        return ByteBuffer.allocate(NONCE_LENGTH)
+                .putLong(index)
+                .put(isLast ? (byte) 1 : (byte) 0)
+                .array();
+    }
+
+    static int readFully(InputStream inputStream, byte[] buffer, int maxLength) throws IOException {
+        int length = 0;
+        while (length < maxLength) {
+            int count = inputStream.read(buffer, length, maxLength - length);
+            if (count == -1) {
+                break;
+            }
+            length += count;
+        }
+        return length;
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + buffer.position());
+            if (count == -1) {
+                throw new FormatException("Encrypted file is truncated");
+            }
+        }
+        buffer.flip();
+    }
+
+    interface ChunkListener {
+        void onChunksWritten(long count) throws IOException;
+    }
+
+    /**
+     * Runs chunk tasks on the executor and writes their results in the order of submission.
+     * Submitting blocks once the window of running tasks is full, so memory use is bounded.
+     */
+    private static final class OrderedWriter {
+        private final OutputStream outputStream;
+        private final Executor executor;
+        private final int window;
+        private final ChunkListener listener;
+        private final ArrayDeque<FutureTask<byte[]>> pending = new ArrayDeque<>();
+        private long writtenCount;
+
+        OrderedWriter(OutputStream outputStream, Executor executor, int parallelism) {
+            this(outputStream, executor, parallelism, null);
+        }
+
+        OrderedWriter(OutputStream outputStream, Executor executor, int parallelism, ChunkListener listener) {
+            this.outputStream = outputStream;
+            this.listener = listener;
+            this.executor = parallelism > 1 ? executor : DIRECT_EXECUTOR;
+            this.window = parallelism > 1 ? parallelism * CHUNKS_PER_THREAD : 1;
+        }
+
+        void submit(Callable<byte[]> task) throws IOException, DecryptionException {
+            FutureTask<byte[]> future = new FutureTask<>(task);
+            this.pending.add(future);
+            this.executor.execute(future);
+            if (this.pending.size() >= this.window) {
+                this.writeNext();
+            }
+        }
+
+        void finish() throws IOException, DecryptionException {
+            while (!this.pending.isEmpty()) {
+                this.writeNext();
+            }
+        }
+
+        void cancel() {
+            for (FutureTask<byte[]> future : this.pending) {
+                future.cancel(false);
+            }
+            this.pending.clear();
+        }
+
+        private void writeNext() throws IOException, DecryptionException {
+            FutureTask<byte[]> future = this.pending.remove();
+            // Runs the task here if no thread has picked it up yet. The writer may itself run
+            // on a thread of the executor, so waiting for the queue could wait forever.
+            future.run();
+            try {
+                this.outputStream.write(future.get());
+                this.writtenCount++;
+                if (this.listener != null) {
+                    this.listener.onChunksWritten(this.writtenCount);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a chunk");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof DecryptionException) {
+                    throw (DecryptionException) cause;
+                }
+                throw new IOException(String.format("Could not process chunk; %s", cause.getLocalizedMessage()));
+            }
+        }
+    }
+}
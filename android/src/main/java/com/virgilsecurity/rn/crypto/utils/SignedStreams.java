@@ -0,0 +1,119 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import com.virgilsecurity.crypto.foundation.FoundationException;
+import com.virgilsecurity.crypto.foundation.RecipientCipher;
+import com.virgilsecurity.crypto.foundation.Sha512;
+import com.virgilsecurity.crypto.foundation.SignerInfo;
+import com.virgilsecurity.crypto.foundation.SignerInfoList;
+import com.virgilsecurity.sdk.crypto.VirgilCrypto;
+import com.virgilsecurity.sdk.crypto.VirgilPrivateKey;
+import com.virgilsecurity.sdk.crypto.VirgilPublicKey;
+import com.virgilsecurity.sdk.crypto.exceptions.DecryptionException;
+import com.virgilsecurity.sdk.crypto.exceptions.EncryptionException;
+import com.virgilsecurity.sdk.crypto.exceptions.VerificationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Signs and encrypts, or decrypts and verifies, a stream in a single pass. The signature is
+ * computed while the data is encrypted and goes to the message info footer after the encrypted
+ * data, so the output is the same as the output of {@link VirgilCrypto#authEncrypt} and the
+ * whole stream is never held in memory.
+ */
+public final class SignedStreams {
+    private SignedStreams() {
+    }
+
+    /**
+     * @param size Number of bytes in the input stream, the signed message info needs it upfront.
+     *             It must be known, a stream of another length fails with {@link IOException}.
+     */
+    public static void signThenEncrypt(InputStream inputStream,
+                                       long size,
+                                       OutputStream outputStream,
+                                       VirgilPrivateKey signingKey,
+                                       List<VirgilPublicKey> publicKeys,
+                                       boolean enablePadding,
+                                       int chunkSize) throws IOException, EncryptionException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size of the input must be known to sign and encrypt it in one pass");
+        }
+        try (
+                CipherPool.Entry entry = CipherPool.acquire(enablePadding);
+                Sha512 signerHash = new Sha512()
+        ) {
+            RecipientCipher cipher = entry.getCipher();
+            for (VirgilPublicKey publicKey : publicKeys) {
+                cipher.addKeyRecipient(publicKey.getIdentifier(), publicKey.getPublicKey());
+            }
+            cipher.addSigner(signingKey.getIdentifier(), signingKey.getPrivateKey());
+            cipher.setSignerHash(signerHash);
+
+            cipher.startSignedEncryption(size);
+            outputStream.write(cipher.packMessageInfo());
+            byte[] buffer = new byte[chunkSize];
+            long processed = 0;
+            int length;
+            // Reads fill the buffer, so the cipher gets it as is and only a short last chunk is copied
+            while ((length = SeekableFile.readFully(inputStream, buffer, buffer.length)) > 0) {
+                processed += length;
+                outputStream.write(cipher.processEncryption(length == buffer.length ? buffer : Arrays.copyOf(buffer, length)));
+            }
+            if (processed != size) {
+                throw new IOException(String.format("Input has %d bytes, %d were expected", processed, size));
+            }
+            outputStream.write(cipher.finishEncryption());
+            outputStream.write(cipher.packMessageInfoFooter());
+            entry.recycle();
+        } catch (FoundationException e) {
+            throw new EncryptionException(e);
+        }
+    }
+
+    /**
+     * Decrypted data is written before the signature is checked, it must be discarded if this
+     * method throws.
+     * @param publicKeys Keys of the possible signers, the one matching the signer id is used.
+     */
+    public static void decryptThenVerify(InputStream inputStream,
+                                         OutputStream outputStream,
+                                         VirgilPrivateKey privateKey,
+                                         List<VirgilPublicKey> publicKeys,
+                                         int chunkSize) throws IOException, DecryptionException, VerificationException {
+        try (RecipientCipher cipher = new RecipientCipher()) {
+            try {
+                cipher.startDecryptionWithKey(privateKey.getIdentifier(), privateKey.getPrivateKey(), new byte[0]);
+                byte[] buffer = new byte[chunkSize];
+                int length;
+                while ((length = SeekableFile.readFully(inputStream, buffer, buffer.length)) > 0) {
+                    outputStream.write(cipher.processDecryption(length == buffer.length ? buffer : Arrays.copyOf(buffer, length)));
+                }
+                outputStream.write(cipher.finishDecryption());
+            } catch (FoundationException e) {
+                throw new DecryptionException(e);
+            }
+
+            if (!cipher.isDataSigned()) {
+                throw new VerificationException("Data is not signed");
+            }
+            SignerInfoList signerInfos = cipher.signerInfos();
+            if (!signerInfos.hasItem()) {
+                throw new VerificationException("Data is not signed");
+            }
+            SignerInfo signerInfo = signerInfos.item();
+            for (VirgilPublicKey publicKey : publicKeys) {
+                if (Arrays.equals(publicKey.getIdentifier(), signerInfo.signerId())) {
+                    if (!cipher.verifySignerInfo(signerInfo, publicKey.getPublicKey())) {
+                        throw new VerificationException("Signature verification failed");
+                    }
+                    return;
+                }
+            }
+            throw new VerificationException("Signer public key is not found");
+        }
+    }
+}
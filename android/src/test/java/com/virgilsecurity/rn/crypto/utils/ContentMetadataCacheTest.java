@@ -0,0 +1,95 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContentMetadataCacheTest {
+    private static final String URI = "content://media/external/images/media/1";
+
+    private ContentMetadataCache cache;
+    private int loads;
+    private ContentMetadataCache.Loader loader;
+
+    @Before
+    public void setUp() {
+        this.cache = new ContentMetadataCache(2);
+        this.loads = 0;
+        this.loader = new ContentMetadataCache.Loader() {
+            @Override
+            public ContentMetadataCache.Metadata load(String uri) {
+                loads++;
+                return new ContentMetadataCache.Metadata(100, "photo.jpg");
+            }
+        };
+    }
+
+    @Test
+    public void loadsOnceAndHitsAfterwards() {
+        ContentMetadataCache.Metadata first = this.cache.get(URI, this.loader);
+        ContentMetadataCache.Metadata second = this.cache.get(URI, this.loader);
+
+        assertEquals(1, this.loads);
+        assertEquals(100, second.getSize());
+        assertEquals("photo.jpg", second.getDisplayName());
+        assertEquals(first, second);
+        assertEquals(1, this.cache.getHits());
+        assertEquals(1, this.cache.getMisses());
+    }
+
+    @Test
+    public void loadsAgainAfterInvalidate() {
+        this.cache.get(URI, this.loader);
+        this.cache.invalidate(URI);
+        this.cache.get(URI, this.loader);
+
+        assertEquals(2, this.loads);
+        assertEquals(0, this.cache.getHits());
+    }
+
+    @Test
+    public void doesNotCacheFailedLoads() {
+        ContentMetadataCache.Loader failing = new ContentMetadataCache.Loader() {
+            @Override
+            public ContentMetadataCache.Metadata load(String uri) {
+                loads++;
+                return null;
+            }
+        };
+
+        assertNull(this.cache.get(URI, failing));
+        this.cache.get(URI, this.loader);
+
+        assertEquals(2, this.loads);
+        assertEquals(1, this.cache.size());
+    }
+
+    @Test
+    public void updatesSizeOfCachedEntriesOnly() {
+        this.cache.updateSize(URI, 50);
+        assertEquals(0, this.cache.size());
+
+        this.cache.get(URI, this.loader);
+        this.cache.updateSize(URI, 50);
+        ContentMetadataCache.Metadata metadata = this.cache.get(URI, this.loader);
+
+        assertEquals(1, this.loads);
+        assertEquals(50, metadata.getSize());
+        assertEquals("photo.jpg", metadata.getDisplayName());
+    }
+
+    @Test
+    public void dropsLeastRecentlyUsedEntries() {
+        this.cache.get("content://a", this.loader);
+        this.cache.get("content://b", this.loader);
+        this.cache.get("content://a", this.loader);
+        this.cache.get("content://c", this.loader);
+        this.cache.get("content://a", this.loader);
+        this.cache.get("content://b", this.loader);
+
+        assertEquals(2, this.cache.size());
+        assertEquals(4, this.loads);
+    }
+}
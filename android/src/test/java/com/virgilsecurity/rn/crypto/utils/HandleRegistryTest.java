@@ -0,0 +1,68 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class HandleRegistryTest {
+    private static final class RecordingListener implements HandleRegistry.EvictionListener<String> {
+        final List<String> evicted = new ArrayList<>();
+
+        @Override
+        public void onEvicted(String value) {
+            this.evicted.add(value);
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedOverCapacity() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        HandleRegistry<String> registry = new HandleRegistry<>(2, 0, listener);
+        registry.put("a", "A");
+        registry.put("b", "B");
+        registry.get("a");
+        registry.put("c", "C");
+
+        assertEquals(Collections.singletonList("B"), listener.evicted);
+        assertTrue(registry.contains("a"));
+        assertFalse(registry.contains("b"));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void evictsIdleEntries() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        HandleRegistry<String> registry = new HandleRegistry<>(8, 1, listener);
+        registry.put("a", "A");
+        registry.put("b", "B");
+        Thread.sleep(10);
+        registry.put("c", "C");
+
+        assertEquals(Arrays.asList("A", "B"), listener.evicted);
+        try {
+            registry.get("a");
+            fail("Idle entry is still registered");
+        } catch (HandleNotFoundException e) {
+            assertEquals(1, registry.size());
+        }
+    }
+
+    @Test
+    public void doesNotNotifyOfReleasedEntries() {
+        RecordingListener listener = new RecordingListener();
+        HandleRegistry<String> registry = new HandleRegistry<>(1, 0, listener);
+        registry.put("a", "A");
+
+        assertTrue(registry.release("a"));
+        registry.put("b", "B");
+        assertTrue(listener.evicted.isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.virgilsecurity.rn.crypto.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+public class PipelinedOutputStreamTest {
+    private static final Executor EXECUTOR = Executors.newCachedThreadPool();
+
+    private static final class FailingChannel implements WritableByteChannel {
+        boolean isOpen = true;
+
+        @Override
+        public int write(ByteBuffer buffer) throws IOException {
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.isOpen;
+        }
+
+        @Override
+        public void close() {
+            this.isOpen = false;
+        }
+    }
+
+    @Test
+    public void writesEverythingByClose() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        PipelinedOutputStream outputStream = new PipelinedOutputStream(Channels.newChannel(sink), 4, 2, EXECUTOR);
+
+        outputStream.write(new byte[] { 1, 2, 3, 4, 5, 6 }, 0, 6);
+        outputStream.close();
+
+        assertEquals(6, sink.size());
+    }
+
+    @Test
+    public void reportsFailedWriteOfLastChunkOnClose() {
+        FailingChannel channel = new FailingChannel();
+        PipelinedOutputStream outputStream = new PipelinedOutputStream(channel, 16, 2, EXECUTOR);
+
+        try {
+            // Shorter than a chunk, so it's only handed to the writer by close
+            outputStream.write(new byte[] { 1, 2, 3 }, 0, 3);
+            outputStream.close();
+            fail("Expected the failed write to be reported");
+        } catch (IOException e) {
+            assertEquals("No space left on device", e.getMessage());
+        }
+        assertFalse(channel.isOpen());
+    }
+}
@@ -27,8 +27,12 @@ class App extends React.Component {
     benchmarks: [],
   };
 
-  runBenchmark = () => {
-    const suite = createBenchmark();
+  runBenchmark = async () => {
+    this.setState({
+      isRunning: true,
+      benchmarks: [],
+    });
+    const suite = await createBenchmark();
 
     suite.on('cycle', event => {
       this.setState(state => ({
@@ -45,10 +49,6 @@ class App extends React.Component {
     suite.run({
       async: true,
     });
-    this.setState({
-      isRunning: true,
-      benchmarks: [],
-    });
   };
 
   render() {
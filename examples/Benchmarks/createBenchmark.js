@@ -1,6 +1,7 @@
 import _ from 'lodash';
 global._ = _;
 import _Benchmark from 'benchmark';
+import RNFetchBlob from 'rn-fetch-blob';
 import {
   virgilCrypto,
   virgilBrainKeyCrypto,
@@ -12,8 +13,9 @@ import {
 const Benchmark = _Benchmark.runInContext(global);
 const eightKbData = Buffer.alloc(8192, 'benchmark data', 'utf-8');
 const oneKbData = Buffer.alloc(1024, 'benchmark data', 'utf-8');
+const fileSizeMb = 32;
 
-export function createBenchmark() {
+export async function createBenchmark() {
   const suite = new Benchmark.Suite();
 
   addGenerateKeys(suite, KeyPairType.ED25519);
@@ -53,6 +55,10 @@ export function createBenchmark() {
 
   addGroupEncryption(suite);
 
+  addEncryptStream(suite);
+
+  await addFileEncryption(suite);
+
   return suite;
 }
 
@@ -179,6 +185,15 @@ function addKeyknoxCrypto(suite, keyPairType) {
     );
   });
 
+  suite.add(`signThenEncryptDetached with padding (${keyPairType})`, () => {
+    virgilCrypto.signThenEncryptDetached(
+      oneKbData,
+      keypair.privateKey,
+      keypair.publicKey,
+      true,
+    );
+  });
+
   suite.add(`decryptThenVerifyDetached (${keyPairType})`, () => {
     virgilCrypto.decryptThenVerifyDetached(
       encryptedData,
@@ -246,3 +261,130 @@ function addGroupEncryption(suite) {
     groupSession.decrypt(encryptedData, keypair.publicKey);
   });
 }
+
+async function createTestFile(path, sizeMb) {
+  const oneMbBase64 = virgilCrypto.getRandomBytes(1024 * 1024).toString('base64');
+  await RNFetchBlob.fs.writeFile(path, oneMbBase64, 'base64');
+  for (let i = 1; i < sizeMb; i++) {
+    await RNFetchBlob.fs.appendFile(path, oneMbBase64, 'base64');
+  }
+}
+
+// Throughput in MB/s is ops/sec multiplied by the file size
+function addEncryptStream(suite) {
+  const keypair = virgilCrypto.generateKeys();
+
+  suite.add('encryptStream (1kB message)', () => {
+    const stream = virgilCrypto.createEncryptStream(keypair.publicKey);
+    stream.update(oneKbData);
+    stream.finish();
+  });
+
+  suite.add('encryptStream with signature (1kB message)', () => {
+    const stream = virgilCrypto.createEncryptStream(keypair.publicKey, {
+      signingPrivateKey: keypair.privateKey,
+    });
+    stream.update(oneKbData);
+    stream.finish();
+  });
+}
+
+function addFileEncryption(suite) {
+  const dir = RNFetchBlob.fs.dirs.CacheDir;
+  const inputPath = `${dir}/benchmark_input`;
+  const outputPath = `${dir}/benchmark_output`;
+  const encryptedPath = `${dir}/benchmark_encrypted`;
+  const encryptedSeekablePath = `${dir}/benchmark_encrypted_seekable`;
+  const keypair = virgilCrypto.generateKeys();
+  const addFileBenchmark = (name, run) => {
+    suite.add(`${name} (${fileSizeMb}MB)`, {
+      defer: true,
+      minSamples: 5,
+      fn: deferred => run().then(() => deferred.resolve()),
+    });
+  };
+
+  addFileBenchmark('encryptFile', () =>
+    virgilCrypto.encryptFile({
+      inputPath,
+      outputPath,
+      publicKeys: keypair.publicKey,
+    }),
+  );
+
+  addFileBenchmark('encryptFile (pipelined)', () =>
+    virgilCrypto.encryptFile({
+      inputPath,
+      outputPath,
+      publicKeys: keypair.publicKey,
+      pipelined: true,
+    }),
+  );
+
+  addFileBenchmark('encryptFileSeekable', () =>
+    virgilCrypto.encryptFileSeekable({
+      inputPath,
+      outputPath,
+      publicKeys: keypair.publicKey,
+    }),
+  );
+
+  addFileBenchmark('encryptFileSeekable (parallel)', () =>
+    virgilCrypto.encryptFileSeekable({
+      inputPath,
+      outputPath,
+      publicKeys: keypair.publicKey,
+      parallel: true,
+    }),
+  );
+
+  addFileBenchmark('decryptFile', () =>
+    virgilCrypto.decryptFile({
+      inputPath: encryptedPath,
+      outputPath,
+      privateKey: keypair.privateKey,
+    }),
+  );
+
+  addFileBenchmark('decryptFile (pipelined)', () =>
+    virgilCrypto.decryptFile({
+      inputPath: encryptedPath,
+      outputPath,
+      privateKey: keypair.privateKey,
+      pipelined: true,
+    }),
+  );
+
+  addFileBenchmark('decryptFileSeekable', () =>
+    virgilCrypto.decryptFileSeekable({
+      inputPath: encryptedSeekablePath,
+      outputPath,
+      privateKey: keypair.privateKey,
+    }),
+  );
+
+  addFileBenchmark('decryptFileSeekable (parallel)', () =>
+    virgilCrypto.decryptFileSeekable({
+      inputPath: encryptedSeekablePath,
+      outputPath,
+      privateKey: keypair.privateKey,
+      parallel: true,
+    }),
+  );
+
+  return createTestFile(inputPath, fileSizeMb)
+    .then(() =>
+      virgilCrypto.encryptFile({
+        inputPath,
+        outputPath: encryptedPath,
+        publicKeys: keypair.publicKey,
+      }),
+    )
+    .then(() =>
+      virgilCrypto.encryptFileSeekable({
+        inputPath,
+        outputPath: encryptedSeekablePath,
+        publicKeys: keypair.publicKey,
+      }),
+    );
+}
@@ -2,44 +2,379 @@ import {
     ICrypto as ICryptoBase,
     IBrainKeyCrypto,
     NodeBuffer,
+    Data,
     IPublicKey,
-    IPrivateKey
+    IPrivateKey,
+    IKeyPair,
+    IGroupSession,
+    IGroupSessionMessageInfo
 } from "@virgilsecurity/crypto-types";
 
-export type EncryptFileParams = {
+export type JobProgress = {
+    bytesProcessed: number;
+    // -1 if the size of the input is unknown
+    totalBytes: number;
+    // Average throughput of the job so far, in MiB (2^20 bytes) per second
+    megabytesPerSecond: number;
+    // Only reported by encryptFiles and decryptFiles
+    filesProcessed?: number;
+    totalFiles?: number;
+};
+
+export type JobParams = {
+    jobId?: string;
+    priority?: JobPriority;
+    // Size of the chunks the file is read and written in, 64 KiB by default
+    chunkSize?: number;
+    onProgress?: (progress: JobProgress) => void;
+};
+
+export type EncryptFileParams = JobParams & {
+    inputPath: string;
+    publicKeys: IPublicKey | IPublicKey[];
+    outputPath?: string;
+    enablePadding?: boolean;
+    // Read a local input file through memory mappings instead of chunks
+    memoryMapped?: boolean;
+    // Read and write the files on I/O threads while the data is encrypted
+    pipelined?: boolean;
+};
+
+export type DecryptFileParams = JobParams & {
+    inputPath: string;
+    privateKey: IPrivateKey;
+    outputPath?: string;
+    // Read and write the files on I/O threads while the data is decrypted
+    pipelined?: boolean;
+};
+
+// A file of a batch is given by its input path or by input and output paths
+export type BatchFile = string | { inputPath: string; outputPath?: string };
+
+// concurrency is capped by the number of threads of the lane, which is also the default
+export type EncryptFilesParams = JobParams & {
+    files: BatchFile[];
+    publicKeys: IPublicKey | IPublicKey[];
+    enablePadding?: boolean;
+    concurrency?: number;
+};
+
+export type DecryptFilesParams = JobParams & {
+    files: BatchFile[];
+    privateKey: IPrivateKey;
+    concurrency?: number;
+};
+
+// Result of one file of a batch, in the order of the files
+export type BatchFileResult =
+    | { inputPath: string; outputPath: string; error?: undefined }
+    | { inputPath: string; outputPath?: undefined; error: Error };
+
+export type SignThenEncryptFileParams = JobParams & {
     inputPath: string;
+    privateKey: IPrivateKey;
     publicKeys: IPublicKey | IPublicKey[];
     outputPath?: string;
     enablePadding?: boolean;
 };
 
-export type DecryptFileParams = {
+// publicKeys are the keys of the possible signers
+export type DecryptThenVerifyFileParams = JobParams & {
     inputPath: string;
     privateKey: IPrivateKey;
+    publicKeys: IPublicKey | IPublicKey[];
     outputPath?: string;
 };
 
-export type GenerateFileSignatureParams = {
+export type GenerateFileSignatureParams = JobParams & {
     inputPath: string;
     privateKey: IPrivateKey;
+    // Read a local input file through memory mappings instead of chunks
+    memoryMapped?: boolean;
 };
 
-export type VerifyFileSignatureParams = {
+export type VerifyFileSignatureParams = JobParams & {
     inputPath: string;
     signature: string;
     publicKey: IPublicKey;
 };
 
+export type HashFileParams = JobParams & {
+    inputPath: string;
+    algorithms?: HashAlgorithm | HashAlgorithm[];
+};
+
+// Digests of the file by the name of the hash algorithm, e.g. digests.SHA256
+export type FileDigests = { [algorithm: string]: NodeBuffer };
+
+// chunkSize is the size of the independently encrypted chunks, 64 KiB by default.
+// parallel encrypts the chunks on all cores.
+export type EncryptFileSeekableParams = JobParams & {
+    inputPath: string;
+    publicKeys: IPublicKey | IPublicKey[];
+    outputPath?: string;
+    parallel?: boolean;
+    // Requires outputPath. The journal next to the output holds the key of the file until
+    // the job completes, see discardResumableJob.
+    resumable?: boolean;
+};
+
+// maxAge is in milliseconds since the last progress of a job
+export type DiscardStaleResumableJobsParams = {
+    directory: string;
+    maxAge: number;
+};
+
+export type DecryptFileSeekableParams = JobParams & {
+    inputPath: string;
+    privateKey: IPrivateKey;
+    outputPath?: string;
+    parallel?: boolean;
+};
+
+export type DecryptFileRangeParams = {
+    inputPath: string;
+    privateKey: IPrivateKey;
+    offset: number;
+    length: number;
+    jobId?: string;
+    priority?: JobPriority;
+};
+
+export type DecryptedRange = {
+    // Shorter than the requested length at the end of the file
+    data: NodeBuffer;
+    // Size of the whole decrypted file
+    totalBytes: number;
+};
+
+export type SchedulerLaneStats = {
+    queued: number;
+    active: number;
+    threads: number;
+    maxThreads: number;
+    completed: number;
+};
+
+export type SchedulerStats = {
+    interactive: SchedulerLaneStats;
+    background: SchedulerLaneStats;
+    queueCapacity: number;
+    cancellableJobs: number;
+};
+
+export type SchedulerOptions = {
+    interactiveThreads: number;
+    backgroundThreads: number;
+    queueCapacity: number;
+};
+
+// Arrays allocated by the hot paths of the native module and arrays reused from its pool,
+// counted since the app started. iOS doesn't pool buffers, all counters are 0 there.
+export type BufferPoolStats = {
+    allocations: number;
+    allocatedBytes: number;
+    reuses: number;
+};
+
+export type PublicKeyCacheStats = {
+    size: number;
+    capacity: number;
+    hits: number;
+    misses: number;
+};
+
+// Recipients imported on the native side once, pass it in place of the public keys
+// of encrypt and signThenEncrypt to encrypt many messages for the same recipients
+export interface IRecipientSet {
+    readonly size: number;
+}
+
+export type SignedItem = {
+    data: Data;
+    signature: Data;
+    publicKey: IPublicKey;
+};
+
+export type BatchItemResult =
+    | { result: NodeBuffer; error?: undefined }
+    | { result?: undefined; error: Error };
+
+export type DetachedEncryptionResult = {
+    encryptedData: NodeBuffer;
+    metadata: NodeBuffer;
+};
+
+export type EncryptStreamOptions = {
+    signingPrivateKey?: IPrivateKey;
+    enablePadding?: boolean;
+};
+
+export type EncryptStreamResult = {
+    encryptedData: NodeBuffer;
+    // Detached signature of the whole plaintext, present if the stream was created with a signing key
+    signature?: NodeBuffer;
+};
+
+export interface IEncryptStream {
+    update(data: Data): NodeBuffer;
+    updateAsync(data: Data): Promise<NodeBuffer>;
+    finish(): EncryptStreamResult;
+    finishAsync(): Promise<EncryptStreamResult>;
+    abort(): void;
+}
+
+export type DecryptStreamOptions = {
+    // Message info sent separately from the data, e.g. the metadata of signThenEncryptDetached
+    messageInfo?: Data;
+    verifyingPublicKeys?: IPublicKey | IPublicKey[];
+    // Detached signature of the plaintext, e.g. the one returned by IEncryptStream.finish
+    signature?: Data;
+};
+
+export interface IDecryptStream {
+    update(encryptedData: Data): NodeBuffer;
+    updateAsync(encryptedData: Data): Promise<NodeBuffer>;
+    finish(): NodeBuffer;
+    finishAsync(): Promise<NodeBuffer>;
+    abort(): void;
+}
+
+export interface IHash {
+    update(data: Data): IHash;
+    updateAsync(data: Data): Promise<IHash>;
+    digest(): NodeBuffer;
+    abort(): void;
+}
+
+export interface IAsyncGroupSession extends IGroupSession {
+    encryptAsync(data: Data, signingPrivateKey: IPrivateKey): Promise<NodeBuffer>;
+    decryptAsync(encryptedData: Data, verifyingPublicKey: IPublicKey): Promise<NodeBuffer>;
+    addNewEpochAsync(): Promise<IGroupSessionMessageInfo>;
+}
+
 interface ICrypto extends ICryptoBase {
     encryptFile(params: EncryptFileParams): Promise<string>;
     decryptFile(params: DecryptFileParams): Promise<string>;
+    // Processes the files as one job, resolves once all of them are done
+    encryptFiles(params: EncryptFilesParams): Promise<BatchFileResult[]>;
+    decryptFiles(params: DecryptFilesParams): Promise<BatchFileResult[]>;
+    signThenEncryptFile(params: SignThenEncryptFileParams): Promise<string>;
+    decryptThenVerifyFile(params: DecryptThenVerifyFileParams): Promise<string>;
     generateFileSignature(params: GenerateFileSignatureParams): Promise<NodeBuffer>;
     verifyFileSignature(params: VerifyFileSignatureParams): Promise<boolean>;
+    hashFile(params: HashFileParams): Promise<FileDigests>;
+    encryptFileSeekable(params: EncryptFileSeekableParams): Promise<string>;
+    // Resolves with false if there's no unfinished job for the output or it's still running
+    discardResumableJob(outputPath: string): Promise<boolean>;
+    // Resolves with the number of discarded jobs
+    discardStaleResumableJobs(params: DiscardStaleResumableJobsParams): Promise<number>;
+    decryptFileSeekable(params: DecryptFileSeekableParams): Promise<string>;
+    decryptFileRange(params: DecryptFileRangeParams): Promise<DecryptedRange>;
+    createHash(algorithm?: HashAlgorithm): IHash;
+    releasePrivateKey(privateKey: IPrivateKey): boolean;
+    getPublicKeyCacheStats(): PublicKeyCacheStats;
+    setPublicKeyCacheCapacity(capacity: number): void;
+    clearPublicKeyCache(): void;
+    createRecipientSet(publicKeys: IPublicKey | IPublicKey[]): IRecipientSet;
+    releaseRecipientSet(recipientSet: IRecipientSet): boolean;
+    encrypt(data: Data, publicKeys: IPublicKey | IPublicKey[], enablePadding?: boolean): NodeBuffer;
+    encrypt(data: Data, recipientSet: IRecipientSet, enablePadding?: boolean): NodeBuffer;
+    signThenEncrypt(
+        data: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[],
+        enablePadding?: boolean
+    ): NodeBuffer;
+    signThenEncrypt(
+        data: Data,
+        privateKey: IPrivateKey,
+        recipientSet: IRecipientSet,
+        enablePadding?: boolean
+    ): NodeBuffer;
+    cancelJob(jobId: string): boolean;
+    getSchedulerStats(): SchedulerStats;
+    getBufferPoolStats(): BufferPoolStats;
+    configureScheduler(options: SchedulerOptions): void;
+    encryptBatch(items: Data[], publicKeys: IPublicKey | IPublicKey[], enablePadding?: boolean): Promise<BatchItemResult[]>;
+    decryptBatch(items: Data[], privateKey: IPrivateKey): Promise<BatchItemResult[]>;
+    signThenEncryptBatch(
+        items: Data[],
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[],
+        enablePadding?: boolean
+    ): Promise<BatchItemResult[]>;
+    generateSignatures(items: Data[], privateKey: IPrivateKey): Promise<NodeBuffer[]>;
+    verifySignatures(items: SignedItem[]): Promise<boolean[]>;
+    decryptThenVerifyBatch(
+        items: Data[],
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[]
+    ): Promise<BatchItemResult[]>;
+    getRandomBytesAsync(size: number): Promise<NodeBuffer>;
+    calculateHashAsync(data: Data, algorithm?: HashAlgorithm): Promise<NodeBuffer>;
+    generateKeysAsync(type?: KeyPairType): Promise<IKeyPair>;
+    generateKeysFromKeyMaterialAsync(keyMaterial: Data, type?: KeyPairType): Promise<IKeyPair>;
+    importPrivateKeyAsync(rawPrivateKey: Data): Promise<IPrivateKey>;
+    encryptAsync(data: Data, publicKeys: IPublicKey | IPublicKey[], enablePadding?: boolean): Promise<NodeBuffer>;
+    encryptAsync(data: Data, recipientSet: IRecipientSet, enablePadding?: boolean): Promise<NodeBuffer>;
+    decryptAsync(encryptedData: Data, privateKey: IPrivateKey): Promise<NodeBuffer>;
+    calculateSignatureAsync(data: Data, privateKey: IPrivateKey): Promise<NodeBuffer>;
+    verifySignatureAsync(data: Data, signature: Data, publicKey: IPublicKey): Promise<boolean>;
+    signAndEncryptAsync(
+        data: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[],
+        enablePadding?: boolean
+    ): Promise<NodeBuffer>;
+    decryptAndVerifyAsync(
+        encryptedData: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[]
+    ): Promise<NodeBuffer>;
+    signThenEncryptAsync(
+        data: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[],
+        enablePadding?: boolean
+    ): Promise<NodeBuffer>;
+    signThenEncryptAsync(
+        data: Data,
+        privateKey: IPrivateKey,
+        recipientSet: IRecipientSet,
+        enablePadding?: boolean
+    ): Promise<NodeBuffer>;
+    decryptThenVerifyAsync(
+        encryptedData: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[]
+    ): Promise<NodeBuffer>;
+    signThenEncryptDetachedAsync(
+        data: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[],
+        enablePadding?: boolean
+    ): Promise<DetachedEncryptionResult>;
+    decryptThenVerifyDetachedAsync(
+        encryptedData: Data,
+        metadata: Data,
+        privateKey: IPrivateKey,
+        publicKeys: IPublicKey | IPublicKey[]
+    ): Promise<NodeBuffer>;
+    createEncryptStream(publicKeys: IPublicKey | IPublicKey[], options?: EncryptStreamOptions): IEncryptStream;
+    createDecryptStream(privateKey: IPrivateKey, options?: DecryptStreamOptions): IDecryptStream;
+    generateGroupSessionAsync(groupId: Data): Promise<IAsyncGroupSession>;
+    importGroupSessionAsync(epochMessages: Data[]): Promise<IAsyncGroupSession>;
+}
+
+interface IAsyncBrainKeyCrypto extends IBrainKeyCrypto {
+    blindAsync(password: Data): Promise<{ blindedPassword: NodeBuffer; blindingSecret: NodeBuffer }>;
+    deblindAsync(options: { transformedPassword: Data; blindingSecret: Data }): Promise<NodeBuffer>;
 }
 
 export const Buffer: NodeBuffer;
 export const virgilCrypto: ICrypto;
-export const virgilBrainKeyCrypto: IBrainKeyCrypto;
+export const virgilBrainKeyCrypto: IAsyncBrainKeyCrypto;
 export enum KeyPairType {
     ED25519,
     CURVE25519,
@@ -56,5 +391,9 @@ export enum HashAlgorithm {
     SHA384,
     SHA512
 }
+export enum JobPriority {
+    INTERACTIVE,
+    BACKGROUND
+}
 
 export { IKeyPair } from "@virgilsecurity/crypto-types";
@@ -3,4 +3,5 @@ export { virgilCrypto } from './src/virgil-crypto';
 export { virgilBrainKeyCrypto } from './src/virgil-brainkey-crypto';
 export { KeyPairType } from './src/key-pair-type';
 export { HashAlgorithm } from './src/hash-algorithm';
+export { JobPriority } from './src/job-priority';
 export { RNVirgilCryptoError } from './src/rn-virgil-crypto-error';
@@ -1,4 +1,4 @@
-import { virgilCrypto, Buffer, KeyPairType, HashAlgorithm } from './';
+import { virgilCrypto, Buffer, KeyPairType, HashAlgorithm, JobPriority } from './';
 
 jest.mock('react-native', () => ({
   NativeModules: {
@@ -14,5 +14,6 @@ describe('VirgilCrypto', () => {
   it('`virgilCrypto` exists', () => expect(virgilCrypto).toBeDefined());
   it('`KeyPairType` exists', () => expect(KeyPairType).toBeDefined());
   it('`HashAlgorithm` exists', () => expect(HashAlgorithm).toBeDefined());
+  it('`JobPriority` exists', () => expect(JobPriority).toBeDefined());
   it('`Buffer` exists', () => expect(Buffer).toBeDefined());
 });
@@ -0,0 +1,16 @@
+#import <Foundation/Foundation.h>
+
+typedef void (^BatchProgressHandler)(unsigned long long bytesProcessed, long long totalBytes, NSUInteger filesProcessed, NSUInteger totalFiles, double megabytesPerSecond);
+
+// Adds up the progress of the files of a batch job, which are read on several threads at once,
+// and reports the sum at most once per 100 ms, plus once per processed file. The throughput is
+// that of the whole batch since it started.
+@interface BatchProgress : NSObject
+
+// totalBytes is -1 if the size of any of the files is unknown
+- (instancetype _Nonnull)initWithTotalBytes:(long long)totalBytes totalFiles:(NSUInteger)totalFiles handler:(BatchProgressHandler _Nonnull)handler;
+// Returns a progress handler for the ProgressInputStream of one file of the batch
+- (void (^_Nonnull)(unsigned long long bytesProcessed, double megabytesPerSecond))fileHandler;
+- (void)fileProcessed;
+
+@end
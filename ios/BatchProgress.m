@@ -0,0 +1,62 @@
+#import "BatchProgress.h"
+
+static const CFTimeInterval ReportInterval = 0.1;
+static const double BytesInMegabyte = 1024 * 1024;
+
+@interface BatchProgress ()
+
+@property (nonatomic) long long totalBytes;
+@property (nonatomic) NSUInteger totalFiles;
+@property (nonatomic, copy) BatchProgressHandler handler;
+@property (nonatomic) CFTimeInterval startedAt;
+@property (nonatomic) CFTimeInterval reportedAt;
+@property (nonatomic) unsigned long long bytesProcessed;
+@property (nonatomic) NSUInteger filesProcessed;
+
+@end
+
+@implementation BatchProgress
+
+- (instancetype)initWithTotalBytes:(long long)totalBytes totalFiles:(NSUInteger)totalFiles handler:(BatchProgressHandler)handler {
+    self = [super init];
+    self.totalBytes = totalBytes;
+    self.totalFiles = totalFiles;
+    self.handler = handler;
+    self.startedAt = CFAbsoluteTimeGetCurrent();
+    self.reportedAt = self.startedAt;
+    return self;
+}
+
+- (void (^)(unsigned long long, double))fileHandler {
+    __block unsigned long long reportedBytes = 0;
+    return ^(unsigned long long bytesProcessed, double megabytesPerSecond) {
+        [self addBytes:bytesProcessed - reportedBytes];
+        reportedBytes = bytesProcessed;
+    };
+}
+
+- (void)addBytes:(unsigned long long)count {
+    @synchronized (self) {
+        self.bytesProcessed += count;
+        CFTimeInterval now = CFAbsoluteTimeGetCurrent();
+        if (now - self.reportedAt >= ReportInterval) {
+            [self reportAt:now];
+        }
+    }
+}
+
+- (void)fileProcessed {
+    @synchronized (self) {
+        self.filesProcessed += 1;
+        [self reportAt:CFAbsoluteTimeGetCurrent()];
+    }
+}
+
+- (void)reportAt:(CFTimeInterval)now {
+    self.reportedAt = now;
+    CFTimeInterval elapsed = now - self.startedAt;
+    double megabytesPerSecond = elapsed > 0 ? self.bytesProcessed / BytesInMegabyte / elapsed : 0;
+    self.handler(self.bytesProcessed, self.totalBytes, self.filesProcessed, self.totalFiles, megabytesPerSecond);
+}
+
+@end
@@ -2,3 +2,8 @@
 
 extern NSString *const RNVC_ASSET_PREFIX;
 extern NSString *const RNVC_ERROR_DOMAIN;
+extern NSInteger const RNVC_ERROR_CODE_HANDLE_NOT_FOUND;
+extern NSInteger const RNVC_ERROR_CODE_INVALID_ARGUMENT;
+extern NSInteger const RNVC_ERROR_CODE_SIGNATURE_NOT_VERIFIED;
+extern NSInteger const RNVC_ERROR_CODE_INVALID_FORMAT;
+extern NSInteger const RNVC_ERROR_CODE_RECIPIENT_SET_NOT_FOUND;
@@ -2,3 +2,8 @@
 
 NSString *const RNVC_ASSET_PREFIX = @"bundle-assets://";
 NSString *const RNVC_ERROR_DOMAIN = @"com.virgilsecurity.rn.crypto";
+NSInteger const RNVC_ERROR_CODE_HANDLE_NOT_FOUND = -10;
+NSInteger const RNVC_ERROR_CODE_INVALID_ARGUMENT = -11;
+NSInteger const RNVC_ERROR_CODE_SIGNATURE_NOT_VERIFIED = -12;
+NSInteger const RNVC_ERROR_CODE_INVALID_FORMAT = -13;
+NSInteger const RNVC_ERROR_CODE_RECIPIENT_SET_NOT_FOUND = -14;
@@ -0,0 +1,46 @@
+#import <Foundation/Foundation.h>
+#import <React/RCTBridgeModule.h>
+
+typedef NS_ENUM(NSInteger, CryptoSchedulerLane) {
+    CryptoSchedulerLaneInteractive,
+    CryptoSchedulerLaneBackground
+};
+
+// Unit of work settling a promise. Jobs call resolve/reject on the job instead of the promise
+// blocks, so a cancelled job is always rejected with "cancelled" no matter how it ends.
+@interface CryptoJob : NSObject
+
+@property (atomic, readonly) BOOL isCancelled;
+// Called when a job that has already started is cancelled, e.g. to remove partial output
+@property (nonatomic, copy, nullable) dispatch_block_t onCancelled;
+
+- (instancetype _Nonnull)initWithResolver:(RCTPromiseResolveBlock _Nonnull)resolve rejecter:(RCTPromiseRejectBlock _Nonnull)reject;
+- (void)resolve:(id _Nullable)result;
+- (void)reject:(NSString *_Nonnull)code message:(NSString *_Nullable)message error:(NSError *_Nullable)error;
+
+@end
+
+// Runs native jobs in two lanes with their own operation queues, so a backlog of background
+// work (e.g. file encryption) never delays interactive calls. Each lane accepts a limited number
+// of queued jobs, jobs over the limit are rejected with "queue_full".
+@interface CryptoScheduler : NSObject
+
+- (instancetype _Nonnull)initWithInteractiveThreads:(NSInteger)interactiveThreads backgroundThreads:(NSInteger)backgroundThreads queueCapacity:(NSUInteger)queueCapacity;
+// A job with an id can be cancelled with cancelJobWithId: until it settles
+- (void)submitJob:(CryptoJob *_Nonnull)job withId:(NSString *_Nullable)jobId lane:(CryptoSchedulerLane)lane block:(void (^_Nonnull)(CryptoJob *_Nonnull job))block;
+// A queued job is rejected right away, a running one once it stops reading or finishes.
+// Returns NO if there is no such job or it has already settled.
+- (BOOL)cancelJobWithId:(NSString *_Nonnull)jobId;
+- (void)configureWithInteractiveThreads:(NSInteger)interactiveThreads backgroundThreads:(NSInteger)backgroundThreads queueCapacity:(NSUInteger)queueCapacity;
+- (NSDictionary *_Nonnull)stats;
+// Runs internal work of an already accepted job, e.g. the files of a batch. It doesn't count
+// against the queue capacity and can't be cancelled.
+- (void)executeInLane:(CryptoSchedulerLane)lane block:(dispatch_block_t _Nonnull)block;
+- (NSInteger)threadsCountForLane:(CryptoSchedulerLane)lane;
+// Runs blocking I/O of an already accepted job, e.g. reads ahead of the cipher. The I/O queue
+// is concurrent, so I/O never waits for other work.
+- (void)executeIo:(dispatch_block_t _Nonnull)block;
+
++ (CryptoSchedulerLane)laneFromString:(NSString *_Nullable)lane defaultLane:(CryptoSchedulerLane)defaultLane;
+
+@end
@@ -0,0 +1,217 @@
+#import "CryptoScheduler.h"
+
+static NSString *const CancelledCode = @"cancelled";
+static NSString *const CancelledMessage = @"The job was cancelled";
+
+@interface CryptoJob ()
+
+@property (nonatomic, copy) RCTPromiseResolveBlock resolver;
+@property (nonatomic, copy) RCTPromiseRejectBlock rejecter;
+@property (atomic, readwrite) BOOL isCancelled;
+@property (atomic) BOOL isStarted;
+@property (nonatomic) BOOL isSettled;
+@property (nonatomic, copy) NSString *jobId;
+@property (nonatomic, weak) CryptoScheduler *scheduler;
+
+@end
+
+@interface CryptoScheduler ()
+
+@property (nonatomic, retain) NSOperationQueue *interactiveQueue;
+@property (nonatomic, retain) NSOperationQueue *backgroundQueue;
+// Read and write stages of pipelined file jobs block on storage most of the time, so they
+// get a queue of their own instead of waiting behind crypto work in the lanes
+@property (nonatomic, retain) dispatch_queue_t ioQueue;
+@property (nonatomic, retain) NSMutableDictionary<NSString *, CryptoJob *> *jobs;
+@property (nonatomic) NSUInteger queueCapacity;
+
+- (void)removeJob:(CryptoJob *)job;
+
+@end
+
+@implementation CryptoJob
+
+- (instancetype)initWithResolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject {
+    self = [super init];
+    self.resolver = resolve;
+    self.rejecter = reject;
+    return self;
+}
+
+- (BOOL)settle {
+    @synchronized (self) {
+        if (self.isSettled) {
+            return NO;
+        }
+        self.isSettled = YES;
+    }
+    [self.scheduler removeJob:self];
+    return YES;
+}
+
+- (void)resolve:(id)result {
+    if (self.isCancelled) {
+        [self reject:CancelledCode message:CancelledMessage error:nil];
+        return;
+    }
+    if ([self settle]) {
+        self.resolver(result);
+    }
+}
+
+- (void)reject:(NSString *)code message:(NSString *)message error:(NSError *)error {
+    if (self.isCancelled) {
+        code = CancelledCode;
+        message = CancelledMessage;
+        error = nil;
+    }
+    if ([self settle]) {
+        if (self.isCancelled && self.isStarted && self.onCancelled != nil) {
+            self.onCancelled();
+        }
+        self.rejecter(code, message, error);
+    }
+}
+
+@end
+
+@implementation CryptoScheduler {
+    NSUInteger _queued[2];
+    NSUInteger _active[2];
+    NSUInteger _completed[2];
+}
+
+- (instancetype)initWithInteractiveThreads:(NSInteger)interactiveThreads backgroundThreads:(NSInteger)backgroundThreads queueCapacity:(NSUInteger)queueCapacity {
+    self = [super init];
+    self.interactiveQueue = [[NSOperationQueue alloc] init];
+    self.interactiveQueue.name = @"RNVirgilCrypto.interactive";
+    self.interactiveQueue.qualityOfService = NSQualityOfServiceUserInitiated;
+    self.backgroundQueue = [[NSOperationQueue alloc] init];
+    self.backgroundQueue.name = @"RNVirgilCrypto.background";
+    self.backgroundQueue.qualityOfService = NSQualityOfServiceUtility;
+    self.ioQueue = dispatch_queue_create("RNVirgilCrypto.io", dispatch_queue_attr_make_with_qos_class(DISPATCH_QUEUE_CONCURRENT, QOS_CLASS_UTILITY, 0));
+    self.jobs = [NSMutableDictionary dictionary];
+    [self configureWithInteractiveThreads:interactiveThreads backgroundThreads:backgroundThreads queueCapacity:queueCapacity];
+    return self;
+}
+
+- (NSOperationQueue *)queueForLane:(CryptoSchedulerLane)lane {
+    return lane == CryptoSchedulerLaneInteractive ? self.interactiveQueue : self.backgroundQueue;
+}
+
+- (void)submitJob:(CryptoJob *)job withId:(NSString *)jobId lane:(CryptoSchedulerLane)lane block:(void (^)(CryptoJob *))block {
+    @synchronized (self) {
+        if (_queued[lane] >= self.queueCapacity) {
+            NSString *laneName = lane == CryptoSchedulerLaneInteractive ? @"interactive" : @"background";
+            [job reject:@"queue_full" message:[NSString stringWithFormat:@"The %@ queue is full (%lu jobs)", laneName, (unsigned long)self.queueCapacity] error:nil];
+            return;
+        }
+        _queued[lane] += 1;
+        job.scheduler = self;
+        if (jobId != nil) {
+            job.jobId = jobId;
+            self.jobs[jobId] = job;
+        }
+    }
+    [[self queueForLane:lane] addOperationWithBlock:^{
+        @synchronized (self) {
+            self->_queued[lane] -= 1;
+            self->_active[lane] += 1;
+        }
+        @autoreleasepool {
+            if (job.isCancelled) {
+                [job reject:CancelledCode message:CancelledMessage error:nil];
+            } else {
+                job.isStarted = YES;
+                block(job);
+            }
+        }
+        @synchronized (self) {
+            self->_active[lane] -= 1;
+            self->_completed[lane] += 1;
+        }
+    }];
+}
+
+- (BOOL)cancelJobWithId:(NSString *)jobId {
+    CryptoJob *job;
+    @synchronized (self) {
+        job = self.jobs[jobId];
+    }
+    if (job == nil) {
+        return NO;
+    }
+    job.isCancelled = YES;
+    if (job.isStarted == NO) {
+        [job reject:CancelledCode message:CancelledMessage error:nil];
+    }
+    return YES;
+}
+
+- (void)removeJob:(CryptoJob *)job {
+    if (job.jobId == nil) {
+        return;
+    }
+    @synchronized (self) {
+        if (self.jobs[job.jobId] == job) {
+            [self.jobs removeObjectForKey:job.jobId];
+        }
+    }
+}
+
+- (void)configureWithInteractiveThreads:(NSInteger)interactiveThreads backgroundThreads:(NSInteger)backgroundThreads queueCapacity:(NSUInteger)queueCapacity {
+    self.interactiveQueue.maxConcurrentOperationCount = interactiveThreads;
+    self.backgroundQueue.maxConcurrentOperationCount = backgroundThreads;
+    @synchronized (self) {
+        self.queueCapacity = queueCapacity;
+    }
+}
+
+- (NSDictionary *)statsForLane:(CryptoSchedulerLane)lane {
+    return @{
+        @"queued": @(_queued[lane]),
+        @"active": @(_active[lane]),
+        @"threads": @(_active[lane]),
+        @"maxThreads": @([self queueForLane:lane].maxConcurrentOperationCount),
+        @"completed": @(_completed[lane])
+    };
+}
+
+- (void)executeInLane:(CryptoSchedulerLane)lane block:(dispatch_block_t)block {
+    [[self queueForLane:lane] addOperationWithBlock:^{
+        @autoreleasepool {
+            block();
+        }
+    }];
+}
+
+- (NSInteger)threadsCountForLane:(CryptoSchedulerLane)lane {
+    return [self queueForLane:lane].maxConcurrentOperationCount;
+}
+
+- (void)executeIo:(dispatch_block_t)block {
+    dispatch_async(self.ioQueue, block);
+}
+
+- (NSDictionary *)stats {
+    @synchronized (self) {
+        return @{
+            @"interactive": [self statsForLane:CryptoSchedulerLaneInteractive],
+            @"background": [self statsForLane:CryptoSchedulerLaneBackground],
+            @"queueCapacity": @(self.queueCapacity),
+            @"cancellableJobs": @(self.jobs.count)
+        };
+    }
+}
+
++ (CryptoSchedulerLane)laneFromString:(NSString *)lane defaultLane:(CryptoSchedulerLane)defaultLane {
+    if ([lane isEqualToString:@"INTERACTIVE"]) {
+        return CryptoSchedulerLaneInteractive;
+    }
+    if ([lane isEqualToString:@"BACKGROUND"]) {
+        return CryptoSchedulerLaneBackground;
+    }
+    return defaultLane;
+}
+
+@end
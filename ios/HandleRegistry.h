@@ -0,0 +1,20 @@
+#import <Foundation/Foundation.h>
+
+#import "Constants.h"
+
+// Bounded registry of native objects that JS refers to by string handles.
+// The least recently used entry is dropped once the capacity is exceeded. Optionally entries
+// that were not accessed for longer than the given idle interval are dropped as well.
+@interface HandleRegistry<ObjectType> : NSObject
+
+@property (nonatomic, readonly) NSUInteger count;
+
+- (instancetype _Nonnull)initWithCapacity:(NSUInteger)capacity;
+- (instancetype _Nonnull)initWithCapacity:(NSUInteger)capacity maxIdleInterval:(NSTimeInterval)maxIdleInterval;
+- (void)setObject:(ObjectType _Nonnull)object forHandle:(NSString *_Nonnull)handle;
+- (ObjectType _Nullable)objectForHandle:(NSString *_Nonnull)handle error:(NSError *_Nullable*_Nullable)outError;
+- (BOOL)containsHandle:(NSString *_Nonnull)handle;
+- (BOOL)releaseHandle:(NSString *_Nonnull)handle;
+- (void)removeAllObjects;
+
+@end
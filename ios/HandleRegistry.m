@@ -0,0 +1,115 @@
+#import "HandleRegistry.h"
+
+@interface HandleRegistry ()
+
+@property (nonatomic) NSUInteger capacity;
+@property (nonatomic) NSTimeInterval maxIdleInterval;
+@property (nonatomic, retain) NSMutableDictionary<NSString *, NSNumber *> *lastAccess;
+@property (nonatomic, retain) NSMutableDictionary<NSString *, id> *objects;
+@property (nonatomic, retain) NSMutableOrderedSet<NSString *> *accessOrder;
+
+@end
+
+@implementation HandleRegistry
+
+- (instancetype)initWithCapacity:(NSUInteger)capacity {
+    return [self initWithCapacity:capacity maxIdleInterval:0];
+}
+
+- (instancetype)initWithCapacity:(NSUInteger)capacity maxIdleInterval:(NSTimeInterval)maxIdleInterval {
+    self = [super init];
+    self.capacity = capacity;
+    self.maxIdleInterval = maxIdleInterval;
+    self.objects = [NSMutableDictionary dictionaryWithCapacity:capacity];
+    self.accessOrder = [NSMutableOrderedSet orderedSetWithCapacity:capacity];
+    self.lastAccess = [NSMutableDictionary dictionaryWithCapacity:capacity];
+    return self;
+}
+
+- (NSUInteger)count {
+    @synchronized (self) {
+        return self.objects.count;
+    }
+}
+
+- (void)touch:(NSString *)handle {
+    [self.accessOrder removeObject:handle];
+    [self.accessOrder addObject:handle];
+    self.lastAccess[handle] = @([NSProcessInfo processInfo].systemUptime);
+}
+
+- (void)removeHandle:(NSString *)handle {
+    [self.objects removeObjectForKey:handle];
+    [self.accessOrder removeObject:handle];
+    [self.lastAccess removeObjectForKey:handle];
+}
+
+- (void)evictIdle {
+    if (self.maxIdleInterval <= 0) {
+        return;
+    }
+    NSTimeInterval now = [NSProcessInfo processInfo].systemUptime;
+    // Access order means the idle entries are all at the head of the set
+    while (self.accessOrder.count > 0) {
+        NSString *eldest = self.accessOrder.firstObject;
+        if (now - [self.lastAccess[eldest] doubleValue] <= self.maxIdleInterval) {
+            break;
+        }
+        [self removeHandle:eldest];
+    }
+}
+
+- (void)setObject:(id)object forHandle:(NSString *)handle {
+    @synchronized (self) {
+        [self evictIdle];
+        self.objects[handle] = object;
+        [self touch:handle];
+        while (self.accessOrder.count > self.capacity) {
+            [self removeHandle:self.accessOrder.firstObject];
+        }
+    }
+}
+
+- (id)objectForHandle:(NSString *)handle error:(NSError * _Nullable __autoreleasing *)outError {
+    @synchronized (self) {
+        [self evictIdle];
+        id object = self.objects[handle];
+        if (object == nil) {
+            if (outError != nil) {
+                NSDictionary *userInfo = @{
+                    NSLocalizedDescriptionKey: [NSString stringWithFormat:@"Handle '%@' is not registered or has already been released", handle]
+                };
+                *outError = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_HANDLE_NOT_FOUND userInfo:userInfo];
+            }
+            return nil;
+        }
+        [self touch:handle];
+        return object;
+    }
+}
+
+- (BOOL)containsHandle:(NSString *)handle {
+    @synchronized (self) {
+        return self.objects[handle] != nil;
+    }
+}
+
+- (BOOL)releaseHandle:(NSString *)handle {
+    @synchronized (self) {
+        if (self.objects[handle] == nil) {
+            return NO;
+        }
+        [self removeHandle:handle];
+        return YES;
+    }
+}
+
+- (void)removeAllObjects {
+    @synchronized (self) {
+        [self.objects removeAllObjects];
+        [self.accessOrder removeAllObjects];
+        [self.lastAccess removeAllObjects];
+    }
+}
+
+@end
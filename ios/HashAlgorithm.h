@@ -1,8 +1,11 @@
 #import <Foundation/Foundation.h>
 #import <VirgilCrypto/VirgilCrypto-Swift.h>
+#import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
 
 @interface HashAlgorithm : NSObject
 
 + (NSDictionary *)values;
+// Creates an incremental hash of the given algorithm, ready to be updated
++ (id<VSCFHash>)startHash:(VSMHashAlgorithm)algorithm;
 
 @end
@@ -11,4 +11,24 @@
     };
 }
 
++ (id<VSCFHash>)startHash:(VSMHashAlgorithm)algorithm {
+    id<VSCFHash> hash;
+    switch (algorithm) {
+        case VSMHashAlgorithmSha224:
+            hash = [[VSCFSha224 alloc] init];
+            break;
+        case VSMHashAlgorithmSha256:
+            hash = [[VSCFSha256 alloc] init];
+            break;
+        case VSMHashAlgorithmSha384:
+            hash = [[VSCFSha384 alloc] init];
+            break;
+        default:
+            hash = [[VSCFSha512 alloc] init];
+            break;
+    }
+    [hash start];
+    return hash;
+}
+
 @end
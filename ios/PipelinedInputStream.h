@@ -0,0 +1,13 @@
+#import <Foundation/Foundation.h>
+#import "CryptoScheduler.h"
+
+// Input stream that reads the wrapped stream ahead of the consumer on the I/O queue of the
+// scheduler, so the next chunks are read from storage while the current one goes through the
+// cipher. Chunks are passed in a ring of depth buffers: the reader waits for a free buffer once
+// it's depth chunks ahead, the consumer waits for a filled one once it catches up.
+// Reading starts on open, close waits for the reader to stop.
+@interface PipelinedInputStream : NSInputStream
+
+- (instancetype _Nonnull)initWithInputStream:(NSInputStream *_Nonnull)inputStream chunkSize:(NSUInteger)chunkSize depth:(NSUInteger)depth scheduler:(CryptoScheduler *_Nonnull)scheduler;
+
+@end
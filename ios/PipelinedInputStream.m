@@ -0,0 +1,174 @@
+#import "PipelinedInputStream.h"
+
+@interface PipelinedInputStream ()
+
+@property (nonatomic, retain) NSInputStream *inputStream;
+@property (nonatomic, retain) CryptoScheduler *scheduler;
+@property (nonatomic, retain) NSArray<NSMutableData *> *buffers;
+@property (nonatomic, retain) dispatch_semaphore_t freeBuffers;
+@property (nonatomic, retain) dispatch_semaphore_t filledBuffers;
+@property (nonatomic, retain) dispatch_group_t reader;
+@property (atomic) BOOL isStopped;
+@property (nonatomic, retain) NSError *readError;
+@property (nonatomic) NSUInteger bufferIndex;
+@property (nonatomic) NSUInteger bufferOffset;
+@property (nonatomic) NSUInteger bufferLength;
+@property (nonatomic) BOOL hasBuffer;
+@property (nonatomic) BOOL isFinished;
+@property (nonatomic) BOOL isOpened;
+@property (nonatomic) BOOL isClosed;
+
+@end
+
+@implementation PipelinedInputStream {
+    // Bytes in each filled buffer, 0 after the last one and -1 on failure
+    NSInteger *_filledLengths;
+}
+
+- (instancetype)initWithInputStream:(NSInputStream *)inputStream chunkSize:(NSUInteger)chunkSize depth:(NSUInteger)depth scheduler:(CryptoScheduler *)scheduler {
+    // NSInputStream is a class cluster, the data stream only satisfies the designated initializer
+    self = [super initWithData:[NSData data]];
+    self.inputStream = inputStream;
+    self.scheduler = scheduler;
+    NSMutableArray<NSMutableData *> *buffers = [NSMutableArray arrayWithCapacity:depth];
+    for (NSUInteger i = 0; i < depth; i++) {
+        [buffers addObject:[NSMutableData dataWithLength:chunkSize]];
+    }
+    self.buffers = buffers;
+    _filledLengths = calloc(depth, sizeof(NSInteger));
+    self.freeBuffers = dispatch_semaphore_create(depth);
+    self.filledBuffers = dispatch_semaphore_create(0);
+    self.reader = dispatch_group_create();
+    return self;
+}
+
+- (void)dealloc {
+    free(_filledLengths);
+}
+
+- (void)readAhead {
+    NSUInteger index = 0;
+    while (YES) {
+        dispatch_semaphore_wait(self.freeBuffers, DISPATCH_TIME_FOREVER);
+        if (self.isStopped) {
+            return;
+        }
+        NSMutableData *buffer = self.buffers[index];
+        NSUInteger filled = 0;
+        NSInteger count = 0;
+        while (filled < buffer.length) {
+            count = [self.inputStream read:(uint8_t *)buffer.mutableBytes + filled maxLength:buffer.length - filled];
+            if (count <= 0) {
+                break;
+            }
+            filled += count;
+        }
+        if (count < 0) {
+            self.readError = self.inputStream.streamError != nil ? self.inputStream.streamError : [NSError errorWithDomain:NSPOSIXErrorDomain code:EIO userInfo:nil];
+            _filledLengths[index] = -1;
+            dispatch_semaphore_signal(self.filledBuffers);
+            return;
+        }
+        _filledLengths[index] = filled;
+        dispatch_semaphore_signal(self.filledBuffers);
+        // A partly filled buffer is followed by an empty one marking the end
+        if (filled == 0) {
+            return;
+        }
+        index = (index + 1) % self.buffers.count;
+    }
+}
+
+- (NSInteger)read:(uint8_t *)buffer maxLength:(NSUInteger)length {
+    if (self.isFinished) {
+        return self.readError != nil ? -1 : 0;
+    }
+    if (self.bufferOffset == self.bufferLength) {
+        if (self.hasBuffer) {
+            self.hasBuffer = NO;
+            self.bufferIndex = (self.bufferIndex + 1) % self.buffers.count;
+            dispatch_semaphore_signal(self.freeBuffers);
+        }
+        dispatch_semaphore_wait(self.filledBuffers, DISPATCH_TIME_FOREVER);
+        NSInteger filled = _filledLengths[self.bufferIndex];
+        if (filled <= 0) {
+            self.isFinished = YES;
+            return filled;
+        }
+        self.hasBuffer = YES;
+        self.bufferOffset = 0;
+        self.bufferLength = filled;
+    }
+    NSUInteger count = MIN(length, self.bufferLength - self.bufferOffset);
+    memcpy(buffer, (uint8_t *)self.buffers[self.bufferIndex].mutableBytes + self.bufferOffset, count);
+    self.bufferOffset += count;
+    return count;
+}
+
+- (BOOL)getBuffer:(uint8_t **)buffer length:(NSUInteger *)length {
+    return NO;
+}
+
+- (BOOL)hasBytesAvailable {
+    return self.isOpened && self.isFinished == NO;
+}
+
+- (void)open {
+    if (self.isOpened) {
+        return;
+    }
+    self.isOpened = YES;
+    [self.inputStream open];
+    dispatch_group_t reader = self.reader;
+    dispatch_group_enter(reader);
+    [self.scheduler executeIo:^{
+        [self readAhead];
+        dispatch_group_leave(reader);
+    }];
+}
+
+- (void)close {
+    if (self.isClosed) {
+        return;
+    }
+    self.isClosed = YES;
+    if (self.isOpened) {
+        self.isStopped = YES;
+        dispatch_semaphore_signal(self.freeBuffers);
+        dispatch_group_wait(self.reader, DISPATCH_TIME_FOREVER);
+    }
+    [self.inputStream close];
+}
+
+- (NSStreamStatus)streamStatus {
+    if (self.readError != nil) {
+        return NSStreamStatusError;
+    }
+    if (self.isClosed) {
+        return NSStreamStatusClosed;
+    }
+    if (self.isFinished) {
+        return NSStreamStatusAtEnd;
+    }
+    return self.isOpened ? NSStreamStatusOpen : NSStreamStatusNotOpen;
+}
+
+- (NSError *)streamError {
+    return self.readError;
+}
+
+- (id)propertyForKey:(NSStreamPropertyKey)key {
+    return [self.inputStream propertyForKey:key];
+}
+
+- (BOOL)setProperty:(id)property forKey:(NSStreamPropertyKey)key {
+    return [self.inputStream setProperty:property forKey:key];
+}
+
+- (void)scheduleInRunLoop:(NSRunLoop *)runLoop forMode:(NSRunLoopMode)mode {
+}
+
+- (void)removeFromRunLoop:(NSRunLoop *)runLoop forMode:(NSRunLoopMode)mode {
+}
+
+@end
@@ -0,0 +1,13 @@
+#import <Foundation/Foundation.h>
+#import "CryptoScheduler.h"
+
+// Output stream that writes to the wrapped stream behind the producer on the I/O queue of the
+// scheduler, so storage is written while the cipher works on the next chunks. Chunks are passed
+// in a ring of depth buffers: the producer waits for a free buffer once the writer is depth
+// chunks behind. A failed write fails the next write of the producer; since the last chunks are
+// only written on close, streamError must be checked after close.
+@interface PipelinedOutputStream : NSOutputStream
+
+- (instancetype _Nonnull)initWithOutputStream:(NSOutputStream *_Nonnull)outputStream chunkSize:(NSUInteger)chunkSize depth:(NSUInteger)depth scheduler:(CryptoScheduler *_Nonnull)scheduler;
+
+@end
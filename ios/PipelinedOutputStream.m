@@ -0,0 +1,166 @@
+#import "PipelinedOutputStream.h"
+
+@interface PipelinedOutputStream ()
+
+@property (nonatomic, retain) NSOutputStream *outputStream;
+@property (nonatomic, retain) CryptoScheduler *scheduler;
+@property (nonatomic, retain) NSArray<NSMutableData *> *buffers;
+@property (nonatomic, retain) dispatch_semaphore_t freeBuffers;
+@property (nonatomic, retain) dispatch_semaphore_t filledBuffers;
+@property (nonatomic, retain) dispatch_group_t writer;
+@property (atomic, retain) NSError *writeError;
+@property (nonatomic) NSUInteger bufferIndex;
+@property (nonatomic) NSUInteger bufferLength;
+@property (nonatomic) BOOL hasBuffer;
+@property (nonatomic) BOOL isOpened;
+@property (nonatomic) BOOL isClosed;
+
+@end
+
+@implementation PipelinedOutputStream {
+    // Bytes in each filled buffer, 0 marks the end
+    NSUInteger *_filledLengths;
+}
+
+- (instancetype)initWithOutputStream:(NSOutputStream *)outputStream chunkSize:(NSUInteger)chunkSize depth:(NSUInteger)depth scheduler:(CryptoScheduler *)scheduler {
+    // NSOutputStream is a class cluster, the memory stream only satisfies the designated initializer
+    self = [super initToMemory];
+    self.outputStream = outputStream;
+    self.scheduler = scheduler;
+    NSMutableArray<NSMutableData *> *buffers = [NSMutableArray arrayWithCapacity:depth];
+    for (NSUInteger i = 0; i < depth; i++) {
+        [buffers addObject:[NSMutableData dataWithLength:chunkSize]];
+    }
+    self.buffers = buffers;
+    _filledLengths = calloc(depth, sizeof(NSUInteger));
+    self.freeBuffers = dispatch_semaphore_create(depth);
+    self.filledBuffers = dispatch_semaphore_create(0);
+    self.writer = dispatch_group_create();
+    return self;
+}
+
+- (void)dealloc {
+    free(_filledLengths);
+}
+
+- (void)writeBehind {
+    NSUInteger index = 0;
+    while (YES) {
+        dispatch_semaphore_wait(self.filledBuffers, DISPATCH_TIME_FOREVER);
+        NSUInteger length = _filledLengths[index];
+        if (length == 0) {
+            return;
+        }
+        // After a failure the rest is dropped, the buffers still go back to the producer
+        const uint8_t *bytes = self.buffers[index].bytes;
+        NSUInteger written = 0;
+        while (self.writeError == nil && written < length) {
+            NSInteger count = [self.outputStream write:bytes + written maxLength:length - written];
+            if (count <= 0) {
+                self.writeError = self.outputStream.streamError != nil ? self.outputStream.streamError : [NSError errorWithDomain:NSPOSIXErrorDomain code:EIO userInfo:nil];
+                break;
+            }
+            written += count;
+        }
+        dispatch_semaphore_signal(self.freeBuffers);
+        index = (index + 1) % self.buffers.count;
+    }
+}
+
+- (NSInteger)write:(const uint8_t *)buffer maxLength:(NSUInteger)length {
+    if (self.writeError != nil || self.isOpened == NO || self.isClosed) {
+        return -1;
+    }
+    NSUInteger written = 0;
+    while (written < length) {
+        if (self.hasBuffer == NO) {
+            dispatch_semaphore_wait(self.freeBuffers, DISPATCH_TIME_FOREVER);
+            self.hasBuffer = YES;
+            self.bufferLength = 0;
+        }
+        NSMutableData *chunk = self.buffers[self.bufferIndex];
+        NSUInteger count = MIN(length - written, chunk.length - self.bufferLength);
+        memcpy((uint8_t *)chunk.mutableBytes + self.bufferLength, buffer + written, count);
+        self.bufferLength += count;
+        written += count;
+        if (self.bufferLength == chunk.length) {
+            [self handOff];
+        }
+    }
+    return written;
+}
+
+// Passes the current buffer to the writer, an empty one marks the end
+- (void)handOff {
+    _filledLengths[self.bufferIndex] = self.bufferLength;
+    self.hasBuffer = NO;
+    self.bufferIndex = (self.bufferIndex + 1) % self.buffers.count;
+    dispatch_semaphore_signal(self.filledBuffers);
+}
+
+- (BOOL)hasSpaceAvailable {
+    return self.isOpened && self.isClosed == NO && self.writeError == nil;
+}
+
+- (void)open {
+    if (self.isOpened) {
+        return;
+    }
+    self.isOpened = YES;
+    [self.outputStream open];
+    dispatch_group_t writer = self.writer;
+    dispatch_group_enter(writer);
+    [self.scheduler executeIo:^{
+        [self writeBehind];
+        dispatch_group_leave(writer);
+    }];
+}
+
+- (void)close {
+    if (self.isClosed) {
+        return;
+    }
+    self.isClosed = YES;
+    if (self.isOpened) {
+        if (self.hasBuffer && self.bufferLength > 0) {
+            [self handOff];
+        }
+        if (self.hasBuffer == NO) {
+            dispatch_semaphore_wait(self.freeBuffers, DISPATCH_TIME_FOREVER);
+        }
+        self.bufferLength = 0;
+        [self handOff];
+        dispatch_group_wait(self.writer, DISPATCH_TIME_FOREVER);
+    }
+    [self.outputStream close];
+}
+
+- (NSStreamStatus)streamStatus {
+    if (self.writeError != nil) {
+        return NSStreamStatusError;
+    }
+    if (self.isClosed) {
+        return NSStreamStatusClosed;
+    }
+    return self.isOpened ? NSStreamStatusOpen : NSStreamStatusNotOpen;
+}
+
+- (NSError *)streamError {
+    return self.writeError;
+}
+
+- (id)propertyForKey:(NSStreamPropertyKey)key {
+    return [self.outputStream propertyForKey:key];
+}
+
+- (BOOL)setProperty:(id)property forKey:(NSStreamPropertyKey)key {
+    return [self.outputStream setProperty:property forKey:key];
+}
+
+- (void)scheduleInRunLoop:(NSRunLoop *)runLoop forMode:(NSRunLoopMode)mode {
+}
+
+- (void)removeFromRunLoop:(NSRunLoop *)runLoop forMode:(NSRunLoopMode)mode {
+}
+
+@end
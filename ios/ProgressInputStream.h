@@ -0,0 +1,20 @@
+#import <Foundation/Foundation.h>
+
+typedef void (^ProgressHandler)(unsigned long long bytesProcessed, double megabytesPerSecond);
+
+// Input stream that reports the bytes read from the wrapped stream at most once per 100 ms,
+// plus once when the end of the stream is reached. Along with the bytes goes the throughput since
+// the stream was created, so the last report has the effective throughput of the whole job.
+// The wrapped stream is read a chunk at a time, however little the consumer asks for at once.
+// Reading fails once isCancelled returns YES.
+@interface ProgressInputStream : NSInputStream
+
+@property (nonatomic, copy, nullable) ProgressHandler progressHandler;
+@property (nonatomic, copy, nullable) BOOL (^isCancelled)(void);
+
+- (instancetype _Nonnull)initWithInputStream:(NSInputStream *_Nonnull)inputStream chunkSize:(NSUInteger)chunkSize;
+// Moves the wrapped file stream, which must be open and not read yet, count bytes forward.
+// The skipped bytes count as processed.
+- (BOOL)skipBytes:(unsigned long long)count;
+
+@end
@@ -0,0 +1,127 @@
+#import "ProgressInputStream.h"
+
+static const CFTimeInterval ReportInterval = 0.1;
+static const double BytesInMegabyte = 1024 * 1024;
+
+@interface ProgressInputStream ()
+
+@property (nonatomic, retain) NSInputStream *inputStream;
+@property (nonatomic) unsigned long long bytesProcessed;
+@property (nonatomic) CFTimeInterval createdAt;
+@property (nonatomic) CFTimeInterval reportedAt;
+@property (nonatomic, retain) NSMutableData *buffer;
+@property (nonatomic) NSUInteger bufferOffset;
+@property (nonatomic) NSUInteger bufferLength;
+@property (nonatomic) BOOL isFinished;
+@property (nonatomic, retain) NSError *cancellationError;
+
+@end
+
+@implementation ProgressInputStream
+
+- (instancetype)initWithInputStream:(NSInputStream *)inputStream chunkSize:(NSUInteger)chunkSize {
+    // NSInputStream is a class cluster, the data stream only satisfies the designated initializer
+    self = [super initWithData:[NSData data]];
+    self.inputStream = inputStream;
+    self.buffer = [NSMutableData dataWithLength:chunkSize];
+    self.createdAt = CFAbsoluteTimeGetCurrent();
+    self.reportedAt = self.createdAt;
+    return self;
+}
+
+- (NSInteger)read:(uint8_t *)buffer maxLength:(NSUInteger)length {
+    if (self.isCancelled != nil && self.isCancelled()) {
+        self.cancellationError = [NSError errorWithDomain:NSCocoaErrorDomain code:NSUserCancelledError userInfo:@{
+            NSLocalizedDescriptionKey: @"The job was cancelled"
+        }];
+        return -1;
+    }
+    if (self.bufferOffset == self.bufferLength) {
+        NSInteger filled = [self.inputStream read:self.buffer.mutableBytes maxLength:self.buffer.length];
+        if (filled < 0) {
+            return filled;
+        }
+        if (filled == 0) {
+            if (self.isFinished == NO) {
+                self.isFinished = YES;
+                [self reportProgress];
+            }
+            return 0;
+        }
+        self.bufferOffset = 0;
+        self.bufferLength = filled;
+    }
+    NSUInteger count = MIN(length, self.bufferLength - self.bufferOffset);
+    memcpy(buffer, (uint8_t *)self.buffer.mutableBytes + self.bufferOffset, count);
+    self.bufferOffset += count;
+    self.bytesProcessed += count;
+    CFTimeInterval now = CFAbsoluteTimeGetCurrent();
+    if (now - self.reportedAt >= ReportInterval) {
+        self.reportedAt = now;
+        [self reportProgress];
+    }
+    return count;
+}
+
+- (BOOL)skipBytes:(unsigned long long)count {
+    NSNumber *offset = [self.inputStream propertyForKey:NSStreamFileCurrentOffsetKey];
+    if (offset == nil || self.bufferOffset != self.bufferLength) {
+        return NO;
+    }
+    if ([self.inputStream setProperty:@(offset.unsignedLongLongValue + count) forKey:NSStreamFileCurrentOffsetKey] == NO) {
+        return NO;
+    }
+    self.bytesProcessed += count;
+    return YES;
+}
+
+- (void)reportProgress {
+    if (self.progressHandler == nil) {
+        return;
+    }
+    CFTimeInterval elapsed = CFAbsoluteTimeGetCurrent() - self.createdAt;
+    double megabytesPerSecond = elapsed > 0 ? self.bytesProcessed / BytesInMegabyte / elapsed : 0;
+    self.progressHandler(self.bytesProcessed, megabytesPerSecond);
+}
+
+- (BOOL)getBuffer:(uint8_t **)buffer length:(NSUInteger *)length {
+    return NO;
+}
+
+- (BOOL)hasBytesAvailable {
+    return self.cancellationError != nil || self.bufferOffset < self.bufferLength || [self.inputStream hasBytesAvailable];
+}
+
+- (void)open {
+    [self.inputStream open];
+}
+
+- (void)close {
+    [self.inputStream close];
+}
+
+- (NSStreamStatus)streamStatus {
+    return self.cancellationError != nil ? NSStreamStatusError : [self.inputStream streamStatus];
+}
+
+- (NSError *)streamError {
+    return self.cancellationError != nil ? self.cancellationError : [self.inputStream streamError];
+}
+
+- (id)propertyForKey:(NSStreamPropertyKey)key {
+    return [self.inputStream propertyForKey:key];
+}
+
+- (BOOL)setProperty:(id)property forKey:(NSStreamPropertyKey)key {
+    return [self.inputStream setProperty:property forKey:key];
+}
+
+- (void)scheduleInRunLoop:(NSRunLoop *)runLoop forMode:(NSRunLoopMode)mode {
+    [self.inputStream scheduleInRunLoop:runLoop forMode:mode];
+}
+
+- (void)removeFromRunLoop:(NSRunLoop *)runLoop forMode:(NSRunLoopMode)mode {
+    [self.inputStream removeFromRunLoop:runLoop forMode:mode];
+}
+
+@end
@@ -0,0 +1,17 @@
+#import <Foundation/Foundation.h>
+#import <VirgilCrypto/VirgilCrypto-Swift.h>
+
+// Bounded cache of imported public keys keyed by SHA-256 digest of the raw key bytes.
+// The least recently used key is dropped once the capacity is exceeded.
+@interface PublicKeyCache : NSObject
+
+@property (nonatomic) NSUInteger capacity;
+@property (nonatomic, readonly) NSUInteger count;
+@property (nonatomic, readonly) NSUInteger hits;
+@property (nonatomic, readonly) NSUInteger misses;
+
+- (instancetype _Nonnull)initWithCrypto:(VSMVirgilCrypto *_Nonnull)crypto capacity:(NSUInteger)capacity;
+- (VSMVirgilPublicKey *_Nullable)importPublicKeyFrom:(NSData *_Nonnull)publicKeyData error:(NSError *_Nullable*_Nullable)error;
+- (void)removeAllObjects;
+
+@end
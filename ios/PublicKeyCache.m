@@ -0,0 +1,90 @@
+#import "PublicKeyCache.h"
+#import "NSData+Encoding.h"
+
+@interface PublicKeyCache ()
+
+@property (nonatomic, retain) VSMVirgilCrypto *crypto;
+@property (nonatomic, retain) NSMutableDictionary<NSString *, VSMVirgilPublicKey *> *keys;
+@property (nonatomic, retain) NSMutableOrderedSet<NSString *> *accessOrder;
+@property (nonatomic, readwrite) NSUInteger hits;
+@property (nonatomic, readwrite) NSUInteger misses;
+
+@end
+
+@implementation PublicKeyCache
+
+@synthesize capacity = _capacity;
+
+- (instancetype)initWithCrypto:(VSMVirgilCrypto *)crypto capacity:(NSUInteger)capacity {
+    self = [super init];
+    self.crypto = crypto;
+    _capacity = capacity;
+    self.keys = [NSMutableDictionary dictionaryWithCapacity:capacity];
+    self.accessOrder = [NSMutableOrderedSet orderedSetWithCapacity:capacity];
+    return self;
+}
+
+- (NSUInteger)capacity {
+    @synchronized (self) {
+        return _capacity;
+    }
+}
+
+- (void)setCapacity:(NSUInteger)capacity {
+    @synchronized (self) {
+        _capacity = capacity;
+        [self trim];
+    }
+}
+
+- (NSUInteger)count {
+    @synchronized (self) {
+        return self.keys.count;
+    }
+}
+
+- (void)trim {
+    while (self.accessOrder.count > _capacity) {
+        NSString *eldest = self.accessOrder.firstObject;
+        [self.accessOrder removeObjectAtIndex:0];
+        [self.keys removeObjectForKey:eldest];
+    }
+}
+
+- (VSMVirgilPublicKey *)importPublicKeyFrom:(NSData *)publicKeyData error:(NSError **)error {
+    NSString *digest = [[self.crypto computeHashFor:publicKeyData using:VSMHashAlgorithmSha256] stringUsingBase64];
+    @synchronized (self) {
+        VSMVirgilPublicKey *publicKey = self.keys[digest];
+        if (publicKey != nil) {
+            self.hits += 1;
+            [self.accessOrder removeObject:digest];
+            [self.accessOrder addObject:digest];
+            return publicKey;
+        }
+        self.misses += 1;
+    }
+
+    // Import outside of the lock, a duplicate import on a race is cheaper than serializing all callers
+    VSMVirgilPublicKey *publicKey = [self.crypto importPublicKeyFrom:publicKeyData error:error];
+    if (publicKey == nil) {
+        return nil;
+    }
+    @synchronized (self) {
+        self.keys[digest] = publicKey;
+        [self.accessOrder removeObject:digest];
+        [self.accessOrder addObject:digest];
+        [self trim];
+    }
+    return publicKey;
+}
+
+- (void)removeAllObjects {
+    @synchronized (self) {
+        [self.keys removeAllObjects];
+        [self.accessOrder removeAllObjects];
+        self.hits = 0;
+        self.misses = 0;
+    }
+}
+
+@end
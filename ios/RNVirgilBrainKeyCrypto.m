@@ -1,4 +1,5 @@
 #import "RNVirgilBrainKeyCrypto.h"
+#import "RNVirgilCrypto.h"
 
 @implementation RNVirgilBrainKeyCrypto
 
@@ -21,7 +22,11 @@ RCT_EXPORT_MODULE()
 
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(blind:(NSString *)passwordBase64) {
     NSError *error;
-    VSCPPythiaBlindResult *blindResult = [VSCPPythia blindWithPassword:[passwordBase64 dataUsingBase64] error:&error];
+    VSCPPythiaBlindResult *blindResult;
+    // Pythia keeps global state that isn't safe to use from several threads at once
+    @synchronized ([VSCPPythia class]) {
+        blindResult = [VSCPPythia blindWithPassword:[passwordBase64 dataUsingBase64] error:&error];
+    }
     if (blindResult == nil) {
         return [ResponseFactory fromError:error];
     }
@@ -33,11 +38,26 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(blind:(NSString *)passwordBase64) {
 
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(deblind:(NSString *)transformedPasswordBase64 blindingSecret:(NSString *)blindingSecretBase64) {
     NSError *error;
-    NSData *deblindResult = [VSCPPythia deblindWithTransformedPassword:[transformedPasswordBase64 dataUsingBase64] blindingSecret:[blindingSecretBase64 dataUsingBase64] error:&error];
+    NSData *deblindResult;
+    @synchronized ([VSCPPythia class]) {
+        deblindResult = [VSCPPythia deblindWithTransformedPassword:[transformedPasswordBase64 dataUsingBase64] blindingSecret:[blindingSecretBase64 dataUsingBase64] error:&error];
+    }
     if (deblindResult == nil) {
         return [ResponseFactory fromError:error];
     }
     return [ResponseFactory fromResult:[deblindResult stringUsingBase64]];
 }
 
+RCT_EXPORT_METHOD(blindAsync:(NSString *)passwordBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self blind:passwordBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(deblindAsync:(NSString *)transformedPasswordBase64 blindingSecret:(NSString *)blindingSecretBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self deblind:transformedPasswordBase64 blindingSecret:blindingSecretBase64];
+    } resolver:resolve rejecter:reject];
+}
+
 @end
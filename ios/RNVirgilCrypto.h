@@ -1,16 +1,37 @@
 #import <React/RCTBridgeModule.h>
+#import <React/RCTEventEmitter.h>
 #import <VirgilCrypto/VirgilCrypto-Swift.h>
 #import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
 
+#import "BatchProgress.h"
+#import "CryptoScheduler.h"
 #import "FSUtils.h"
+#import "HandleRegistry.h"
 #import "HashAlgorithm.h"
 #import "KeyPairType.h"
 #import "NSData+Encoding.h"
 #import "NSString+Encoding.h"
+#import "PipelinedInputStream.h"
+#import "PipelinedOutputStream.h"
+#import "ProgressInputStream.h"
+#import "PublicKeyCache.h"
 #import "ResponseFactory.h"
+#import "ResumableEncryption.h"
+#import "SeekableFile.h"
+#import "SignedStreams.h"
 
-@interface RNVirgilCrypto : NSObject <RCTBridgeModule>
+@interface RNVirgilCrypto : RCTEventEmitter <RCTBridgeModule>
 
-@property (nonatomic, retain) VSMVirgilCrypto *crypto;
+// Instance owned by the calling thread
+@property (nonatomic, readonly) VSMVirgilCrypto *crypto;
+
+// Imported keys that JS refers to by handle (base64 of the key identifier)
++ (HandleRegistry<VSMVirgilKeyPair *> *)keyPairs;
+// Imported recipient and signer keys, reused across calls
++ (PublicKeyCache *)publicKeyCache;
+// Runs native jobs of all modules in interactive and background lanes
++ (CryptoScheduler *)scheduler;
+// Runs the task in the interactive lane and resolves with the response dictionary it builds
++ (void)resolveAsync:(NSDictionary *(^)(void))task resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject;
 
 @end
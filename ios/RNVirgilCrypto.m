@@ -1,30 +1,130 @@
+#import <React/RCTBridge+Private.h>
+
 #import "RNVirgilCrypto.h"
+#import "RNVirgilCryptoJsi.h"
+#import "RNVirgilGroupSession.h"
+
+@interface RNVirgilCrypto ()
+
+@property (atomic) BOOL hasListeners;
+
+@end
 
 @implementation RNVirgilCrypto
 
+static NSString *const JobProgressEvent = @"RNVirgilCrypto.jobProgress";
+// Big enough for a read to cost far less than the crypto on the data it returns
+static const NSUInteger DefaultChunkSize = 64 * 1024;
+// Chunks a pipelined file job reads ahead of, or writes behind, the cipher
+static const NSUInteger PipelineDepth = 4;
+
 RCT_EXPORT_MODULE()
 
-- (instancetype)init {
-    self = [super init];
-    self.crypto = [[VSMVirgilCrypto alloc] initWithDefaultKeyType:VSMKeyPairTypeEd25519 useSHA256Fingerprints:NO error:nil];
-    return self;
+// The random generator of VSMVirgilCrypto isn't thread safe. Methods run on the JS thread
+// and on background queues, so every thread gets its own instance.
+- (VSMVirgilCrypto *)crypto {
+    NSMutableDictionary *threadDictionary = [[NSThread currentThread] threadDictionary];
+    VSMVirgilCrypto *crypto = threadDictionary[@"RNVirgilCrypto.crypto"];
+    if (crypto == nil) {
+        crypto = [[VSMVirgilCrypto alloc] initWithDefaultKeyType:VSMKeyPairTypeEd25519 useSHA256Fingerprints:NO error:nil];
+        threadDictionary[@"RNVirgilCrypto.crypto"] = crypto;
+    }
+    return crypto;
+}
+
++ (void)resolveAsync:(NSDictionary *(^)(void))task resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject {
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:nil lane:CryptoSchedulerLaneInteractive block:^(CryptoJob *job) {
+        [job resolve:task()];
+    }];
 }
 
 - (NSDictionary *)constantsToExport {
     return @{
         @"KeyPairType": [KeyPairType values],
-        @"HashAlgorithm": [HashAlgorithm values]
+        @"HashAlgorithm": [HashAlgorithm values],
+        @"SchedulerLane": @{ @"INTERACTIVE": @"INTERACTIVE", @"BACKGROUND": @"BACKGROUND" },
+        @"JobProgressEvent": JobProgressEvent
     };
 }
 
+- (NSArray<NSString *> *)supportedEvents {
+    return @[JobProgressEvent];
+}
+
+- (void)startObserving {
+    self.hasListeners = YES;
+}
+
+- (void)stopObserving {
+    self.hasListeners = NO;
+}
+
 + (BOOL)requiresMainQueueSetup {
     return NO;
 }
 
++ (HandleRegistry<VSMVirgilKeyPair *> *)keyPairs {
+    static HandleRegistry<VSMVirgilKeyPair *> *keyPairs;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        keyPairs = [[HandleRegistry alloc] initWithCapacity:64];
+    });
+    return keyPairs;
+}
+
+// Recipient lists that JS encrypts to over and over, imported and checked once.
+// The handle is derived from the key identifiers, so registering the same list again gives the same handle.
++ (HandleRegistry<NSArray<VSMVirgilPublicKey *> *> *)recipientSets {
+    static HandleRegistry<NSArray<VSMVirgilPublicKey *> *> *recipientSets;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        recipientSets = [[HandleRegistry alloc] initWithCapacity:64];
+    });
+    return recipientSets;
+}
+
+// Fails with its own error code, so JS registers the recipient set again rather than a private key
++ (NSArray<VSMVirgilPublicKey *> *)recipientSetForHandle:(NSString *)recipientSetHandle error:(NSError **)outError {
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [[RNVirgilCrypto recipientSets] objectForHandle:recipientSetHandle error:nil];
+    if (publicKeys == nil && outError != nil) {
+        *outError = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_RECIPIENT_SET_NOT_FOUND userInfo:@{
+            NSLocalizedDescriptionKey: [NSString stringWithFormat:@"Recipient set '%@' is not registered or has already been released", recipientSetHandle]
+        }];
+    }
+    return publicKeys;
+}
+
++ (CryptoScheduler *)scheduler {
+    static CryptoScheduler *scheduler;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        NSInteger interactiveThreads = MIN(MAX([[NSProcessInfo processInfo] activeProcessorCount], 2), 8);
+        scheduler = [[CryptoScheduler alloc] initWithInteractiveThreads:interactiveThreads backgroundThreads:2 queueCapacity:256];
+    });
+    return scheduler;
+}
+
++ (PublicKeyCache *)publicKeyCache {
+    static PublicKeyCache *publicKeyCache;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        VSMVirgilCrypto *crypto = [[VSMVirgilCrypto alloc] initWithDefaultKeyType:VSMKeyPairTypeEd25519 useSHA256Fingerprints:NO error:nil];
+        publicKeyCache = [[PublicKeyCache alloc] initWithCrypto:crypto capacity:256];
+    });
+    return publicKeyCache;
+}
+
+- (NSString *)registerKeyPair:(VSMVirgilKeyPair *)keyPair {
+    NSString *keyHandle = [keyPair.identifier stringUsingBase64];
+    [[RNVirgilCrypto keyPairs] setObject:keyPair forHandle:keyHandle];
+    return keyHandle;
+}
+
 - (NSArray<VSMVirgilPublicKey *> *)importPublicKeys:(NSArray<NSString *> *)publicKeysBase64 error:(NSError **)error {
     NSMutableArray<VSMVirgilPublicKey *> *publicKeys = [NSMutableArray arrayWithCapacity:publicKeysBase64.count];
     for (NSString *publicKeyBase64 in publicKeysBase64) {
-        VSMVirgilPublicKey *publicKey = [self.crypto importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:error];
+        VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:error];
         if (publicKey == nil) {
             return nil;
         }
@@ -42,6 +142,8 @@ RCT_EXPORT_MODULE()
     if (publicKeyData == nil) {
         return nil;
     }
+    // The identifier doubles as the key handle. Generated keys aren't registered, so generating
+    // many of them doesn't evict imported ones; a key is registered on its first use instead.
     return @{
         @"privateKey": [privateKeyData stringUsingBase64],
         @"publicKey": [publicKeyData stringUsingBase64],
@@ -53,6 +155,16 @@ RCT_EXPORT_MODULE()
     return [self.crypto computeHashFor:data using:algorithm];
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(installJsiBindings) {
+    // Synchronous methods run on the JS thread, so the runtime is safe to touch here
+    RCTCxxBridge *cxxBridge = (RCTCxxBridge *)self.bridge;
+    if (![cxxBridge respondsToSelector:@selector(runtime)]) {
+        return [ResponseFactory fromResult:@(NO)];
+    }
+    BOOL isInstalled = [RNVirgilCryptoJsi installInRuntime:cxxBridge.runtime crypto:self.crypto];
+    return [ResponseFactory fromResult:@(isInstalled)];
+}
+
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(computeHash:(NSString *)dataBase64) {
     NSData *digest = [self computeHashFor:[dataBase64 dataUsingBase64] using:VSMHashAlgorithmSha512];
     return [ResponseFactory fromResult:[digest stringUsingBase64]];
@@ -115,12 +227,21 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encrypt:(NSString *)dataBase64 for:(NSArr
     return [ResponseFactory fromResult:[encryptedData stringUsingBase64]];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decrypt:(NSString *)dataBase64 with:(NSString *)privateKeyBase64) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(importPrivateKeyHandle:(NSString *)privateKeyBase64) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [ResponseFactory fromResult:[self registerKeyPair:keyPair]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(releaseKeyHandle:(NSString *)keyHandle) {
+    return [ResponseFactory fromResult:@([[RNVirgilCrypto keyPairs] releaseHandle:keyHandle])];
+}
+
+- (NSDictionary *)decrypt:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair {
+    NSError *error;
     NSData *decryptedData = [self.crypto decrypt:[dataBase64 dataUsingBase64] with:keyPair.privateKey error:&error];
     if (decryptedData == nil) {
         return [ResponseFactory fromError:error];
@@ -128,12 +249,26 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decrypt:(NSString *)dataBase64 with:(NSSt
     return [ResponseFactory fromResult:[decryptedData stringUsingBase64]];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateSignature:(NSString *)dataBase64 using:(NSString *)privateKeyBase64) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decrypt:(NSString *)dataBase64 with:(NSString *)privateKeyBase64) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [self decrypt:dataBase64 withKeyPair:keyPair];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self decrypt:dataBase64 withKeyPair:keyPair];
+}
+
+- (NSDictionary *)generateSignature:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair {
+    NSError *error;
     NSData *signature = [self.crypto generateSignatureOf:[dataBase64 dataUsingBase64] using:keyPair.privateKey error:&error];
     if (signature == nil) {
         return [ResponseFactory fromError:error];
@@ -141,9 +276,27 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateSignature:(NSString *)dataBase64
     return [ResponseFactory fromResult:[signature stringUsingBase64]];
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateSignature:(NSString *)dataBase64 using:(NSString *)privateKeyBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self generateSignature:dataBase64 withKeyPair:keyPair];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateSignatureWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self generateSignature:dataBase64 withKeyPair:keyPair];
+}
+
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(verifySignature:(NSString *)signatureBase64 of:(NSString *)dataBase64 with:(NSString *)publicKeyBase64) {
     NSError *error;
-    VSMVirgilPublicKey *publicKey = [self.crypto importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:&error];
+    VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:&error];
     if (publicKey == nil) {
         return [ResponseFactory fromError:error];
     }
@@ -151,12 +304,8 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(verifySignature:(NSString *)signatureBase
     return [ResponseFactory fromResult:@(isValid)];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signAndEncrypt:(NSString *)dataBase64 with:(NSString *)privateKeyBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
+- (NSDictionary *)signAndEncrypt:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding {
     NSError *error;
-    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
-    if (keyPair == nil) {
-        return [ResponseFactory fromError:error];
-    }
     NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
     if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
@@ -168,12 +317,26 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signAndEncrypt:(NSString *)dataBase64 wit
     return [ResponseFactory fromResult:[encryptedData stringUsingBase64]];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptAndVerify:(NSString *)dataBase64 with:(NSString*)privateKeyBase64 usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signAndEncrypt:(NSString *)dataBase64 with:(NSString *)privateKeyBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [self signAndEncrypt:dataBase64 withKeyPair:keyPair for:publicKeysBase64 enablePadding:enablePadding];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signAndEncryptWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self signAndEncrypt:dataBase64 withKeyPair:keyPair for:publicKeysBase64 enablePadding:enablePadding];
+}
+
+- (NSDictionary *)decryptAndVerify:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair usingOneOf:(NSArray<NSString *> *)publicKeysBase64 {
+    NSError *error;
     NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
     if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
@@ -185,12 +348,26 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptAndVerify:(NSString *)dataBase64 w
     return [ResponseFactory fromResult:[decryptedData stringUsingBase64]];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncrypt:(NSString *)dataBase64 with:(NSString *)privateKeyBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptAndVerify:(NSString *)dataBase64 with:(NSString*)privateKeyBase64 usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [self decryptAndVerify:dataBase64 withKeyPair:keyPair usingOneOf:publicKeysBase64];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptAndVerifyWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self decryptAndVerify:dataBase64 withKeyPair:keyPair usingOneOf:publicKeysBase64];
+}
+
+- (NSDictionary *)signThenEncrypt:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair for:(NSArray<NSString *> *)publicKeysBase64 {
+    NSError *error;
     NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
     if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
@@ -202,12 +379,26 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncrypt:(NSString *)dataBase64 wi
     return [ResponseFactory fromResult:[encryptedData stringUsingBase64]];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerify:(NSString *)dataBase64 with:(NSString*)privateKeyBase64 usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncrypt:(NSString *)dataBase64 with:(NSString *)privateKeyBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [self signThenEncrypt:dataBase64 withKeyPair:keyPair for:publicKeysBase64];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncryptWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self signThenEncrypt:dataBase64 withKeyPair:keyPair for:publicKeysBase64];
+}
+
+- (NSDictionary *)decryptThenVerify:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair usingOneOf:(NSArray<NSString *> *)publicKeysBase64 {
+    NSError *error;
     NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
     if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
@@ -219,6 +410,24 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerify:(NSString *)dataBase64
     return [ResponseFactory fromResult:[decryptedData stringUsingBase64]];
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerify:(NSString *)dataBase64 with:(NSString*)privateKeyBase64 usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self decryptThenVerify:dataBase64 withKeyPair:keyPair usingOneOf:publicKeysBase64];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerifyWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self decryptThenVerify:dataBase64 withKeyPair:keyPair usingOneOf:publicKeysBase64];
+}
+
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(getPrivateKeyIdentifier:(NSString *)privateKeyBase64) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
@@ -230,19 +439,15 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(getPrivateKeyIdentifier:(NSString *)priva
 
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(getPublicKeyIdentifier:(NSString *)publicKeyBase64) {
     NSError *error;
-    VSMVirgilPublicKey *publicKey = [self.crypto importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:&error];
+    VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:&error];
     if (publicKey == nil) {
         return [ResponseFactory fromError:error];
     }
     return [ResponseFactory fromResult:[publicKey.identifier stringUsingBase64]];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(extractPublicKey:(NSString *)privateKeyBase64) {
+- (NSDictionary *)extractPublicKeyOf:(VSMVirgilKeyPair *)keyPair {
     NSError *error;
-    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
-    if (keyPair == nil) {
-        return [ResponseFactory fromError:error];
-    }
     NSData *publicKeyData = [self.crypto exportPublicKey:keyPair.publicKey error:&error];
     if (publicKeyData == nil) {
         return [ResponseFactory fromError:error];
@@ -253,21 +458,133 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(extractPublicKey:(NSString *)privateKeyBa
     }];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateRandomData:(NSInteger)size) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(getPublicKeyCacheStats) {
+    PublicKeyCache *publicKeyCache = [RNVirgilCrypto publicKeyCache];
+    return [ResponseFactory fromResult:@{
+        @"size": @(publicKeyCache.count),
+        @"capacity": @(publicKeyCache.capacity),
+        @"hits": @(publicKeyCache.hits),
+        @"misses": @(publicKeyCache.misses)
+    }];
+}
+
+// Buffers aren't pooled on iOS, NSData of the results is handed over to the bridge as is
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(getBufferPoolStats) {
+    return [ResponseFactory fromResult:@{
+        @"allocations": @0,
+        @"allocatedBytes": @0,
+        @"reuses": @0
+    }];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(setPublicKeyCacheCapacity:(NSInteger)capacity) {
+    if (capacity < 0) {
+        NSError *error = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_INVALID_ARGUMENT userInfo:@{
+            NSLocalizedDescriptionKey: @"Public key cache capacity must not be negative"
+        }];
+        return [ResponseFactory fromError:error];
+    }
+    [RNVirgilCrypto publicKeyCache].capacity = capacity;
+    return [ResponseFactory fromResult:@(YES)];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(clearPublicKeyCache) {
+    [[RNVirgilCrypto publicKeyCache] removeAllObjects];
+    return [ResponseFactory fromResult:@(YES)];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(createRecipientSet:(NSArray<NSString *> *)publicKeysBase64) {
     NSError *error;
-    NSData *randomData = [self.crypto generateRandomDataOfSize:size error:&error];
-    if (randomData == nil) {
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
     }
-    return [ResponseFactory fromResult:[randomData stringUsingBase64]];
+    if (publicKeys.count == 0) {
+        error = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_INVALID_ARGUMENT userInfo:@{
+            NSLocalizedDescriptionKey: @"Recipient set must not be empty"
+        }];
+        return [ResponseFactory fromError:error];
+    }
+    NSMutableData *identifiers = [NSMutableData data];
+    NSMutableSet<NSData *> *uniqueIdentifiers = [NSMutableSet setWithCapacity:publicKeys.count];
+    for (VSMVirgilPublicKey *publicKey in publicKeys) {
+        if ([uniqueIdentifiers containsObject:publicKey.identifier]) {
+            error = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_INVALID_ARGUMENT userInfo:@{
+                NSLocalizedDescriptionKey: [NSString stringWithFormat:@"Recipient set has key '%@' more than once", [publicKey.identifier stringUsingBase64]]
+            }];
+            return [ResponseFactory fromError:error];
+        }
+        [uniqueIdentifiers addObject:publicKey.identifier];
+        [identifiers appendData:publicKey.identifier];
+    }
+    NSString *recipientSetHandle = [[self computeHashFor:identifiers using:VSMHashAlgorithmSha256] stringUsingBase64];
+    [[RNVirgilCrypto recipientSets] setObject:publicKeys forHandle:recipientSetHandle];
+    return [ResponseFactory fromResult:recipientSetHandle];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncryptDetached:(NSString *)dataBase64 with:(NSString *)privateKeyBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(releaseRecipientSet:(NSString *)recipientSetHandle) {
+    return [ResponseFactory fromResult:@([[RNVirgilCrypto recipientSets] releaseHandle:recipientSetHandle])];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encryptWithRecipientSet:(NSString *)dataBase64 recipientSetHandle:(NSString *)recipientSetHandle enablePadding:(BOOL)enablePadding) {
+    NSError *error;
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [RNVirgilCrypto recipientSetForHandle:recipientSetHandle error:&error];
+    if (publicKeys == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSData *encryptedData = [self.crypto encrypt:[dataBase64 dataUsingBase64] for:publicKeys enablePadding:enablePadding error:&error];
+    if (encryptedData == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[encryptedData stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncryptWithRecipientSet:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle recipientSetHandle:(NSString *)recipientSetHandle enablePadding:(BOOL)enablePadding) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [RNVirgilCrypto recipientSetForHandle:recipientSetHandle error:&error];
+    if (publicKeys == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSData *encryptedData = [self.crypto signAndEncrypt:[dataBase64 dataUsingBase64] with:keyPair.privateKey for:publicKeys error:&error];
+    if (encryptedData == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[encryptedData stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(extractPublicKey:(NSString *)privateKeyBase64) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [self extractPublicKeyOf:keyPair];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(extractPublicKeyWithKeyHandle:(NSString *)keyHandle) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self extractPublicKeyOf:keyPair];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateRandomData:(NSInteger)size) {
+    NSError *error;
+    NSData *randomData = [self.crypto generateRandomDataOfSize:size error:&error];
+    if (randomData == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[randomData stringUsingBase64]];
+}
+
+- (NSDictionary *)signThenEncryptDetached:(NSString *)dataBase64 withKeyPair:(VSMVirgilKeyPair *)keyPair for:(NSArray<NSString *> *)publicKeysBase64 {
+    NSError *error;
     NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
     if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
@@ -306,12 +623,26 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncryptDetached:(NSString *)dataB
     }];
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerifyDetached:(NSString *)dataBase64 withMetadata:(NSString *)metadataBase64 andPrivateKey:(NSString *)privateKeyBase64 usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncryptDetached:(NSString *)dataBase64 with:(NSString *)privateKeyBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         return [ResponseFactory fromError:error];
     }
+    return [self signThenEncryptDetached:dataBase64 withKeyPair:keyPair for:publicKeysBase64];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(signThenEncryptDetachedWithKeyHandle:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self signThenEncryptDetached:dataBase64 withKeyPair:keyPair for:publicKeysBase64];
+}
+
+- (NSDictionary *)decryptThenVerifyDetached:(NSString *)dataBase64 withMetadata:(NSString *)metadataBase64 andKeyPair:(VSMVirgilKeyPair *)keyPair usingOneOf:(NSArray<NSString *> *)publicKeysBase64 {
+    NSError *error;
     NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
     if (publicKeys == nil) {
         return [ResponseFactory fromError:error];
@@ -325,6 +656,24 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerifyDetached:(NSString *)dat
     return [ResponseFactory fromResult:[decryptedData stringUsingBase64]];
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerifyDetached:(NSString *)dataBase64 withMetadata:(NSString *)metadataBase64 andPrivateKey:(NSString *)privateKeyBase64 usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self decryptThenVerifyDetached:dataBase64 withMetadata:metadataBase64 andKeyPair:keyPair usingOneOf:publicKeysBase64];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptThenVerifyDetachedWithKeyHandle:(NSString *)dataBase64 withMetadata:(NSString *)metadataBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self decryptThenVerifyDetached:dataBase64 withMetadata:metadataBase64 andKeyPair:keyPair usingOneOf:publicKeysBase64];
+}
+
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(generateGroupSession:(NSString *)groupIdBase64) {
     NSError *error;
     NSData *sessionId = [self computeHashFor:[groupIdBase64 dataUsingBase64] using:VSMHashAlgorithmSha512];
@@ -364,127 +713,990 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(importGroupSession:(NSArray<NSString *> *
         }
         [sortedSerializedEpochMessages addObject:[[epochMessage serialize] stringUsingBase64]];
     }
+    // The session is already built, keep it so the first group session call doesn't rebuild it
     return [ResponseFactory fromResult:@{
         @"sessionId": [[session getSessionId] stringUsingBase64],
         @"currentEpochNumber": @([session getCurrentEpoch]),
-        @"epochMessages": sortedSerializedEpochMessages
+        @"epochMessages": sortedSerializedEpochMessages,
+        @"handle": [RNVirgilGroupSession registerSession:session]
     }];
 }
 
-RCT_EXPORT_METHOD(encryptFile:(NSString *)inputUri toFile:(nullable NSString *)outputUri for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
-    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
-    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
-        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
-        return;
-    }
-    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:nil] : [FSUtils getPathFromUri:outputUri];
-    NSError *error;
-    BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
-    if (isOutputReady == NO) {
-        reject(@"invalid_output_file", error.localizedDescription, error);
-    }
-    NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
-    if (publicKeys == nil) {
-        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
-        return;
-    }
-    dispatch_async(dispatch_get_global_queue(DISPATCH_QUEUE_PRIORITY_DEFAULT, 0), ^{
-        NSError *encryptError;
-        NSInputStream *inputStream = [NSInputStream inputStreamWithFileAtPath:inputPath];
-        NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
-        [inputStream open];
-        [outputStream open];
-        BOOL isSuccessful = [self.crypto encrypt:inputStream to:outputStream for:publicKeys enablePadding:enablePadding error:&encryptError];
-        [inputStream close];
-        [outputStream close];
-        if (isSuccessful == NO) {
-            reject(@"failed_to_encrypt", [NSString stringWithFormat:@"Could not encrypt file; %@", encryptError.localizedDescription], encryptError);
-            return;
-        }
-        resolve(outputPath);
-    });
+// Promise based counterparts of the synchronous methods. They run in the interactive lane,
+// so big payloads don't block the JS thread, and resolve with the same {result}/{error} dictionary.
+
+RCT_EXPORT_METHOD(computeHashAsync:(NSString *)dataBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self computeHash:dataBase64];
+    } resolver:resolve rejecter:reject];
 }
 
-RCT_EXPORT_METHOD(decryptFile:(NSString *)inputUri toFile:(nullable NSString *)outputUri with:(NSString *)privateKeyBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
-    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
-    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
-        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputUri], nil);
-        return;
-    }
-    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:[inputPath pathExtension]] : [FSUtils getPathFromUri:outputUri];
+RCT_EXPORT_METHOD(computeHashWithAlgorithmAsync:(NSString *)dataBase64 algorithm:(VSMHashAlgorithm)algorithm resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self computeHashWithAlgorithm:dataBase64 algorithm:algorithm];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateKeyPairAsync:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self generateKeyPair];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateKeyPairOfTypeAsync:(VSMKeyPairType)keyPairType resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self generateKeyPairOfType:keyPairType];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateKeyPairUsingSeedAsync:(NSString *)seedBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self generateKeyPairUsingSeed:seedBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(encryptAsync:(NSString *)dataBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self encrypt:dataBase64 for:publicKeysBase64 enablePadding:enablePadding];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(importPrivateKeyHandleAsync:(NSString *)privateKeyBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self importPrivateKeyHandle:privateKeyBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self decryptWithKeyHandle:dataBase64 keyHandle:keyHandle];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateSignatureWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self generateSignatureWithKeyHandle:dataBase64 keyHandle:keyHandle];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(verifySignatureAsync:(NSString *)signatureBase64 of:(NSString *)dataBase64 with:(NSString *)publicKeyBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self verifySignature:signatureBase64 of:dataBase64 with:publicKeyBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(signAndEncryptWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self signAndEncryptWithKeyHandle:dataBase64 keyHandle:keyHandle for:publicKeysBase64 enablePadding:enablePadding];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptAndVerifyWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self decryptAndVerifyWithKeyHandle:dataBase64 keyHandle:keyHandle usingOneOf:publicKeysBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(signThenEncryptWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self signThenEncryptWithKeyHandle:dataBase64 keyHandle:keyHandle for:publicKeysBase64 enablePadding:enablePadding];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(encryptWithRecipientSetAsync:(NSString *)dataBase64 recipientSetHandle:(NSString *)recipientSetHandle enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self encryptWithRecipientSet:dataBase64 recipientSetHandle:recipientSetHandle enablePadding:enablePadding];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(signThenEncryptWithRecipientSetAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle recipientSetHandle:(NSString *)recipientSetHandle enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self signThenEncryptWithRecipientSet:dataBase64 keyHandle:keyHandle recipientSetHandle:recipientSetHandle enablePadding:enablePadding];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptThenVerifyWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self decryptThenVerifyWithKeyHandle:dataBase64 keyHandle:keyHandle usingOneOf:publicKeysBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateRandomDataAsync:(NSInteger)size resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self generateRandomData:size];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(signThenEncryptDetachedWithKeyHandleAsync:(NSString *)dataBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self signThenEncryptDetachedWithKeyHandle:dataBase64 keyHandle:keyHandle for:publicKeysBase64 enablePadding:enablePadding];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptThenVerifyDetachedWithKeyHandleAsync:(NSString *)dataBase64 withMetadata:(NSString *)metadataBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self decryptThenVerifyDetachedWithKeyHandle:dataBase64 withMetadata:metadataBase64 keyHandle:keyHandle usingOneOf:publicKeysBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateGroupSessionAsync:(NSString *)groupIdBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self generateGroupSession:groupIdBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(importGroupSessionAsync:(NSArray<NSString *> *)epochMessagesBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self importGroupSession:epochMessagesBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+typedef NSData *(^BatchOperation)(VSMVirgilCrypto *crypto, NSData *data, NSError **error);
+typedef void (^ChunkTask)(VSMVirgilCrypto *crypto, NSUInteger from, NSUInteger to);
+
+// Runs the batch as a single job of the interactive lane. The items are split into one chunk
+// per thread of the lane and the job resolves with the result of the completion.
+- (void)runInChunks:(NSUInteger)itemsCount task:(ChunkTask)task completion:(id (^)(void))completion resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject {
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:nil lane:CryptoSchedulerLaneInteractive block:^(CryptoJob *job) {
+        NSUInteger chunksCount = MIN(MAX(itemsCount, 1), [[NSProcessInfo processInfo] activeProcessorCount]);
+        NSUInteger chunkSize = (itemsCount + chunksCount - 1) / chunksCount;
+        dispatch_apply(chunksCount, dispatch_get_global_queue(QOS_CLASS_USER_INITIATED, 0), ^(size_t chunk) {
+            // The random generator of VSMVirgilCrypto isn't thread safe, each chunk gets its own
+            VSMVirgilCrypto *crypto = [[VSMVirgilCrypto alloc] initWithDefaultKeyType:VSMKeyPairTypeEd25519 useSHA256Fingerprints:NO error:nil];
+            task(crypto, MIN(chunk * chunkSize, itemsCount), MIN((chunk + 1) * chunkSize, itemsCount));
+        });
+        [job resolve:completion()];
+    }];
+}
+
+// Resolves with a response (result or error) per item, in the order of the items
+- (void)runBatch:(NSArray<NSString *> *)itemsBase64 operation:(BatchOperation)operation resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject {
+    NSUInteger itemsCount = itemsBase64.count;
+    NSMutableArray *responses = [NSMutableArray arrayWithCapacity:itemsCount];
+    for (NSUInteger i = 0; i < itemsCount; i++) {
+        [responses addObject:[NSNull null]];
+    }
+    [self runInChunks:itemsCount task:^(VSMVirgilCrypto *crypto, NSUInteger from, NSUInteger to) {
+        for (NSUInteger i = from; i < to; i++) {
+            @autoreleasepool {
+                NSError *error;
+                NSData *result = operation(crypto, [itemsBase64[i] dataUsingBase64], &error);
+                id response = result == nil ? [ResponseFactory fromError:error] : [ResponseFactory fromResult:[result stringUsingBase64]];
+                @synchronized (responses) {
+                    responses[i] = response;
+                }
+            }
+        }
+    } completion:^id {
+        return responses;
+    } resolver:resolve rejecter:reject];
+}
+RCT_EXPORT_METHOD(encryptBatch:(NSArray<NSString *> *)itemsBase64 for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    [self runBatch:itemsBase64 operation:^NSData *(VSMVirgilCrypto *crypto, NSData *data, NSError **outError) {
+        return [crypto encrypt:data for:publicKeys enablePadding:enablePadding error:outError];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptBatchWithKeyHandle:(NSArray<NSString *> *)itemsBase64 keyHandle:(NSString *)keyHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    [self runBatch:itemsBase64 operation:^NSData *(VSMVirgilCrypto *crypto, NSData *data, NSError **outError) {
+        return [crypto decrypt:data with:keyPair.privateKey error:outError];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(signThenEncryptBatchWithKeyHandle:(NSArray<NSString *> *)itemsBase64 keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    [self runBatch:itemsBase64 operation:^NSData *(VSMVirgilCrypto *crypto, NSData *data, NSError **outError) {
+        return [crypto signAndEncrypt:data with:keyPair.privateKey for:publicKeys error:outError];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptThenVerifyBatchWithKeyHandle:(NSArray<NSString *> *)itemsBase64 keyHandle:(NSString *)keyHandle usingOneOf:(NSArray<NSString *> *)publicKeysBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    [self runBatch:itemsBase64 operation:^NSData *(VSMVirgilCrypto *crypto, NSData *data, NSError **outError) {
+        return [crypto decryptAndVerify:data with:keyPair.privateKey usingOneOf:publicKeys error:outError];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(generateSignaturesWithKeyHandle:(NSArray<NSString *> *)itemsBase64 keyHandle:(NSString *)keyHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    [self runBatch:itemsBase64 operation:^NSData *(VSMVirgilCrypto *crypto, NSData *data, NSError **outError) {
+        return [crypto generateSignatureOf:data using:keyPair.privateKey error:outError];
+    } resolver:resolve rejecter:reject];
+}
+
+// Verifies signature i of data i with public key publicKeyIndexes[i]. Each distinct public key is
+// passed and imported once. Resolves with a base64 bitset, bit i (least significant bit first)
+// is set when signature i is valid.
+RCT_EXPORT_METHOD(verifySignatures:(NSArray<NSString *> *)signaturesBase64 of:(NSArray<NSString *> *)dataBase64 publicKeyIndexes:(NSArray<NSNumber *> *)publicKeyIndexes publicKeys:(NSArray<NSString *> *)publicKeysBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    NSUInteger itemsCount = signaturesBase64.count;
+    // Captured by the blocks below, which keeps the flags alive until the completion
+    NSMutableData *verified = [NSMutableData dataWithLength:itemsCount];
+    [self runInChunks:itemsCount task:^(VSMVirgilCrypto *crypto, NSUInteger from, NSUInteger to) {
+        BOOL *isVerified = (BOOL *)verified.mutableBytes;
+        for (NSUInteger i = from; i < to; i++) {
+            @autoreleasepool {
+                VSMVirgilPublicKey *publicKey = publicKeys[publicKeyIndexes[i].unsignedIntegerValue];
+                isVerified[i] = [crypto verifySignature_objc:[signaturesBase64[i] dataUsingBase64] of:[dataBase64[i] dataUsingBase64] with:publicKey];
+            }
+        }
+    } completion:^id {
+        NSMutableData *bitset = [NSMutableData dataWithLength:(itemsCount + 7) / 8];
+        uint8_t *bits = (uint8_t *)bitset.mutableBytes;
+        const BOOL *isVerified = (const BOOL *)verified.bytes;
+        for (NSUInteger i = 0; i < itemsCount; i++) {
+            if (isVerified[i]) {
+                bits[i / 8] |= 1 << (i % 8);
+            }
+        }
+        return [bitset stringUsingBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(cancelJob:(NSString *)jobId) {
+    return [ResponseFactory fromResult:@([[RNVirgilCrypto scheduler] cancelJobWithId:jobId])];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(getSchedulerStats) {
+    return [ResponseFactory fromResult:[[RNVirgilCrypto scheduler] stats]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(configureScheduler:(NSInteger)interactiveThreads backgroundThreads:(NSInteger)backgroundThreads queueCapacity:(NSInteger)queueCapacity) {
+    if (interactiveThreads < 1 || backgroundThreads < 1 || queueCapacity < 0) {
+        NSError *error = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_INVALID_ARGUMENT userInfo:@{
+            NSLocalizedDescriptionKey: @"Thread counts must be positive and queue capacity must not be negative"
+        }];
+        return [ResponseFactory fromError:error];
+    }
+    [[RNVirgilCrypto scheduler] configureWithInteractiveThreads:interactiveThreads backgroundThreads:backgroundThreads queueCapacity:queueCapacity];
+    return [ResponseFactory fromResult:@(YES)];
+}
+
+// File operations run in the background lane unless another lane is given
+
+// JS passes 0 when no chunk size is given
++ (NSUInteger)chunkSize:(NSInteger)chunkSize {
+    return chunkSize > 0 ? (NSUInteger)chunkSize : DefaultChunkSize;
+}
+
+- (NSInputStream *)inputStreamForJob:(CryptoJob *)job withId:(nullable NSString *)jobId path:(NSString *)inputPath chunkSize:(NSInteger)chunkSize memoryMapped:(BOOL)memoryMapped {
+    return [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:memoryMapped pipelined:NO];
+}
+
+// Opens the input file of a job, memory mapped or read ahead on the I/O queue if requested.
+// A mapped file is never read ahead, its pages are read on access anyway. Reading fails once the
+// job is cancelled and, if the job has an id, the bytes read are reported to JS with JobProgressEvent.
+- (NSInputStream *)inputStreamForJob:(CryptoJob *)job withId:(nullable NSString *)jobId path:(NSString *)inputPath chunkSize:(NSInteger)chunkSize memoryMapped:(BOOL)memoryMapped pipelined:(BOOL)pipelined {
+    NSInputStream *fileStream;
+    if (memoryMapped) {
+        // Falls back to reading the file if it can't be mapped
+        NSData *mappedData = [NSData dataWithContentsOfFile:inputPath options:NSDataReadingMappedAlways error:nil];
+        if (mappedData != nil) {
+            fileStream = [NSInputStream inputStreamWithData:mappedData];
+        }
+    }
+    if (fileStream == nil) {
+        fileStream = [NSInputStream inputStreamWithFileAtPath:inputPath];
+        if (pipelined) {
+            fileStream = [[PipelinedInputStream alloc] initWithInputStream:fileStream chunkSize:[RNVirgilCrypto chunkSize:chunkSize] depth:PipelineDepth scheduler:[RNVirgilCrypto scheduler]];
+        }
+    }
+    ProgressInputStream *inputStream = [[ProgressInputStream alloc] initWithInputStream:fileStream chunkSize:[RNVirgilCrypto chunkSize:chunkSize]];
+    inputStream.isCancelled = ^BOOL {
+        return job.isCancelled;
+    };
+    if (jobId != nil) {
+        NSNumber *totalBytes = [[NSFileManager defaultManager] attributesOfItemAtPath:inputPath error:nil][NSFileSize];
+        inputStream.progressHandler = ^(unsigned long long bytesProcessed, double megabytesPerSecond) {
+            if (self.hasListeners == NO) {
+                return;
+            }
+            [self sendEventWithName:JobProgressEvent body:@{
+                @"jobId": jobId,
+                @"bytesProcessed": @(bytesProcessed),
+                @"totalBytes": totalBytes != nil ? totalBytes : @(-1),
+                @"megabytesPerSecond": @(megabytesPerSecond)
+            }];
+        };
+    }
+    return inputStream;
+}
+
+// Opens the output file of a job, written behind the cipher on the I/O queue if requested
+- (NSOutputStream *)outputStreamToPath:(NSString *)outputPath chunkSize:(NSInteger)chunkSize pipelined:(BOOL)pipelined {
+    NSOutputStream *fileStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+    if (pipelined == NO) {
+        return fileStream;
+    }
+    return [[PipelinedOutputStream alloc] initWithOutputStream:fileStream chunkSize:[RNVirgilCrypto chunkSize:chunkSize] depth:PipelineDepth scheduler:[RNVirgilCrypto scheduler]];
+}
+
+RCT_EXPORT_METHOD(encryptFile:(NSString *)inputUri toFile:(nullable NSString *)outputUri for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize memoryMapped:(BOOL)memoryMapped pipelined:(BOOL)pipelined resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:nil] : [FSUtils getPathFromUri:outputUri];
     NSError *error;
     BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
     if (isOutputReady == NO) {
         reject(@"invalid_output_file", error.localizedDescription, error);
         return;
     }
-    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
-    if (keyPair == nil) {
-        reject(@"invalid_private_key", @"The given value is not a valid private key", error);
+    NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
         return;
     }
-    dispatch_async(dispatch_get_global_queue(DISPATCH_QUEUE_PRIORITY_DEFAULT, 0), ^{
-        NSError *decryptError;
-        NSInputStream *inputStream = [NSInputStream inputStreamWithFileAtPath:inputPath];
-        NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+    };
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *encryptError;
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:memoryMapped pipelined:pipelined];
+        NSOutputStream *outputStream = [self outputStreamToPath:outputPath chunkSize:chunkSize pipelined:pipelined];
         [inputStream open];
         [outputStream open];
-        BOOL isSuccessful = [self.crypto decrypt:inputStream to:outputStream with:keyPair.privateKey error:&decryptError];
+        BOOL isSuccessful = [self.crypto encrypt:inputStream to:outputStream for:publicKeys enablePadding:enablePadding error:&encryptError];
         [inputStream close];
         [outputStream close];
+        // The last chunks of a pipelined job are written on close
+        if (isSuccessful && outputStream.streamError != nil) {
+            isSuccessful = NO;
+            encryptError = outputStream.streamError;
+        }
         if (isSuccessful == NO) {
-            reject(@"failed_to_decrypt", [NSString stringWithFormat:@"Could not decrypt file; %@", decryptError.localizedDescription], decryptError);
+            [job reject:@"failed_to_encrypt" message:[NSString stringWithFormat:@"Could not encrypt file; %@", encryptError.localizedDescription] error:encryptError];
             return;
         }
-        resolve(outputPath);
-    });
+        [job resolve:outputPath];
+    }];
 }
 
-RCT_EXPORT_METHOD(generateFileSignature:(NSString *)inputUri with:(NSString *)privateKeyBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+- (void)decryptFile:(NSString *)inputUri toFile:(nullable NSString *)outputUri withKeyPair:(VSMVirgilKeyPair *)keyPair jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize pipelined:(BOOL)pipelined resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject {
     NSString *inputPath = [FSUtils getPathFromUri:inputUri];
     if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
         reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputUri], nil);
         return;
     }
+    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:[inputPath pathExtension]] : [FSUtils getPathFromUri:outputUri];
+    NSError *error;
+    BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
+    if (isOutputReady == NO) {
+        reject(@"invalid_output_file", error.localizedDescription, error);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+    };
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *decryptError;
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO pipelined:pipelined];
+        NSOutputStream *outputStream = [self outputStreamToPath:outputPath chunkSize:chunkSize pipelined:pipelined];
+        [inputStream open];
+        [outputStream open];
+        BOOL isSuccessful = [self.crypto decrypt:inputStream to:outputStream with:keyPair.privateKey error:&decryptError];
+        [inputStream close];
+        [outputStream close];
+        // The last chunks of a pipelined job are written on close
+        if (isSuccessful && outputStream.streamError != nil) {
+            isSuccessful = NO;
+            decryptError = outputStream.streamError;
+        }
+        if (isSuccessful == NO) {
+            [job reject:@"failed_to_decrypt" message:[NSString stringWithFormat:@"Could not decrypt file; %@", decryptError.localizedDescription] error:decryptError];
+            return;
+        }
+        [job resolve:outputPath];
+    }];
+}
+
+RCT_EXPORT_METHOD(decryptFile:(NSString *)inputUri toFile:(nullable NSString *)outputUri with:(NSString *)privateKeyBase64 jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize pipelined:(BOOL)pipelined resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
     NSError *error;
     VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
     if (keyPair == nil) {
         reject(@"invalid_private_key", @"The given value is not a valid private key", error);
         return;
     }
-    dispatch_async(dispatch_get_global_queue(DISPATCH_QUEUE_PRIORITY_DEFAULT, 0), ^{
+    [self decryptFile:inputUri toFile:outputUri withKeyPair:keyPair jobId:jobId lane:lane chunkSize:chunkSize pipelined:pipelined resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptFileWithKeyHandle:(NSString *)inputUri toFile:(nullable NSString *)outputUri keyHandle:(NSString *)keyHandle jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize pipelined:(BOOL)pipelined resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    [self decryptFile:inputUri toFile:outputUri withKeyPair:keyPair jobId:jobId lane:lane chunkSize:chunkSize pipelined:pipelined resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(encryptFiles:(NSArray<NSString *> *)inputUris toFiles:(nullable NSArray *)outputUris for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding concurrency:(NSInteger)concurrency jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    // Imported once for all files of the batch
+    NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    [self runFileBatch:inputUris toFiles:outputUris keepsExtension:NO failureCode:@"failed_to_encrypt" concurrency:concurrency jobId:jobId lane:lane chunkSize:chunkSize resolver:resolve rejecter:reject operation:^BOOL(NSInputStream *inputStream, NSOutputStream *outputStream, NSError **operationError) {
+        return [self.crypto encrypt:inputStream to:outputStream for:publicKeys enablePadding:enablePadding error:operationError];
+    }];
+}
+
+RCT_EXPORT_METHOD(decryptFilesWithKeyHandle:(NSArray<NSString *> *)inputUris toFiles:(nullable NSArray *)outputUris keyHandle:(NSString *)keyHandle concurrency:(NSInteger)concurrency jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    [self runFileBatch:inputUris toFiles:outputUris keepsExtension:YES failureCode:@"failed_to_decrypt" concurrency:concurrency jobId:jobId lane:lane chunkSize:chunkSize resolver:resolve rejecter:reject operation:^BOOL(NSInputStream *inputStream, NSOutputStream *outputStream, NSError **operationError) {
+        return [self.crypto decrypt:inputStream to:outputStream with:keyPair.privateKey error:operationError];
+    }];
+}
+
+// Same shape as the per-item errors of batch calls
++ (NSDictionary *)fileErrorWithCode:(NSString *)code message:(nullable NSString *)message {
+    return @{ @"error": @{ @"code": code, @"message": message != nil ? message : @"Unknown error" } };
+}
+
+typedef BOOL (^FileOperation)(NSInputStream *inputStream, NSOutputStream *outputStream, NSError **error);
+
+// Runs the operation on every file of a batch as a single job, concurrency files at a time.
+// The job thread takes files in order along with up to concurrency - 1 helpers run in the same
+// lane, so the lane's thread count caps the concurrency. Resolves with a dictionary per file,
+// holding either the output path as result or the error of that file. If the job is cancelled, the output
+// of every file written so far is removed.
+- (void)runFileBatch:(NSArray<NSString *> *)inputUris toFiles:(nullable NSArray *)outputUris keepsExtension:(BOOL)keepsExtension failureCode:(NSString *)failureCode concurrency:(NSInteger)concurrency jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject operation:(FileOperation)operation {
+    NSUInteger filesCount = inputUris.count;
+    NSMutableArray<NSString *> *inputPaths = [NSMutableArray arrayWithCapacity:filesCount];
+    NSMutableArray<NSString *> *outputPaths = [NSMutableArray arrayWithCapacity:filesCount];
+    NSMutableArray *results = [NSMutableArray arrayWithCapacity:filesCount];
+    for (NSUInteger i = 0; i < filesCount; i++) {
+        NSString *inputPath = [FSUtils getPathFromUri:inputUris[i]];
+        // JS null comes as NSNull
+        id outputUri = i < outputUris.count ? outputUris[i] : nil;
+        NSString *outputPath = [outputUri isKindOfClass:[NSString class]]
+            ? [FSUtils getPathFromUri:outputUri]
+            : [FSUtils getTempFilePath:keepsExtension ? [inputPath pathExtension] : nil];
+        [inputPaths addObject:inputPath];
+        [outputPaths addObject:outputPath];
+        [results addObject:[NSNull null]];
+    }
+
+    CryptoScheduler *scheduler = [RNVirgilCrypto scheduler];
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    NSInteger workersCount = MAX(1, MIN(concurrency > 0 ? concurrency : [scheduler threadsCountForLane:schedulerLane], (NSInteger)filesCount));
+    NSMutableArray<NSString *> *writtenOutputs = [NSMutableArray array];
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        @synchronized (writtenOutputs) {
+            for (NSString *outputPath in writtenOutputs) {
+                [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+            }
+        }
+    };
+    [scheduler submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        long long totalBytes = 0;
+        for (NSString *inputPath in inputPaths) {
+            NSNumber *size = [[NSFileManager defaultManager] attributesOfItemAtPath:inputPath error:nil][NSFileSize];
+            totalBytes = size == nil || totalBytes < 0 ? -1 : totalBytes + size.longLongValue;
+        }
+        BatchProgress *progress;
+        if (jobId != nil) {
+            progress = [[BatchProgress alloc] initWithTotalBytes:totalBytes totalFiles:filesCount handler:^(unsigned long long bytesProcessed, long long totalBytes, NSUInteger filesProcessed, NSUInteger totalFiles, double megabytesPerSecond) {
+                if (self.hasListeners == NO) {
+                    return;
+                }
+                [self sendEventWithName:JobProgressEvent body:@{
+                    @"jobId": jobId,
+                    @"bytesProcessed": @(bytesProcessed),
+                    @"totalBytes": @(totalBytes),
+                    @"megabytesPerSecond": @(megabytesPerSecond),
+                    @"filesProcessed": @(filesProcessed),
+                    @"totalFiles": @(totalFiles)
+                }];
+            }];
+        }
+
+        NSDictionary *(^processFile)(NSUInteger) = ^NSDictionary *(NSUInteger index) {
+            NSString *inputPath = inputPaths[index];
+            NSString *outputPath = outputPaths[index];
+            if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+                return [RNVirgilCrypto fileErrorWithCode:@"invalid_input_file" message:[NSString stringWithFormat:@"File does not exist at path %@", inputPath]];
+            }
+            NSError *error;
+            if ([FSUtils prepareFileForWriting:outputPath error:&error] == NO) {
+                return [RNVirgilCrypto fileErrorWithCode:@"invalid_output_file" message:error.localizedDescription];
+            }
+            @synchronized (writtenOutputs) {
+                [writtenOutputs addObject:outputPath];
+            }
+            ProgressInputStream *inputStream = [[ProgressInputStream alloc] initWithInputStream:[NSInputStream inputStreamWithFileAtPath:inputPath] chunkSize:[RNVirgilCrypto chunkSize:chunkSize]];
+            inputStream.isCancelled = ^BOOL {
+                return job.isCancelled;
+            };
+            inputStream.progressHandler = [progress fileHandler];
+            NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+            [inputStream open];
+            [outputStream open];
+            BOOL isSuccessful = operation(inputStream, outputStream, &error);
+            [inputStream close];
+            [outputStream close];
+            if (isSuccessful == NO) {
+                // Partial output is of no use
+                [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+                return [RNVirgilCrypto fileErrorWithCode:failureCode message:error.localizedDescription];
+            }
+            return @{ @"result": outputPath };
+        };
+
+        __block NSUInteger nextFile = 0;
+        __block NSInteger runningWorkers = workersCount;
+        dispatch_block_t work = ^{
+            while (job.isCancelled == NO) {
+                NSUInteger index;
+                @synchronized (results) {
+                    index = nextFile;
+                    nextFile += 1;
+                }
+                if (index >= filesCount) {
+                    break;
+                }
+                NSDictionary *result = processFile(index);
+                @synchronized (results) {
+                    results[index] = result;
+                }
+                [progress fileProcessed];
+            }
+            BOOL isLastWorker;
+            @synchronized (results) {
+                runningWorkers -= 1;
+                isLastWorker = runningWorkers == 0;
+            }
+            // The last worker to finish settles the job
+            if (isLastWorker) {
+                [job resolve:results];
+            }
+        };
+        for (NSInteger i = 1; i < workersCount; i++) {
+            [scheduler executeInLane:schedulerLane block:work];
+        }
+        work();
+    }];
+}
+
+- (void)generateFileSignature:(NSString *)inputUri withKeyPair:(VSMVirgilKeyPair *)keyPair jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize memoryMapped:(BOOL)memoryMapped resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputUri], nil);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
         NSError *signError;
-        NSInputStream *inputStream = [NSInputStream inputStreamWithFileAtPath:inputPath];
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:memoryMapped];
         [inputStream open];
         NSData *signature = [self.crypto generateStreamSignatureOf:inputStream using:keyPair.privateKey error:&signError];
         [inputStream close];
         if (signature == nil) {
-            reject(@"failed_to_sign", [NSString stringWithFormat:@"Could not generate signature of file; %@", signError.localizedDescription], signError);
+            [job reject:@"failed_to_sign" message:[NSString stringWithFormat:@"Could not generate signature of file; %@", signError.localizedDescription] error:signError];
             return;
         }
-        resolve([signature stringUsingBase64]);
-    });
+        [job resolve:[signature stringUsingBase64]];
+    }];
+}
+
+RCT_EXPORT_METHOD(generateFileSignature:(NSString *)inputUri with:(NSString *)privateKeyBase64 jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize memoryMapped:(BOOL)memoryMapped resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [self.crypto importPrivateKeyFrom:[privateKeyBase64 dataUsingBase64] error:&error];
+    if (keyPair == nil) {
+        reject(@"invalid_private_key", @"The given value is not a valid private key", error);
+        return;
+    }
+    [self generateFileSignature:inputUri withKeyPair:keyPair jobId:jobId lane:lane chunkSize:chunkSize memoryMapped:memoryMapped resolver:resolve rejecter:reject];
 }
 
-RCT_EXPORT_METHOD(verifyFileSignature:(NSString *)signatureBase64 ofFile:(NSString *)inputUri with:(NSString *)publicKeyBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+RCT_EXPORT_METHOD(generateFileSignatureWithKeyHandle:(NSString *)inputUri keyHandle:(NSString *)keyHandle jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize memoryMapped:(BOOL)memoryMapped resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    [self generateFileSignature:inputUri withKeyPair:keyPair jobId:jobId lane:lane chunkSize:chunkSize memoryMapped:memoryMapped resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(verifyFileSignature:(NSString *)signatureBase64 ofFile:(NSString *)inputUri with:(NSString *)publicKeyBase64 jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
     NSString *inputPath = [FSUtils getPathFromUri:inputUri];
     if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
         reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
         return;
     }
     NSError *error;
-    VSMVirgilPublicKey *publicKey = [self.crypto importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:&error];
+    VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:&error];
     if (publicKey == nil) {
         reject(@"invalid_public_key", @"The given value is not a valid public key", error);
         return;
     }
-    dispatch_async(dispatch_get_global_queue(DISPATCH_QUEUE_PRIORITY_DEFAULT, 0), ^{
-        NSInputStream *inputStream = [NSInputStream inputStreamWithFileAtPath:inputPath];
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO];
         [inputStream open];
         BOOL isValid = [self.crypto verifyStreamSignature_objc:[signatureBase64 dataUsingBase64] of:inputStream with:publicKey];
         [inputStream close];
-        resolve(@(isValid));
-    });
+        [job resolve:@(isValid)];
+    }];
+}
+
+RCT_EXPORT_METHOD(signThenEncryptFileWithKeyHandle:(NSString *)inputUri toFile:(nullable NSString *)outputUri keyHandle:(NSString *)keyHandle for:(NSArray<NSString *> *)publicKeysBase64 enablePadding:(BOOL)enablePadding jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:[inputPath pathExtension]] : [FSUtils getPathFromUri:outputUri];
+    BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
+    if (isOutputReady == NO) {
+        reject(@"invalid_output_file", error.localizedDescription, error);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+    };
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *encryptError;
+        NSNumber *size = [[NSFileManager defaultManager] attributesOfItemAtPath:inputPath error:nil][NSFileSize];
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO];
+        NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+        [inputStream open];
+        [outputStream open];
+        BOOL isSuccessful = [SignedStreams signThenEncrypt:inputStream size:[size unsignedLongLongValue] to:outputStream signingKey:keyPair.privateKey for:publicKeys enablePadding:enablePadding chunkSize:[RNVirgilCrypto chunkSize:chunkSize] error:&encryptError];
+        [inputStream close];
+        [outputStream close];
+        if (isSuccessful == NO) {
+            [job reject:@"failed_to_encrypt" message:[NSString stringWithFormat:@"Could not encrypt file; %@", encryptError.localizedDescription] error:encryptError];
+            return;
+        }
+        [job resolve:outputPath];
+    }];
+}
+
+RCT_EXPORT_METHOD(decryptThenVerifyFileWithKeyHandle:(NSString *)inputUri toFile:(nullable NSString *)outputUri keyHandle:(NSString *)keyHandle verifyingWith:(NSArray<NSString *> *)publicKeysBase64 jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:[inputPath pathExtension]] : [FSUtils getPathFromUri:outputUri];
+    BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
+    if (isOutputReady == NO) {
+        reject(@"invalid_output_file", error.localizedDescription, error);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+    };
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *decryptError;
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO];
+        NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+        [inputStream open];
+        [outputStream open];
+        BOOL isSuccessful = [SignedStreams decryptThenVerify:inputStream to:outputStream privateKey:keyPair.privateKey publicKeys:publicKeys chunkSize:[RNVirgilCrypto chunkSize:chunkSize] error:&decryptError];
+        [inputStream close];
+        [outputStream close];
+        if (isSuccessful == NO) {
+            // Plaintext that is not verified must not be left behind
+            [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+            if ([decryptError.domain isEqualToString:RNVC_ERROR_DOMAIN] && decryptError.code == RNVC_ERROR_CODE_SIGNATURE_NOT_VERIFIED) {
+                [job reject:@"failed_to_verify" message:decryptError.localizedDescription error:decryptError];
+            } else {
+                [job reject:@"failed_to_decrypt" message:[NSString stringWithFormat:@"Could not decrypt file; %@", decryptError.localizedDescription] error:decryptError];
+            }
+            return;
+        }
+        [job resolve:outputPath];
+    }];
+}
+
+RCT_EXPORT_METHOD(hashFile:(NSString *)inputUri algorithms:(NSArray<NSNumber *> *)algorithms jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        // The file is read once, every chunk goes to all of the hashes
+        NSMutableArray<id<VSCFHash>> *hashes = [NSMutableArray arrayWithCapacity:algorithms.count];
+        for (NSNumber *algorithm in algorithms) {
+            [hashes addObject:[HashAlgorithm startHash:[algorithm integerValue]]];
+        }
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO];
+        [inputStream open];
+        NSMutableData *buffer = [NSMutableData dataWithLength:[RNVirgilCrypto chunkSize:chunkSize]];
+        NSInteger length;
+        while ((length = [inputStream read:buffer.mutableBytes maxLength:buffer.length]) > 0) {
+            NSData *chunk = [NSData dataWithBytesNoCopy:buffer.mutableBytes length:length freeWhenDone:NO];
+            for (id<VSCFHash> hash in hashes) {
+                [hash updateWithData:chunk];
+            }
+        }
+        NSError *readError = inputStream.streamError;
+        [inputStream close];
+        if (length < 0) {
+            [job reject:@"unexpected_error" message:readError.localizedDescription error:readError];
+            return;
+        }
+        NSMutableArray<NSString *> *digests = [NSMutableArray arrayWithCapacity:hashes.count];
+        for (id<VSCFHash> hash in hashes) {
+            [digests addObject:[[hash finish] stringUsingBase64]];
+        }
+        [job resolve:digests];
+    }];
+}
+
+RCT_EXPORT_METHOD(encryptFileSeekable:(NSString *)inputUri toFile:(nullable NSString *)outputUri for:(NSArray<NSString *> *)publicKeysBase64 jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize parallel:(BOOL)parallel resumable:(BOOL)resumable resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    if (resumable && outputUri == nil) {
+        reject(@"invalid_output_file", @"Resumable jobs need an output file", nil);
+        return;
+    }
+    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:nil] : [FSUtils getPathFromUri:outputUri];
+    NSError *error;
+    BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
+    if (isOutputReady == NO) {
+        reject(@"invalid_output_file", error.localizedDescription, error);
+        return;
+    }
+    NSArray<VSMVirgilPublicKey*> *publicKeys = [self importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        reject(@"invalid_public_key", @"Public keys array contains invalid public keys", error);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        // A cancelled job isn't resumed, unlike one that failed or was killed with the app
+        [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+        if (resumable) {
+            [ResumableEncryption deleteJournalOfOutput:outputPath];
+        }
+    };
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *encryptError;
+        NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO];
+        if (resumable) {
+            BOOL isSuccessful = [ResumableEncryption encryptFileAtPath:inputPath with:(ProgressInputStream *)inputStream toPath:outputPath for:publicKeys chunkSize:[RNVirgilCrypto chunkSize:chunkSize] parallel:parallel crypto:self.crypto error:&encryptError];
+            if (isSuccessful == NO) {
+                [job reject:@"failed_to_encrypt" message:[NSString stringWithFormat:@"Could not encrypt file; %@", encryptError.localizedDescription] error:encryptError];
+                return;
+            }
+            [job resolve:outputPath];
+            return;
+        }
+        NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+        [inputStream open];
+        [outputStream open];
+        BOOL isSuccessful = [SeekableFile encrypt:inputStream to:outputStream for:publicKeys chunkSize:[RNVirgilCrypto chunkSize:chunkSize] parallel:parallel crypto:self.crypto error:&encryptError];
+        [inputStream close];
+        [outputStream close];
+        if (isSuccessful == NO) {
+            [job reject:@"failed_to_encrypt" message:[NSString stringWithFormat:@"Could not encrypt file; %@", encryptError.localizedDescription] error:encryptError];
+            return;
+        }
+        [job resolve:outputPath];
+    }];
+}
+
+// Removes the journal and the partial output of a resumable job that won't be started again
+RCT_EXPORT_METHOD(discardResumableJob:(NSString *)outputUri resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *outputPath = [FSUtils getPathFromUri:outputUri];
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:nil lane:CryptoSchedulerLaneInteractive block:^(CryptoJob *job) {
+        [job resolve:@([ResumableEncryption discardJobOfOutput:outputPath])];
+    }];
+}
+
+// maxAge is in milliseconds, same as on Android
+RCT_EXPORT_METHOD(discardStaleResumableJobs:(NSString *)directoryUri maxAge:(double)maxAge resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *directoryPath = [FSUtils getPathFromUri:directoryUri];
+    BOOL isDirectory = NO;
+    if ([[NSFileManager defaultManager] fileExistsAtPath:directoryPath isDirectory:&isDirectory] == NO || isDirectory == NO) {
+        reject(@"invalid_output_file", [NSString stringWithFormat:@"Expected a local directory, got '%@'", directoryPath], nil);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:nil lane:CryptoSchedulerLaneInteractive block:^(CryptoJob *job) {
+        [job resolve:@([ResumableEncryption discardStaleJobsInDirectory:directoryPath maxAge:maxAge / 1000])];
+    }];
+}
+
+RCT_EXPORT_METHOD(decryptFileSeekableWithKeyHandle:(NSString *)inputUri toFile:(nullable NSString *)outputUri keyHandle:(NSString *)keyHandle jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane chunkSize:(NSInteger)chunkSize parallel:(BOOL)parallel resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    NSString *outputPath = outputUri == nil ? [FSUtils getTempFilePath:[inputPath pathExtension]] : [FSUtils getPathFromUri:outputUri];
+    BOOL isOutputReady = [FSUtils prepareFileForWriting:outputPath error:&error];
+    if (isOutputReady == NO) {
+        reject(@"invalid_output_file", error.localizedDescription, error);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    job.onCancelled = ^{
+        [[NSFileManager defaultManager] removeItemAtPath:outputPath error:nil];
+    };
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneBackground];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *decryptError;
+        SeekableFile *file = [SeekableFile openAtPath:inputPath with:keyPair.privateKey crypto:self.crypto error:&decryptError];
+        BOOL isSuccessful = NO;
+        if (file != nil) {
+            NSInputStream *inputStream = [self inputStreamForJob:job withId:jobId path:inputPath chunkSize:chunkSize memoryMapped:NO];
+            NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:NO];
+            [inputStream open];
+            [outputStream open];
+            isSuccessful = [file decrypt:inputStream to:outputStream parallel:parallel error:&decryptError];
+            [inputStream close];
+            [outputStream close];
+            [file close];
+        }
+        if (isSuccessful == NO) {
+            if ([decryptError.domain isEqualToString:RNVC_ERROR_DOMAIN] && decryptError.code == RNVC_ERROR_CODE_INVALID_FORMAT) {
+                [job reject:@"invalid_input_file" message:decryptError.localizedDescription error:decryptError];
+            } else {
+                [job reject:@"failed_to_decrypt" message:[NSString stringWithFormat:@"Could not decrypt file; %@", decryptError.localizedDescription] error:decryptError];
+            }
+            return;
+        }
+        [job resolve:outputPath];
+    }];
+}
+
+RCT_EXPORT_METHOD(decryptFileRangeWithKeyHandle:(NSString *)inputUri keyHandle:(NSString *)keyHandle offset:(double)offset length:(NSInteger)length jobId:(nullable NSString *)jobId lane:(nullable NSString *)lane resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    NSString *inputPath = [FSUtils getPathFromUri:inputUri];
+    if ([[NSFileManager defaultManager] fileExistsAtPath:inputPath] == NO) {
+        reject(@"invalid_input_file", [NSString stringWithFormat:@"File does not exist at path %@", inputPath], nil);
+        return;
+    }
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        reject(@"handle_not_found", error.localizedDescription, error);
+        return;
+    }
+    CryptoJob *job = [[CryptoJob alloc] initWithResolver:resolve rejecter:reject];
+    // A range is usually needed right away, e.g. by a video player
+    CryptoSchedulerLane schedulerLane = [CryptoScheduler laneFromString:lane defaultLane:CryptoSchedulerLaneInteractive];
+    [[RNVirgilCrypto scheduler] submitJob:job withId:jobId lane:schedulerLane block:^(CryptoJob *job) {
+        NSError *decryptError;
+        SeekableFile *file = [SeekableFile openAtPath:inputPath with:keyPair.privateKey crypto:self.crypto error:&decryptError];
+        NSData *data = [file readAtOffset:(unsigned long long)offset length:length error:&decryptError];
+        [file close];
+        if (data == nil) {
+            if ([decryptError.domain isEqualToString:RNVC_ERROR_DOMAIN] && decryptError.code == RNVC_ERROR_CODE_INVALID_FORMAT) {
+                [job reject:@"invalid_input_file" message:decryptError.localizedDescription error:decryptError];
+            } else {
+                [job reject:@"failed_to_decrypt" message:[NSString stringWithFormat:@"Could not decrypt file; %@", decryptError.localizedDescription] error:decryptError];
+            }
+            return;
+        }
+        [job resolve:@{
+            @"data": [data stringUsingBase64],
+            @"size": @(file.size)
+        }];
+    }];
 }
 
 @end
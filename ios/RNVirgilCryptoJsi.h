@@ -0,0 +1,12 @@
+#import <Foundation/Foundation.h>
+#import <VirgilCrypto/VirgilCrypto-Swift.h>
+
+// Binary counterparts of the hot bridge methods, installed into the JS runtime as
+// `global.__RNVirgilCryptoJsi`. ArrayBuffer contents are handed to the crypto as NSData
+// without copying, so payloads skip the base64 round trip the bridge requires.
+@interface RNVirgilCryptoJsi : NSObject
+
+// `runtime` is a `facebook::jsi::Runtime *`, kept opaque so that plain Objective-C can include this header
++ (BOOL)installInRuntime:(void *_Nullable)runtime crypto:(VSMVirgilCrypto *_Nonnull)crypto;
+
+@end
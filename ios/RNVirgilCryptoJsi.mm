@@ -0,0 +1,219 @@
+#import "RNVirgilCryptoJsi.h"
+
+#import <jsi/jsi.h>
+#import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
+
+#import "RNVirgilCrypto.h"
+#import "RNVirgilGroupSession.h"
+
+using namespace facebook;
+
+static const char *BINDINGS_PROPERTY = "__RNVirgilCryptoJsi";
+
+static NSData *dataFromArrayBuffer(jsi::Runtime &rt, const jsi::Value &value, const char *name) {
+    if (!value.isObject() || !value.getObject(rt).isArrayBuffer(rt)) {
+        throw jsi::JSError(rt, std::string("Expected \"") + name + "\" to be an ArrayBuffer");
+    }
+    jsi::ArrayBuffer buffer = value.getObject(rt).getArrayBuffer(rt);
+    // The buffer outlives the data, which never escapes the host function call
+    return [NSData dataWithBytesNoCopy:buffer.data(rt) length:buffer.size(rt) freeWhenDone:NO];
+}
+
+static NSString *stringFromValue(jsi::Runtime &rt, const jsi::Value &value, const char *name) {
+    if (!value.isString()) {
+        throw jsi::JSError(rt, std::string("Expected \"") + name + "\" to be a string");
+    }
+    return [NSString stringWithUTF8String:value.getString(rt).utf8(rt).c_str()];
+}
+
+static jsi::Value arrayBufferFromData(jsi::Runtime &rt, NSData *data) {
+    jsi::Function arrayBufferCtor = rt.global().getPropertyAsFunction(rt, "ArrayBuffer");
+    jsi::Object object = arrayBufferCtor.callAsConstructor(rt, (int)data.length).getObject(rt);
+    jsi::ArrayBuffer buffer = object.getArrayBuffer(rt);
+    memcpy(buffer.data(rt), data.bytes, data.length);
+    return std::move(object);
+}
+
+static jsi::Value stringValue(jsi::Runtime &rt, id value) {
+    NSString *string = [value isKindOfClass:[NSString class]] ? value : [value description];
+    return jsi::String::createFromUtf8(rt, string.UTF8String ?: "");
+}
+
+// Same shape as ResponseFactory.fromError, so JS handles both transports alike
+static jsi::Value errorResponse(jsi::Runtime &rt, NSError *error) {
+    NSDictionary *errorInfo = [ResponseFactory fromError:error][@"error"];
+    jsi::Object jsError(rt);
+    jsError.setProperty(rt, "code", stringValue(rt, errorInfo[@"code"]));
+    jsError.setProperty(rt, "message", stringValue(rt, errorInfo[@"message"]));
+    jsError.setProperty(rt, "domain", stringValue(rt, error.domain));
+    jsi::Object response(rt);
+    response.setProperty(rt, "error", jsError);
+    return std::move(response);
+}
+
+static jsi::Value resultResponse(jsi::Runtime &rt, jsi::Value result) {
+    jsi::Object response(rt);
+    response.setProperty(rt, "result", result);
+    return std::move(response);
+}
+
+static jsi::Value dataResponse(jsi::Runtime &rt, NSData *data, NSError *error) {
+    if (data == nil) {
+        return errorResponse(rt, error);
+    }
+    return resultResponse(rt, arrayBufferFromData(rt, data));
+}
+
+static void checkArgumentsCount(jsi::Runtime &rt, const char *name, size_t expected, size_t actual) {
+    if (actual < expected) {
+        throw jsi::JSError(
+            rt,
+            std::string(name) + " expects " + std::to_string(expected) + " arguments, got " + std::to_string(actual)
+        );
+    }
+}
+
+static void setFunction(jsi::Runtime &rt, jsi::Object &target, const char *name, unsigned int argsCount, jsi::HostFunctionType function) {
+    target.setProperty(
+        rt,
+        name,
+        jsi::Function::createFromHostFunction(rt, jsi::PropNameID::forAscii(rt, name), argsCount, std::move(function))
+    );
+}
+
+@implementation RNVirgilCryptoJsi
+
++ (BOOL)installInRuntime:(void *)runtime crypto:(VSMVirgilCrypto *)crypto {
+    if (runtime == NULL) {
+        return NO;
+    }
+    jsi::Runtime &rt = *static_cast<jsi::Runtime *>(runtime);
+    jsi::Object bindings(rt);
+
+    setFunction(rt, bindings, "computeHash", 2, [crypto](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "computeHash", 1, count);
+        @autoreleasepool {
+            NSData *data = dataFromArrayBuffer(rt, args[0], "data");
+            VSMHashAlgorithm algorithm = count > 1 && args[1].isNumber() ? (VSMHashAlgorithm)args[1].asNumber() : VSMHashAlgorithmSha512;
+            return resultResponse(rt, arrayBufferFromData(rt, [crypto computeHashFor:data using:algorithm]));
+        }
+    });
+
+    setFunction(rt, bindings, "encrypt", 3, [crypto](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "encrypt", 3, count);
+        @autoreleasepool {
+            NSData *data = dataFromArrayBuffer(rt, args[0], "data");
+            if (!args[1].isObject() || !args[1].getObject(rt).isArray(rt)) {
+                throw jsi::JSError(rt, "Expected \"publicKeys\" to be an array of ArrayBuffers");
+            }
+            jsi::Array publicKeysData = args[1].getObject(rt).getArray(rt);
+            size_t publicKeysCount = publicKeysData.size(rt);
+            NSMutableArray<VSMVirgilPublicKey *> *publicKeys = [NSMutableArray arrayWithCapacity:publicKeysCount];
+            NSError *error;
+            for (size_t i = 0; i < publicKeysCount; i++) {
+                NSData *publicKeyData = dataFromArrayBuffer(rt, publicKeysData.getValueAtIndex(rt, i), "publicKeys");
+                VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:publicKeyData error:&error];
+                if (publicKey == nil) {
+                    return errorResponse(rt, error);
+                }
+                [publicKeys addObject:publicKey];
+            }
+            BOOL enablePadding = args[2].isBool() && args[2].getBool();
+            NSData *encryptedData = [crypto encrypt:data for:publicKeys enablePadding:enablePadding error:&error];
+            return dataResponse(rt, encryptedData, error);
+        }
+    });
+
+    setFunction(rt, bindings, "decrypt", 2, [crypto](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "decrypt", 2, count);
+        @autoreleasepool {
+            NSData *data = dataFromArrayBuffer(rt, args[0], "data");
+            NSError *error;
+            VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:stringFromValue(rt, args[1], "keyHandle") error:&error];
+            if (keyPair == nil) {
+                return errorResponse(rt, error);
+            }
+            NSData *decryptedData = [crypto decrypt:data with:keyPair.privateKey error:&error];
+            return dataResponse(rt, decryptedData, error);
+        }
+    });
+
+    setFunction(rt, bindings, "generateSignature", 2, [crypto](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "generateSignature", 2, count);
+        @autoreleasepool {
+            NSData *data = dataFromArrayBuffer(rt, args[0], "data");
+            NSError *error;
+            VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:stringFromValue(rt, args[1], "keyHandle") error:&error];
+            if (keyPair == nil) {
+                return errorResponse(rt, error);
+            }
+            NSData *signature = [crypto generateSignatureOf:data using:keyPair.privateKey error:&error];
+            return dataResponse(rt, signature, error);
+        }
+    });
+
+    setFunction(rt, bindings, "verifySignature", 3, [crypto](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "verifySignature", 3, count);
+        @autoreleasepool {
+            NSData *signature = dataFromArrayBuffer(rt, args[0], "signature");
+            NSData *data = dataFromArrayBuffer(rt, args[1], "data");
+            NSError *error;
+            VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:dataFromArrayBuffer(rt, args[2], "publicKey") error:&error];
+            if (publicKey == nil) {
+                return errorResponse(rt, error);
+            }
+            BOOL isValid = [crypto verifySignature_objc:signature of:data with:publicKey];
+            return resultResponse(rt, jsi::Value((bool)isValid));
+        }
+    });
+
+    setFunction(rt, bindings, "groupSessionEncrypt", 3, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "groupSessionEncrypt", 3, count);
+        @autoreleasepool {
+            NSError *error;
+            VSCFGroupSession *session = [[RNVirgilGroupSession sessions] objectForHandle:stringFromValue(rt, args[0], "sessionHandle") error:&error];
+            if (session == nil) {
+                return errorResponse(rt, error);
+            }
+            NSData *data = dataFromArrayBuffer(rt, args[1], "data");
+            VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:stringFromValue(rt, args[2], "keyHandle") error:&error];
+            if (keyPair == nil) {
+                return errorResponse(rt, error);
+            }
+            VSCFGroupSessionMessage *message;
+            @synchronized (session) {
+                message = [session encryptWithPlainText:data privateKey:keyPair.privateKey.key error:&error];
+            }
+            return dataResponse(rt, [message serialize], error);
+        }
+    });
+
+    setFunction(rt, bindings, "groupSessionDecrypt", 3, [](jsi::Runtime &rt, const jsi::Value &, const jsi::Value *args, size_t count) -> jsi::Value {
+        checkArgumentsCount(rt, "groupSessionDecrypt", 3, count);
+        @autoreleasepool {
+            NSError *error;
+            VSCFGroupSession *session = [[RNVirgilGroupSession sessions] objectForHandle:stringFromValue(rt, args[0], "sessionHandle") error:&error];
+            if (session == nil) {
+                return errorResponse(rt, error);
+            }
+            VSCFGroupSessionMessage *message = [VSCFGroupSessionMessage deserializeWithInput:dataFromArrayBuffer(rt, args[1], "encryptedData") error:&error];
+            if (message == nil) {
+                return errorResponse(rt, error);
+            }
+            VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:dataFromArrayBuffer(rt, args[2], "publicKey") error:&error];
+            if (publicKey == nil) {
+                return errorResponse(rt, error);
+            }
+            NSData *decryptedData;
+            @synchronized (session) {
+                decryptedData = [session decryptWithMessage:message publicKey:publicKey.key error:&error];
+            }
+            return dataResponse(rt, decryptedData, error);
+        }
+    });
+
+    rt.global().setProperty(rt, BINDINGS_PROPERTY, std::move(bindings));
+    return YES;
+}
+
+@end
@@ -0,0 +1,45 @@
+#import <React/RCTBridgeModule.h>
+#import <VirgilCrypto/VirgilCrypto-Swift.h>
+#import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
+
+#import "HandleRegistry.h"
+#import "HashAlgorithm.h"
+#import "NSData+Encoding.h"
+#import "NSString+Encoding.h"
+#import "ResponseFactory.h"
+
+// Encrypts the data for the recipients chunk by chunk. The message info goes before the first
+// encrypted chunk, so the outputs put together are the same as the output of
+// -[VSMVirgilCrypto encrypt:for:error:]. If a signing key is given, the plaintext is signed as it
+// goes and the signature is returned by finish.
+@interface EncryptStream : NSObject
+
+- (instancetype _Nullable)initWithPublicKeys:(NSArray<VSMVirgilPublicKey *> *_Nonnull)publicKeys signingKey:(VSMVirgilPrivateKey *_Nullable)signingKey enablePadding:(BOOL)enablePadding error:(NSError *_Nullable*_Nullable)outError;
+- (NSData *_Nullable)update:(NSData *_Nonnull)data error:(NSError *_Nullable*_Nullable)outError;
+- (NSDictionary *_Nullable)finishAndReturnError:(NSError *_Nullable*_Nullable)outError;
+
+@end
+
+// Decrypts the data chunk by chunk. The message info is either given upfront, e.g. the metadata of
+// signThenEncryptDetached, or read from the beginning of the data. If verifying keys are given,
+// the plaintext is verified as it goes and finish fails unless the signature is valid. The signature
+// is either given upfront, e.g. the one returned by an encrypt stream, or taken from the message
+// info as -[VSMVirgilCrypto decryptAndVerify:with:usingOneOf:error:] does. Plaintext chunks are
+// returned before the signature is checked, so they must not be trusted until the stream is finished.
+@interface DecryptStream : NSObject
+
+- (instancetype _Nullable)initWithPrivateKey:(VSMVirgilPrivateKey *_Nonnull)privateKey messageInfo:(NSData *_Nonnull)messageInfo verifyingKeys:(NSArray<VSMVirgilPublicKey *> *_Nonnull)verifyingKeys signature:(NSData *_Nullable)signature error:(NSError *_Nullable*_Nullable)outError;
+- (NSData *_Nullable)update:(NSData *_Nonnull)data error:(NSError *_Nullable*_Nullable)outError;
+- (NSData *_Nullable)finishAndReturnError:(NSError *_Nullable*_Nullable)outError;
+
+@end
+
+// Streams that process data chunk by chunk as JS produces it, so the whole payload never has to be
+// held in memory. JS refers to a stream by handle until it's finished or aborted.
+@interface RNVirgilCryptoStreams : NSObject <RCTBridgeModule>
+
++ (HandleRegistry<EncryptStream *> *_Nonnull)encryptStreams;
++ (HandleRegistry<DecryptStream *> *_Nonnull)decryptStreams;
++ (HandleRegistry<id<VSCFHash>> *_Nonnull)hashes;
+
+@end
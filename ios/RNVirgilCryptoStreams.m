@@ -0,0 +1,425 @@
+#import "RNVirgilCryptoStreams.h"
+#import "RNVirgilCrypto.h"
+
+// Same as the padding VSMVirgilCrypto uses when padding is enabled
+static const NSUInteger PaddingLength = 160;
+
+@interface EncryptStream ()
+
+@property (nonatomic, retain) VSCFCtrDrbg *random;
+@property (nonatomic, retain) VSCFRecipientCipher *cipher;
+@property (nonatomic, retain) VSCFSigner *signer;
+@property (nonatomic, retain) VSMVirgilPrivateKey *signingKey;
+@property (nonatomic, retain) NSData *messageInfo;
+
+@end
+
+@implementation EncryptStream
+
+- (instancetype)initWithPublicKeys:(NSArray<VSMVirgilPublicKey *> *)publicKeys signingKey:(VSMVirgilPrivateKey *)signingKey enablePadding:(BOOL)enablePadding error:(NSError **)outError {
+    self = [super init];
+    // Chunks of the same stream may come from different queues, so the stream has a random
+    // generator of its own and its methods are synchronized
+    self.random = [[VSCFCtrDrbg alloc] init];
+    if ([self.random setupDefaultsAndReturnError:outError] == NO) {
+        return nil;
+    }
+    self.cipher = [[VSCFRecipientCipher alloc] init];
+    [self.cipher setEncryptionCipherWithEncryptionCipher:[[VSCFAes256Gcm alloc] init]];
+    [self.cipher setRandomWithRandom:self.random];
+    if (enablePadding) {
+        VSCFRandomPadding *randomPadding = [[VSCFRandomPadding alloc] init];
+        [randomPadding setRandomWithRandom:self.random];
+        [self.cipher setEncryptionPaddingWithEncryptionPadding:randomPadding];
+        [self.cipher setPaddingParamsWithPaddingParams:[[VSCFPaddingParams alloc] initWithFrame:PaddingLength frameMax:PaddingLength]];
+    }
+    for (VSMVirgilPublicKey *publicKey in publicKeys) {
+        [self.cipher addKeyRecipientWithRecipientId:publicKey.identifier publicKey:publicKey.key];
+    }
+    if (signingKey != nil) {
+        self.signingKey = signingKey;
+        self.signer = [[VSCFSigner alloc] init];
+        [self.signer setRandomWithRandom:self.random];
+        [self.signer setHashWithHash:[[VSCFSha512 alloc] init]];
+        [self.signer reset];
+    }
+    if ([self.cipher startEncryptionAndReturnError:outError] == NO) {
+        return nil;
+    }
+    self.messageInfo = [self.cipher packMessageInfo];
+    return self;
+}
+
+- (NSData *)update:(NSData *)data error:(NSError **)outError {
+    @synchronized (self) {
+        [self.signer appendDataWithData:data];
+        NSData *encryptedData = [self.cipher processEncryptionWithData:data error:outError];
+        return encryptedData == nil ? nil : [self withMessageInfo:encryptedData];
+    }
+}
+
+- (NSDictionary *)finishAndReturnError:(NSError **)outError {
+    @synchronized (self) {
+        NSData *encryptedData = [self.cipher finishEncryptionAndReturnError:outError];
+        if (encryptedData == nil) {
+            return nil;
+        }
+        NSMutableDictionary *result = [NSMutableDictionary dictionaryWithObject:[[self withMessageInfo:encryptedData] stringUsingBase64] forKey:@"encryptedData"];
+        if (self.signer != nil) {
+            NSData *signature = [self.signer signWithPrivateKey:self.signingKey.key error:outError];
+            if (signature == nil) {
+                return nil;
+            }
+            result[@"signature"] = [signature stringUsingBase64];
+        }
+        return result;
+    }
+}
+
+- (NSData *)withMessageInfo:(NSData *)encryptedData {
+    if (self.messageInfo == nil) {
+        return encryptedData;
+    }
+    NSMutableData *result = [NSMutableData dataWithData:self.messageInfo];
+    [result appendData:encryptedData];
+    self.messageInfo = nil;
+    return result;
+}
+
+@end
+
+@interface DecryptStream ()
+
+@property (nonatomic, retain) VSCFRecipientCipher *cipher;
+@property (nonatomic, retain) NSArray<VSMVirgilPublicKey *> *verifyingKeys;
+@property (nonatomic, retain) NSData *signature;
+@property (nonatomic, retain) NSMutableArray<VSCFVerifier *> *verifiers;
+@property (nonatomic, retain) NSMutableArray<VSMVirgilPublicKey *> *signerKeys;
+@property (nonatomic) BOOL isVerificationStarted;
+
+@end
+
+@implementation DecryptStream
+
+- (instancetype)initWithPrivateKey:(VSMVirgilPrivateKey *)privateKey messageInfo:(NSData *)messageInfo verifyingKeys:(NSArray<VSMVirgilPublicKey *> *)verifyingKeys signature:(NSData *)signature error:(NSError **)outError {
+    self = [super init];
+    self.verifyingKeys = verifyingKeys;
+    self.signature = signature;
+    self.verifiers = [NSMutableArray array];
+    self.signerKeys = [NSMutableArray array];
+    self.cipher = [[VSCFRecipientCipher alloc] init];
+    if ([self.cipher startDecryptionWithKeyWithRecipientId:privateKey.identifier privateKey:privateKey.key messageInfo:messageInfo error:outError] == NO) {
+        return nil;
+    }
+    return self;
+}
+
+- (NSData *)update:(NSData *)data error:(NSError **)outError {
+    @synchronized (self) {
+        NSData *decryptedData = [self.cipher processDecryptionWithData:data error:outError];
+        if (decryptedData == nil) {
+            return nil;
+        }
+        // The message info is parsed by the time the first plaintext comes out
+        if (decryptedData.length > 0 && [self appendToVerifiers:decryptedData error:outError] == NO) {
+            return nil;
+        }
+        return decryptedData;
+    }
+}
+
+- (NSData *)finishAndReturnError:(NSError **)outError {
+    @synchronized (self) {
+        NSData *decryptedData = [self.cipher finishDecryptionAndReturnError:outError];
+        if (decryptedData == nil || [self appendToVerifiers:decryptedData error:outError] == NO) {
+            return nil;
+        }
+        if (self.verifyingKeys.count == 0) {
+            return decryptedData;
+        }
+        for (NSUInteger i = 0; i < self.verifiers.count; i++) {
+            if ([self.verifiers[i] verifyWithPublicKey:self.signerKeys[i].key]) {
+                return decryptedData;
+            }
+        }
+        [self failVerification:@"Signature verification failed" error:outError];
+        return nil;
+    }
+}
+
+- (BOOL)appendToVerifiers:(NSData *)decryptedData error:(NSError **)outError {
+    if (self.verifyingKeys.count == 0) {
+        return YES;
+    }
+    if (self.isVerificationStarted == NO && [self startVerificationAndReturnError:outError] == NO) {
+        return NO;
+    }
+    for (VSCFVerifier *verifier in self.verifiers) {
+        [verifier appendDataWithData:decryptedData];
+    }
+    return YES;
+}
+
+- (BOOL)startVerificationAndReturnError:(NSError **)outError {
+    self.isVerificationStarted = YES;
+    NSData *signature = self.signature;
+    if (signature != nil) {
+        // No signer id comes with a detached signature, so any of the keys may match
+        [self.signerKeys addObjectsFromArray:self.verifyingKeys];
+    } else {
+        signature = [[self.cipher customParams] findDataWithKey:VSMVirgilCrypto.CustomParamKeySignature error:nil];
+        NSData *signerId = [[self.cipher customParams] findDataWithKey:VSMVirgilCrypto.CustomParamKeySignerId error:nil];
+        if (signature == nil || signerId == nil) {
+            return [self failVerification:@"Data is not signed" error:outError];
+        }
+        for (VSMVirgilPublicKey *publicKey in self.verifyingKeys) {
+            if ([publicKey.identifier isEqualToData:signerId]) {
+                [self.signerKeys addObject:publicKey];
+                break;
+            }
+        }
+        if (self.signerKeys.count == 0) {
+            return [self failVerification:@"Signer public key is not found" error:outError];
+        }
+    }
+    for (NSUInteger i = 0; i < self.signerKeys.count; i++) {
+        VSCFVerifier *verifier = [[VSCFVerifier alloc] init];
+        if ([verifier resetWithSignature:signature error:outError] == NO) {
+            return NO;
+        }
+        [self.verifiers addObject:verifier];
+    }
+    return YES;
+}
+
+- (BOOL)failVerification:(NSString *)message error:(NSError **)outError {
+    if (outError != nil) {
+        *outError = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_SIGNATURE_NOT_VERIFIED userInfo:@{
+            NSLocalizedDescriptionKey: message
+        }];
+    }
+    return NO;
+}
+
+@end
+
+@implementation RNVirgilCryptoStreams
+
+RCT_EXPORT_MODULE()
+
++ (BOOL)requiresMainQueueSetup {
+    return NO;
+}
+
++ (HandleRegistry<EncryptStream *> *)encryptStreams {
+    static HandleRegistry<EncryptStream *> *encryptStreams;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        // Streams that are not used for a while are dropped, e.g. when JS loses the stream object
+        encryptStreams = [[HandleRegistry alloc] initWithCapacity:32 maxIdleInterval:5 * 60];
+    });
+    return encryptStreams;
+}
+
++ (HandleRegistry<DecryptStream *> *)decryptStreams {
+    static HandleRegistry<DecryptStream *> *decryptStreams;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        decryptStreams = [[HandleRegistry alloc] initWithCapacity:32 maxIdleInterval:5 * 60];
+    });
+    return decryptStreams;
+}
+
++ (HandleRegistry<id<VSCFHash>> *)hashes {
+    static HandleRegistry<id<VSCFHash>> *hashes;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        hashes = [[HandleRegistry alloc] initWithCapacity:32 maxIdleInterval:5 * 60];
+    });
+    return hashes;
+}
+
++ (NSArray<VSMVirgilPublicKey *> *)importPublicKeys:(NSArray<NSString *> *)publicKeysBase64 error:(NSError **)outError {
+    NSMutableArray<VSMVirgilPublicKey *> *publicKeys = [NSMutableArray arrayWithCapacity:publicKeysBase64.count];
+    for (NSString *publicKeyBase64 in publicKeysBase64) {
+        VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:[publicKeyBase64 dataUsingBase64] error:outError];
+        if (publicKey == nil) {
+            return nil;
+        }
+        [publicKeys addObject:publicKey];
+    }
+    return publicKeys;
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(createEncryptStream:(NSArray<NSString *> *)publicKeysBase64 signingKeyHandle:(nullable NSString *)signingKeyHandle enablePadding:(BOOL)enablePadding) {
+    NSError *error;
+    NSArray<VSMVirgilPublicKey *> *publicKeys = [RNVirgilCryptoStreams importPublicKeys:publicKeysBase64 error:&error];
+    if (publicKeys == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    VSMVirgilPrivateKey *signingKey;
+    if (signingKeyHandle != nil) {
+        VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:signingKeyHandle error:&error];
+        if (keyPair == nil) {
+            return [ResponseFactory fromError:error];
+        }
+        signingKey = keyPair.privateKey;
+    }
+    EncryptStream *stream = [[EncryptStream alloc] initWithPublicKeys:publicKeys signingKey:signingKey enablePadding:enablePadding error:&error];
+    if (stream == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSString *streamHandle = [[NSUUID UUID] UUIDString];
+    [[RNVirgilCryptoStreams encryptStreams] setObject:stream forHandle:streamHandle];
+    return [ResponseFactory fromResult:streamHandle];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(updateEncryptStream:(NSString *)streamHandle data:(NSString *)dataBase64) {
+    NSError *error;
+    EncryptStream *stream = [[RNVirgilCryptoStreams encryptStreams] objectForHandle:streamHandle error:&error];
+    if (stream == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSData *encryptedData = [stream update:[dataBase64 dataUsingBase64] error:&error];
+    if (encryptedData == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[encryptedData stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(finishEncryptStream:(NSString *)streamHandle) {
+    NSError *error;
+    EncryptStream *stream = [[RNVirgilCryptoStreams encryptStreams] objectForHandle:streamHandle error:&error];
+    if (stream == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    [[RNVirgilCryptoStreams encryptStreams] releaseHandle:streamHandle];
+    NSDictionary *result = [stream finishAndReturnError:&error];
+    if (result == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:result];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(abortEncryptStream:(NSString *)streamHandle) {
+    return [ResponseFactory fromResult:@([[RNVirgilCryptoStreams encryptStreams] releaseHandle:streamHandle])];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(createDecryptStream:(NSString *)keyHandle messageInfo:(nullable NSString *)messageInfoBase64 verifyingPublicKeys:(NSArray<NSString *> *)verifyingPublicKeysBase64 signature:(nullable NSString *)signatureBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:keyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSArray<VSMVirgilPublicKey *> *verifyingKeys = [RNVirgilCryptoStreams importPublicKeys:verifyingPublicKeysBase64 error:&error];
+    if (verifyingKeys == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSData *messageInfo = messageInfoBase64 == nil ? [NSData data] : [messageInfoBase64 dataUsingBase64];
+    DecryptStream *stream = [[DecryptStream alloc] initWithPrivateKey:keyPair.privateKey messageInfo:messageInfo verifyingKeys:verifyingKeys signature:[signatureBase64 dataUsingBase64] error:&error];
+    if (stream == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSString *streamHandle = [[NSUUID UUID] UUIDString];
+    [[RNVirgilCryptoStreams decryptStreams] setObject:stream forHandle:streamHandle];
+    return [ResponseFactory fromResult:streamHandle];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(updateDecryptStream:(NSString *)streamHandle data:(NSString *)dataBase64) {
+    NSError *error;
+    DecryptStream *stream = [[RNVirgilCryptoStreams decryptStreams] objectForHandle:streamHandle error:&error];
+    if (stream == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSData *decryptedData = [stream update:[dataBase64 dataUsingBase64] error:&error];
+    if (decryptedData == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[decryptedData stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(finishDecryptStream:(NSString *)streamHandle) {
+    NSError *error;
+    DecryptStream *stream = [[RNVirgilCryptoStreams decryptStreams] objectForHandle:streamHandle error:&error];
+    if (stream == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    [[RNVirgilCryptoStreams decryptStreams] releaseHandle:streamHandle];
+    NSData *decryptedData = [stream finishAndReturnError:&error];
+    if (decryptedData == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[decryptedData stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(abortDecryptStream:(NSString *)streamHandle) {
+    return [ResponseFactory fromResult:@([[RNVirgilCryptoStreams decryptStreams] releaseHandle:streamHandle])];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(createHash:(VSMHashAlgorithm)algorithm) {
+    NSString *hashHandle = [[NSUUID UUID] UUIDString];
+    [[RNVirgilCryptoStreams hashes] setObject:[HashAlgorithm startHash:algorithm] forHandle:hashHandle];
+    return [ResponseFactory fromResult:hashHandle];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(updateHash:(NSString *)hashHandle data:(NSString *)dataBase64) {
+    NSError *error;
+    id<VSCFHash> hash = [[RNVirgilCryptoStreams hashes] objectForHandle:hashHandle error:&error];
+    if (hash == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    @synchronized (hash) {
+        [hash updateWithData:[dataBase64 dataUsingBase64]];
+    }
+    return [ResponseFactory fromResult:@(YES)];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(digestHash:(NSString *)hashHandle) {
+    NSError *error;
+    id<VSCFHash> hash = [[RNVirgilCryptoStreams hashes] objectForHandle:hashHandle error:&error];
+    if (hash == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    [[RNVirgilCryptoStreams hashes] releaseHandle:hashHandle];
+    @synchronized (hash) {
+        return [ResponseFactory fromResult:[[hash finish] stringUsingBase64]];
+    }
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(abortHash:(NSString *)hashHandle) {
+    return [ResponseFactory fromResult:@([[RNVirgilCryptoStreams hashes] releaseHandle:hashHandle])];
+}
+
+// Promise based counterparts, for chunks that are too big to process on the JS thread
+
+RCT_EXPORT_METHOD(updateEncryptStreamAsync:(NSString *)streamHandle data:(NSString *)dataBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self updateEncryptStream:streamHandle data:dataBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(finishEncryptStreamAsync:(NSString *)streamHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self finishEncryptStream:streamHandle];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(updateDecryptStreamAsync:(NSString *)streamHandle data:(NSString *)dataBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self updateDecryptStream:streamHandle data:dataBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(finishDecryptStreamAsync:(NSString *)streamHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self finishDecryptStream:streamHandle];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(updateHashAsync:(NSString *)hashHandle data:(NSString *)dataBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self updateHash:hashHandle data:dataBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+@end
@@ -3,6 +3,7 @@
 #import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
 
 #import "NSData+Encoding.h"
+#import "HandleRegistry.h"
 #import "NSString+Encoding.h"
 #import "ResponseFactory.h"
 
@@ -11,4 +12,8 @@
 @property (nonatomic, retain) VSCFCtrDrbg *random;
 @property (nonatomic, retain) VSCFKeyProvider *keyProvider;
 
+// Live sessions that JS refers to by handle (base64 session id and epoch number)
++ (HandleRegistry<VSCFGroupSession *> *)sessions;
++ (NSString *)registerSession:(VSCFGroupSession *)session;
+
 @end
@@ -1,4 +1,5 @@
 #import "RNVirgilGroupSession.h"
+#import "RNVirgilCrypto.h"
 
 @implementation RNVirgilGroupSession
 
@@ -17,6 +18,28 @@ RCT_EXPORT_MODULE()
     return NO;
 }
 
++ (HandleRegistry<VSCFGroupSession *> *)sessions {
+    static HandleRegistry<VSCFGroupSession *> *sessions;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        sessions = [[HandleRegistry alloc] initWithCapacity:32 maxIdleInterval:5 * 60];
+    });
+    return sessions;
+}
+
+// Registered sessions may be used from background queues, so each one gets a random generator
+// of its own instead of the module one
++ (NSString *)registerSession:(VSCFGroupSession *)session {
+    VSCFCtrDrbg *sessionRandom = [[VSCFCtrDrbg alloc] init];
+    [sessionRandom setupDefaultsAndReturnError:nil];
+    @synchronized (session) {
+        [session setRngWithRng:sessionRandom];
+    }
+    NSString *sessionHandle = [NSString stringWithFormat:@"%@:%u", [[session getSessionId] stringUsingBase64], [session getCurrentEpoch]];
+    [[RNVirgilGroupSession sessions] setObject:session forHandle:sessionHandle];
+    return sessionHandle;
+}
+
 - (VSCFGroupSession *)createSession:(NSArray<NSString *> *) epochMessagesBase64 error:(NSError **)error {
     NSMutableArray<VSCFGroupSessionMessage *> *epochMessages = [NSMutableArray arrayWithCapacity:epochMessagesBase64.count];
     for (NSString *epochMessageBase64 in epochMessagesBase64) {
@@ -47,12 +70,8 @@ RCT_EXPORT_MODULE()
     };
 }
 
-RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encrypt:(NSString *)dataBase64 withSigningKey:(NSString *)signingKeyBase64 andEpochMessages:(NSArray<NSString *> *)epochMessagesBase64) {
+- (NSDictionary *)encrypt:(NSString *)dataBase64 withPrivateKey:(id<VSCFPrivateKey>)privateKey andEpochMessages:(NSArray<NSString *> *)epochMessagesBase64 {
     NSError *error;
-    id<VSCFPrivateKey> privateKey = [self.keyProvider importPrivateKeyWithKeyData:[signingKeyBase64 dataUsingBase64] error:&error];
-    if (privateKey == nil) {
-        return [ResponseFactory fromError:error];
-    }
     VSCFGroupSession *session = [self createSession:epochMessagesBase64 error:&error];
     if (session == nil) {
         return [ResponseFactory fromError:error];
@@ -64,6 +83,24 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encrypt:(NSString *)dataBase64 withSignin
     return [ResponseFactory fromResult:[[message serialize] stringUsingBase64]];
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encrypt:(NSString *)dataBase64 withSigningKey:(NSString *)signingKeyBase64 andEpochMessages:(NSArray<NSString *> *)epochMessagesBase64) {
+    NSError *error;
+    id<VSCFPrivateKey> privateKey = [self.keyProvider importPrivateKeyWithKeyData:[signingKeyBase64 dataUsingBase64] error:&error];
+    if (privateKey == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self encrypt:dataBase64 withPrivateKey:privateKey andEpochMessages:epochMessagesBase64];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encryptWithKeyHandle:(NSString *)dataBase64 signingKeyHandle:(NSString *)signingKeyHandle andEpochMessages:(NSArray<NSString *> *)epochMessagesBase64) {
+    NSError *error;
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:signingKeyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [self encrypt:dataBase64 withPrivateKey:keyPair.privateKey.key andEpochMessages:epochMessagesBase64];
+}
+
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decrypt:(NSString *) encryptedMessageBase64 withVerifyingKey:(NSString *)verifyingKeyBase64 andEpochMessages:(NSArray<NSString *> *)epochMessagesBase64) {
     NSError *error;
     id<VSCFPublicKey> publicKey = [self.keyProvider importPublicKeyWithKeyData:[verifyingKeyBase64 dataUsingBase64] error:&error];
@@ -102,6 +139,111 @@ RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(addNewEpoch:(NSArray<NSString *> *)epochM
     return [ResponseFactory fromResult:[self groupSessionMessageToDictionary:epochMessage]];
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(openSession:(NSArray<NSString *> *)epochMessagesBase64) {
+    NSError *error;
+    VSCFGroupSession *session = [self createSession:epochMessagesBase64 error:&error];
+    if (session == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[RNVirgilGroupSession registerSession:session]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(closeSession:(NSString *)sessionHandle) {
+    return [ResponseFactory fromResult:@([[RNVirgilGroupSession sessions] releaseHandle:sessionHandle])];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(encryptWithSession:(NSString *)sessionHandle data:(NSString *)dataBase64 signingKeyHandle:(NSString *)signingKeyHandle) {
+    NSError *error;
+    VSCFGroupSession *session = [[RNVirgilGroupSession sessions] objectForHandle:sessionHandle error:&error];
+    if (session == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    VSMVirgilKeyPair *keyPair = [[RNVirgilCrypto keyPairs] objectForHandle:signingKeyHandle error:&error];
+    if (keyPair == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    VSCFGroupSessionMessage *message;
+    @synchronized (session) {
+        message = [session encryptWithPlainText:[dataBase64 dataUsingBase64] privateKey:keyPair.privateKey.key error:&error];
+    }
+    if (message == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[[message serialize] stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(decryptWithSession:(NSString *)sessionHandle message:(NSString *)encryptedMessageBase64 verifyingKey:(NSString *)verifyingKeyBase64) {
+    NSError *error;
+    VSCFGroupSession *session = [[RNVirgilGroupSession sessions] objectForHandle:sessionHandle error:&error];
+    if (session == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    VSMVirgilPublicKey *publicKey = [[RNVirgilCrypto publicKeyCache] importPublicKeyFrom:[verifyingKeyBase64 dataUsingBase64] error:&error];
+    if (publicKey == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    VSCFGroupSessionMessage *encryptedMessage = [VSCFGroupSessionMessage deserializeWithInput:[encryptedMessageBase64 dataUsingBase64] error:&error];
+    if (encryptedMessage == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    NSData *decrypted;
+    @synchronized (session) {
+        decrypted = [session decryptWithMessage:encryptedMessage publicKey:publicKey.key error:&error];
+    }
+    if (decrypted == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    return [ResponseFactory fromResult:[decrypted stringUsingBase64]];
+}
+
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(addNewEpochWithSession:(NSString *)sessionHandle) {
+    NSError *error;
+    VSCFGroupSession *session = [[RNVirgilGroupSession sessions] objectForHandle:sessionHandle error:&error];
+    if (session == nil) {
+        return [ResponseFactory fromError:error];
+    }
+    VSCFGroupSessionMessage *epochMessage;
+    @synchronized (session) {
+        VSCFGroupSessionTicket *epochTicket = [session createGroupTicketAndReturnError:&error];
+        if (epochTicket == nil) {
+            return [ResponseFactory fromError:error];
+        }
+        epochMessage = [epochTicket getTicketMessage];
+        if (![session addEpochWithMessage:epochMessage error:&error]) {
+            return [ResponseFactory fromError:error];
+        }
+    }
+    // The handle names the epoch, so the session moves to a new one
+    [[RNVirgilGroupSession sessions] releaseHandle:sessionHandle];
+    NSMutableDictionary *result = [[self groupSessionMessageToDictionary:epochMessage] mutableCopy];
+    result[@"handle"] = [RNVirgilGroupSession registerSession:session];
+    return [ResponseFactory fromResult:result];
+}
+
+RCT_EXPORT_METHOD(openSessionAsync:(NSArray<NSString *> *)epochMessagesBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self openSession:epochMessagesBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(encryptWithSessionAsync:(NSString *)sessionHandle data:(NSString *)dataBase64 signingKeyHandle:(NSString *)signingKeyHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self encryptWithSession:sessionHandle data:dataBase64 signingKeyHandle:signingKeyHandle];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(decryptWithSessionAsync:(NSString *)sessionHandle message:(NSString *)encryptedMessageBase64 verifyingKey:(NSString *)verifyingKeyBase64 resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self decryptWithSession:sessionHandle message:encryptedMessageBase64 verifyingKey:verifyingKeyBase64];
+    } resolver:resolve rejecter:reject];
+}
+
+RCT_EXPORT_METHOD(addNewEpochWithSessionAsync:(NSString *)sessionHandle resolver:(RCTPromiseResolveBlock)resolve rejecter:(RCTPromiseRejectBlock)reject) {
+    [RNVirgilCrypto resolveAsync:^NSDictionary *{
+        return [self addNewEpochWithSession:sessionHandle];
+    } resolver:resolve rejecter:reject];
+}
+
 RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(parseMessage:(NSString *)messageBase64) {
     NSError *error;
     VSCFGroupSessionMessage *message = [VSCFGroupSessionMessage deserializeWithInput:[messageBase64 dataUsingBase64] error:&error];
@@ -1,4 +1,5 @@
 #import "ResponseFactory.h"
+#import "Constants.h"
 
 @implementation ResponseFactory
 
@@ -7,6 +8,14 @@
 }
 
 + (id)fromError:(NSError *)error {
+    if ([error.domain isEqualToString:RNVC_ERROR_DOMAIN] && error.code == RNVC_ERROR_CODE_HANDLE_NOT_FOUND) {
+        // Lets JS re-register the object and retry instead of failing
+        return @{ @"error": RCTJSErrorFromCodeMessageAndNSError(@"EHANDLENOTFOUND", error.localizedDescription, error) };
+    }
+    if ([error.domain isEqualToString:RNVC_ERROR_DOMAIN] && error.code == RNVC_ERROR_CODE_RECIPIENT_SET_NOT_FOUND) {
+        // Same as above, but JS registers the recipient set again, not the private key
+        return @{ @"error": RCTJSErrorFromCodeMessageAndNSError(@"ERECIPIENTSETNOTFOUND", error.localizedDescription, error) };
+    }
     return @{ @"error": RCTJSErrorFromNSError(error) };
 }
 
@@ -0,0 +1,33 @@
+#import <Foundation/Foundation.h>
+#import <VirgilCrypto/VirgilCrypto-Swift.h>
+
+#import "ProgressInputStream.h"
+
+// Encrypts a file to the SeekableFile format so that an interrupted job, e.g. one whose app was
+// killed, continues from the last committed chunk when started again with the same input, output
+// and recipients. The progress is committed to a journal next to the output every 4 MB or so:
+// "VSKJ" | version (1 byte) | chunk size (4 bytes) | input size (8 bytes) | input modification time (8 bytes) |
+// recipients digest (32 bytes) | file key (32 bytes) | data offset (8 bytes) | committed chunks (8 bytes)
+// Chunks are synced to storage before the journal is replaced, so committed chunks are always
+// there after a crash. The journal holds the file key until the output is complete, it's deleted
+// then. A journal that doesn't match the input, the chunk size or the recipients is ignored and
+// the file is encrypted from the start under a new key, as is one whose last committed chunk
+// doesn't decrypt to the input, so a key is never used for different data at the same index.
+// The journal is key material: a job that won't be started again must be discarded, which removes
+// the journal along with the partial output.
+@interface ResumableEncryption : NSObject
+
++ (NSString *_Nonnull)journalPathForOutput:(NSString *_Nonnull)outputPath;
++ (void)deleteJournalOfOutput:(NSString *_Nonnull)outputPath;
+// Removes the journal and the partial output of an unfinished job. A complete output has no journal
+// and is kept, as is the output of a job that's still running. Returns NO if nothing was discarded.
++ (BOOL)discardJobOfOutput:(NSString *_Nonnull)outputPath;
+// Discards the unfinished jobs of the outputs in the directory whose journal hasn't been committed
+// for maxAge seconds, e.g. on start for jobs that won't be resumed. Returns the number of discarded jobs.
++ (NSUInteger)discardStaleJobsInDirectory:(NSString *_Nonnull)directoryPath maxAge:(NSTimeInterval)maxAge;
+// inputStream reads the file at inputPath and is opened here. The journal and the partial output
+// are left in place if this fails, so the job can be started again. Only one job at a time can
+// encrypt to an output.
++ (BOOL)encryptFileAtPath:(NSString *_Nonnull)inputPath with:(ProgressInputStream *_Nonnull)inputStream toPath:(NSString *_Nonnull)outputPath for:(NSArray<VSMVirgilPublicKey *> *_Nonnull)publicKeys chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel crypto:(VSMVirgilCrypto *_Nonnull)crypto error:(NSError *_Nullable*_Nullable)outError;
+
+@end
@@ -0,0 +1,351 @@
+#import "ResumableEncryption.h"
+#import "SeekableFile.h"
+
+#import <fcntl.h>
+#import <unistd.h>
+
+static const uint8_t Magic[4] = { 'V', 'S', 'K', 'J' };
+static const uint8_t Version = 1;
+static const NSUInteger JournalLength = 4 + 1 + 4 + 8 + 8 + 32 + 32 + 8 + 8;
+static const NSUInteger DigestLength = 32;
+// Same as in SeekableFile
+static const NSUInteger KeyLength = 32;
+static const NSUInteger TagLength = 16;
+static const unsigned long long CheckpointBytes = 4 * 1024 * 1024;
+
+@interface ResumableJournal : NSObject
+
+@property (nonatomic) uint32_t chunkSize;
+@property (nonatomic) unsigned long long inputSize;
+@property (nonatomic) long long inputModified;
+@property (nonatomic, retain) NSData *recipientsDigest;
+@property (nonatomic, retain) NSData *key;
+@property (nonatomic) unsigned long long dataOffset;
+@property (nonatomic) unsigned long long committedChunks;
+
+@end
+
+@implementation ResumableJournal
+
+// Returns nil if there's no journal or it can't be read
++ (instancetype)readFromPath:(NSString *)path {
+    NSData *data = [NSData dataWithContentsOfFile:path];
+    if (data.length != JournalLength || memcmp(data.bytes, Magic, sizeof(Magic)) != 0
+        || ((const uint8_t *)data.bytes)[4] != Version) {
+        return nil;
+    }
+    ResumableJournal *journal = [[ResumableJournal alloc] init];
+    NSUInteger offset = 5;
+    uint32_t chunkSizeBE;
+    [data getBytes:&chunkSizeBE range:NSMakeRange(offset, 4)];
+    journal.chunkSize = CFSwapInt32BigToHost(chunkSizeBE);
+    offset += 4;
+    journal.inputSize = [ResumableJournal uint64In:data at:offset];
+    offset += 8;
+    journal.inputModified = (long long)[ResumableJournal uint64In:data at:offset];
+    offset += 8;
+    journal.recipientsDigest = [data subdataWithRange:NSMakeRange(offset, DigestLength)];
+    offset += DigestLength;
+    journal.key = [data subdataWithRange:NSMakeRange(offset, KeyLength)];
+    offset += KeyLength;
+    journal.dataOffset = [ResumableJournal uint64In:data at:offset];
+    offset += 8;
+    journal.committedChunks = [ResumableJournal uint64In:data at:offset];
+    if (journal.chunkSize == 0 || journal.dataOffset == 0) {
+        return nil;
+    }
+    return journal;
+}
+
++ (uint64_t)uint64In:(NSData *)data at:(NSUInteger)offset {
+    uint64_t valueBE;
+    [data getBytes:&valueBE range:NSMakeRange(offset, 8)];
+    return CFSwapInt64BigToHost(valueBE);
+}
+
++ (void)appendUInt64:(uint64_t)value to:(NSMutableData *)data {
+    uint64_t valueBE = CFSwapInt64HostToBig(value);
+    [data appendBytes:&valueBE length:8];
+}
+
+// Replaces the journal atomically: it's written and synced to a temporary file first
+- (BOOL)commitToPath:(NSString *)path error:(NSError **)outError {
+    NSMutableData *data = [NSMutableData dataWithBytes:Magic length:sizeof(Magic)];
+    [data appendBytes:&Version length:1];
+    uint32_t chunkSizeBE = CFSwapInt32HostToBig(self.chunkSize);
+    [data appendBytes:&chunkSizeBE length:4];
+    [ResumableJournal appendUInt64:self.inputSize to:data];
+    [ResumableJournal appendUInt64:(uint64_t)self.inputModified to:data];
+    [data appendData:self.recipientsDigest];
+    [data appendData:self.key];
+    [ResumableJournal appendUInt64:self.dataOffset to:data];
+    [ResumableJournal appendUInt64:self.committedChunks to:data];
+
+    NSString *tempPath = [path stringByAppendingString:@".tmp"];
+    // The journal holds the file key, no one else should read it
+    int fd = open(tempPath.fileSystemRepresentation, O_WRONLY | O_CREAT | O_TRUNC, 0600);
+    BOOL isWritten = fd >= 0
+        && write(fd, data.bytes, data.length) == (ssize_t)data.length
+        && fsync(fd) == 0;
+    if (isWritten == NO && outError != nil) {
+        *outError = [NSError errorWithDomain:NSPOSIXErrorDomain code:errno userInfo:@{
+            NSLocalizedDescriptionKey: [NSString stringWithFormat:@"Failed to write journal '%@'", path]
+        }];
+    }
+    if (fd >= 0) {
+        close(fd);
+    }
+    if (isWritten && rename(tempPath.fileSystemRepresentation, path.fileSystemRepresentation) != 0) {
+        isWritten = NO;
+        if (outError != nil) {
+            *outError = [NSError errorWithDomain:NSPOSIXErrorDomain code:errno userInfo:@{
+                NSLocalizedDescriptionKey: [NSString stringWithFormat:@"Failed to replace journal '%@'", path]
+            }];
+        }
+    }
+    return isWritten;
+}
+
+@end
+
+@implementation ResumableEncryption
+
++ (NSString *)journalPathForOutput:(NSString *)outputPath {
+    return [outputPath stringByAppendingString:@".journal"];
+}
+
++ (void)deleteJournalOfOutput:(NSString *)outputPath {
+    NSString *journalPath = [ResumableEncryption journalPathForOutput:outputPath];
+    [[NSFileManager defaultManager] removeItemAtPath:journalPath error:nil];
+    [[NSFileManager defaultManager] removeItemAtPath:[journalPath stringByAppendingString:@".tmp"] error:nil];
+}
+
+// Standardized paths of the outputs being encrypted, their journals must not be discarded
++ (NSMutableSet<NSString *> *)activeOutputs {
+    static NSMutableSet<NSString *> *activeOutputs;
+    static dispatch_once_t onceToken;
+    dispatch_once(&onceToken, ^{
+        activeOutputs = [NSMutableSet set];
+    });
+    return activeOutputs;
+}
+
++ (BOOL)discardJobOfOutput:(NSString *)outputPath {
+    NSMutableSet<NSString *> *activeOutputs = [ResumableEncryption activeOutputs];
+    NSString *journalPath = [ResumableEncryption journalPathForOutput:outputPath];
+    NSFileManager *fileManager = [NSFileManager defaultManager];
+    @synchronized (activeOutputs) {
+        if ([activeOutputs containsObject:[outputPath stringByStandardizingPath]]) {
+            return NO;
+        }
+        if ([fileManager fileExistsAtPath:journalPath] == NO
+            && [fileManager fileExistsAtPath:[journalPath stringByAppendingString:@".tmp"]] == NO) {
+            return NO;
+        }
+        // The key goes first, the partial output can't be decrypted without it
+        [ResumableEncryption deleteJournalOfOutput:outputPath];
+        [fileManager removeItemAtPath:outputPath error:nil];
+    }
+    return YES;
+}
+
++ (NSUInteger)discardStaleJobsInDirectory:(NSString *)directoryPath maxAge:(NSTimeInterval)maxAge {
+    NSFileManager *fileManager = [NSFileManager defaultManager];
+    NSArray<NSString *> *names = [fileManager contentsOfDirectoryAtPath:directoryPath error:nil];
+    NSDate *modifiedBefore = [NSDate dateWithTimeIntervalSinceNow:-maxAge];
+    NSUInteger discardedCount = 0;
+    for (NSString *name in names) {
+        NSString *outputName;
+        if ([name hasSuffix:@".journal"]) {
+            outputName = [name substringToIndex:name.length - @".journal".length];
+        } else if ([name hasSuffix:@".journal.tmp"]) {
+            outputName = [name substringToIndex:name.length - @".journal.tmp".length];
+        } else {
+            continue;
+        }
+        NSString *path = [directoryPath stringByAppendingPathComponent:name];
+        NSDate *modified = [[fileManager attributesOfItemAtPath:path error:nil] fileModificationDate];
+        if (modified != nil
+            && [modified compare:modifiedBefore] == NSOrderedAscending
+            && [ResumableEncryption discardJobOfOutput:[directoryPath stringByAppendingPathComponent:outputName]]) {
+            discardedCount += 1;
+        }
+    }
+    return discardedCount;
+}
+
++ (NSError *)errorWithMessage:(NSString *)message {
+    return [NSError errorWithDomain:NSPOSIXErrorDomain code:errno userInfo:@{
+        NSLocalizedDescriptionKey: [NSString stringWithFormat:@"%@; %s", message, strerror(errno)]
+    }];
+}
+
++ (BOOL)encryptFileAtPath:(NSString *)inputPath with:(ProgressInputStream *)inputStream toPath:(NSString *)outputPath for:(NSArray<VSMVirgilPublicKey *> *)publicKeys chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel crypto:(VSMVirgilCrypto *)crypto error:(NSError **)outError {
+    NSMutableSet<NSString *> *activeOutputs = [ResumableEncryption activeOutputs];
+    NSString *activeOutput = [outputPath stringByStandardizingPath];
+    @synchronized (activeOutputs) {
+        if ([activeOutputs containsObject:activeOutput]) {
+            if (outError != nil) {
+                *outError = [NSError errorWithDomain:NSPOSIXErrorDomain code:EBUSY userInfo:@{
+                    NSLocalizedDescriptionKey: [NSString stringWithFormat:@"'%@' is being encrypted by another job", outputPath]
+                }];
+            }
+            return NO;
+        }
+        [activeOutputs addObject:activeOutput];
+    }
+    BOOL isSuccessful = [ResumableEncryption encryptOrResumeFileAtPath:inputPath with:inputStream toPath:outputPath for:publicKeys chunkSize:chunkSize parallel:parallel crypto:crypto error:outError];
+    @synchronized (activeOutputs) {
+        [activeOutputs removeObject:activeOutput];
+    }
+    return isSuccessful;
+}
+
++ (BOOL)encryptOrResumeFileAtPath:(NSString *)inputPath with:(ProgressInputStream *)inputStream toPath:(NSString *)outputPath for:(NSArray<VSMVirgilPublicKey *> *)publicKeys chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel crypto:(VSMVirgilCrypto *)crypto error:(NSError **)outError {
+    NSString *journalPath = [ResumableEncryption journalPathForOutput:outputPath];
+    NSDictionary<NSFileAttributeKey, id> *attributes = [[NSFileManager defaultManager] attributesOfItemAtPath:inputPath error:outError];
+    if (attributes == nil) {
+        return NO;
+    }
+    unsigned long long inputSize = [attributes fileSize];
+    long long inputModified = (long long)([[attributes fileModificationDate] timeIntervalSince1970] * 1000);
+    NSMutableData *identifiers = [NSMutableData data];
+    for (VSMVirgilPublicKey *publicKey in publicKeys) {
+        [identifiers appendData:publicKey.identifier];
+    }
+    NSData *recipientsDigest = [crypto computeHashFor:identifiers using:VSMHashAlgorithmSha256];
+
+    int inputFd = open(inputPath.fileSystemRepresentation, O_RDONLY);
+    if (inputFd < 0) {
+        if (outError != nil) {
+            *outError = [ResumableEncryption errorWithMessage:[NSString stringWithFormat:@"Failed to open '%@'", inputPath]];
+        }
+        return NO;
+    }
+    int outputFd = open(outputPath.fileSystemRepresentation, O_RDWR | O_CREAT, 0644);
+    if (outputFd < 0) {
+        close(inputFd);
+        if (outError != nil) {
+            *outError = [ResumableEncryption errorWithMessage:[NSString stringWithFormat:@"Failed to open '%@'", outputPath]];
+        }
+        return NO;
+    }
+    BOOL isSuccessful = [ResumableEncryption encryptFrom:inputFd with:inputStream inputSize:inputSize inputModified:inputModified to:outputFd outputPath:outputPath journalPath:journalPath for:publicKeys recipientsDigest:recipientsDigest chunkSize:chunkSize parallel:parallel crypto:crypto error:outError];
+    close(inputFd);
+    close(outputFd);
+    if (isSuccessful) {
+        [ResumableEncryption deleteJournalOfOutput:outputPath];
+    }
+    return isSuccessful;
+}
+
++ (BOOL)encryptFrom:(int)inputFd with:(ProgressInputStream *)inputStream inputSize:(unsigned long long)inputSize inputModified:(long long)inputModified to:(int)outputFd outputPath:(NSString *)outputPath journalPath:(NSString *)journalPath for:(NSArray<VSMVirgilPublicKey *> *)publicKeys recipientsDigest:(NSData *)recipientsDigest chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel crypto:(VSMVirgilCrypto *)crypto error:(NSError **)outError {
+    NSData *fixedHeader = [SeekableFile fixedHeaderWithChunkSize:chunkSize];
+    ResumableJournal *journal = [ResumableJournal readFromPath:journalPath];
+    BOOL isResumable = journal != nil
+        && journal.chunkSize == chunkSize
+        && journal.inputSize == inputSize
+        && journal.inputModified == inputModified
+        && [journal.recipientsDigest isEqualToData:recipientsDigest]
+        && [ResumableEncryption canResume:journal input:inputFd output:outputFd fixedHeader:fixedHeader];
+    if (isResumable == NO) {
+        NSData *key = [crypto generateRandomDataOfSize:KeyLength error:outError];
+        if (key == nil) {
+            return NO;
+        }
+        NSData *header = [SeekableFile headerWithKey:key fixedHeader:fixedHeader for:publicKeys crypto:crypto error:outError];
+        if (header == nil) {
+            return NO;
+        }
+        if (ftruncate(outputFd, 0) != 0 || pwrite(outputFd, header.bytes, header.length, 0) != (ssize_t)header.length || fsync(outputFd) != 0) {
+            if (outError != nil) {
+                *outError = [ResumableEncryption errorWithMessage:[NSString stringWithFormat:@"Failed to write '%@'", outputPath]];
+            }
+            return NO;
+        }
+        journal = [[ResumableJournal alloc] init];
+        journal.chunkSize = (uint32_t)chunkSize;
+        journal.inputSize = inputSize;
+        journal.inputModified = inputModified;
+        journal.recipientsDigest = recipientsDigest;
+        journal.key = key;
+        journal.dataOffset = header.length;
+        journal.committedChunks = 0;
+        if ([journal commitToPath:journalPath error:outError] == NO) {
+            return NO;
+        }
+    }
+
+    if (journal.committedChunks > 0 && journal.committedChunks * chunkSize >= inputSize) {
+        // Only the journal was left after the last chunk had been written
+        return YES;
+    }
+
+    unsigned long long encryptedChunkSize = (unsigned long long)chunkSize + TagLength;
+    unsigned long long resumedLength = journal.dataOffset + journal.committedChunks * encryptedChunkSize;
+    if (ftruncate(outputFd, (off_t)resumedLength) != 0) {
+        if (outError != nil) {
+            *outError = [ResumableEncryption errorWithMessage:[NSString stringWithFormat:@"Failed to truncate '%@'", outputPath]];
+        }
+        return NO;
+    }
+
+    NSOutputStream *outputStream = [NSOutputStream outputStreamToFileAtPath:outputPath append:YES];
+    [inputStream open];
+    [outputStream open];
+    if ([inputStream skipBytes:journal.committedChunks * chunkSize] == NO) {
+        [inputStream close];
+        [outputStream close];
+        if (outError != nil) {
+            *outError = inputStream.streamError != nil ? inputStream.streamError : [ResumableEncryption errorWithMessage:@"Failed to skip the encrypted part of the input"];
+        }
+        return NO;
+    }
+    unsigned long long firstIndex = journal.committedChunks;
+    unsigned long long checkpointChunks = MAX(1, CheckpointBytes / chunkSize);
+    BOOL isSuccessful = [SeekableFile encryptChunks:inputStream to:outputStream withKey:journal.key fixedHeader:fixedHeader firstIndex:firstIndex chunkSize:chunkSize parallel:parallel afterBatch:^BOOL(unsigned long long chunksWritten, NSError **error) {
+        if (firstIndex + chunksWritten - journal.committedChunks < checkpointChunks) {
+            return YES;
+        }
+        // The chunks went through another descriptor of the same file, fsync covers them all the same
+        if (fsync(outputFd) != 0) {
+            if (error != nil) {
+                *error = [ResumableEncryption errorWithMessage:[NSString stringWithFormat:@"Failed to sync '%@'", outputPath]];
+            }
+            return NO;
+        }
+        journal.committedChunks = firstIndex + chunksWritten;
+        return [journal commitToPath:journalPath error:error];
+    } error:outError];
+    [inputStream close];
+    [outputStream close];
+    if (isSuccessful && fsync(outputFd) != 0) {
+        if (outError != nil) {
+            *outError = [ResumableEncryption errorWithMessage:[NSString stringWithFormat:@"Failed to sync '%@'", outputPath]];
+        }
+        return NO;
+    }
+    return isSuccessful;
+}
+
+// Checks that the committed chunks are in the output and that the last one decrypts to
+// the same part of the input
++ (BOOL)canResume:(ResumableJournal *)journal input:(int)inputFd output:(int)outputFd fixedHeader:(NSData *)fixedHeader {
+    if (journal.committedChunks == 0 || (journal.committedChunks - 1) * journal.chunkSize >= MAX(journal.inputSize, 1)) {
+        return NO;
+    }
+    unsigned long long lastIndex = journal.committedChunks - 1;
+    unsigned long long encryptedChunkSize = (unsigned long long)journal.chunkSize + TagLength;
+    NSUInteger dataLength = (NSUInteger)MIN((unsigned long long)journal.chunkSize, journal.inputSize - lastIndex * journal.chunkSize);
+    NSMutableData *encryptedChunk = [NSMutableData dataWithLength:dataLength + TagLength];
+    NSMutableData *inputChunk = [NSMutableData dataWithLength:dataLength];
+    if (pread(outputFd, encryptedChunk.mutableBytes, encryptedChunk.length, (off_t)(journal.dataOffset + lastIndex * encryptedChunkSize)) != (ssize_t)encryptedChunk.length
+        || pread(inputFd, inputChunk.mutableBytes, inputChunk.length, (off_t)(lastIndex * journal.chunkSize)) != (ssize_t)inputChunk.length) {
+        return NO;
+    }
+    BOOL isLast = journal.committedChunks * journal.chunkSize >= journal.inputSize;
+    NSData *data = [SeekableFile decryptChunk:encryptedChunk withKey:journal.key fixedHeader:fixedHeader index:lastIndex isLast:isLast error:nil];
+    return data != nil && [data isEqualToData:inputChunk];
+}
+
+@end
@@ -0,0 +1,38 @@
+#import <Foundation/Foundation.h>
+#import <VirgilCrypto/VirgilCrypto-Swift.h>
+#import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
+
+// Encrypted file format that can be decrypted at any offset:
+// "VSKF" | version (1 byte) | chunk size (4 bytes) | wrapped key length (4 bytes) | wrapped key | chunks
+// Every chunk is encrypted with AES-256-GCM under a random file key and followed by its tag, so
+// the position of any chunk follows from the chunk size. The file key is encrypted for the
+// recipients the same way as regular messages. The nonce of a chunk is its index plus a flag set
+// for the last chunk only, so chunks can't be reordered and the file can't be truncated unnoticed.
+// The format is the same on both platforms. Chunks don't depend on each other, so whole files can
+// be encrypted and decrypted on all cores at once, the results are still written in order.
+typedef BOOL (^SeekableFileBatchHandler)(unsigned long long chunksWritten, NSError *_Nullable*_Nullable error);
+
+@interface SeekableFile : NSObject
+
+// Size of the decrypted data
+@property (nonatomic, readonly) unsigned long long size;
+
++ (BOOL)encrypt:(NSInputStream *_Nonnull)inputStream to:(NSOutputStream *_Nonnull)outputStream for:(NSArray<VSMVirgilPublicKey *> *_Nonnull)publicKeys chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel crypto:(VSMVirgilCrypto *_Nonnull)crypto error:(NSError *_Nullable*_Nullable)outError;
+// Reads the header of the file and decrypts its key
++ (instancetype _Nullable)openAtPath:(NSString *_Nonnull)path with:(VSMVirgilPrivateKey *_Nonnull)privateKey crypto:(VSMVirgilCrypto *_Nonnull)crypto error:(NSError *_Nullable*_Nullable)outError;
+// Decrypts up to length bytes at the offset, reading only the chunks that cover the range
+- (NSData *_Nullable)readAtOffset:(unsigned long long)offset length:(NSUInteger)length error:(NSError *_Nullable*_Nullable)outError;
+// Decrypts the whole file, read by inputStream from its very beginning
+- (BOOL)decrypt:(NSInputStream *_Nonnull)inputStream to:(NSOutputStream *_Nonnull)outputStream parallel:(BOOL)parallel error:(NSError *_Nullable*_Nullable)outError;
+- (void)close;
+
+// Building blocks of ResumableEncryption
++ (NSData *_Nonnull)fixedHeaderWithChunkSize:(NSUInteger)chunkSize;
+// Returns the whole header: the fixed part followed by the file key wrapped for the recipients
++ (NSData *_Nullable)headerWithKey:(NSData *_Nonnull)key fixedHeader:(NSData *_Nonnull)fixedHeader for:(NSArray<VSMVirgilPublicKey *> *_Nonnull)publicKeys crypto:(VSMVirgilCrypto *_Nonnull)crypto error:(NSError *_Nullable*_Nullable)outError;
+// Encrypts the chunks read from the stream, the first one gets index firstIndex. afterBatch, if
+// any, is called with the number of chunks written so far after each batch, returning NO stops it.
++ (BOOL)encryptChunks:(NSInputStream *_Nonnull)inputStream to:(NSOutputStream *_Nonnull)outputStream withKey:(NSData *_Nonnull)key fixedHeader:(NSData *_Nonnull)fixedHeader firstIndex:(unsigned long long)firstIndex chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel afterBatch:(SeekableFileBatchHandler _Nullable)afterBatch error:(NSError *_Nullable*_Nullable)outError;
++ (NSData *_Nullable)decryptChunk:(NSData *_Nonnull)encryptedChunk withKey:(NSData *_Nonnull)key fixedHeader:(NSData *_Nonnull)fixedHeader index:(unsigned long long)index isLast:(BOOL)isLast error:(NSError *_Nullable*_Nullable)outError;
+
+@end
@@ -0,0 +1,359 @@
+#import "SeekableFile.h"
+#import "Constants.h"
+
+static const uint8_t Magic[4] = { 'V', 'S', 'K', 'F' };
+static const uint8_t Version = 1;
+static const NSUInteger FixedHeaderLength = 9;
+static const NSUInteger KeyLength = 32;
+static const NSUInteger NonceLength = 12;
+static const NSUInteger TagLength = 16;
+// Big enough for the wrapped key of a few hundred recipients
+static const uint32_t MaxWrappedKeyLength = 1024 * 1024;
+// Chunks are decrypted in memory, a hostile header mustn't make the reader allocate more
+static const uint32_t MaxChunkSize = 16 * 1024 * 1024;
+// Chunks processed at once per core, so cores don't wait for the slowest chunk too often
+static const NSUInteger ChunksPerCore = 4;
+
+// Encrypts or decrypts the chunk with the given index of a batch
+typedef NSData *(^ChunkOperation)(NSUInteger index, NSError **error);
+
+@interface SeekableFile ()
+
+@property (nonatomic, retain) NSFileHandle *fileHandle;
+@property (nonatomic, retain) NSData *key;
+@property (nonatomic, retain) NSData *fixedHeader;
+@property (nonatomic) NSUInteger chunkSize;
+@property (nonatomic) unsigned long long dataOffset;
+@property (nonatomic) unsigned long long chunksCount;
+@property (nonatomic, readwrite) unsigned long long size;
+
+@end
+
+@implementation SeekableFile
+
++ (NSData *)fixedHeaderWithChunkSize:(NSUInteger)chunkSize {
+    NSMutableData *header = [NSMutableData dataWithBytes:Magic length:sizeof(Magic)];
+    [header appendBytes:&Version length:1];
+    uint32_t chunkSizeBE = CFSwapInt32HostToBig((uint32_t)chunkSize);
+    [header appendBytes:&chunkSizeBE length:4];
+    return header;
+}
+
++ (NSData *)nonceForChunk:(unsigned long long)index isLast:(BOOL)isLast {
+    NSMutableData *nonce = [NSMutableData dataWithLength:NonceLength];
+    uint64_t indexBE = CFSwapInt64HostToBig(index);
+    [nonce replaceBytesInRange:NSMakeRange(0, 8) withBytes:&indexBE];
+    ((uint8_t *)nonce.mutableBytes)[8] = isLast ? 1 : 0;
+    return nonce;
+}
+
++ (NSError *)formatError:(NSString *)message {
+    return [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_INVALID_FORMAT userInfo:@{
+        NSLocalizedDescriptionKey: message
+    }];
+}
+
++ (NSUInteger)batchSize:(BOOL)parallel {
+    return parallel ? [[NSProcessInfo processInfo] activeProcessorCount] * ChunksPerCore : 1;
+}
+
++ (NSData *)encryptChunk:(NSData *)data withKey:(NSData *)key fixedHeader:(NSData *)fixedHeader index:(unsigned long long)index isLast:(BOOL)isLast error:(NSError **)outError {
+    // Instances aren't thread safe and cheap compared to the encryption of a chunk
+    VSCFAes256Gcm *aesGcm = [[VSCFAes256Gcm alloc] init];
+    [aesGcm setKeyWithKey:key];
+    [aesGcm setNonceWithNonce:[SeekableFile nonceForChunk:index isLast:isLast]];
+    VSCFAuthEncryptAuthEncryptResult *result = [aesGcm authEncryptWithData:data authData:fixedHeader error:outError];
+    if (result == nil) {
+        return nil;
+    }
+    NSMutableData *encryptedChunk = [NSMutableData dataWithData:result.out];
+    [encryptedChunk appendData:result.tag];
+    return encryptedChunk;
+}
+
+- (NSData *)decryptChunk:(NSData *)encryptedChunk index:(unsigned long long)index error:(NSError **)outError {
+    return [SeekableFile decryptChunk:encryptedChunk withKey:self.key fixedHeader:self.fixedHeader index:index isLast:index == self.chunksCount - 1 error:outError];
+}
+
++ (NSData *)decryptChunk:(NSData *)encryptedChunk withKey:(NSData *)key fixedHeader:(NSData *)fixedHeader index:(unsigned long long)index isLast:(BOOL)isLast error:(NSError **)outError {
+    NSUInteger dataLength = encryptedChunk.length - TagLength;
+    VSCFAes256Gcm *aesGcm = [[VSCFAes256Gcm alloc] init];
+    [aesGcm setKeyWithKey:key];
+    [aesGcm setNonceWithNonce:[SeekableFile nonceForChunk:index isLast:isLast]];
+    return [aesGcm authDecryptWithData:[encryptedChunk subdataWithRange:NSMakeRange(0, dataLength)]
+                              authData:fixedHeader
+                                   tag:[encryptedChunk subdataWithRange:NSMakeRange(dataLength, TagLength)]
+                                 error:outError];
+}
+
+// Runs the operation for count chunks, on all cores if there is more than one chunk, and writes
+// the results in order
++ (BOOL)process:(NSUInteger)count with:(ChunkOperation)operation to:(NSOutputStream *)outputStream error:(NSError **)outError {
+    NSMutableArray *results = [NSMutableArray arrayWithCapacity:count];
+    for (NSUInteger i = 0; i < count; i++) {
+        [results addObject:[NSNull null]];
+    }
+    dispatch_apply(count, dispatch_get_global_queue(QOS_CLASS_UTILITY, 0), ^(size_t i) {
+        @autoreleasepool {
+            NSError *error;
+            NSData *result = operation(i, &error);
+            @synchronized (results) {
+                results[i] = result != nil ? result : (error != nil ? error : [NSNull null]);
+            }
+        }
+    });
+    for (id result in results) {
+        if ([result isKindOfClass:[NSData class]] == NO) {
+            if (outError != nil) {
+                *outError = [result isKindOfClass:[NSError class]] ? result : nil;
+            }
+            return NO;
+        }
+        if ([SeekableFile write:result to:outputStream error:outError] == NO) {
+            return NO;
+        }
+    }
+    return YES;
+}
+
++ (NSUInteger)read:(NSInputStream *)inputStream into:(NSMutableData *)buffer error:(NSError **)outError {
+    NSUInteger length = 0;
+    while (length < buffer.length) {
+        NSInteger count = [inputStream read:(uint8_t *)buffer.mutableBytes + length maxLength:buffer.length - length];
+        if (count < 0) {
+            if (outError != nil) {
+                *outError = inputStream.streamError;
+            }
+            return NSNotFound;
+        }
+        if (count == 0) {
+            break;
+        }
+        length += count;
+    }
+    return length;
+}
+
++ (BOOL)write:(NSData *)data to:(NSOutputStream *)outputStream error:(NSError **)outError {
+    NSUInteger written = 0;
+    while (written < data.length) {
+        NSInteger count = [outputStream write:(const uint8_t *)data.bytes + written maxLength:data.length - written];
+        if (count <= 0) {
+            if (outError != nil) {
+                *outError = outputStream.streamError;
+            }
+            return NO;
+        }
+        written += count;
+    }
+    return YES;
+}
+
++ (BOOL)encrypt:(NSInputStream *)inputStream to:(NSOutputStream *)outputStream for:(NSArray<VSMVirgilPublicKey *> *)publicKeys chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel crypto:(VSMVirgilCrypto *)crypto error:(NSError **)outError {
+    NSData *key = [crypto generateRandomDataOfSize:KeyLength error:outError];
+    if (key == nil) {
+        return NO;
+    }
+    NSData *fixedHeader = [SeekableFile fixedHeaderWithChunkSize:chunkSize];
+    NSData *header = [SeekableFile headerWithKey:key fixedHeader:fixedHeader for:publicKeys crypto:crypto error:outError];
+    if (header == nil || [SeekableFile write:header to:outputStream error:outError] == NO) {
+        return NO;
+    }
+    return [SeekableFile encryptChunks:inputStream to:outputStream withKey:key fixedHeader:fixedHeader firstIndex:0 chunkSize:chunkSize parallel:parallel afterBatch:nil error:outError];
+}
+
++ (NSData *)headerWithKey:(NSData *)key fixedHeader:(NSData *)fixedHeader for:(NSArray<VSMVirgilPublicKey *> *)publicKeys crypto:(VSMVirgilCrypto *)crypto error:(NSError **)outError {
+    NSData *wrappedKey = [crypto encrypt:key for:publicKeys enablePadding:NO error:outError];
+    if (wrappedKey == nil) {
+        return nil;
+    }
+    NSMutableData *header = [NSMutableData dataWithData:fixedHeader];
+    uint32_t wrappedKeyLengthBE = CFSwapInt32HostToBig((uint32_t)wrappedKey.length);
+    [header appendBytes:&wrappedKeyLengthBE length:4];
+    [header appendData:wrappedKey];
+    return header;
+}
+
++ (BOOL)encryptChunks:(NSInputStream *)inputStream to:(NSOutputStream *)outputStream withKey:(NSData *)key fixedHeader:(NSData *)fixedHeader firstIndex:(unsigned long long)firstIndex chunkSize:(NSUInteger)chunkSize parallel:(BOOL)parallel afterBatch:(SeekableFileBatchHandler)afterBatch error:(NSError **)outError {
+    if (chunkSize == 0 || chunkSize > MaxChunkSize) {
+        if (outError != nil) {
+            *outError = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_INVALID_ARGUMENT userInfo:@{
+                NSLocalizedDescriptionKey: [NSString stringWithFormat:@"Chunk size must be from 1 to %u bytes", MaxChunkSize]
+            }];
+        }
+        return NO;
+    }
+    // A chunk is only known to be the last one once the next read comes back empty
+    NSUInteger batchSize = [SeekableFile batchSize:parallel];
+    NSMutableData *nextChunk = [NSMutableData dataWithLength:chunkSize];
+    NSUInteger nextLength = [SeekableFile read:inputStream into:nextChunk error:outError];
+    if (nextLength == NSNotFound) {
+        return NO;
+    }
+    unsigned long long chunksWritten = 0;
+    BOOL isFinished = NO;
+    while (isFinished == NO) {
+        NSMutableArray<NSData *> *batch = [NSMutableArray arrayWithCapacity:batchSize];
+        while (batch.count < batchSize && isFinished == NO) {
+            [batch addObject:[nextChunk subdataWithRange:NSMakeRange(0, nextLength)]];
+            if (nextLength < chunkSize) {
+                isFinished = YES;
+                break;
+            }
+            nextLength = [SeekableFile read:inputStream into:nextChunk error:outError];
+            if (nextLength == NSNotFound) {
+                return NO;
+            }
+            isFinished = nextLength == 0;
+        }
+        unsigned long long batchIndex = firstIndex + chunksWritten;
+        BOOL isLastBatch = isFinished;
+        BOOL isWritten = [SeekableFile process:batch.count with:^NSData *(NSUInteger i, NSError **error) {
+            BOOL isLast = isLastBatch && i == batch.count - 1;
+            return [SeekableFile encryptChunk:batch[i] withKey:key fixedHeader:fixedHeader index:batchIndex + i isLast:isLast error:error];
+        } to:outputStream error:outError];
+        if (isWritten == NO) {
+            return NO;
+        }
+        chunksWritten += batch.count;
+        if (afterBatch != nil && afterBatch(chunksWritten, outError) == NO) {
+            return NO;
+        }
+    }
+    return YES;
+}
+
++ (instancetype)openAtPath:(NSString *)path with:(VSMVirgilPrivateKey *)privateKey crypto:(VSMVirgilCrypto *)crypto error:(NSError **)outError {
+    NSFileHandle *fileHandle = [NSFileHandle fileHandleForReadingAtPath:path];
+    if (fileHandle == nil) {
+        if (outError != nil) {
+            *outError = [NSError errorWithDomain:NSCocoaErrorDomain code:NSFileReadNoSuchFileError userInfo:@{
+                NSLocalizedDescriptionKey: [NSString stringWithFormat:@"File does not exist at path %@", path]
+            }];
+        }
+        return nil;
+    }
+
+    SeekableFile *file = [[SeekableFile alloc] init];
+    file.fileHandle = fileHandle;
+    NSData *header = [fileHandle readDataOfLength:FixedHeaderLength + 4];
+    if (header.length < FixedHeaderLength + 4 || memcmp(header.bytes, Magic, sizeof(Magic)) != 0
+        || ((const uint8_t *)header.bytes)[4] != Version) {
+        [file close];
+        if (outError != nil) {
+            *outError = [SeekableFile formatError:@"Not a seekable encrypted file"];
+        }
+        return nil;
+    }
+    uint32_t chunkSizeBE, wrappedKeyLengthBE;
+    [header getBytes:&chunkSizeBE range:NSMakeRange(5, 4)];
+    [header getBytes:&wrappedKeyLengthBE range:NSMakeRange(FixedHeaderLength, 4)];
+    uint32_t chunkSize = CFSwapInt32BigToHost(chunkSizeBE);
+    uint32_t wrappedKeyLength = CFSwapInt32BigToHost(wrappedKeyLengthBE);
+    NSData *wrappedKey = chunkSize > 0 && chunkSize <= MaxChunkSize && wrappedKeyLength > 0 && wrappedKeyLength <= MaxWrappedKeyLength
+        ? [fileHandle readDataOfLength:wrappedKeyLength]
+        : nil;
+    if (wrappedKey == nil || wrappedKey.length != wrappedKeyLength) {
+        [file close];
+        if (outError != nil) {
+            *outError = [SeekableFile formatError:@"Not a seekable encrypted file"];
+        }
+        return nil;
+    }
+    NSData *key = [crypto decrypt:wrappedKey with:privateKey error:outError];
+    if (key == nil) {
+        [file close];
+        return nil;
+    }
+
+    file.key = key;
+    file.fixedHeader = [header subdataWithRange:NSMakeRange(0, FixedHeaderLength)];
+    file.chunkSize = chunkSize;
+    file.dataOffset = FixedHeaderLength + 4 + wrappedKeyLength;
+
+    unsigned long long bodyLength = [fileHandle seekToEndOfFile] - file.dataOffset;
+    unsigned long long encryptedChunkSize = (unsigned long long)chunkSize + TagLength;
+    file.chunksCount = (bodyLength + encryptedChunkSize - 1) / encryptedChunkSize;
+    if (file.chunksCount == 0 || bodyLength - (file.chunksCount - 1) * encryptedChunkSize < TagLength) {
+        [file close];
+        if (outError != nil) {
+            *outError = [SeekableFile formatError:@"Encrypted file is truncated"];
+        }
+        return nil;
+    }
+    file.size = bodyLength - file.chunksCount * TagLength;
+    return file;
+}
+
+- (NSData *)readAtOffset:(unsigned long long)offset length:(NSUInteger)length error:(NSError **)outError {
+    if (offset >= self.size || length == 0) {
+        return [NSData data];
+    }
+    NSUInteger count = (NSUInteger)MIN((unsigned long long)length, self.size - offset);
+    NSMutableData *result = [NSMutableData dataWithCapacity:count];
+    unsigned long long encryptedChunkSize = (unsigned long long)self.chunkSize + TagLength;
+    for (unsigned long long index = offset / self.chunkSize; result.length < count; index++) {
+        unsigned long long chunkStart = index * self.chunkSize;
+        NSUInteger chunkLength = (NSUInteger)MIN((unsigned long long)self.chunkSize, self.size - chunkStart);
+        [self.fileHandle seekToFileOffset:self.dataOffset + index * encryptedChunkSize];
+        NSData *encryptedChunk = [self.fileHandle readDataOfLength:chunkLength + TagLength];
+        if (encryptedChunk.length != chunkLength + TagLength) {
+            if (outError != nil) {
+                *outError = [SeekableFile formatError:@"Encrypted file is truncated"];
+            }
+            return nil;
+        }
+
+        NSData *chunk = [self decryptChunk:encryptedChunk index:index error:outError];
+        if (chunk == nil) {
+            return nil;
+        }
+
+        NSUInteger from = offset > chunkStart ? (NSUInteger)(offset - chunkStart) : 0;
+        NSUInteger take = MIN(chunk.length - from, count - result.length);
+        [result appendData:[chunk subdataWithRange:NSMakeRange(from, take)]];
+    }
+    return result;
+}
+
+- (BOOL)decrypt:(NSInputStream *)inputStream to:(NSOutputStream *)outputStream parallel:(BOOL)parallel error:(NSError **)outError {
+    NSMutableData *header = [NSMutableData dataWithLength:(NSUInteger)self.dataOffset];
+    NSUInteger headerLength = [SeekableFile read:inputStream into:header error:outError];
+    if (headerLength == NSNotFound) {
+        return NO;
+    }
+    NSUInteger batchSize = [SeekableFile batchSize:parallel];
+    for (unsigned long long firstIndex = 0; firstIndex < self.chunksCount; firstIndex += batchSize) {
+        NSUInteger count = (NSUInteger)MIN((unsigned long long)batchSize, self.chunksCount - firstIndex);
+        NSMutableArray<NSData *> *batch = [NSMutableArray arrayWithCapacity:count];
+        for (NSUInteger i = 0; i < count; i++) {
+            NSUInteger chunkLength = (NSUInteger)MIN((unsigned long long)self.chunkSize, self.size - (firstIndex + i) * self.chunkSize);
+            NSMutableData *encryptedChunk = [NSMutableData dataWithLength:chunkLength + TagLength];
+            NSUInteger length = [SeekableFile read:inputStream into:encryptedChunk error:outError];
+            if (length == NSNotFound) {
+                return NO;
+            }
+            if (length != encryptedChunk.length || headerLength != header.length) {
+                if (outError != nil) {
+                    *outError = [SeekableFile formatError:@"Encrypted file is truncated"];
+                }
+                return NO;
+            }
+            [batch addObject:encryptedChunk];
+        }
+        BOOL isWritten = [SeekableFile process:count with:^NSData *(NSUInteger i, NSError **error) {
+            return [self decryptChunk:batch[i] index:firstIndex + i error:error];
+        } to:outputStream error:outError];
+        if (isWritten == NO) {
+            return NO;
+        }
+    }
+    return YES;
+}
+
+- (void)close {
+    [self.fileHandle closeFile];
+    self.fileHandle = nil;
+}
+
+@end
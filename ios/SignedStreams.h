@@ -0,0 +1,17 @@
+#import <Foundation/Foundation.h>
+#import <VirgilCrypto/VirgilCrypto-Swift.h>
+#import <VirgilCryptoFoundation/VirgilCryptoFoundation-Swift.h>
+
+// Signs and encrypts, or decrypts and verifies, a stream in a single pass. The signature is
+// computed while the data is encrypted and goes to the message info footer after the encrypted
+// data, so the output is the same as the output of authEncrypt and the whole stream is never held
+// in memory.
+@interface SignedStreams : NSObject
+
+// The signed message info needs the number of bytes in the input stream upfront
++ (BOOL)signThenEncrypt:(NSInputStream *_Nonnull)inputStream size:(unsigned long long)size to:(NSOutputStream *_Nonnull)outputStream signingKey:(VSMVirgilPrivateKey *_Nonnull)signingKey for:(NSArray<VSMVirgilPublicKey *> *_Nonnull)publicKeys enablePadding:(BOOL)enablePadding chunkSize:(NSUInteger)chunkSize error:(NSError *_Nullable*_Nullable)outError;
+// Decrypted data is written before the signature is checked, it must be discarded if this fails.
+// The signer is looked up among publicKeys by its id.
++ (BOOL)decryptThenVerify:(NSInputStream *_Nonnull)inputStream to:(NSOutputStream *_Nonnull)outputStream privateKey:(VSMVirgilPrivateKey *_Nonnull)privateKey publicKeys:(NSArray<VSMVirgilPublicKey *> *_Nonnull)publicKeys chunkSize:(NSUInteger)chunkSize error:(NSError *_Nullable*_Nullable)outError;
+
+@end
@@ -0,0 +1,129 @@
+#import "SignedStreams.h"
+#import "Constants.h"
+
+// Same as the padding VSMVirgilCrypto uses when padding is enabled
+static const NSUInteger PaddingLength = 160;
+
+@implementation SignedStreams
+
++ (BOOL)write:(NSData *)data to:(NSOutputStream *)outputStream error:(NSError **)outError {
+    NSUInteger written = 0;
+    while (written < data.length) {
+        NSInteger count = [outputStream write:(const uint8_t *)data.bytes + written maxLength:data.length - written];
+        if (count <= 0) {
+            if (outError != nil) {
+                *outError = outputStream.streamError;
+            }
+            return NO;
+        }
+        written += count;
+    }
+    return YES;
+}
+
++ (BOOL)failVerification:(NSString *)message error:(NSError **)outError {
+    if (outError != nil) {
+        *outError = [NSError errorWithDomain:RNVC_ERROR_DOMAIN code:RNVC_ERROR_CODE_SIGNATURE_NOT_VERIFIED userInfo:@{
+            NSLocalizedDescriptionKey: message
+        }];
+    }
+    return NO;
+}
+
++ (BOOL)signThenEncrypt:(NSInputStream *)inputStream size:(unsigned long long)size to:(NSOutputStream *)outputStream signingKey:(VSMVirgilPrivateKey *)signingKey for:(NSArray<VSMVirgilPublicKey *> *)publicKeys enablePadding:(BOOL)enablePadding chunkSize:(NSUInteger)chunkSize error:(NSError **)outError {
+    VSCFCtrDrbg *random = [[VSCFCtrDrbg alloc] init];
+    if ([random setupDefaultsAndReturnError:outError] == NO) {
+        return NO;
+    }
+    VSCFRecipientCipher *cipher = [[VSCFRecipientCipher alloc] init];
+    [cipher setEncryptionCipherWithEncryptionCipher:[[VSCFAes256Gcm alloc] init]];
+    [cipher setRandomWithRandom:random];
+    if (enablePadding) {
+        VSCFRandomPadding *randomPadding = [[VSCFRandomPadding alloc] init];
+        [randomPadding setRandomWithRandom:random];
+        [cipher setEncryptionPaddingWithEncryptionPadding:randomPadding];
+        [cipher setPaddingParamsWithPaddingParams:[[VSCFPaddingParams alloc] initWithFrame:PaddingLength frameMax:PaddingLength]];
+    }
+    for (VSMVirgilPublicKey *publicKey in publicKeys) {
+        [cipher addKeyRecipientWithRecipientId:publicKey.identifier publicKey:publicKey.key];
+    }
+    if ([cipher addSignerWithSignerId:signingKey.identifier privateKey:signingKey.key error:outError] == NO) {
+        return NO;
+    }
+    [cipher setSignerHashWithSignerHash:[[VSCFSha512 alloc] init]];
+    if ([cipher startSignedEncryptionWithDataSize:(NSInteger)size error:outError] == NO) {
+        return NO;
+    }
+    if ([SignedStreams write:[cipher packMessageInfo] to:outputStream error:outError] == NO) {
+        return NO;
+    }
+
+    NSMutableData *buffer = [NSMutableData dataWithLength:chunkSize];
+    NSInteger length;
+    while ((length = [inputStream read:buffer.mutableBytes maxLength:buffer.length]) > 0) {
+        @autoreleasepool {
+            NSData *chunk = [NSData dataWithBytesNoCopy:buffer.mutableBytes length:length freeWhenDone:NO];
+            NSData *encryptedData = [cipher processEncryptionWithData:chunk error:outError];
+            if (encryptedData == nil || [SignedStreams write:encryptedData to:outputStream error:outError] == NO) {
+                return NO;
+            }
+        }
+    }
+    if (length < 0) {
+        if (outError != nil) {
+            *outError = inputStream.streamError;
+        }
+        return NO;
+    }
+    NSData *encryptedData = [cipher finishEncryptionAndReturnError:outError];
+    if (encryptedData == nil || [SignedStreams write:encryptedData to:outputStream error:outError] == NO) {
+        return NO;
+    }
+    NSData *footer = [cipher packMessageInfoFooterAndReturnError:outError];
+    return footer != nil && [SignedStreams write:footer to:outputStream error:outError];
+}
+
++ (BOOL)decryptThenVerify:(NSInputStream *)inputStream to:(NSOutputStream *)outputStream privateKey:(VSMVirgilPrivateKey *)privateKey publicKeys:(NSArray<VSMVirgilPublicKey *> *)publicKeys chunkSize:(NSUInteger)chunkSize error:(NSError **)outError {
+    VSCFRecipientCipher *cipher = [[VSCFRecipientCipher alloc] init];
+    if ([cipher startDecryptionWithKeyWithRecipientId:privateKey.identifier privateKey:privateKey.key messageInfo:[NSData data] error:outError] == NO) {
+        return NO;
+    }
+
+    NSMutableData *buffer = [NSMutableData dataWithLength:chunkSize];
+    NSInteger length;
+    while ((length = [inputStream read:buffer.mutableBytes maxLength:buffer.length]) > 0) {
+        @autoreleasepool {
+            NSData *chunk = [NSData dataWithBytesNoCopy:buffer.mutableBytes length:length freeWhenDone:NO];
+            NSData *decryptedData = [cipher processDecryptionWithData:chunk error:outError];
+            if (decryptedData == nil || [SignedStreams write:decryptedData to:outputStream error:outError] == NO) {
+                return NO;
+            }
+        }
+    }
+    if (length < 0) {
+        if (outError != nil) {
+            *outError = inputStream.streamError;
+        }
+        return NO;
+    }
+    NSData *decryptedData = [cipher finishDecryptionAndReturnError:outError];
+    if (decryptedData == nil || [SignedStreams write:decryptedData to:outputStream error:outError] == NO) {
+        return NO;
+    }
+
+    if ([cipher isDataSigned] == NO || [[cipher signerInfos] hasItem] == NO) {
+        return [SignedStreams failVerification:@"Data is not signed" error:outError];
+    }
+    VSCFSignerInfo *signerInfo = [[cipher signerInfos] item];
+    for (VSMVirgilPublicKey *publicKey in publicKeys) {
+        if ([publicKey.identifier isEqualToData:signerInfo.signerId]) {
+            if ([cipher verifySignerInfoWithSignerInfo:signerInfo publicKey:publicKey.key] == NO) {
+                return [SignedStreams failVerification:@"Signature verification failed" error:outError];
+            }
+            return YES;
+        }
+    }
+    return [SignedStreams failVerification:@"Signer public key is not found" error:outError];
+}
+
+@end
@@ -0,0 +1,22 @@
+import { NativeModules } from 'react-native';
+
+const { RNVirgilCrypto } = NativeModules;
+
+export const JobPriority = Object.freeze({
+  INTERACTIVE: 'INTERACTIVE',
+  BACKGROUND: 'BACKGROUND'
+});
+
+export function checkedGetJobPriority(priority) {
+  if (priority == null) {
+    return null;
+  }
+
+  if (!(priority in RNVirgilCrypto.SchedulerLane)) {
+    throw new TypeError(`Invalid job priority "${priority}". Expected one of ${
+      Object.keys(RNVirgilCrypto.SchedulerLane).join(', ')
+    }`);
+  }
+
+  return RNVirgilCrypto.SchedulerLane[priority];
+}
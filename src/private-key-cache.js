@@ -40,3 +40,30 @@ export function setPrivateKeyValue(privateKeyObj, bytesBase64) {
 export function hasPrivateKeyValue(privateKeyObj) {
   return hasValue.call(privateKeys, privateKeyObj);
 }
+
+const privateKeyHandles = new WeakMap();
+
+/**
+ * Gets the native handle of the given private key object from internal store.
+ * The private key bytes are still kept next to it so that the key can be
+ * registered again after the native side has evicted it.
+ * @param {VirgilPrivateKey} privateKey - Private key object.
+ * @returns {string} - Native key handle.
+ *
+ * @hidden
+ */
+export function getPrivateKeyHandle(privateKeyObj) {
+  return getValue.call(privateKeyHandles, privateKeyObj);
+}
+
+/**
+ * Saves the native handle corresponding to the given private key object.
+ *
+ * @param {VirgilPrivateKey} privateKey - Private key object.
+ * @param {string} handle - Native key handle.
+ *
+ * @hidden
+ */
+export function setPrivateKeyHandle(privateKeyObj, handle) {
+  setValue.call(privateKeyHandles, privateKeyObj, handle);
+}
@@ -41,3 +41,50 @@ export function dataToBase64(value, defaultEncoding, label) {
 export function base64ToBuffer(b64) {
   return Buffer.from(b64, 'base64');
 }
+
+function viewToArrayBuffer(view) {
+  if (view.byteOffset === 0 && view.byteLength === view.buffer.byteLength) {
+    return view.buffer;
+  }
+  // Small Buffers share a pooled ArrayBuffer, only the viewed part may be handed out
+  return view.buffer.slice(view.byteOffset, view.byteOffset + view.byteLength);
+}
+
+export function dataToArrayBuffer(value, defaultEncoding, label) {
+  if (value instanceof ArrayBuffer) {
+    return value;
+  }
+
+  if (value instanceof Uint8Array) {
+    return viewToArrayBuffer(value);
+  }
+
+  if (typeof value === 'string') {
+    if (defaultEncoding == null || !Buffer.isEncoding(defaultEncoding)) {
+      throw new TypeError(`Invalid default encoding: "${defaultEncoding}"`);
+    }
+
+    return viewToArrayBuffer(Buffer.from(value, defaultEncoding));
+  }
+
+  if (
+    typeof value === 'object' &&
+    value !== null &&
+    typeof value.value === 'string' &&
+    Buffer.isEncoding(value.encoding)
+  ) {
+    return viewToArrayBuffer(Buffer.from(value.value, value.encoding));
+  }
+
+  throw new TypeError(
+    `Invalid format of data for "${label}". Expected: string in ${
+      defaultEncoding
+    } or Buffer or Uint8Array or ArrayBuffer or object of the form {value: string, encoding: string}. Got ${
+      typeof value
+    }`
+  );
+}
+
+export function arrayBufferToBuffer(arrayBuffer) {
+  return Buffer.from(arrayBuffer);
+}
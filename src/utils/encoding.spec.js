@@ -1,5 +1,5 @@
 import { Buffer } from 'buffer';
-import { dataToBase64 } from './encoding';
+import { dataToBase64, dataToArrayBuffer } from './encoding';
 
 describe('dataToBase64', () => {
   it('transforms Buffer to base64 string', () => {
@@ -72,3 +72,33 @@ describe('dataToBase64', () => {
     }).toThrow();
   });
 });
+
+describe('dataToArrayBuffer', () => {
+  it('returns the underlying buffer of a Uint8Array that covers it completely', () => {
+    const data = new Uint8Array([1, 2, 3]);
+    expect(dataToArrayBuffer(data, 'utf8', 'data')).toBe(data.buffer);
+  });
+
+  it('copies only the viewed part of a Buffer', () => {
+    const data = Buffer.from('xxdataxx').subarray(2, 6);
+    const actual = dataToArrayBuffer(data, 'utf8', 'data');
+    expect(actual.byteLength).toBe(4);
+    expect(Buffer.from(actual).toString('utf8')).toEqual('data');
+  });
+
+  it('returns ArrayBuffer as is', () => {
+    const data = new ArrayBuffer(4);
+    expect(dataToArrayBuffer(data, 'utf8', 'data')).toBe(data);
+  });
+
+  it('decodes string using the default encoding', () => {
+    const actual = dataToArrayBuffer('ZGF0YQ==', 'base64', 'data');
+    expect(Buffer.from(actual).toString('utf8')).toEqual('data');
+  });
+
+  it('throws if value is of unsupported type', () => {
+    expect(() => {
+      dataToArrayBuffer(42, 'utf8', 'data');
+    }).toThrow(TypeError);
+  });
+});
@@ -0,0 +1,66 @@
+import { NativeModules, NativeEventEmitter } from 'react-native';
+
+const { RNVirgilCrypto } = NativeModules;
+
+let eventEmitter;
+let lastJobId = 0;
+
+const getEventEmitter = () => {
+  if (eventEmitter == null) {
+    eventEmitter = new NativeEventEmitter(RNVirgilCrypto);
+  }
+  return eventEmitter;
+};
+
+/**
+ * Calls `run` with the id of the job and, if `onProgress` is given, calls it with the progress
+ * events of the job until the promise returned by `run` settles. Jobs without an id get one,
+ * because the native side only reports progress of jobs that have an id.
+ *
+ * @hidden
+ */
+export function withJobProgress(jobId, onProgress, run) {
+  if (onProgress == null) {
+    return run(jobId);
+  }
+
+  if (typeof onProgress !== 'function') {
+    throw new TypeError('Expected "onProgress" parameter to be a function. Got ' + typeof onProgress);
+  }
+
+  const id = jobId != null ? jobId : `RNVirgilCrypto.job.${++lastJobId}`;
+  const subscription = getEventEmitter().addListener(RNVirgilCrypto.JobProgressEvent, event => {
+    if (event.jobId === id) {
+      const progress = {
+        bytesProcessed: event.bytesProcessed,
+        totalBytes: event.totalBytes,
+        megabytesPerSecond: event.megabytesPerSecond
+      };
+      // Only batch jobs report files
+      if (event.totalFiles != null) {
+        progress.filesProcessed = event.filesProcessed;
+        progress.totalFiles = event.totalFiles;
+      }
+      onProgress(progress);
+    }
+  });
+
+  let promise;
+  try {
+    promise = run(id);
+  } catch (error) {
+    subscription.remove();
+    throw error;
+  }
+
+  return promise.then(
+    result => {
+      subscription.remove();
+      return result;
+    },
+    error => {
+      subscription.remove();
+      throw error;
+    }
+  );
+}
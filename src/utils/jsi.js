@@ -0,0 +1,36 @@
+import { NativeModules } from 'react-native';
+
+const JSI_BINDINGS_PROPERTY = '__RNVirgilCryptoJsi';
+
+let isInstallAttempted = false;
+
+function installJsiBindings() {
+  const { RNVirgilCrypto } = NativeModules;
+  if (
+    global[JSI_BINDINGS_PROPERTY] != null ||
+    RNVirgilCrypto == null ||
+    typeof RNVirgilCrypto.installJsiBindings !== 'function'
+  ) {
+    return;
+  }
+  try {
+    RNVirgilCrypto.installJsiBindings();
+  } catch (error) {
+    // Synchronous native calls are unavailable when debugging remotely, the bridge is used then
+  }
+}
+
+/**
+ * Returns the binary (ArrayBuffer based) counterparts of the hot native
+ * methods, or `null` when they are not available and the base64 bridge
+ * methods must be used instead.
+ *
+ * @hidden
+ */
+export function getJsiBindings() {
+  if (!isInstallAttempted) {
+    isInstallAttempted = true;
+    installJsiBindings();
+  }
+  return global[JSI_BINDINGS_PROPERTY] || null;
+}
@@ -1,6 +1,9 @@
+import { NativeModules } from 'react-native';
 import { VirgilPrivateKey } from '../virgil-private-key';
 import { VirgilPublicKey } from '../virgil-public-key';
-import { hasPrivateKeyValue, getPrivateKeyValue } from '../private-key-cache';
+import { hasPrivateKeyValue, getPrivateKeyValue, getPrivateKeyHandle } from '../private-key-cache';
+import { unwrapResponse } from './response';
+import { base64ToBuffer } from './encoding';
 import { toArray } from '../utils/array';
 
 export function wrapKeyPair(keypair) {
@@ -32,9 +35,98 @@ export function checkedGetPublicKeyValue(virgilPublicKey) {
   return virgilPublicKey.value;
 }
 
+const publicKeyArrayBuffers = new WeakMap();
+
+function getPublicKeyArrayBuffer(virgilPublicKey) {
+  let arrayBuffer = publicKeyArrayBuffers.get(virgilPublicKey);
+  if (arrayBuffer === undefined) {
+    const publicKeyBuffer = base64ToBuffer(virgilPublicKey.value);
+    arrayBuffer = publicKeyBuffer.buffer.slice(
+      publicKeyBuffer.byteOffset,
+      publicKeyBuffer.byteOffset + publicKeyBuffer.byteLength
+    );
+    publicKeyArrayBuffers.set(virgilPublicKey, arrayBuffer);
+  }
+  return arrayBuffer;
+}
+
+/**
+ * Same as `checkedGetPublicKeyValues` but returns the raw keys for the JSI
+ * bindings. Decoded keys are memoized per key object.
+ *
+ * @hidden
+ */
+export function checkedGetPublicKeyArrayBuffers(virgilPublicKeys) {
+  checkedGetPublicKeyValues(virgilPublicKeys);
+  return toArray(virgilPublicKeys).map(getPublicKeyArrayBuffer);
+}
+
+/**
+ * @hidden
+ */
+export function checkedGetPublicKeyArrayBuffer(virgilPublicKey) {
+  checkedGetPublicKeyValue(virgilPublicKey);
+  return getPublicKeyArrayBuffer(virgilPublicKey);
+}
+
 export function checkedGetPrivateKeyValue(virgilPrivateKey) {
   if (!hasPrivateKeyValue(virgilPrivateKey)) {
     throw new TypeError('Argument "virgilPrivateKey" is not a valid VirgilPrivateKey');
   }
   return getPrivateKeyValue(virgilPrivateKey);
 }
+
+export const HANDLE_NOT_FOUND_ERROR_CODE = 'EHANDLENOTFOUND';
+const HANDLE_NOT_FOUND_REJECTION_CODE = 'handle_not_found';
+
+function registerPrivateKeyHandle(virgilPrivateKey) {
+  const { RNVirgilCrypto } = NativeModules;
+  unwrapResponse(RNVirgilCrypto.importPrivateKeyHandle(getPrivateKeyValue(virgilPrivateKey)));
+}
+
+/**
+ * Calls the native method `nativeCall` with the handle of the given private
+ * key. If the native side does not know the handle (e.g. it was evicted or the
+ * JS context outlived the native module) the key is registered again and the
+ * call is retried once. The method may return the response or a Promise
+ * resolving with it.
+ *
+ * @hidden
+ */
+export function withPrivateKeyHandle(virgilPrivateKey, nativeCall) {
+  checkedGetPrivateKeyValue(virgilPrivateKey);
+  const handle = getPrivateKeyHandle(virgilPrivateKey);
+  const retryIfHandleNotFound = response => {
+    if (response.error && response.error.code === HANDLE_NOT_FOUND_ERROR_CODE) {
+      registerPrivateKeyHandle(virgilPrivateKey);
+      return nativeCall(handle);
+    }
+    return response;
+  };
+  const response = nativeCall(handle);
+  return isPromise(response) ? response.then(retryIfHandleNotFound) : retryIfHandleNotFound(response);
+}
+
+/**
+ * @hidden
+ */
+export function isPromise(value) {
+  return value != null && typeof value.then === 'function';
+}
+
+/**
+ * Same as `withPrivateKeyHandle` but for native methods returning a Promise.
+ *
+ * @hidden
+ */
+export function withPrivateKeyHandleAsync(virgilPrivateKey, nativeCall) {
+  checkedGetPrivateKeyValue(virgilPrivateKey);
+  const handle = getPrivateKeyHandle(virgilPrivateKey);
+  return nativeCall(handle).catch(error => {
+    if (error && error.code === HANDLE_NOT_FOUND_REJECTION_CODE) {
+      registerPrivateKeyHandle(virgilPrivateKey);
+      return nativeCall(handle);
+    }
+    throw error;
+  });
+}
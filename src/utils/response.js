@@ -1,4 +1,5 @@
 import { RNVirgilCryptoError } from '../rn-virgil-crypto-error';
+import { base64ToBuffer } from './encoding';
 
 export function unwrapResponse(nativeResponse) {
   if (nativeResponse.error) {
@@ -7,3 +8,19 @@ export function unwrapResponse(nativeResponse) {
 
   return nativeResponse.result;
 }
+
+/**
+ * Converts the per-item native responses of a batch call into
+ * `{ result }` or `{ error: RNVirgilCryptoError }` objects. Results are base64 decoded into
+ * `Buffer` unless another conversion is given.
+ *
+ * @hidden
+ */
+export function unwrapBatchResponses(nativeResponses, convertResult = base64ToBuffer) {
+  return nativeResponses.map(nativeResponse => {
+    if (nativeResponse.error) {
+      return { error: new RNVirgilCryptoError(nativeResponse.error) };
+    }
+    return { result: convertResult(nativeResponse.result) };
+  });
+}
@@ -20,5 +20,23 @@ export const virgilBrainKeyCrypto = {
     return  base64ToBuffer(
       unwrapResponse(RNVirgilBrainKeyCrypto.deblind(transformedPasswordBase64, blindingSecretBase64))
     );
+  },
+
+  blindAsync(password) {
+    const passwordBase64 = dataToBase64(password, 'utf8', 'password');
+    return RNVirgilBrainKeyCrypto.blindAsync(passwordBase64).then(response => {
+      const { blindedPassword, blindingSecret } = unwrapResponse(response);
+      return {
+        blindedPassword: base64ToBuffer(blindedPassword),
+        blindingSecret: base64ToBuffer(blindingSecret)
+      };
+    });
+  },
+
+  deblindAsync({ transformedPassword, blindingSecret }) {
+    const transformedPasswordBase64 = dataToBase64(transformedPassword, 'base64', 'transformedPassword');
+    const blindingSecretBase64 = dataToBase64(blindingSecret, 'base64', 'blindingSecret');
+    return RNVirgilBrainKeyCrypto.deblindAsync(transformedPasswordBase64, blindingSecretBase64)
+      .then(response => base64ToBuffer(unwrapResponse(response)));
   }
 }
@@ -3,15 +3,33 @@ import { VirgilPrivateKey } from './virgil-private-key';
 import { VirgilPublicKey } from './virgil-public-key';
 import {
   checkedGetPrivateKeyValue,
+  checkedGetPublicKeyArrayBuffer,
+  checkedGetPublicKeyArrayBuffers,
   checkedGetPublicKeyValue,
   checkedGetPublicKeyValues,
+  withPrivateKeyHandle,
+  withPrivateKeyHandleAsync,
   wrapKeyPair
 } from './utils/keys';
-import { unwrapResponse } from './utils/response';
-import { dataToBase64, base64ToBuffer } from './utils/encoding';
-import { checkedGetHashAlgorithm } from './hash-algorithm';
+import { getPrivateKeyHandle } from './private-key-cache';
+import { unwrapResponse, unwrapBatchResponses } from './utils/response';
+import { dataToBase64, base64ToBuffer, dataToArrayBuffer, arrayBufferToBuffer } from './utils/encoding';
+import { getJsiBindings } from './utils/jsi';
+import { toArray } from './utils/array';
+import { withJobProgress } from './utils/job-progress';
+import { checkedGetHashAlgorithm, HashAlgorithm } from './hash-algorithm';
 import { checkedGetKeyPairType } from './key-pair-type';
+import { checkedGetJobPriority } from './job-priority';
 import { createVirgilGroupSession } from './virgil-group-session';
+import { createVirgilEncryptStream } from './virgil-encrypt-stream';
+import { createVirgilDecryptStream } from './virgil-decrypt-stream';
+import { createVirgilHash } from './virgil-hash';
+import {
+  VirgilRecipientSet,
+  createVirgilRecipientSet,
+  releaseVirgilRecipientSet,
+  withRecipientSetHandle
+} from './virgil-recipient-set';
 
 const { RNVirgilCrypto } = NativeModules;
 
@@ -24,6 +42,69 @@ const validateGroupId = (groupIdBase64) => {
   }
 };
 
+const unwrapBufferResponse = (response) => base64ToBuffer(unwrapResponse(response));
+
+const checkedGetBatchItemsBase64 = (items, defaultEncoding, label) => {
+  if (!Array.isArray(items)) {
+    throw new TypeError(`Expected "${label}" parameter to be an array. Got ${typeof items}`);
+  }
+  return items.map(item => dataToBase64(item, defaultEncoding, label));
+};
+
+const checkedGetJobId = (jobId) => {
+  if (jobId != null && typeof jobId !== 'string') {
+    throw new TypeError('Expected "jobId" parameter to be a string. Got ' + typeof jobId);
+  }
+  return jobId != null ? jobId : null;
+};
+
+// 0 lets the native side pick its default chunk size
+const checkedGetChunkSize = (chunkSize) => {
+  if (chunkSize == null) {
+    return 0;
+  }
+  if (!Number.isSafeInteger(chunkSize) || chunkSize <= 0) {
+    throw new TypeError('Expected "chunkSize" parameter to be a positive integer. Got ' + chunkSize);
+  }
+  return chunkSize;
+};
+
+// Seekable files with bigger chunks are rejected on open, chunks are decrypted in memory
+const MAX_SEEKABLE_CHUNK_SIZE = 16 * 1024 * 1024;
+
+// 0 lets the native side run as many files at once as the lane has threads
+const checkedGetConcurrency = (concurrency) => {
+  if (concurrency == null) {
+    return 0;
+  }
+  if (!Number.isSafeInteger(concurrency) || concurrency <= 0) {
+    throw new TypeError('Expected "concurrency" parameter to be a positive integer. Got ' + concurrency);
+  }
+  return concurrency;
+};
+
+// Accepts input paths or objects of the form {inputPath, outputPath}
+const checkedGetFiles = (files) => {
+  if (!Array.isArray(files)) {
+    throw new TypeError('Expected "files" parameter to be an array. Got ' + typeof files);
+  }
+  return files.map(file => {
+    const { inputPath, outputPath } = typeof file === 'string' ? { inputPath: file } : (file || {});
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "files" to contain paths or objects of the form {inputPath, outputPath}');
+    }
+    if (outputPath != null && typeof outputPath !== 'string') {
+      throw new TypeError('Expected "outputPath" of each file to be a string. Got ' + typeof outputPath);
+    }
+    return { inputPath, outputPath };
+  });
+};
+
+const unwrapFileBatchResults = (files) => (nativeResults) =>
+  unwrapBatchResponses(nativeResults, result => result).map(({ result, error }, i) =>
+    error ? { inputPath: files[i].inputPath, error } : { inputPath: files[i].inputPath, outputPath: result }
+  );
+
 export const MIN_GROUP_ID_BYTE_LENGTH = 10;
 
 export const virgilCrypto = {
@@ -38,6 +119,14 @@ export const virgilCrypto = {
   },
 
   calculateHash(data, algorithm) {
+    const jsi = getJsiBindings();
+    if (jsi) {
+      const nativeAlg = algorithm == null ? undefined : checkedGetHashAlgorithm(algorithm);
+      return arrayBufferToBuffer(
+        unwrapResponse(jsi.computeHash(dataToArrayBuffer(data, 'utf8', 'data'), nativeAlg))
+      );
+    }
+
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
     let response;
     if (algorithm == null) {
@@ -52,6 +141,10 @@ export const virgilCrypto = {
     );
   },
 
+  createHash(algorithm) {
+    return createVirgilHash(algorithm);
+  },
+
   generateKeys(keyPairType) {
     let keypair;
     if (keyPairType == null) {
@@ -77,6 +170,24 @@ export const virgilCrypto = {
   },
 
   encrypt(data, virgilPublicKeys, enablePadding) {
+    if (virgilPublicKeys instanceof VirgilRecipientSet) {
+      const dataBase64 = dataToBase64(data, 'utf8', 'data');
+      return base64ToBuffer(unwrapResponse(
+        withRecipientSetHandle(virgilPublicKeys, recipientSetHandle =>
+          RNVirgilCrypto.encryptWithRecipientSet(dataBase64, recipientSetHandle, enablePadding || false)
+        )
+      ));
+    }
+
+    const jsi = getJsiBindings();
+    if (jsi) {
+      const dataBuffer = dataToArrayBuffer(data, 'utf8', 'data');
+      const publicKeyBuffers = checkedGetPublicKeyArrayBuffers(virgilPublicKeys);
+      return arrayBufferToBuffer(
+        unwrapResponse(jsi.encrypt(dataBuffer, publicKeyBuffers, enablePadding || false))
+      );
+    }
+
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
     const publicKeysValues = checkedGetPublicKeyValues(virgilPublicKeys);
     return base64ToBuffer(
@@ -85,22 +196,52 @@ export const virgilCrypto = {
   },
 
   decrypt(encryptedData, virgilPrivateKey) {
+    const jsi = getJsiBindings();
+    if (jsi) {
+      const encryptedDataBuffer = dataToArrayBuffer(encryptedData, 'base64', 'encryptedData');
+      return arrayBufferToBuffer(
+        unwrapResponse(withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+          jsi.decrypt(encryptedDataBuffer, keyHandle)
+        ))
+      );
+    }
+
     const encryptedDataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     return base64ToBuffer(
-      unwrapResponse(RNVirgilCrypto.decrypt(encryptedDataBase64, privateKeyValue))
+      unwrapResponse(withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.decryptWithKeyHandle(encryptedDataBase64, keyHandle)
+      ))
     );
   },
 
   calculateSignature(data, virgilPrivateKey) {
+    const jsi = getJsiBindings();
+    if (jsi) {
+      const dataBuffer = dataToArrayBuffer(data, 'utf8', 'data');
+      return arrayBufferToBuffer(
+        unwrapResponse(withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+          jsi.generateSignature(dataBuffer, keyHandle)
+        ))
+      );
+    }
+
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     return base64ToBuffer(
-      unwrapResponse(RNVirgilCrypto.generateSignature(dataBase64, privateKeyValue))
+      unwrapResponse(withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.generateSignatureWithKeyHandle(dataBase64, keyHandle)
+      ))
     );
   },
 
   verifySignature(data, signature, virgilPublicKey) {
+    const jsi = getJsiBindings();
+    if (jsi) {
+      const dataBuffer = dataToArrayBuffer(data, 'utf8', 'data');
+      const signatureBuffer = dataToArrayBuffer(signature, 'base64', 'signature');
+      const publicKeyBuffer = checkedGetPublicKeyArrayBuffer(virgilPublicKey);
+      return unwrapResponse(jsi.verifySignature(signatureBuffer, dataBuffer, publicKeyBuffer));
+    }
+
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
     const signatureBase64 = dataToBase64(signature, 'base64', 'signature');
     const publicKeyValue = checkedGetPublicKeyValue(virgilPublicKey);
@@ -110,65 +251,85 @@ export const virgilCrypto = {
 
   signAndEncrypt(data, virgilPrivateKey, virgilPublicKeys, enablePadding) {
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
 
     return base64ToBuffer(unwrapResponse(
-      RNVirgilCrypto.signAndEncrypt(
-        dataBase64,
-        privateKeyValue,
-        publicKeyValues,
-        enablePadding || false
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.signAndEncryptWithKeyHandle(
+          dataBase64,
+          keyHandle,
+          publicKeyValues,
+          enablePadding || false
+        )
       )
     ));
   },
 
   decryptAndVerify(encryptedData, virgilPrivateKey, virgilPublicKeys) {
     const dataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
 
     return base64ToBuffer(unwrapResponse(
-      RNVirgilCrypto.decryptAndVerify(
-        dataBase64,
-        privateKeyValue,
-        publicKeyValues
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.decryptAndVerifyWithKeyHandle(
+          dataBase64,
+          keyHandle,
+          publicKeyValues
+        )
       )
     ));
   },
 
   signThenEncrypt(data, virgilPrivateKey, virgilPublicKeys, enablePadding) {
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
+    if (virgilPublicKeys instanceof VirgilRecipientSet) {
+      return base64ToBuffer(unwrapResponse(
+        withRecipientSetHandle(virgilPublicKeys, recipientSetHandle =>
+          withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+            RNVirgilCrypto.signThenEncryptWithRecipientSet(
+              dataBase64,
+              keyHandle,
+              recipientSetHandle,
+              enablePadding || false
+            )
+          )
+        )
+      ));
+    }
+
     const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
 
     return base64ToBuffer(unwrapResponse(
-      RNVirgilCrypto.signThenEncrypt(
-        dataBase64,
-        privateKeyValue,
-        publicKeyValues,
-        enablePadding || false
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.signThenEncryptWithKeyHandle(
+          dataBase64,
+          keyHandle,
+          publicKeyValues,
+          enablePadding || false
+        )
       )
     ));
   },
 
   decryptThenVerify(encryptedData, virgilPrivateKey, virgilPublicKeys) {
     const dataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
 
     return base64ToBuffer(unwrapResponse(
-      RNVirgilCrypto.decryptThenVerify(
-        dataBase64,
-        privateKeyValue,
-        publicKeyValues
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.decryptThenVerifyWithKeyHandle(
+          dataBase64,
+          keyHandle,
+          publicKeyValues
+        )
       )
     ));
   },
 
   extractPublicKey(virgilPrivateKey) {
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
-    const { identifier, publicKey } = unwrapResponse(RNVirgilCrypto.extractPublicKey(privateKeyValue));
+    const { identifier, publicKey } = unwrapResponse(
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle => RNVirgilCrypto.extractPublicKeyWithKeyHandle(keyHandle))
+    );
     return new VirgilPublicKey(identifier, publicKey);
   },
 
@@ -182,17 +343,511 @@ export const virgilCrypto = {
 
   importPrivateKey(rawPrivateKey) {
     const privateKeyBase64 = dataToBase64(rawPrivateKey, 'base64', 'rawPrivateKey');
-    const identifier = unwrapResponse(RNVirgilCrypto.getPrivateKeyIdentifier(privateKeyBase64));
+    const identifier = unwrapResponse(RNVirgilCrypto.importPrivateKeyHandle(privateKeyBase64));
     return new VirgilPrivateKey(identifier, privateKeyBase64);
   },
 
+  releasePrivateKey(virgilPrivateKey) {
+    checkedGetPrivateKeyValue(virgilPrivateKey);
+    return unwrapResponse(RNVirgilCrypto.releaseKeyHandle(getPrivateKeyHandle(virgilPrivateKey)));
+  },
+
   importPublicKey(rawPublicKey) {
     const publicKeyBase64 = dataToBase64(rawPublicKey, 'base64', 'rawPublicKey');
     const identifier = unwrapResponse(RNVirgilCrypto.getPublicKeyIdentifier(publicKeyBase64));
     return new VirgilPublicKey(identifier, publicKeyBase64);
   },
 
-  encryptFile({ inputPath, outputPath, publicKeys, enablePadding }) {
+  getPublicKeyCacheStats() {
+    return unwrapResponse(RNVirgilCrypto.getPublicKeyCacheStats());
+  },
+
+  setPublicKeyCacheCapacity(capacity) {
+    if (!Number.isSafeInteger(capacity) || capacity < 0) {
+      throw new TypeError('Argument "capacity" must be a non-negative integer');
+    }
+    unwrapResponse(RNVirgilCrypto.setPublicKeyCacheCapacity(capacity));
+  },
+
+  clearPublicKeyCache() {
+    unwrapResponse(RNVirgilCrypto.clearPublicKeyCache());
+  },
+
+  createRecipientSet(virgilPublicKeys) {
+    return createVirgilRecipientSet(virgilPublicKeys);
+  },
+
+  releaseRecipientSet(recipientSet) {
+    return releaseVirgilRecipientSet(recipientSet);
+  },
+
+  cancelJob(jobId) {
+    if (typeof jobId !== 'string') {
+      throw new TypeError('Expected "jobId" parameter to be a string. Got ' + typeof jobId);
+    }
+    return unwrapResponse(RNVirgilCrypto.cancelJob(jobId));
+  },
+
+  getSchedulerStats() {
+    return unwrapResponse(RNVirgilCrypto.getSchedulerStats());
+  },
+
+  getBufferPoolStats() {
+    return unwrapResponse(RNVirgilCrypto.getBufferPoolStats());
+  },
+
+  configureScheduler({ interactiveThreads, backgroundThreads, queueCapacity }) {
+    if (!Number.isSafeInteger(interactiveThreads) || interactiveThreads < 1) {
+      throw new TypeError('Argument "interactiveThreads" must be a positive integer');
+    }
+    if (!Number.isSafeInteger(backgroundThreads) || backgroundThreads < 1) {
+      throw new TypeError('Argument "backgroundThreads" must be a positive integer');
+    }
+    if (!Number.isSafeInteger(queueCapacity) || queueCapacity < 0) {
+      throw new TypeError('Argument "queueCapacity" must be a non-negative integer');
+    }
+    unwrapResponse(RNVirgilCrypto.configureScheduler(interactiveThreads, backgroundThreads, queueCapacity));
+  },
+
+  getRandomBytesAsync(size) {
+    if (!Number.isSafeInteger(size)) {
+      throw new TypeError('Argument "size" must be an integer');
+    }
+
+    return RNVirgilCrypto.generateRandomDataAsync(size).then(unwrapBufferResponse);
+  },
+
+  calculateHashAsync(data, algorithm) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    let response;
+    if (algorithm == null) {
+      response = RNVirgilCrypto.computeHashAsync(dataBase64);
+    } else {
+      const nativeAlg = checkedGetHashAlgorithm(algorithm);
+      response = RNVirgilCrypto.computeHashWithAlgorithmAsync(dataBase64, nativeAlg);
+    }
+
+    return response.then(unwrapBufferResponse);
+  },
+
+  generateKeysAsync(keyPairType) {
+    let response;
+    if (keyPairType == null) {
+      response = RNVirgilCrypto.generateKeyPairAsync();
+    } else {
+      const nativeType = checkedGetKeyPairType(keyPairType);
+      response = RNVirgilCrypto.generateKeyPairOfTypeAsync(nativeType);
+    }
+    return response.then(keypair => wrapKeyPair(unwrapResponse(keypair)));
+  },
+
+  generateKeysFromKeyMaterialAsync(seed, keyPairType) {
+    const seedBase64 = dataToBase64(seed, 'base64', 'seed');
+
+    let response;
+    if (keyPairType == null) {
+      response = RNVirgilCrypto.generateKeyPairUsingSeedAsync(seedBase64);
+    } else {
+      const nativeType = checkedGetKeyPairType(keyPairType);
+      response = RNVirgilCrypto.generateKeyPairWithTypeAndSeedAsync(nativeType, seedBase64);
+    }
+    return response.then(keypair => wrapKeyPair(unwrapResponse(keypair)));
+  },
+
+  encryptAsync(data, virgilPublicKeys, enablePadding) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    if (virgilPublicKeys instanceof VirgilRecipientSet) {
+      return withRecipientSetHandle(virgilPublicKeys, recipientSetHandle =>
+        RNVirgilCrypto.encryptWithRecipientSetAsync(dataBase64, recipientSetHandle, enablePadding || false)
+      ).then(unwrapBufferResponse);
+    }
+
+    const publicKeysValues = checkedGetPublicKeyValues(virgilPublicKeys);
+    return RNVirgilCrypto.encryptAsync(dataBase64, publicKeysValues, enablePadding || false)
+      .then(unwrapBufferResponse);
+  },
+
+  decryptAsync(encryptedData, virgilPrivateKey) {
+    const encryptedDataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.decryptWithKeyHandleAsync(encryptedDataBase64, keyHandle)
+    ).then(unwrapBufferResponse);
+  },
+
+  calculateSignatureAsync(data, virgilPrivateKey) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.generateSignatureWithKeyHandleAsync(dataBase64, keyHandle)
+    ).then(unwrapBufferResponse);
+  },
+
+  verifySignatureAsync(data, signature, virgilPublicKey) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    const signatureBase64 = dataToBase64(signature, 'base64', 'signature');
+    const publicKeyValue = checkedGetPublicKeyValue(virgilPublicKey);
+
+    return RNVirgilCrypto.verifySignatureAsync(signatureBase64, dataBase64, publicKeyValue)
+      .then(unwrapResponse);
+  },
+
+  signAndEncryptAsync(data, virgilPrivateKey, virgilPublicKeys, enablePadding) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.signAndEncryptWithKeyHandleAsync(
+        dataBase64,
+        keyHandle,
+        publicKeyValues,
+        enablePadding || false
+      )
+    ).then(unwrapBufferResponse);
+  },
+
+  decryptAndVerifyAsync(encryptedData, virgilPrivateKey, virgilPublicKeys) {
+    const dataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.decryptAndVerifyWithKeyHandleAsync(dataBase64, keyHandle, publicKeyValues)
+    ).then(unwrapBufferResponse);
+  },
+
+  signThenEncryptAsync(data, virgilPrivateKey, virgilPublicKeys, enablePadding) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    if (virgilPublicKeys instanceof VirgilRecipientSet) {
+      return withRecipientSetHandle(virgilPublicKeys, recipientSetHandle =>
+        withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+          RNVirgilCrypto.signThenEncryptWithRecipientSetAsync(
+            dataBase64,
+            keyHandle,
+            recipientSetHandle,
+            enablePadding || false
+          )
+        )
+      ).then(unwrapBufferResponse);
+    }
+
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.signThenEncryptWithKeyHandleAsync(
+        dataBase64,
+        keyHandle,
+        publicKeyValues,
+        enablePadding || false
+      )
+    ).then(unwrapBufferResponse);
+  },
+
+  decryptThenVerifyAsync(encryptedData, virgilPrivateKey, virgilPublicKeys) {
+    const dataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.decryptThenVerifyWithKeyHandleAsync(dataBase64, keyHandle, publicKeyValues)
+    ).then(unwrapBufferResponse);
+  },
+
+  importPrivateKeyAsync(rawPrivateKey) {
+    const privateKeyBase64 = dataToBase64(rawPrivateKey, 'base64', 'rawPrivateKey');
+    return RNVirgilCrypto.importPrivateKeyHandleAsync(privateKeyBase64)
+      .then(response => new VirgilPrivateKey(unwrapResponse(response), privateKeyBase64));
+  },
+
+  signThenEncryptDetachedAsync(data, virgilPrivateKey, virgilPublicKeys, enablePadding) {
+    const dataBase64 = dataToBase64(data, 'utf8', 'data');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.signThenEncryptDetachedWithKeyHandleAsync(
+        dataBase64,
+        keyHandle,
+        publicKeyValues,
+        enablePadding || false
+      )
+    ).then(response => {
+      const { encryptedData, metadata } = unwrapResponse(response);
+      return {
+        encryptedData: base64ToBuffer(encryptedData),
+        metadata: base64ToBuffer(metadata)
+      };
+    });
+  },
+
+  decryptThenVerifyDetachedAsync(encryptedData, metadata, virgilPrivateKey, virgilPublicKeys) {
+    const dataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+    const metadataBase64 = dataToBase64(metadata, 'base64', 'metadata');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandleAsync(
+        dataBase64,
+        metadataBase64,
+        keyHandle,
+        publicKeyValues
+      )
+    ).then(unwrapBufferResponse);
+  },
+
+  generateGroupSessionAsync(groupId) {
+    const groupIdBase64 = dataToBase64(groupId, 'utf8', 'groupId');
+    validateGroupId(groupIdBase64);
+    return RNVirgilCrypto.generateGroupSessionAsync(groupIdBase64)
+      .then(response => createVirgilGroupSession(unwrapResponse(response)));
+  },
+
+  importGroupSessionAsync(epochMessages) {
+    if (!Array.isArray(epochMessages)) {
+      throw new TypeError('Epoch messages must be an array.');
+    }
+
+    if (epochMessages.length === 0) {
+      throw new Error('Epoch messages must not be empty.');
+    }
+
+    const epochMessagesBase64 = epochMessages.map((m, i) => dataToBase64(m, 'base64', `epochMessages[${i}]`));
+    return RNVirgilCrypto.importGroupSessionAsync(epochMessagesBase64)
+      .then(response => createVirgilGroupSession(unwrapResponse(response)));
+  },
+
+  encryptBatch(items, virgilPublicKeys, enablePadding) {
+    const itemsBase64 = checkedGetBatchItemsBase64(items, 'utf8', 'items');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return RNVirgilCrypto.encryptBatch(itemsBase64, publicKeyValues, enablePadding || false)
+      .then(unwrapBatchResponses);
+  },
+
+  decryptBatch(items, virgilPrivateKey) {
+    const itemsBase64 = checkedGetBatchItemsBase64(items, 'base64', 'items');
+
+    return withPrivateKeyHandleAsync(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.decryptBatchWithKeyHandle(itemsBase64, keyHandle)
+    ).then(unwrapBatchResponses);
+  },
+
+  signThenEncryptBatch(items, virgilPrivateKey, virgilPublicKeys, enablePadding) {
+    const itemsBase64 = checkedGetBatchItemsBase64(items, 'utf8', 'items');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandleAsync(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.signThenEncryptBatchWithKeyHandle(
+        itemsBase64,
+        keyHandle,
+        publicKeyValues,
+        enablePadding || false
+      )
+    ).then(unwrapBatchResponses);
+  },
+
+  decryptThenVerifyBatch(items, virgilPrivateKey, virgilPublicKeys) {
+    const itemsBase64 = checkedGetBatchItemsBase64(items, 'base64', 'items');
+    const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+
+    return withPrivateKeyHandleAsync(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.decryptThenVerifyBatchWithKeyHandle(itemsBase64, keyHandle, publicKeyValues)
+    ).then(unwrapBatchResponses);
+  },
+
+  generateSignatures(items, virgilPrivateKey) {
+    const itemsBase64 = checkedGetBatchItemsBase64(items, 'utf8', 'items');
+
+    return withPrivateKeyHandleAsync(virgilPrivateKey, keyHandle =>
+      RNVirgilCrypto.generateSignaturesWithKeyHandle(itemsBase64, keyHandle)
+    ).then(responses => responses.map(response => base64ToBuffer(unwrapResponse(response))));
+  },
+
+  verifySignatures(items) {
+    if (!Array.isArray(items)) {
+      throw new TypeError(`Expected "items" parameter to be an array. Got ${typeof items}`);
+    }
+
+    const signaturesBase64 = [];
+    const dataBase64 = [];
+    const publicKeyIndexes = [];
+    // Signers repeat across a feed, every distinct key is sent and imported once
+    const publicKeyValues = [];
+    const publicKeyIndexByValue = new Map();
+    items.forEach(item => {
+      if (item == null || typeof item !== 'object') {
+        throw new TypeError('Expected "items" to contain objects of the form {data, signature, publicKey}');
+      }
+      const publicKeyValue = checkedGetPublicKeyValue(item.publicKey);
+      let publicKeyIndex = publicKeyIndexByValue.get(publicKeyValue);
+      if (publicKeyIndex === undefined) {
+        publicKeyIndex = publicKeyValues.push(publicKeyValue) - 1;
+        publicKeyIndexByValue.set(publicKeyValue, publicKeyIndex);
+      }
+      signaturesBase64.push(dataToBase64(item.signature, 'base64', 'signature'));
+      dataBase64.push(dataToBase64(item.data, 'utf8', 'data'));
+      publicKeyIndexes.push(publicKeyIndex);
+    });
+
+    return RNVirgilCrypto.verifySignatures(signaturesBase64, dataBase64, publicKeyIndexes, publicKeyValues)
+      .then(bitsetBase64 => {
+        const bitset = base64ToBuffer(bitsetBase64);
+        return items.map((item, i) => (bitset[i >> 3] & (1 << (i & 7))) !== 0);
+      });
+  },
+
+  encryptFile({
+    inputPath,
+    outputPath,
+    publicKeys,
+    enablePadding,
+    jobId,
+    priority,
+    chunkSize,
+    memoryMapped,
+    pipelined,
+    onProgress
+  }) {
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
+    }
+
+    if (outputPath != null && typeof outputPath !== 'string') {
+      throw new TypeError('Expected "outputPath" parameter to be a string. Got ' + typeof outputPath);
+    }
+
+    const publicKeysValues = checkedGetPublicKeyValues(publicKeys);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      RNVirgilCrypto.encryptFile(
+        normalizeFilePath(inputPath),
+        outputPath != null ? normalizeFilePath(outputPath) : undefined,
+        publicKeysValues,
+        enablePadding || false,
+        id,
+        lane,
+        nativeChunkSize,
+        memoryMapped || false,
+        pipelined || false
+      )
+    );
+  },
+
+  decryptFile({ inputPath, outputPath, privateKey, jobId, priority, chunkSize, pipelined, onProgress }) {
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
+    }
+
+    if (outputPath != null && typeof outputPath !== 'string') {
+      throw new TypeError('Expected "outputPath" parameter to be a string. Got ' + typeof outputPath);
+    }
+
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      withPrivateKeyHandleAsync(privateKey, keyHandle =>
+        RNVirgilCrypto.decryptFileWithKeyHandle(
+          normalizeFilePath(inputPath),
+          outputPath != null ? normalizeFilePath(outputPath) : outputPath,
+          keyHandle,
+          id,
+          lane,
+          nativeChunkSize,
+          pipelined || false
+        )
+      )
+    );
+  },
+
+  encryptFiles({ files, publicKeys, enablePadding, concurrency, jobId, priority, chunkSize, onProgress }) {
+    const checkedFiles = checkedGetFiles(files);
+    const publicKeysValues = checkedGetPublicKeyValues(publicKeys);
+    const nativeConcurrency = checkedGetConcurrency(concurrency);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      RNVirgilCrypto.encryptFiles(
+        checkedFiles.map(file => normalizeFilePath(file.inputPath)),
+        checkedFiles.map(file => (file.outputPath != null ? normalizeFilePath(file.outputPath) : null)),
+        publicKeysValues,
+        enablePadding || false,
+        nativeConcurrency,
+        id,
+        lane,
+        nativeChunkSize
+      )
+    ).then(unwrapFileBatchResults(checkedFiles));
+  },
+
+  decryptFiles({ files, privateKey, concurrency, jobId, priority, chunkSize, onProgress }) {
+    const checkedFiles = checkedGetFiles(files);
+    const nativeConcurrency = checkedGetConcurrency(concurrency);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      withPrivateKeyHandleAsync(privateKey, keyHandle =>
+        RNVirgilCrypto.decryptFilesWithKeyHandle(
+          checkedFiles.map(file => normalizeFilePath(file.inputPath)),
+          checkedFiles.map(file => (file.outputPath != null ? normalizeFilePath(file.outputPath) : null)),
+          keyHandle,
+          nativeConcurrency,
+          id,
+          lane,
+          nativeChunkSize
+        )
+      )
+    ).then(unwrapFileBatchResults(checkedFiles));
+  },
+
+  generateFileSignature({ inputPath, privateKey, jobId, priority, chunkSize, memoryMapped, onProgress }) {
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
+    }
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      withPrivateKeyHandleAsync(privateKey, keyHandle =>
+        RNVirgilCrypto.generateFileSignatureWithKeyHandle(
+          normalizeFilePath(inputPath),
+          keyHandle,
+          id,
+          lane,
+          nativeChunkSize,
+          memoryMapped || false
+        )
+      )
+    );
+  },
+
+  hashFile({ inputPath, algorithms = HashAlgorithm.SHA512, jobId, priority, chunkSize, onProgress }) {
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
+    }
+    const algorithmsArray = toArray(algorithms);
+    if (algorithmsArray.length === 0) {
+      throw new TypeError('Expected "algorithms" parameter to contain at least one hash algorithm.');
+    }
+    const nativeAlgs = algorithmsArray.map(algorithm => checkedGetHashAlgorithm(algorithm));
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      RNVirgilCrypto.hashFile(normalizeFilePath(inputPath), nativeAlgs, id, lane, nativeChunkSize)
+    ).then(digests => algorithmsArray.reduce((result, algorithm, i) => {
+      result[algorithm] = base64ToBuffer(digests[i]);
+      return result;
+    }, {}));
+  },
+
+  signThenEncryptFile({
+    inputPath,
+    outputPath,
+    privateKey,
+    publicKeys,
+    enablePadding,
+    jobId,
+    priority,
+    chunkSize,
+    onProgress
+  }) {
     if (typeof inputPath !== 'string') {
       throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
     }
@@ -202,16 +857,52 @@ export const virgilCrypto = {
     }
 
     const publicKeysValues = checkedGetPublicKeyValues(publicKeys);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      withPrivateKeyHandleAsync(privateKey, keyHandle =>
+        RNVirgilCrypto.signThenEncryptFileWithKeyHandle(
+          normalizeFilePath(inputPath),
+          outputPath != null ? normalizeFilePath(outputPath) : undefined,
+          keyHandle,
+          publicKeysValues,
+          enablePadding || false,
+          id,
+          lane,
+          nativeChunkSize
+        )
+      )
+    );
+  },
+
+  decryptThenVerifyFile({ inputPath, outputPath, privateKey, publicKeys, jobId, priority, chunkSize, onProgress }) {
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
+    }
 
-    return RNVirgilCrypto.encryptFile(
-      normalizeFilePath(inputPath),
-      outputPath != null ? normalizeFilePath(outputPath) : undefined,
-      publicKeysValues,
-      enablePadding || false,
+    if (outputPath != null && typeof outputPath !== 'string') {
+      throw new TypeError('Expected "outputPath" parameter to be a string. Got ' + typeof outputPath);
+    }
+
+    const publicKeysValues = checkedGetPublicKeyValues(publicKeys);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      withPrivateKeyHandleAsync(privateKey, keyHandle =>
+        RNVirgilCrypto.decryptThenVerifyFileWithKeyHandle(
+          normalizeFilePath(inputPath),
+          outputPath != null ? normalizeFilePath(outputPath) : undefined,
+          keyHandle,
+          publicKeysValues,
+          id,
+          lane,
+          nativeChunkSize
+        )
+      )
     );
   },
 
-  decryptFile({ inputPath, outputPath, privateKey }) {
+  encryptFileSeekable({ inputPath, outputPath, publicKeys, jobId, priority, chunkSize, parallel, resumable, onProgress }) {
     if (typeof inputPath !== 'string') {
       throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
     }
@@ -220,43 +911,137 @@ export const virgilCrypto = {
       throw new TypeError('Expected "outputPath" parameter to be a string. Got ' + typeof outputPath);
     }
 
-    const privateKeyValue = checkedGetPrivateKeyValue(privateKey);
+    // A restarted job finds its journal next to the output, so the output can't be a temporary file
+    if (resumable && outputPath == null) {
+      throw new TypeError('Expected "outputPath" parameter to be a string for resumable jobs. Got ' + typeof outputPath);
+    }
+
+    const publicKeysValues = checkedGetPublicKeyValues(publicKeys);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    if (nativeChunkSize > MAX_SEEKABLE_CHUNK_SIZE) {
+      throw new TypeError('Expected "chunkSize" parameter to be at most ' + MAX_SEEKABLE_CHUNK_SIZE + '. Got ' + chunkSize);
+    }
 
-    return RNVirgilCrypto.decryptFile(
-      normalizeFilePath(inputPath),
-      outputPath != null ? normalizeFilePath(outputPath) : outputPath,
-      privateKeyValue
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      RNVirgilCrypto.encryptFileSeekable(
+        normalizeFilePath(inputPath),
+        outputPath != null ? normalizeFilePath(outputPath) : undefined,
+        publicKeysValues,
+        id,
+        lane,
+        nativeChunkSize,
+        parallel || false,
+        resumable || false
+      )
+    );
+  },
+
+  // The journal of an unfinished resumable job holds the key of the file, so a job that won't
+  // be started again is discarded along with its partial output
+  discardResumableJob(outputPath) {
+    if (typeof outputPath !== 'string') {
+      throw new TypeError('Expected "outputPath" parameter to be a string. Got ' + typeof outputPath);
+    }
+
+    return RNVirgilCrypto.discardResumableJob(normalizeFilePath(outputPath));
+  },
+
+  discardStaleResumableJobs({ directory, maxAge }) {
+    if (typeof directory !== 'string') {
+      throw new TypeError('Expected "directory" parameter to be a string. Got ' + typeof directory);
+    }
+
+    if (typeof maxAge !== 'number' || maxAge < 0) {
+      throw new TypeError('Expected "maxAge" parameter to be a non-negative number of milliseconds. Got ' + maxAge);
+    }
+
+    return RNVirgilCrypto.discardStaleResumableJobs(normalizeFilePath(directory), maxAge);
+  },
+
+  decryptFileSeekable({ inputPath, outputPath, privateKey, jobId, priority, chunkSize, parallel, onProgress }) {
+    if (typeof inputPath !== 'string') {
+      throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
+    }
+
+    if (outputPath != null && typeof outputPath !== 'string') {
+      throw new TypeError('Expected "outputPath" parameter to be a string. Got ' + typeof outputPath);
+    }
+
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      withPrivateKeyHandleAsync(privateKey, keyHandle =>
+        RNVirgilCrypto.decryptFileSeekableWithKeyHandle(
+          normalizeFilePath(inputPath),
+          outputPath != null ? normalizeFilePath(outputPath) : outputPath,
+          keyHandle,
+          id,
+          lane,
+          nativeChunkSize,
+          parallel || false
+        )
+      )
     );
   },
 
-  generateFileSignature({ inputPath, privateKey }) {
+  decryptFileRange({ inputPath, privateKey, offset, length, jobId, priority }) {
     if (typeof inputPath !== 'string') {
       throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
     }
-    const privateKeyValue = checkedGetPrivateKeyValue(privateKey);
-    return RNVirgilCrypto.generateFileSignature(normalizeFilePath(inputPath), privateKeyValue);
+    if (!Number.isSafeInteger(offset) || offset < 0) {
+      throw new TypeError('Expected "offset" parameter to be a non-negative integer. Got ' + offset);
+    }
+    // Lengths are passed to the native side as 32-bit integers
+    if (!Number.isSafeInteger(length) || length <= 0 || length > 0x7fffffff) {
+      throw new TypeError('Expected "length" parameter to be a positive 32-bit integer. Got ' + length);
+    }
+
+    const lane = checkedGetJobPriority(priority);
+    return withPrivateKeyHandleAsync(privateKey, keyHandle =>
+      RNVirgilCrypto.decryptFileRangeWithKeyHandle(
+        normalizeFilePath(inputPath),
+        keyHandle,
+        offset,
+        length,
+        checkedGetJobId(jobId),
+        lane
+      )
+    ).then(({ data, size }) => ({ data: base64ToBuffer(data), totalBytes: size }));
   },
 
-  verifyFileSignature({ inputPath, signature, publicKey }) {
+  verifyFileSignature({ inputPath, signature, publicKey, jobId, priority, chunkSize, onProgress }) {
     if (typeof inputPath !== 'string') {
       throw new TypeError('Expected "inputPath" parameter to be a string. Got ' + typeof inputPath);
     }
     const publicKeyValue = checkedGetPublicKeyValue(publicKey);
     const signatureBase64 = dataToBase64(signature, 'base64', 'signature');
-    return RNVirgilCrypto.verifyFileSignature(signatureBase64, normalizeFilePath(inputPath), publicKeyValue);
+    const lane = checkedGetJobPriority(priority);
+    const nativeChunkSize = checkedGetChunkSize(chunkSize);
+    return withJobProgress(checkedGetJobId(jobId), onProgress, id =>
+      RNVirgilCrypto.verifyFileSignature(
+        signatureBase64,
+        normalizeFilePath(inputPath),
+        publicKeyValue,
+        id,
+        lane,
+        nativeChunkSize
+      )
+    );
   },
 
   signThenEncryptDetached(data, virgilPrivateKey, virgilPublicKeys, enablePadding) {
     const dataBase64 = dataToBase64(data, 'utf8', 'data');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
 
     const { encryptedData, metadata } = unwrapResponse(
-      RNVirgilCrypto.signThenEncryptDetached(
-        dataBase64,
-        privateKeyValue,
-        publicKeyValues,
-        enablePadding || false
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle(
+          dataBase64,
+          keyHandle,
+          publicKeyValues,
+          enablePadding || false
+        )
       )
     );
     return {
@@ -268,19 +1053,28 @@ export const virgilCrypto = {
   decryptThenVerifyDetached(encryptedData, metadata, virgilPrivateKey, virgilPublicKeys) {
     const dataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
     const metadataBase64 = dataToBase64(metadata, 'base64', 'metadata');
-    const privateKeyValue = checkedGetPrivateKeyValue(virgilPrivateKey);
     const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
 
     return base64ToBuffer(unwrapResponse(
-      RNVirgilCrypto.decryptThenVerifyDetached(
-        dataBase64,
-        metadataBase64,
-        privateKeyValue,
-        publicKeyValues
+      withPrivateKeyHandle(virgilPrivateKey, keyHandle =>
+        RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle(
+          dataBase64,
+          metadataBase64,
+          keyHandle,
+          publicKeyValues
+        )
       )
     ));
   },
 
+  createEncryptStream(virgilPublicKeys, options) {
+    return createVirgilEncryptStream(virgilPublicKeys, options);
+  },
+
+  createDecryptStream(virgilPrivateKey, options) {
+    return createVirgilDecryptStream(virgilPrivateKey, options);
+  },
+
   generateGroupSession(groupId) {
     const groupIdBase64 = dataToBase64(groupId, 'utf8', 'groupId');
     validateGroupId(groupIdBase64);
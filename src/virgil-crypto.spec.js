@@ -1,4 +1,4 @@
-import { NativeModules } from 'react-native';
+import { NativeModules, NativeEventEmitter } from 'react-native';
 import { Buffer } from 'buffer';
 import { virgilCrypto } from './virgil-crypto';
 import { HashAlgorithm } from './hash-algorithm';
@@ -14,6 +14,8 @@ jest.mock('react-native', () => ({
     RNVirgilCrypto: {
       HashAlgorithm: { SHA256: 'NativeHashAlgorigthm.SHA256', SHA512: 'NativeHashAlgorigthm.SHA512' },
       KeyPairType: { SECP256R1: 'NativeKeyPairType.SECP256R1' },
+      SchedulerLane: { INTERACTIVE: 'INTERACTIVE', BACKGROUND: 'BACKGROUND' },
+      JobProgressEvent: 'RNVirgilCrypto.jobProgress',
       computeHash: jest.fn(),
       computeHashWithAlgorithm: jest.fn(),
       generateRandomData: jest.fn(),
@@ -22,22 +24,66 @@ jest.mock('react-native', () => ({
       generateKeyPairUsingSeed: jest.fn(),
       generateKeyPairWithTypeAndSeed: jest.fn(),
       encrypt: jest.fn(),
-      decrypt: jest.fn(),
-      generateSignature: jest.fn(),
+      decryptWithKeyHandle: jest.fn(),
+      generateSignatureWithKeyHandle: jest.fn(),
       verifySignature: jest.fn(),
-      signThenEncrypt: jest.fn(),
-      decryptThenVerify: jest.fn(),
-      extractPublicKey: jest.fn(),
+      signThenEncryptWithKeyHandle: jest.fn(),
+      decryptThenVerifyWithKeyHandle: jest.fn(),
+      extractPublicKeyWithKeyHandle: jest.fn(),
+      importPrivateKeyHandle: jest.fn(),
+      releaseKeyHandle: jest.fn(),
+      getPublicKeyCacheStats: jest.fn(),
+      setPublicKeyCacheCapacity: jest.fn(),
+      clearPublicKeyCache: jest.fn(),
+      cancelJob: jest.fn(),
+      getSchedulerStats: jest.fn(),
+      getBufferPoolStats: jest.fn(),
+      configureScheduler: jest.fn(),
+      encryptBatch: jest.fn(),
+      decryptBatchWithKeyHandle: jest.fn(),
+      signThenEncryptBatchWithKeyHandle: jest.fn(),
+      decryptThenVerifyBatchWithKeyHandle: jest.fn(),
+      generateSignaturesWithKeyHandle: jest.fn(),
+      verifySignatures: jest.fn(),
       encryptFile: jest.fn(),
-      decryptFile: jest.fn(),
-      generateFileSignature: jest.fn(),
+      decryptFileWithKeyHandle: jest.fn(),
+      encryptFiles: jest.fn(),
+      decryptFilesWithKeyHandle: jest.fn(),
+      generateFileSignatureWithKeyHandle: jest.fn(),
       verifyFileSignature: jest.fn(),
-      signThenEncryptDetached: jest.fn(),
-      decryptThenVerifyDetached: jest.fn(),
+      hashFile: jest.fn(),
+      encryptFileSeekable: jest.fn(),
+      discardResumableJob: jest.fn(),
+      discardStaleResumableJobs: jest.fn(),
+      decryptFileRangeWithKeyHandle: jest.fn(),
+      decryptFileSeekableWithKeyHandle: jest.fn(),
+      signThenEncryptFileWithKeyHandle: jest.fn(),
+      decryptThenVerifyFileWithKeyHandle: jest.fn(),
+      signThenEncryptDetachedWithKeyHandle: jest.fn(),
+      decryptThenVerifyDetachedWithKeyHandle: jest.fn(),
       generateGroupSession: jest.fn(),
       importGroupSession: jest.fn(),
+      computeHashAsync: jest.fn(),
+      generateKeyPairAsync: jest.fn(),
+      encryptAsync: jest.fn(),
+      decryptWithKeyHandleAsync: jest.fn(),
+      verifySignatureAsync: jest.fn(),
+      importPrivateKeyHandleAsync: jest.fn(),
+      createRecipientSet: jest.fn(),
+      releaseRecipientSet: jest.fn(),
+      encryptWithRecipientSet: jest.fn(),
+      signThenEncryptWithRecipientSet: jest.fn(),
+      encryptWithRecipientSetAsync: jest.fn(),
     },
   },
+  NativeEventEmitter: class {
+    addListener(eventName, listener) {
+      const subscription = { eventName, listener, remove: () => subscription.isRemoved = true };
+      this.constructor.subscriptions.push(subscription);
+      return subscription;
+    }
+    static subscriptions = [];
+  },
   Platform: {
     OS: 'ios',
     select: ({ ios }) => {
@@ -56,20 +102,56 @@ describe('virgilCrypto', () => {
     NativeModules.RNVirgilCrypto.generateKeyPairUsingSeed.mockReset();
     NativeModules.RNVirgilCrypto.generateKeyPairWithTypeAndSeed.mockReset();
     NativeModules.RNVirgilCrypto.encrypt.mockReset();
-    NativeModules.RNVirgilCrypto.decrypt.mockReset();
-    NativeModules.RNVirgilCrypto.generateSignature.mockReset();
+    NativeModules.RNVirgilCrypto.decryptWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle.mockReset();
     NativeModules.RNVirgilCrypto.verifySignature.mockReset();
-    NativeModules.RNVirgilCrypto.signThenEncrypt.mockReset();
-    NativeModules.RNVirgilCrypto.decryptThenVerify.mockReset();
-    NativeModules.RNVirgilCrypto.extractPublicKey.mockReset();
+    NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.extractPublicKeyWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.releaseKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.getPublicKeyCacheStats.mockReset();
+    NativeModules.RNVirgilCrypto.setPublicKeyCacheCapacity.mockReset();
+    NativeModules.RNVirgilCrypto.clearPublicKeyCache.mockReset();
+    NativeModules.RNVirgilCrypto.cancelJob.mockReset();
+    NativeModules.RNVirgilCrypto.getSchedulerStats.mockReset();
+    NativeModules.RNVirgilCrypto.getBufferPoolStats.mockReset();
+    NativeModules.RNVirgilCrypto.configureScheduler.mockReset();
+    NativeModules.RNVirgilCrypto.encryptBatch.mockReset();
+    NativeModules.RNVirgilCrypto.decryptBatchWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.signThenEncryptBatchWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.decryptThenVerifyBatchWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.generateSignaturesWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.verifySignatures.mockReset();
     NativeModules.RNVirgilCrypto.encryptFile.mockReset();
-    NativeModules.RNVirgilCrypto.decryptFile.mockReset();
-    NativeModules.RNVirgilCrypto.generateFileSignature.mockReset();
+    NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.encryptFiles.mockReset();
+    NativeModules.RNVirgilCrypto.decryptFilesWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.generateFileSignatureWithKeyHandle.mockReset();
     NativeModules.RNVirgilCrypto.verifyFileSignature.mockReset();
-    NativeModules.RNVirgilCrypto.signThenEncryptDetached.mockReset();
-    NativeModules.RNVirgilCrypto.decryptThenVerifyDetached.mockReset();
+    NativeModules.RNVirgilCrypto.hashFile.mockReset();
+    NativeModules.RNVirgilCrypto.encryptFileSeekable.mockReset();
+    NativeModules.RNVirgilCrypto.discardResumableJob.mockReset();
+    NativeModules.RNVirgilCrypto.discardStaleResumableJobs.mockReset();
+    NativeModules.RNVirgilCrypto.decryptFileRangeWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.decryptFileSeekableWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.signThenEncryptFileWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.decryptThenVerifyFileWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle.mockReset();
+    NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle.mockReset();
     NativeModules.RNVirgilCrypto.generateGroupSession.mockReset();
     NativeModules.RNVirgilCrypto.importGroupSession.mockReset();
+    NativeModules.RNVirgilCrypto.computeHashAsync.mockReset();
+    NativeModules.RNVirgilCrypto.generateKeyPairAsync.mockReset();
+    NativeModules.RNVirgilCrypto.encryptAsync.mockReset();
+    NativeModules.RNVirgilCrypto.decryptWithKeyHandleAsync.mockReset();
+    NativeModules.RNVirgilCrypto.verifySignatureAsync.mockReset();
+    NativeModules.RNVirgilCrypto.importPrivateKeyHandleAsync.mockReset();
+    NativeModules.RNVirgilCrypto.createRecipientSet.mockReset();
+    NativeModules.RNVirgilCrypto.releaseRecipientSet.mockReset();
+    NativeModules.RNVirgilCrypto.encryptWithRecipientSet.mockReset();
+    NativeModules.RNVirgilCrypto.signThenEncryptWithRecipientSet.mockReset();
+    NativeModules.RNVirgilCrypto.encryptWithRecipientSetAsync.mockReset();
   });
 
   describe('calculateHash', () => {
@@ -283,28 +365,28 @@ describe('virgilCrypto', () => {
 
   describe('decrypt', () => {
     it('accepts data as base64 string', () => {
-      NativeModules.RNVirgilCrypto.decrypt.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandle.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
       const ciphertext = Buffer.from('ciphertext').toString('base64');
       virgilCrypto.decrypt(ciphertext, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.decrypt).toHaveBeenCalledWith(ciphertext, 'privatekey');
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandle).toHaveBeenCalledWith(ciphertext, 'privatekey');
     });
 
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilCrypto.decrypt.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandle.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
       const ciphertext = Buffer.from('ciphertext');
       virgilCrypto.decrypt(ciphertext, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.decrypt).toHaveBeenCalledWith(ciphertext.toString('base64'), 'privatekey');
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandle).toHaveBeenCalledWith(ciphertext.toString('base64'), 'privatekey');
     });
 
     it('accepts data as object with value and encoding', () => {
-      NativeModules.RNVirgilCrypto.decrypt.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandle.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
       const ciphertext = { value: 'ciphertext', encoding: 'utf8' };
       virgilCrypto.decrypt(ciphertext, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.decrypt).toHaveBeenCalledWith(Buffer.from('ciphertext').toString('base64'), 'privatekey');
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandle).toHaveBeenCalledWith(Buffer.from('ciphertext').toString('base64'), 'privatekey');
     });
 
     it('returns result as Buffer', () => {
-      NativeModules.RNVirgilCrypto.decrypt.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandle.mockReturnValue({ result: Buffer.from('plaintext').toString('base64') });
       const result = virgilCrypto.decrypt('ciphertext', new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
       expect(Buffer.isBuffer(result)).toBe(true);
       expect(result.toString()).toBe('plaintext');
@@ -313,31 +395,31 @@ describe('virgilCrypto', () => {
 
   describe('calculateSignature', () => {
     it('accepts data as utf8 string', () => {
-      NativeModules.RNVirgilCrypto.generateSignature.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
+      NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
       const data = 'data';
       virgilCrypto.calculateSignature(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.generateSignature).toHaveBeenCalledWith(Buffer.from(data).toString('base64'), 'privatekey');
+      expect(NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle).toHaveBeenCalledWith(Buffer.from(data).toString('base64'), 'privatekey');
     });
 
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilCrypto.generateSignature.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
+      NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
       const data = Buffer.from('data');
       virgilCrypto.calculateSignature(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.generateSignature).toHaveBeenCalledWith(data.toString('base64'), 'privatekey');
+      expect(NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle).toHaveBeenCalledWith(data.toString('base64'), 'privatekey');
     });
 
     it('accepts data as object with value and encoding', () => {
-      NativeModules.RNVirgilCrypto.generateSignature.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
+      NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
       const data = { value: 'data', encoding: 'utf8' };
       virgilCrypto.calculateSignature(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.generateSignature).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey'
       );
     });
 
     it('returns result as Buffer', () => {
-      NativeModules.RNVirgilCrypto.generateSignature.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
+      NativeModules.RNVirgilCrypto.generateSignatureWithKeyHandle.mockReturnValue({ result: Buffer.from('signature').toString('base64') });
       const data = 'data';
       const signature = virgilCrypto.calculateSignature(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')));
       expect(Buffer.isBuffer(signature)).toBe(true);
@@ -390,12 +472,12 @@ describe('virgilCrypto', () => {
 
   describe('signThenEncrypt', () => {
     it('accepts data as utf8 string', () => {
-      NativeModules.RNVirgilCrypto.signThenEncrypt.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const data = 'data';
       virgilCrypto.signThenEncrypt(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey',  dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.signThenEncrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey',
         ['pubkey'],
@@ -403,12 +485,12 @@ describe('virgilCrypto', () => {
       );
     });
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilCrypto.signThenEncrypt.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const data = Buffer.from('data');
       virgilCrypto.signThenEncrypt(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey',  dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.signThenEncrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey',
         ['pubkey'],
@@ -416,12 +498,12 @@ describe('virgilCrypto', () => {
       );
     });
     it('accepts data as object with string value and encoding', () => {
-      NativeModules.RNVirgilCrypto.signThenEncrypt.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const data = { value: 'data', encoding: 'utf8' };
       virgilCrypto.signThenEncrypt(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey',  dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.signThenEncrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey',
         ['pubkey'],
@@ -429,7 +511,7 @@ describe('virgilCrypto', () => {
       );
     });
     it('returns Buffer', () => {
-      NativeModules.RNVirgilCrypto.signThenEncrypt.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptWithKeyHandle.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const data = 'data';
@@ -441,43 +523,43 @@ describe('virgilCrypto', () => {
 
   describe('decryptThenVerify', () => {
     it('accepts data as base64 string', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerify.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = Buffer.from('ciphertext').toString('base64');
       virgilCrypto.decryptThenVerify(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey',  dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.decryptThenVerify).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('ciphertext').toString('base64'),
         'privatekey',
         ['pubkey']
       );
     });
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerify.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = Buffer.from('ciphertext');
       virgilCrypto.decryptThenVerify(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey',  dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.decryptThenVerify).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('ciphertext').toString('base64'),
         'privatekey',
         ['pubkey']
       );
     });
     it('accepts data as object with string value and encoding', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerify.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = { value: 'ciphertext', encoding: 'utf8' };
       virgilCrypto.decryptThenVerify(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey',  dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.decryptThenVerify).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('ciphertext').toString('base64'),
         'privatekey',
         ['pubkey']
       );
     });
     it('returns Buffer', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerify.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const ciphertext = 'ciphertext';
@@ -489,12 +571,12 @@ describe('virgilCrypto', () => {
 
   describe('extractPublicKey', () => {
     it('returns VirgilPublicKey', () => {
-      NativeModules.RNVirgilCrypto.extractPublicKey.mockReturnValue({
+      NativeModules.RNVirgilCrypto.extractPublicKeyWithKeyHandle.mockReturnValue({
         result: Buffer.from('pubkey').toString('base64')
       });
       const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
       const publicKey = virgilCrypto.extractPublicKey(privateKey);
-      expect(NativeModules.RNVirgilCrypto.extractPublicKey).toHaveBeenCalledWith('privatekey');
+      expect(NativeModules.RNVirgilCrypto.extractPublicKeyWithKeyHandle).toHaveBeenCalledWith('privatekey');
       expect(publicKey).toBeInstanceOf(VirgilPublicKey);
     });
   });
@@ -520,6 +602,19 @@ describe('virgilCrypto', () => {
   });
 
   describe('importPrivateKey', () => {
+    beforeEach(() => {
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({
+        result: Buffer.from('identifier').toString('base64')
+      });
+    });
+
+    it('registers the key in native key handles', () => {
+      const rawKey = Buffer.from('rawKey').toString('base64');
+      const privateKey = virgilCrypto.importPrivateKey(rawKey);
+      expect(NativeModules.RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledWith(rawKey);
+      expect(privateKey.identifier.toString()).toBe('identifier');
+    });
+
     it('accepts raw key as base64 string', () => {
       const rawKey = Buffer.from('rawKey').toString('base64');
       const privateKey = virgilCrypto.importPrivateKey(rawKey);
@@ -539,6 +634,60 @@ describe('virgilCrypto', () => {
     });
   });
 
+  describe('releasePrivateKey', () => {
+    it('releases native key handle', () => {
+      NativeModules.RNVirgilCrypto.releaseKeyHandle.mockReturnValue({ result: true });
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+      expect(virgilCrypto.releasePrivateKey(privateKey)).toBe(true);
+      expect(NativeModules.RNVirgilCrypto.releaseKeyHandle).toHaveBeenCalledWith('privatekey');
+    });
+
+    it('throws if argument is not a private key', () => {
+      expect(() => virgilCrypto.releasePrivateKey({})).toThrow(TypeError);
+    });
+  });
+
+  describe('private key handles', () => {
+    it('registers the key again and retries if native handle is not found', () => {
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandle
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockReturnValueOnce({ result: Buffer.from('plaintext').toString('base64') });
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privatekey' });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const result = virgilCrypto.decrypt('ciphertext', privateKey);
+      expect(result.toString()).toBe('plaintext');
+      expect(NativeModules.RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledWith(Buffer.from('rawKey').toString('base64'));
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandle).toHaveBeenCalledTimes(2);
+    });
+
+    it('does not retry on other errors', () => {
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandle.mockReturnValue({
+        error: { code: 'EUNSPECIFIED', message: 'Decryption failed' }
+      });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      expect(() => virgilCrypto.decrypt('ciphertext', privateKey)).toThrow(RNVirgilCryptoError);
+      expect(NativeModules.RNVirgilCrypto.importPrivateKeyHandle).not.toHaveBeenCalled();
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandle).toHaveBeenCalledTimes(1);
+    });
+
+    it('registers the key again and retries rejected async calls', async () => {
+      const handleNotFound = new Error('Handle is not registered');
+      handleNotFound.code = 'handle_not_found';
+      NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle
+        .mockRejectedValueOnce(handleNotFound)
+        .mockResolvedValueOnce('/output/path');
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privatekey' });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const outputPath = await virgilCrypto.decryptFile({ inputPath: '/path/to/file', privateKey });
+      expect(outputPath).toBe('/output/path');
+      expect(NativeModules.RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledTimes(1);
+      expect(NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle).toHaveBeenCalledTimes(2);
+    });
+  });
+
   describe('importPublicKey', () => {
     it('accepts raw key as base64 string', () => {
       const rawKey = Buffer.from('rawKey').toString('base64');
@@ -559,6 +708,786 @@ describe('virgilCrypto', () => {
     });
   });
 
+  describe('buffer pool', () => {
+    it('returns native buffer pool stats', () => {
+      const stats = { allocations: 12, allocatedBytes: 65536, reuses: 3000 };
+      NativeModules.RNVirgilCrypto.getBufferPoolStats.mockReturnValue({ result: stats });
+      expect(virgilCrypto.getBufferPoolStats()).toEqual(stats);
+    });
+  });
+
+  describe('public key cache', () => {
+    it('returns native cache stats', () => {
+      const stats = { size: 2, capacity: 256, hits: 10, misses: 2 };
+      NativeModules.RNVirgilCrypto.getPublicKeyCacheStats.mockReturnValue({ result: stats });
+      expect(virgilCrypto.getPublicKeyCacheStats()).toEqual(stats);
+    });
+
+    it('sets cache capacity', () => {
+      NativeModules.RNVirgilCrypto.setPublicKeyCacheCapacity.mockReturnValue({ result: true });
+      virgilCrypto.setPublicKeyCacheCapacity(512);
+      expect(NativeModules.RNVirgilCrypto.setPublicKeyCacheCapacity).toHaveBeenCalledWith(512);
+    });
+
+    it('throws if capacity is not a non-negative integer', () => {
+      expect(() => virgilCrypto.setPublicKeyCacheCapacity(-1)).toThrow(TypeError);
+      expect(() => virgilCrypto.setPublicKeyCacheCapacity('10')).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.setPublicKeyCacheCapacity).not.toHaveBeenCalled();
+    });
+
+    it('clears the cache', () => {
+      NativeModules.RNVirgilCrypto.clearPublicKeyCache.mockReturnValue({ result: true });
+      virgilCrypto.clearPublicKeyCache();
+      expect(NativeModules.RNVirgilCrypto.clearPublicKeyCache).toHaveBeenCalled();
+    });
+  });
+
+  describe('recipient sets', () => {
+    const createRecipientSet = () => {
+      NativeModules.RNVirgilCrypto.createRecipientSet.mockReturnValue({ result: 'recipientset' });
+      return virgilCrypto.createRecipientSet([
+        new VirgilPublicKey('pubkey1', 'publicKey1'),
+        new VirgilPublicKey('pubkey2', 'publicKey2')
+      ]);
+    };
+
+    it('imports the keys once', () => {
+      const recipientSet = createRecipientSet();
+      expect(recipientSet.size).toBe(2);
+      expect(NativeModules.RNVirgilCrypto.createRecipientSet).toHaveBeenCalledWith(['publicKey1', 'publicKey2']);
+    });
+
+    it('throws if keys are not public keys', () => {
+      expect(() => virgilCrypto.createRecipientSet([])).toThrow(TypeError);
+      expect(() => virgilCrypto.createRecipientSet(['publicKey'])).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.createRecipientSet).not.toHaveBeenCalled();
+    });
+
+    it('throws if native side rejects the keys', () => {
+      NativeModules.RNVirgilCrypto.createRecipientSet.mockReturnValue({
+        error: { code: 'EUNSPECIFIED', message: 'Recipient set has key more than once' }
+      });
+      const publicKey = new VirgilPublicKey('pubkey', 'publicKey');
+      expect(() => virgilCrypto.createRecipientSet([publicKey, publicKey])).toThrow(RNVirgilCryptoError);
+    });
+
+    it('encrypts with the handle of the set', () => {
+      NativeModules.RNVirgilCrypto.encryptWithRecipientSet.mockReturnValue({
+        result: Buffer.from('ciphertext').toString('base64')
+      });
+      const recipientSet = createRecipientSet();
+      const result = virgilCrypto.encrypt('data', recipientSet, true);
+      expect(result.toString()).toBe('ciphertext');
+      expect(NativeModules.RNVirgilCrypto.encryptWithRecipientSet).toHaveBeenCalledWith(
+        Buffer.from('data').toString('base64'),
+        'recipientset',
+        true
+      );
+      expect(NativeModules.RNVirgilCrypto.encrypt).not.toHaveBeenCalled();
+    });
+
+    it('signs then encrypts with the handles of the key and the set', () => {
+      NativeModules.RNVirgilCrypto.signThenEncryptWithRecipientSet.mockReturnValue({
+        result: Buffer.from('ciphertext').toString('base64')
+      });
+      const recipientSet = createRecipientSet();
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+      virgilCrypto.signThenEncrypt('data', privateKey, recipientSet);
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptWithRecipientSet).toHaveBeenCalledWith(
+        Buffer.from('data').toString('base64'),
+        'privatekey',
+        'recipientset',
+        false
+      );
+    });
+
+    it('registers the set again and retries if native handle is not found', () => {
+      NativeModules.RNVirgilCrypto.encryptWithRecipientSet
+        .mockReturnValueOnce({ error: { code: 'ERECIPIENTSETNOTFOUND', message: 'Recipient set is not registered' } })
+        .mockReturnValueOnce({ result: Buffer.from('ciphertext').toString('base64') });
+      const recipientSet = createRecipientSet();
+
+      const result = virgilCrypto.encrypt('data', recipientSet);
+      expect(result.toString()).toBe('ciphertext');
+      expect(NativeModules.RNVirgilCrypto.createRecipientSet).toHaveBeenCalledTimes(2);
+      expect(NativeModules.RNVirgilCrypto.createRecipientSet).toHaveBeenLastCalledWith(['publicKey1', 'publicKey2']);
+      expect(NativeModules.RNVirgilCrypto.encryptWithRecipientSet).toHaveBeenCalledTimes(2);
+    });
+
+    it('registers only the handle that is not found', () => {
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privatekey' });
+      NativeModules.RNVirgilCrypto.signThenEncryptWithRecipientSet
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockReturnValueOnce({ error: { code: 'ERECIPIENTSETNOTFOUND', message: 'Recipient set is not registered' } })
+        .mockReturnValueOnce({ result: Buffer.from('ciphertext').toString('base64') });
+      const recipientSet = createRecipientSet();
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const result = virgilCrypto.signThenEncrypt('data', privateKey, recipientSet);
+      expect(result.toString()).toBe('ciphertext');
+      expect(NativeModules.RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledTimes(1);
+      expect(NativeModules.RNVirgilCrypto.createRecipientSet).toHaveBeenCalledTimes(2);
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptWithRecipientSet).toHaveBeenCalledTimes(3);
+    });
+
+    it('encrypts asynchronously with the handle of the set', async () => {
+      NativeModules.RNVirgilCrypto.encryptWithRecipientSetAsync.mockResolvedValue({
+        result: Buffer.from('ciphertext').toString('base64')
+      });
+      const recipientSet = createRecipientSet();
+      const result = await virgilCrypto.encryptAsync('data', recipientSet);
+      expect(result.toString()).toBe('ciphertext');
+      expect(NativeModules.RNVirgilCrypto.encryptWithRecipientSetAsync).toHaveBeenCalledWith(
+        Buffer.from('data').toString('base64'),
+        'recipientset',
+        false
+      );
+    });
+
+    it('releases native handle', () => {
+      NativeModules.RNVirgilCrypto.releaseRecipientSet.mockReturnValue({ result: true });
+      const recipientSet = createRecipientSet();
+      expect(virgilCrypto.releaseRecipientSet(recipientSet)).toBe(true);
+      expect(NativeModules.RNVirgilCrypto.releaseRecipientSet).toHaveBeenCalledWith('recipientset');
+      expect(() => virgilCrypto.releaseRecipientSet({})).toThrow(TypeError);
+    });
+  });
+
+  describe('scheduler', () => {
+    it('passes job id and priority of file operations', async () => {
+      NativeModules.RNVirgilCrypto.encryptFile.mockResolvedValue('/output/path');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      await virgilCrypto.encryptFile({
+        inputPath: '/path/to/file',
+        publicKeys: publicKey,
+        jobId: 'job1',
+        priority: 'INTERACTIVE'
+      });
+      expect(NativeModules.RNVirgilCrypto.encryptFile).toHaveBeenCalledWith(
+        '/path/to/file',
+        undefined,
+        ['pubkey'],
+        false,
+        'job1',
+        'INTERACTIVE',
+        0,
+        false,
+        false
+      );
+    });
+
+    it('passes chunk size of file operations', async () => {
+      NativeModules.RNVirgilCrypto.verifyFileSignature.mockResolvedValue(true);
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      await virgilCrypto.verifyFileSignature({
+        inputPath: '/path/to/file',
+        signature: 'c2lnbmF0dXJl',
+        publicKey,
+        chunkSize: 1024 * 1024
+      });
+      expect(NativeModules.RNVirgilCrypto.verifyFileSignature).toHaveBeenCalledWith(
+        'c2lnbmF0dXJl',
+        '/path/to/file',
+        'pubkey',
+        null,
+        null,
+        1024 * 1024
+      );
+    });
+
+    it('throws if chunk size is invalid', () => {
+      expect(() => virgilCrypto.hashFile({ inputPath: '/path/to/file', chunkSize: 0 })).toThrow(TypeError);
+      expect(() => virgilCrypto.hashFile({ inputPath: '/path/to/file', chunkSize: 1.5 })).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.hashFile).not.toHaveBeenCalled();
+    });
+
+    it('throws if priority is invalid', () => {
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      expect(() => virgilCrypto.encryptFile({
+        inputPath: '/path/to/file',
+        publicKeys: publicKey,
+        priority: 'URGENT'
+      })).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.encryptFile).not.toHaveBeenCalled();
+    });
+
+    it('throws if job id is not a string', () => {
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+      expect(() => virgilCrypto.decryptFile({ inputPath: '/path/to/file', privateKey, jobId: 1 })).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle).not.toHaveBeenCalled();
+    });
+
+    it('cancels job by id', () => {
+      NativeModules.RNVirgilCrypto.cancelJob.mockReturnValue({ result: true });
+      expect(virgilCrypto.cancelJob('job1')).toBe(true);
+      expect(NativeModules.RNVirgilCrypto.cancelJob).toHaveBeenCalledWith('job1');
+    });
+
+    it('returns native scheduler stats', () => {
+      const laneStats = { queued: 1, active: 2, threads: 2, maxThreads: 2, completed: 10 };
+      const stats = { interactive: laneStats, background: laneStats, queueCapacity: 256, cancellableJobs: 1 };
+      NativeModules.RNVirgilCrypto.getSchedulerStats.mockReturnValue({ result: stats });
+      expect(virgilCrypto.getSchedulerStats()).toEqual(stats);
+    });
+
+    it('configures the scheduler', () => {
+      NativeModules.RNVirgilCrypto.configureScheduler.mockReturnValue({ result: true });
+      virgilCrypto.configureScheduler({ interactiveThreads: 4, backgroundThreads: 1, queueCapacity: 64 });
+      expect(NativeModules.RNVirgilCrypto.configureScheduler).toHaveBeenCalledWith(4, 1, 64);
+    });
+
+    it('reports progress of the job until it settles', async () => {
+      let resolveEncryption;
+      NativeModules.RNVirgilCrypto.encryptFile.mockReturnValue(new Promise(resolve => resolveEncryption = resolve));
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const onProgress = jest.fn();
+
+      const promise = virgilCrypto.encryptFile({
+        inputPath: '/path/to/file',
+        publicKeys: publicKey,
+        jobId: 'job1',
+        onProgress
+      });
+      const subscription = NativeEventEmitter.subscriptions[NativeEventEmitter.subscriptions.length - 1];
+      expect(subscription.eventName).toBe('RNVirgilCrypto.jobProgress');
+      subscription.listener({ jobId: 'job2', bytesProcessed: 10, totalBytes: 100 });
+      subscription.listener({ jobId: 'job1', bytesProcessed: 50, totalBytes: 100, megabytesPerSecond: 12.5 });
+      resolveEncryption('/output/path');
+
+      expect(await promise).toBe('/output/path');
+      expect(onProgress).toHaveBeenCalledTimes(1);
+      expect(onProgress).toHaveBeenCalledWith({ bytesProcessed: 50, totalBytes: 100, megabytesPerSecond: 12.5 });
+      expect(subscription.isRemoved).toBe(true);
+    });
+
+    it('assigns job id when progress is requested', async () => {
+      NativeModules.RNVirgilCrypto.verifyFileSignature.mockRejectedValue(new Error('Verification failed'));
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      await expect(virgilCrypto.verifyFileSignature({
+        inputPath: '/path/to/file',
+        signature: 'c2lnbmF0dXJl',
+        publicKey,
+        onProgress: () => {}
+      })).rejects.toThrow('Verification failed');
+      const [, , , jobId] = NativeModules.RNVirgilCrypto.verifyFileSignature.mock.calls[0];
+      expect(typeof jobId).toBe('string');
+      expect(NativeEventEmitter.subscriptions[NativeEventEmitter.subscriptions.length - 1].isRemoved).toBe(true);
+    });
+
+    it('throws if scheduler options are invalid', () => {
+      expect(() => virgilCrypto.configureScheduler({ interactiveThreads: 0, backgroundThreads: 1, queueCapacity: 64 }))
+        .toThrow(TypeError);
+      expect(() => virgilCrypto.configureScheduler({ interactiveThreads: 2, backgroundThreads: 1, queueCapacity: -1 }))
+        .toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.configureScheduler).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('hashFile', () => {
+    it('calculates all digests in a single native call', async () => {
+      NativeModules.RNVirgilCrypto.hashFile.mockResolvedValue([
+        Buffer.from('sha256').toString('base64'),
+        Buffer.from('sha512').toString('base64')
+      ]);
+
+      const digests = await virgilCrypto.hashFile({
+        inputPath: 'file:///path/to/file',
+        algorithms: [HashAlgorithm.SHA256, HashAlgorithm.SHA512]
+      });
+      expect(NativeModules.RNVirgilCrypto.hashFile).toHaveBeenCalledWith(
+        '/path/to/file',
+        ['NativeHashAlgorigthm.SHA256', 'NativeHashAlgorigthm.SHA512'],
+        null,
+        null,
+        0
+      );
+      expect(digests.SHA256.toString()).toBe('sha256');
+      expect(digests.SHA512.toString()).toBe('sha512');
+    });
+
+    it('uses SHA512 by default', async () => {
+      NativeModules.RNVirgilCrypto.hashFile.mockResolvedValue([Buffer.from('sha512').toString('base64')]);
+      const digests = await virgilCrypto.hashFile({ inputPath: '/path/to/file' });
+      expect(NativeModules.RNVirgilCrypto.hashFile.mock.calls[0][1]).toEqual(['NativeHashAlgorigthm.SHA512']);
+      expect(Object.keys(digests)).toEqual(['SHA512']);
+    });
+
+    it('throws if algorithm is invalid', () => {
+      expect(() => virgilCrypto.hashFile({ inputPath: '/path/to/file', algorithms: ['MD5'] })).toThrow(TypeError);
+      expect(() => virgilCrypto.hashFile({ inputPath: '/path/to/file', algorithms: [] })).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.hashFile).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('signed files', () => {
+    it('signs and encrypts file in a single native call', async () => {
+      NativeModules.RNVirgilCrypto.signThenEncryptFileWithKeyHandle.mockResolvedValue('/encrypted/path');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+
+      const outputPath = await virgilCrypto.signThenEncryptFile({
+        inputPath: 'file:///path/to/file',
+        privateKey,
+        publicKeys: publicKey
+      });
+      expect(outputPath).toBe('/encrypted/path');
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptFileWithKeyHandle).toHaveBeenCalledWith(
+        '/path/to/file',
+        undefined,
+        'privatekey',
+        ['pubkey'],
+        false,
+        null,
+        null,
+        0
+      );
+    });
+
+    it('decrypts and verifies file in a single native call', async () => {
+      NativeModules.RNVirgilCrypto.decryptThenVerifyFileWithKeyHandle.mockResolvedValue('/decrypted/path');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+
+      const outputPath = await virgilCrypto.decryptThenVerifyFile({
+        inputPath: '/encrypted/path',
+        outputPath: 'file:///path/to/output',
+        privateKey,
+        publicKeys: [publicKey]
+      });
+      expect(outputPath).toBe('/decrypted/path');
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyFileWithKeyHandle).toHaveBeenCalledWith(
+        '/encrypted/path',
+        '/path/to/output',
+        'privatekey',
+        ['pubkey'],
+        null,
+        null,
+        0
+      );
+    });
+  });
+
+  describe('seekable files', () => {
+    it('encrypts file in chunks of the given size', async () => {
+      NativeModules.RNVirgilCrypto.encryptFileSeekable.mockResolvedValue('/output/path');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      const outputPath = await virgilCrypto.encryptFileSeekable({
+        inputPath: 'file:///path/to/video',
+        publicKeys: publicKey,
+        chunkSize: 1024 * 1024
+      });
+      expect(outputPath).toBe('/output/path');
+      expect(NativeModules.RNVirgilCrypto.encryptFileSeekable).toHaveBeenCalledWith(
+        '/path/to/video',
+        undefined,
+        ['pubkey'],
+        null,
+        null,
+        1024 * 1024,
+        false,
+        false
+      );
+    });
+
+    it('passes resumable flag for jobs with output path', async () => {
+      NativeModules.RNVirgilCrypto.encryptFileSeekable.mockResolvedValue('/path/to/video.enc');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      const outputPath = await virgilCrypto.encryptFileSeekable({
+        inputPath: '/path/to/video',
+        outputPath: '/path/to/video.enc',
+        publicKeys: publicKey,
+        resumable: true
+      });
+      expect(outputPath).toBe('/path/to/video.enc');
+      expect(NativeModules.RNVirgilCrypto.encryptFileSeekable).toHaveBeenCalledWith(
+        '/path/to/video',
+        '/path/to/video.enc',
+        ['pubkey'],
+        null,
+        null,
+        0,
+        false,
+        true
+      );
+    });
+
+    it('throws if resumable job has no output path', () => {
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      expect(() =>
+        virgilCrypto.encryptFileSeekable({ inputPath: '/path/to/video', publicKeys: publicKey, resumable: true })
+      ).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.encryptFileSeekable).not.toHaveBeenCalled();
+    });
+
+    it('throws if chunk size is too big for a seekable file', () => {
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      expect(() =>
+        virgilCrypto.encryptFileSeekable({ inputPath: '/path/to/video', publicKeys: publicKey, chunkSize: 32 * 1024 * 1024 })
+      ).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.encryptFileSeekable).not.toHaveBeenCalled();
+    });
+
+    it('discards resumable job by output path', async () => {
+      NativeModules.RNVirgilCrypto.discardResumableJob.mockResolvedValue(true);
+
+      const isDiscarded = await virgilCrypto.discardResumableJob('file:///path/to/video.enc');
+      expect(isDiscarded).toBe(true);
+      expect(NativeModules.RNVirgilCrypto.discardResumableJob).toHaveBeenCalledWith('/path/to/video.enc');
+    });
+
+    it('discards stale resumable jobs in directory', async () => {
+      NativeModules.RNVirgilCrypto.discardStaleResumableJobs.mockResolvedValue(2);
+
+      const discardedCount = await virgilCrypto.discardStaleResumableJobs({ directory: '/path/to', maxAge: 60000 });
+      expect(discardedCount).toBe(2);
+      expect(NativeModules.RNVirgilCrypto.discardStaleResumableJobs).toHaveBeenCalledWith('/path/to', 60000);
+    });
+
+    it('throws if stale resumable jobs have no max age', () => {
+      expect(() => virgilCrypto.discardStaleResumableJobs({ directory: '/path/to' })).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.discardStaleResumableJobs).not.toHaveBeenCalled();
+    });
+
+    it('encrypts and decrypts whole file in parallel', async () => {
+      NativeModules.RNVirgilCrypto.encryptFileSeekable.mockResolvedValue('/encrypted/path');
+      NativeModules.RNVirgilCrypto.decryptFileSeekableWithKeyHandle.mockResolvedValue('/decrypted/path');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+
+      await virgilCrypto.encryptFileSeekable({ inputPath: '/path/to/video', publicKeys: publicKey, parallel: true });
+      expect(NativeModules.RNVirgilCrypto.encryptFileSeekable).toHaveBeenCalledWith(
+        '/path/to/video',
+        undefined,
+        ['pubkey'],
+        null,
+        null,
+        0,
+        true,
+        false
+      );
+
+      const outputPath = await virgilCrypto.decryptFileSeekable({
+        inputPath: '/encrypted/path',
+        privateKey,
+        parallel: true
+      });
+      expect(outputPath).toBe('/decrypted/path');
+      expect(NativeModules.RNVirgilCrypto.decryptFileSeekableWithKeyHandle).toHaveBeenCalledWith(
+        '/encrypted/path',
+        undefined,
+        'privatekey',
+        null,
+        null,
+        0,
+        true
+      );
+    });
+
+    it('decrypts range of the file', async () => {
+      NativeModules.RNVirgilCrypto.decryptFileRangeWithKeyHandle.mockResolvedValue({
+        data: Buffer.from('range').toString('base64'),
+        size: 1000
+      });
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+
+      const { data, totalBytes } = await virgilCrypto.decryptFileRange({
+        inputPath: '/path/to/video',
+        privateKey,
+        offset: 500,
+        length: 5
+      });
+      expect(data.toString()).toBe('range');
+      expect(totalBytes).toBe(1000);
+      expect(NativeModules.RNVirgilCrypto.decryptFileRangeWithKeyHandle).toHaveBeenCalledWith(
+        '/path/to/video',
+        'privatekey',
+        500,
+        5,
+        null,
+        null
+      );
+    });
+
+    it('throws if range is invalid', () => {
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+      expect(() => virgilCrypto.decryptFileRange({ inputPath: '/path', privateKey, offset: -1, length: 5 }))
+        .toThrow(TypeError);
+      expect(() => virgilCrypto.decryptFileRange({ inputPath: '/path', privateKey, offset: 0, length: 0 }))
+        .toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.decryptFileRangeWithKeyHandle).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('batch', () => {
+    it('encrypts all items in a single native call', async () => {
+      NativeModules.RNVirgilCrypto.encryptBatch.mockResolvedValue([
+        { result: Buffer.from('ciphertext1').toString('base64') },
+        { result: Buffer.from('ciphertext2').toString('base64') }
+      ]);
+      const publicKey = new VirgilPublicKey('id', 'publicKey');
+
+      const results = await virgilCrypto.encryptBatch(['data1', Buffer.from('data2')], publicKey);
+      expect(NativeModules.RNVirgilCrypto.encryptBatch).toHaveBeenCalledWith(
+        [Buffer.from('data1').toString('base64'), Buffer.from('data2').toString('base64')],
+        ['publicKey'],
+        false
+      );
+      expect(results.length).toBe(2);
+      expect(results[0].result.toString()).toBe('ciphertext1');
+      expect(results[1].result.toString()).toBe('ciphertext2');
+    });
+
+    it('returns per-item errors in order', async () => {
+      NativeModules.RNVirgilCrypto.decryptBatchWithKeyHandle.mockResolvedValue([
+        { error: { code: 'EUNSPECIFIED', message: 'Decryption failed' } },
+        { result: Buffer.from('plaintext').toString('base64') }
+      ]);
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const results = await virgilCrypto.decryptBatch(['Y2lwaGVydGV4dDE=', 'Y2lwaGVydGV4dDI='], privateKey);
+      expect(NativeModules.RNVirgilCrypto.decryptBatchWithKeyHandle).toHaveBeenCalledWith(
+        ['Y2lwaGVydGV4dDE=', 'Y2lwaGVydGV4dDI='],
+        'privatekey'
+      );
+      expect(results[0].error).toBeInstanceOf(RNVirgilCryptoError);
+      expect(results[0].result).toBeUndefined();
+      expect(results[1].result.toString()).toBe('plaintext');
+    });
+
+    it('registers the key again and retries if native handle is not found', async () => {
+      const handleNotFound = new Error('Handle is not registered');
+      handleNotFound.code = 'handle_not_found';
+      NativeModules.RNVirgilCrypto.decryptThenVerifyBatchWithKeyHandle
+        .mockRejectedValueOnce(handleNotFound)
+        .mockResolvedValueOnce([{ result: Buffer.from('plaintext').toString('base64') }]);
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privatekey' });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+      const publicKey = new VirgilPublicKey('id', 'publicKey');
+
+      const results = await virgilCrypto.decryptThenVerifyBatch(['Y2lwaGVydGV4dA=='], privateKey, publicKey);
+      expect(results[0].result.toString()).toBe('plaintext');
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyBatchWithKeyHandle).toHaveBeenCalledTimes(2);
+    });
+
+    it('passes signing key handle and padding to signThenEncryptBatch', async () => {
+      NativeModules.RNVirgilCrypto.signThenEncryptBatchWithKeyHandle.mockResolvedValue([]);
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+      const publicKey = new VirgilPublicKey('id', 'publicKey');
+
+      const results = await virgilCrypto.signThenEncryptBatch([], privateKey, [publicKey], true);
+      expect(results).toEqual([]);
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptBatchWithKeyHandle).toHaveBeenCalledWith(
+        [],
+        'privatekey',
+        ['publicKey'],
+        true
+      );
+    });
+
+    it('throws if "items" is not an array', () => {
+      const publicKey = new VirgilPublicKey('id', 'publicKey');
+      expect(() => virgilCrypto.encryptBatch('data', publicKey)).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.encryptBatch).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('batch signatures', () => {
+    it('generates signatures of all items', async () => {
+      NativeModules.RNVirgilCrypto.generateSignaturesWithKeyHandle.mockResolvedValue([
+        { result: Buffer.from('signature1').toString('base64') },
+        { result: Buffer.from('signature2').toString('base64') }
+      ]);
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const signatures = await virgilCrypto.generateSignatures(['data1', 'data2'], privateKey);
+      expect(NativeModules.RNVirgilCrypto.generateSignaturesWithKeyHandle).toHaveBeenCalledWith(
+        [Buffer.from('data1').toString('base64'), Buffer.from('data2').toString('base64')],
+        'privatekey'
+      );
+      expect(signatures.map(it => it.toString())).toEqual(['signature1', 'signature2']);
+    });
+
+    it('rejects if signing of an item fails', async () => {
+      NativeModules.RNVirgilCrypto.generateSignaturesWithKeyHandle.mockResolvedValue([
+        { error: { code: 'EUNSPECIFIED', message: 'Signing failed' } }
+      ]);
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      await expect(virgilCrypto.generateSignatures(['data'], privateKey)).rejects.toThrow(RNVirgilCryptoError);
+    });
+
+    it('sends each distinct public key once and decodes the bitset', async () => {
+      // 0b101: first and third signatures are valid
+      NativeModules.RNVirgilCrypto.verifySignatures.mockResolvedValue(Buffer.from([0b101]).toString('base64'));
+      const alice = new VirgilPublicKey('alice', 'alicePublicKey');
+      const bob = new VirgilPublicKey('bob', 'bobPublicKey');
+
+      const results = await virgilCrypto.verifySignatures([
+        { data: 'data1', signature: 'c2lnbmF0dXJlMQ==', publicKey: alice },
+        { data: 'data2', signature: 'c2lnbmF0dXJlMg==', publicKey: bob },
+        { data: 'data3', signature: 'c2lnbmF0dXJlMw==', publicKey: alice }
+      ]);
+      expect(results).toEqual([true, false, true]);
+      expect(NativeModules.RNVirgilCrypto.verifySignatures).toHaveBeenCalledWith(
+        ['c2lnbmF0dXJlMQ==', 'c2lnbmF0dXJlMg==', 'c2lnbmF0dXJlMw=='],
+        [
+          Buffer.from('data1').toString('base64'),
+          Buffer.from('data2').toString('base64'),
+          Buffer.from('data3').toString('base64')
+        ],
+        [0, 1, 0],
+        ['alicePublicKey', 'bobPublicKey']
+      );
+    });
+
+    it('throws if an item has no valid public key', () => {
+      expect(() => virgilCrypto.verifySignatures([{ data: 'data', signature: 'c2ln', publicKey: 'key' }]))
+        .toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.verifySignatures).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('async methods', () => {
+    it('resolves with the hash computed on the native side', async () => {
+      NativeModules.RNVirgilCrypto.computeHashAsync.mockResolvedValue({ result: Buffer.from('hash').toString('base64') });
+      const result = await virgilCrypto.calculateHashAsync('data');
+      expect(result.toString()).toBe('hash');
+      expect(NativeModules.RNVirgilCrypto.computeHashAsync).toHaveBeenCalledWith(Buffer.from('data').toString('base64'));
+    });
+
+    it('wraps generated key pair', async () => {
+      NativeModules.RNVirgilCrypto.generateKeyPairAsync.mockResolvedValue({
+        result: { identifier: 'id', privateKey: 'cHJpdmF0ZUtleQ==', publicKey: 'cHVibGljS2V5' }
+      });
+      const keypair = await virgilCrypto.generateKeysAsync();
+      expect(keypair.privateKey).toBeInstanceOf(VirgilPrivateKey);
+      expect(keypair.publicKey).toBeInstanceOf(VirgilPublicKey);
+    });
+
+    it('rejects with RNVirgilCryptoError if native method fails', async () => {
+      NativeModules.RNVirgilCrypto.encryptAsync.mockResolvedValue({ error: { message: 'Error' } });
+      const publicKey = new VirgilPublicKey('id', 'publicKey');
+      await expect(virgilCrypto.encryptAsync('data', publicKey)).rejects.toThrow(RNVirgilCryptoError);
+      expect(NativeModules.RNVirgilCrypto.encryptAsync).toHaveBeenCalledWith(
+        Buffer.from('data').toString('base64'),
+        ['publicKey'],
+        false
+      );
+    });
+
+    it('registers the key again and retries if native handle is not found', async () => {
+      NativeModules.RNVirgilCrypto.decryptWithKeyHandleAsync
+        .mockResolvedValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockResolvedValueOnce({ result: Buffer.from('plaintext').toString('base64') });
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privatekey' });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const result = await virgilCrypto.decryptAsync('Y2lwaGVydGV4dA==', privateKey);
+      expect(result.toString()).toBe('plaintext');
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandleAsync).toHaveBeenCalledTimes(2);
+      expect(NativeModules.RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledTimes(1);
+    });
+
+    it('resolves with signature verification result', async () => {
+      NativeModules.RNVirgilCrypto.verifySignatureAsync.mockResolvedValue({ result: true });
+      const publicKey = new VirgilPublicKey('id', 'publicKey');
+      await expect(virgilCrypto.verifySignatureAsync('data', 'c2lnbmF0dXJl', publicKey)).resolves.toBe(true);
+    });
+
+    it('creates private key from the identifier returned by native side', async () => {
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandleAsync.mockResolvedValue({
+        result: Buffer.from('identifier').toString('base64')
+      });
+      const privateKey = await virgilCrypto.importPrivateKeyAsync('cHJpdmF0ZUtleQ==');
+      expect(privateKey.identifier.toString()).toBe('identifier');
+    });
+
+    it('throws synchronously on invalid arguments', () => {
+      expect(() => virgilCrypto.encryptAsync('data', 'publicKey')).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.encryptAsync).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('JSI bindings', () => {
+    const toArrayBuffer = (value) => {
+      const buffer = Buffer.from(value);
+      return buffer.buffer.slice(buffer.byteOffset, buffer.byteOffset + buffer.byteLength);
+    };
+
+    beforeEach(() => {
+      global.__RNVirgilCryptoJsi = {
+        computeHash: jest.fn(),
+        encrypt: jest.fn(),
+        decrypt: jest.fn(),
+        generateSignature: jest.fn(),
+        verifySignature: jest.fn()
+      };
+    });
+
+    afterEach(() => {
+      delete global.__RNVirgilCryptoJsi;
+    });
+
+    it('calculates hash without base64 encoding', () => {
+      global.__RNVirgilCryptoJsi.computeHash.mockReturnValue({ result: toArrayBuffer('hash') });
+      const result = virgilCrypto.calculateHash('data', HashAlgorithm.SHA256);
+      expect(Buffer.isBuffer(result)).toBe(true);
+      expect(result.toString()).toBe('hash');
+      const [data, algorithm] = global.__RNVirgilCryptoJsi.computeHash.mock.calls[0];
+      expect(data).toBeInstanceOf(ArrayBuffer);
+      expect(Buffer.from(data).toString()).toBe('data');
+      expect(algorithm).toBe(NativeModules.RNVirgilCrypto.HashAlgorithm.SHA256);
+      expect(NativeModules.RNVirgilCrypto.computeHashWithAlgorithm).not.toHaveBeenCalled();
+    });
+
+    it('passes raw public keys to encrypt', () => {
+      global.__RNVirgilCryptoJsi.encrypt.mockReturnValue({ result: toArrayBuffer('ciphertext') });
+      const publicKey = new VirgilPublicKey('id', Buffer.from('publicKey').toString('base64'));
+      const result = virgilCrypto.encrypt('data', [publicKey]);
+      expect(result.toString()).toBe('ciphertext');
+      const [data, publicKeys, enablePadding] = global.__RNVirgilCryptoJsi.encrypt.mock.calls[0];
+      expect(Buffer.from(data).toString()).toBe('data');
+      expect(Buffer.from(publicKeys[0]).toString()).toBe('publicKey');
+      expect(enablePadding).toBe(false);
+      expect(NativeModules.RNVirgilCrypto.encrypt).not.toHaveBeenCalled();
+    });
+
+    it('registers the key again and retries decrypt if native handle is not found', () => {
+      global.__RNVirgilCryptoJsi.decrypt
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockReturnValueOnce({ result: toArrayBuffer('plaintext') });
+      NativeModules.RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privatekey' });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+
+      const result = virgilCrypto.decrypt(Buffer.from('ciphertext'), privateKey);
+      expect(result.toString()).toBe('plaintext');
+      expect(global.__RNVirgilCryptoJsi.decrypt).toHaveBeenCalledTimes(2);
+      expect(global.__RNVirgilCryptoJsi.decrypt.mock.calls[1][1]).toBe('privatekey');
+      expect(NativeModules.RNVirgilCrypto.decryptWithKeyHandle).not.toHaveBeenCalled();
+    });
+
+    it('re-throws an error from native code', () => {
+      global.__RNVirgilCryptoJsi.generateSignature.mockReturnValue({ error: { message: 'Error' } });
+      const privateKey = new VirgilPrivateKey('privatekey', Buffer.from('rawKey').toString('base64'));
+      expect(() => virgilCrypto.calculateSignature('data', privateKey)).toThrow(RNVirgilCryptoError);
+    });
+
+    it('verifies signature', () => {
+      global.__RNVirgilCryptoJsi.verifySignature.mockReturnValue({ result: true });
+      const publicKey = new VirgilPublicKey('id', Buffer.from('publicKey').toString('base64'));
+      expect(virgilCrypto.verifySignature('data', Buffer.from('signature'), publicKey)).toBe(true);
+      const [signature, data, rawPublicKey] = global.__RNVirgilCryptoJsi.verifySignature.mock.calls[0];
+      expect(Buffer.from(signature).toString()).toBe('signature');
+      expect(Buffer.from(data).toString()).toBe('data');
+      expect(Buffer.from(rawPublicKey).toString()).toBe('publicKey');
+    });
+  });
+
   describe('encryptFile', () => {
     it('can encrypt file by input path', async () => {
       NativeModules.RNVirgilCrypto.encryptFile.mockResolvedValue('/output/path');
@@ -571,6 +1500,11 @@ describe('virgilCrypto', () => {
         '/path/to/file',
         undefined,
         ['pubkey'],
+        false,
+        null,
+        null,
+        0,
+        false,
         false
       );
     });
@@ -587,6 +1521,11 @@ describe('virgilCrypto', () => {
         '/path/to/file',
         '/output/path',
         ['pubkey'],
+        false,
+        null,
+        null,
+        0,
+        false,
         false
       );
     });
@@ -603,61 +1542,203 @@ describe('virgilCrypto', () => {
         '/path/to/file',
         '/output/path',
         ['pubkey'],
+        false,
+        null,
+        null,
+        0,
+        false,
         false
       );
     });
+
+    it('passes pipelined option', async () => {
+      NativeModules.RNVirgilCrypto.encryptFile.mockResolvedValue('/output/path');
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      await virgilCrypto.encryptFile({ inputPath: '/path/to/file', publicKeys: publicKey, pipelined: true });
+      expect(NativeModules.RNVirgilCrypto.encryptFile).toHaveBeenCalledWith(
+        '/path/to/file',
+        undefined,
+        ['pubkey'],
+        false,
+        null,
+        null,
+        0,
+        false,
+        true
+      );
+    });
   });
 
   describe('decryptFile', () => {
     it('can decrypt file by input path', async () => {
-      NativeModules.RNVirgilCrypto.decryptFile.mockResolvedValue('/output/path');
+      NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle.mockResolvedValue('/output/path');
       const inputPath = '/path/to/file';
       const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
 
       const outputPath = await virgilCrypto.decryptFile({ inputPath, privateKey });
       expect(outputPath).toBe('/output/path');
-      expect(NativeModules.RNVirgilCrypto.decryptFile).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle).toHaveBeenCalledWith(
         '/path/to/file',
         undefined,
-        'privatekey'
+        'privatekey',
+        null,
+        null,
+        0,
+        false
       );
     });
 
     it('can encrypt file to specified output', async () => {
-      NativeModules.RNVirgilCrypto.decryptFile.mockResolvedValue('/output/path');
+      NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle.mockResolvedValue('/output/path');
       const inputPath = '/path/to/file';
       const outputPath = '/output/path';
       const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
 
       const actualOutputPath = await virgilCrypto.decryptFile({ inputPath, outputPath, privateKey });
       expect(actualOutputPath).toBe('/output/path');
-      expect(NativeModules.RNVirgilCrypto.decryptFile).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle).toHaveBeenCalledWith(
         '/path/to/file',
         '/output/path',
-        'privatekey'
+        'privatekey',
+        null,
+        null,
+        0,
+        false
       );
     });
 
     it('normalizes input and output paths', async () => {
-      NativeModules.RNVirgilCrypto.decryptFile.mockResolvedValue('/output/path');
+      NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle.mockResolvedValue('/output/path');
       const inputPath = 'file:///path/to/file';
       const outputPath = 'file:///output/path';
       const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
 
       const actualOutputPath = await virgilCrypto.decryptFile({ inputPath, outputPath, privateKey });
       expect(actualOutputPath).toBe('/output/path');
-      expect(NativeModules.RNVirgilCrypto.decryptFile).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle).toHaveBeenCalledWith(
         '/path/to/file',
         '/output/path',
-        'privatekey'
+        'privatekey',
+        null,
+        null,
+        0,
+        false
+      );
+    });
+
+    it('passes pipelined option', async () => {
+      NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle.mockResolvedValue('/output/path');
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+
+      await virgilCrypto.decryptFile({ inputPath: '/path/to/file', privateKey, pipelined: true });
+      expect(NativeModules.RNVirgilCrypto.decryptFileWithKeyHandle).toHaveBeenCalledWith(
+        '/path/to/file',
+        undefined,
+        'privatekey',
+        null,
+        null,
+        0,
+        true
+      );
+    });
+  });
+
+  describe('file batches', () => {
+    it('encrypts files as one job', async () => {
+      NativeModules.RNVirgilCrypto.encryptFiles.mockResolvedValue([
+        { result: '/tmp/encrypted1' },
+        { result: '/output/path2' }
+      ]);
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+
+      const results = await virgilCrypto.encryptFiles({
+        files: ['file:///path/to/file1', { inputPath: '/path/to/file2', outputPath: 'file:///output/path2' }],
+        publicKeys: publicKey,
+        concurrency: 4,
+        jobId: 'album',
+        priority: 'INTERACTIVE'
+      });
+      expect(results).toEqual([
+        { inputPath: 'file:///path/to/file1', outputPath: '/tmp/encrypted1' },
+        { inputPath: '/path/to/file2', outputPath: '/output/path2' }
+      ]);
+      expect(NativeModules.RNVirgilCrypto.encryptFiles).toHaveBeenCalledWith(
+        ['/path/to/file1', '/path/to/file2'],
+        [null, '/output/path2'],
+        ['pubkey'],
+        false,
+        4,
+        'album',
+        'INTERACTIVE',
+        0
+      );
+    });
+
+    it('returns errors of failed files along with results of the others', async () => {
+      NativeModules.RNVirgilCrypto.decryptFilesWithKeyHandle.mockResolvedValue([
+        { error: { code: 'failed_to_decrypt', message: 'Could not decrypt' } },
+        { result: '/tmp/decrypted2' }
+      ]);
+      const privateKey = new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey'));
+
+      const results = await virgilCrypto.decryptFiles({ files: ['/path/to/file1', '/path/to/file2'], privateKey });
+      expect(results[0].inputPath).toBe('/path/to/file1');
+      expect(results[0].error).toBeInstanceOf(RNVirgilCryptoError);
+      expect(results[0].error.code).toBe('failed_to_decrypt');
+      expect(results[1]).toEqual({ inputPath: '/path/to/file2', outputPath: '/tmp/decrypted2' });
+      expect(NativeModules.RNVirgilCrypto.decryptFilesWithKeyHandle).toHaveBeenCalledWith(
+        ['/path/to/file1', '/path/to/file2'],
+        [null, null],
+        'privatekey',
+        0,
+        null,
+        null,
+        0
       );
     });
+
+    it('reports files processed along with bytes', async () => {
+      let resolveEncryption;
+      NativeModules.RNVirgilCrypto.encryptFiles.mockReturnValue(new Promise(resolve => resolveEncryption = resolve));
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const onProgress = jest.fn();
+
+      const promise = virgilCrypto.encryptFiles({ files: ['/path/to/file'], publicKeys: publicKey, jobId: 'album', onProgress });
+      const subscription = NativeEventEmitter.subscriptions[NativeEventEmitter.subscriptions.length - 1];
+      subscription.listener({
+        jobId: 'album',
+        bytesProcessed: 50,
+        totalBytes: 100,
+        megabytesPerSecond: 12.5,
+        filesProcessed: 1,
+        totalFiles: 2
+      });
+      resolveEncryption([{ result: '/tmp/encrypted' }]);
+
+      await promise;
+      expect(onProgress).toHaveBeenCalledWith({
+        bytesProcessed: 50,
+        totalBytes: 100,
+        megabytesPerSecond: 12.5,
+        filesProcessed: 1,
+        totalFiles: 2
+      });
+    });
+
+    it('validates files and concurrency', () => {
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      expect(() => virgilCrypto.encryptFiles({ files: '/path/to/file', publicKeys: publicKey })).toThrow(TypeError);
+      expect(() => virgilCrypto.encryptFiles({ files: [{ outputPath: '/output' }], publicKeys: publicKey })).toThrow(TypeError);
+      expect(() => virgilCrypto.encryptFiles({ files: ['/path/to/file'], publicKeys: publicKey, concurrency: 0 })).toThrow(TypeError);
+      expect(NativeModules.RNVirgilCrypto.encryptFiles).not.toHaveBeenCalled();
+    });
   });
 
   describe('generateFileSignature', () => {
     it('normalizes input file path', async () => {
       const expectedSignature = Buffer.from('signature').toString('base64');
-      NativeModules.RNVirgilCrypto.generateFileSignature.mockResolvedValue(expectedSignature);
+      NativeModules.RNVirgilCrypto.generateFileSignatureWithKeyHandle.mockResolvedValue(expectedSignature);
 
       const signature = await virgilCrypto.generateFileSignature({
         inputPath: 'file:///path/to/file',
@@ -665,11 +1746,27 @@ describe('virgilCrypto', () => {
       });
 
       expect(signature).toBe(expectedSignature);
-      expect(NativeModules.RNVirgilCrypto.generateFileSignature).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.generateFileSignatureWithKeyHandle).toHaveBeenCalledWith(
         '/path/to/file',
-        'privateKey'
+        'privateKey',
+        null,
+        null,
+        0,
+        false
       );
     });
+
+    it('maps the input file if requested', async () => {
+      NativeModules.RNVirgilCrypto.generateFileSignatureWithKeyHandle.mockResolvedValue('c2lnbmF0dXJl');
+
+      await virgilCrypto.generateFileSignature({
+        inputPath: '/path/to/file',
+        privateKey: new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey')),
+        memoryMapped: true
+      });
+
+      expect(NativeModules.RNVirgilCrypto.generateFileSignatureWithKeyHandle.mock.calls[0][5]).toBe(true);
+    });
   });
 
   describe('verifyFileSignature', () => {
@@ -687,7 +1784,10 @@ describe('virgilCrypto', () => {
       expect(NativeModules.RNVirgilCrypto.verifyFileSignature).toHaveBeenCalledWith(
         Buffer.from('signature').toString('base64'),
         '/path/to/file',
-        'pubkey'
+        'pubkey',
+        null,
+        null,
+        0
       );
     });
 
@@ -705,7 +1805,10 @@ describe('virgilCrypto', () => {
       expect(NativeModules.RNVirgilCrypto.verifyFileSignature).toHaveBeenCalledWith(
         Buffer.from('signature').toString('base64'),
         '/path/to/file',
-        'pubkey'
+        'pubkey',
+        null,
+        null,
+        0
       );
     });
 
@@ -723,7 +1826,10 @@ describe('virgilCrypto', () => {
       expect(NativeModules.RNVirgilCrypto.verifyFileSignature).toHaveBeenCalledWith(
         Buffer.from('signature').toString('base64'),
         '/path/to/file',
-        'pubkey'
+        'pubkey',
+        null,
+        null,
+        0
       );
     });
 
@@ -740,14 +1846,17 @@ describe('virgilCrypto', () => {
       expect(NativeModules.RNVirgilCrypto.verifyFileSignature).toHaveBeenCalledWith(
         Buffer.from('signature').toString('base64'),
         '/path/to/file',
-        'pubkey'
+        'pubkey',
+        null,
+        null,
+        0
       );
     });
   });
 
   describe('signThenEncryptDetached', () => {
     it('accepts data as utf8 string', () => {
-      NativeModules.RNVirgilCrypto.signThenEncryptDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle.mockReturnValue({
         result: {
           encryptedData: Buffer.from('ciphertext').toString('base64'),
           metadata: Buffer.from('metadata').toString('base64')
@@ -755,7 +1864,7 @@ describe('virgilCrypto', () => {
       });
       const data = 'data';
       virgilCrypto.signThenEncryptDetached(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.signThenEncryptDetached).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey',
         ['pubkey'],
@@ -763,7 +1872,7 @@ describe('virgilCrypto', () => {
       );
     });
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilCrypto.signThenEncryptDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle.mockReturnValue({
         result: {
           encryptedData: Buffer.from('ciphertext').toString('base64'),
           metadata: Buffer.from('metadata').toString('base64')
@@ -771,7 +1880,7 @@ describe('virgilCrypto', () => {
       });
       const data = Buffer.from('data');
       virgilCrypto.signThenEncryptDetached(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.signThenEncryptDetached).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey',
         ['pubkey'],
@@ -779,7 +1888,7 @@ describe('virgilCrypto', () => {
       );
     });
     it('accepts data as object with string value and encoding', () => {
-      NativeModules.RNVirgilCrypto.signThenEncryptDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle.mockReturnValue({
         result: {
           encryptedData: Buffer.from('ciphertext').toString('base64'),
           metadata: Buffer.from('metadata').toString('base64')
@@ -787,7 +1896,7 @@ describe('virgilCrypto', () => {
       });
       const data = { value: 'data', encoding: 'utf8' };
       virgilCrypto.signThenEncryptDetached(data, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey')));
-      expect(NativeModules.RNVirgilCrypto.signThenEncryptDetached).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('data').toString('base64'),
         'privatekey',
         ['pubkey'],
@@ -795,7 +1904,7 @@ describe('virgilCrypto', () => {
       );
     });
     it('returns enceryptedData and metadata as Buffers', () => {
-      NativeModules.RNVirgilCrypto.signThenEncryptDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.signThenEncryptDetachedWithKeyHandle.mockReturnValue({
         result: {
           encryptedData: Buffer.from('ciphertext').toString('base64'),
           metadata: Buffer.from('metadata').toString('base64')
@@ -814,7 +1923,7 @@ describe('virgilCrypto', () => {
 
   describe('decryptThenVerifyDetached', () => {
     it('accepts encrypted data and metadata as base64 strings', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerifyDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = Buffer.from('ciphertext').toString('base64');
@@ -823,7 +1932,7 @@ describe('virgilCrypto', () => {
       virgilCrypto.decryptThenVerifyDetached(
         data, metadata, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'))
       );
-      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyDetached).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('ciphertext').toString('base64'),
         Buffer.from('metadata').toString('base64'),
         'privatekey',
@@ -832,7 +1941,7 @@ describe('virgilCrypto', () => {
     });
 
     it('accepts encrypted data and metadata as Buffers', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerifyDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = Buffer.from('ciphertext');
@@ -841,7 +1950,7 @@ describe('virgilCrypto', () => {
       virgilCrypto.decryptThenVerifyDetached(
         data, metadata, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'))
       );
-      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyDetached).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('ciphertext').toString('base64'),
         Buffer.from('metadata').toString('base64'),
         'privatekey',
@@ -850,7 +1959,7 @@ describe('virgilCrypto', () => {
     });
 
     it('accepts encrypted data and metadata as objects with string value and encoding', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerifyDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = { value: 'ciphertext', encoding: 'utf8' };
@@ -859,7 +1968,7 @@ describe('virgilCrypto', () => {
       virgilCrypto.decryptThenVerifyDetached(
         data, metadata, new VirgilPrivateKey('privatekey', dataToBase64('privatekey', 'base64', 'rawPrivateKey')), new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'))
       );
-      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyDetached).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle).toHaveBeenCalledWith(
         Buffer.from('ciphertext').toString('base64'),
         Buffer.from('metadata').toString('base64'),
         'privatekey',
@@ -868,7 +1977,7 @@ describe('virgilCrypto', () => {
     });
 
     it('returns result as Buffer', () => {
-      NativeModules.RNVirgilCrypto.decryptThenVerifyDetached.mockReturnValue({
+      NativeModules.RNVirgilCrypto.decryptThenVerifyDetachedWithKeyHandle.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const data = Buffer.from('ciphertext');
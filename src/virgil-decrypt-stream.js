@@ -0,0 +1,70 @@
+import { NativeModules } from 'react-native';
+import { checkedGetPublicKeyValues, withPrivateKeyHandle } from './utils/keys';
+import { unwrapResponse } from './utils/response';
+import { dataToBase64, base64ToBuffer } from './utils/encoding';
+
+const { RNVirgilCryptoStreams } = NativeModules;
+
+const unwrapBufferResponse = (response) => base64ToBuffer(unwrapResponse(response));
+
+// Plaintext chunks come out before the signature is checked, it's only known to be
+// valid once `finish` succeeds. The stream is released once it's finished or aborted.
+export function createVirgilDecryptStream(virgilPrivateKey, { messageInfo, verifyingPublicKeys, signature } = {}) {
+  const messageInfoBase64 = messageInfo == null ? null : dataToBase64(messageInfo, 'base64', 'messageInfo');
+  const signatureBase64 = signature == null ? null : dataToBase64(signature, 'base64', 'signature');
+  const verifyingPublicKeysValues = verifyingPublicKeys == null ? [] : checkedGetPublicKeyValues(verifyingPublicKeys);
+  if (signatureBase64 != null && verifyingPublicKeysValues.length === 0) {
+    throw new TypeError('Verifying public keys are required to check the signature.');
+  }
+  let streamHandle = unwrapResponse(
+    withPrivateKeyHandle(virgilPrivateKey, keyHandle => RNVirgilCryptoStreams.createDecryptStream(
+      keyHandle,
+      messageInfoBase64,
+      verifyingPublicKeysValues,
+      signatureBase64
+    ))
+  );
+
+  const checkedGetHandle = () => {
+    if (streamHandle == null) {
+      throw new Error('The stream has already been finished or aborted.');
+    }
+    return streamHandle;
+  };
+
+  const takeHandle = () => {
+    const handle = checkedGetHandle();
+    streamHandle = undefined;
+    return handle;
+  };
+
+  return {
+    update(encryptedData) {
+      const encryptedDataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+      return unwrapBufferResponse(
+        RNVirgilCryptoStreams.updateDecryptStream(checkedGetHandle(), encryptedDataBase64)
+      );
+    },
+
+    updateAsync(encryptedData) {
+      const encryptedDataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+      return RNVirgilCryptoStreams.updateDecryptStreamAsync(checkedGetHandle(), encryptedDataBase64)
+        .then(unwrapBufferResponse);
+    },
+
+    finish() {
+      return unwrapBufferResponse(RNVirgilCryptoStreams.finishDecryptStream(takeHandle()));
+    },
+
+    finishAsync() {
+      return RNVirgilCryptoStreams.finishDecryptStreamAsync(takeHandle()).then(unwrapBufferResponse);
+    },
+
+    abort() {
+      if (streamHandle == null) {
+        return;
+      }
+      unwrapResponse(RNVirgilCryptoStreams.abortDecryptStream(takeHandle()));
+    }
+  };
+}
@@ -0,0 +1,134 @@
+import { NativeModules } from 'react-native';
+import { Buffer } from 'buffer';
+import { createVirgilDecryptStream } from './virgil-decrypt-stream';
+import { VirgilPrivateKey } from './virgil-private-key';
+import { VirgilPublicKey } from './virgil-public-key';
+import { dataToBase64 } from './utils/encoding';
+
+jest.mock('react-native', () => ({
+  NativeModules: {
+    RNVirgilCrypto: {
+      importPrivateKeyHandle: jest.fn(),
+    },
+    RNVirgilCryptoStreams: {
+      createDecryptStream: jest.fn(),
+      updateDecryptStream: jest.fn(),
+      updateDecryptStreamAsync: jest.fn(),
+      finishDecryptStream: jest.fn(),
+      finishDecryptStreamAsync: jest.fn(),
+      abortDecryptStream: jest.fn(),
+    },
+  },
+  Platform: {
+    OS: 'ios',
+    select: ({ ios }) => {
+      return ios;
+    }
+  },
+}));
+
+const { RNVirgilCrypto, RNVirgilCryptoStreams } = NativeModules;
+const defaultStreamHandle = 'stream-handle';
+const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPublicKey'));
+const privateKey = new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey'));
+
+describe('decryptStream', () => {
+  beforeEach(() => {
+    RNVirgilCryptoStreams.createDecryptStream.mockReturnValue({ result: defaultStreamHandle });
+  });
+
+  afterEach(() => {
+    RNVirgilCrypto.importPrivateKeyHandle.mockReset();
+    Object.keys(RNVirgilCryptoStreams).forEach(name => RNVirgilCryptoStreams[name].mockReset());
+  });
+
+  describe('create', () => {
+    it('calls native method correctly', () => {
+      createVirgilDecryptStream(privateKey);
+      expect(RNVirgilCryptoStreams.createDecryptStream).toHaveBeenCalledWith('privateKey', null, [], null);
+    });
+
+    it('passes message info, verifying keys and signature', () => {
+      const messageInfo = Buffer.from('messageInfo');
+      const signature = Buffer.from('signature');
+      createVirgilDecryptStream(privateKey, { messageInfo, verifyingPublicKeys: publicKey, signature });
+      expect(RNVirgilCryptoStreams.createDecryptStream).toHaveBeenCalledWith(
+        'privateKey',
+        messageInfo.toString('base64'),
+        [publicKey.value],
+        signature.toString('base64')
+      );
+    });
+
+    it('registers private key again if its handle is not found', () => {
+      RNVirgilCryptoStreams.createDecryptStream
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'not found' } })
+        .mockReturnValueOnce({ result: defaultStreamHandle });
+      RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privateKey' });
+      createVirgilDecryptStream(privateKey);
+      expect(RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledTimes(1);
+      expect(RNVirgilCryptoStreams.createDecryptStream).toHaveBeenCalledTimes(2);
+    });
+
+    it('throws if signature is given without verifying keys', () => {
+      expect(() => createVirgilDecryptStream(privateKey, { signature: Buffer.from('signature') })).toThrow(TypeError);
+    });
+  });
+
+  describe('update', () => {
+    it('returns decrypted chunk', () => {
+      RNVirgilCryptoStreams.updateDecryptStream.mockReturnValue({
+        result: Buffer.from('plaintext').toString('base64')
+      });
+      const stream = createVirgilDecryptStream(privateKey);
+      const ciphertext = Buffer.from('ciphertext');
+      const result = stream.update(ciphertext);
+      expect(RNVirgilCryptoStreams.updateDecryptStream).toHaveBeenCalledWith(
+        defaultStreamHandle,
+        ciphertext.toString('base64')
+      );
+      expect(Buffer.isBuffer(result)).toBe(true);
+      expect(result.toString()).toBe('plaintext');
+    });
+
+    it('resolves with decrypted chunk', async () => {
+      RNVirgilCryptoStreams.updateDecryptStreamAsync.mockResolvedValue({
+        result: Buffer.from('plaintext').toString('base64')
+      });
+      const stream = createVirgilDecryptStream(privateKey);
+      const result = await stream.updateAsync(Buffer.from('ciphertext').toString('base64'));
+      expect(result.toString()).toBe('plaintext');
+    });
+  });
+
+  describe('finish', () => {
+    it('returns last decrypted chunk', () => {
+      RNVirgilCryptoStreams.finishDecryptStream.mockReturnValue({
+        result: Buffer.from('tail').toString('base64')
+      });
+      const stream = createVirgilDecryptStream(privateKey);
+      expect(stream.finish().toString()).toBe('tail');
+      expect(RNVirgilCryptoStreams.finishDecryptStream).toHaveBeenCalledWith(defaultStreamHandle);
+      expect(() => stream.update('')).toThrow();
+    });
+
+    it('rejects if signature is not valid', async () => {
+      RNVirgilCryptoStreams.finishDecryptStreamAsync.mockResolvedValue({
+        error: { code: 'EUNSPECIFIED', message: 'Signature verification failed' }
+      });
+      const stream = createVirgilDecryptStream(privateKey, { verifyingPublicKeys: [publicKey] });
+      await expect(stream.finishAsync()).rejects.toThrow('Signature verification failed');
+    });
+  });
+
+  describe('abort', () => {
+    it('releases native stream once', () => {
+      RNVirgilCryptoStreams.abortDecryptStream.mockReturnValue({ result: true });
+      const stream = createVirgilDecryptStream(privateKey);
+      stream.abort();
+      stream.abort();
+      expect(RNVirgilCryptoStreams.abortDecryptStream).toHaveBeenCalledTimes(1);
+      expect(() => stream.finish()).toThrow();
+    });
+  });
+});
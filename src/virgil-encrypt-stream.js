@@ -0,0 +1,75 @@
+import { NativeModules } from 'react-native';
+import { checkedGetPublicKeyValues, withPrivateKeyHandle } from './utils/keys';
+import { unwrapResponse } from './utils/response';
+import { dataToBase64, base64ToBuffer } from './utils/encoding';
+
+const { RNVirgilCryptoStreams } = NativeModules;
+
+function unwrapFinishResponse(response) {
+  const { encryptedData, signature } = unwrapResponse(response);
+  const result = { encryptedData: base64ToBuffer(encryptedData) };
+  if (signature != null) {
+    result.signature = base64ToBuffer(signature);
+  }
+  return result;
+}
+
+// Native stream keeps the cipher state between the calls, so only the current chunk
+// ever crosses the bridge. The stream is released once it's finished or aborted.
+export function createVirgilEncryptStream(virgilPublicKeys, { signingPrivateKey, enablePadding } = {}) {
+  const publicKeysValues = checkedGetPublicKeyValues(virgilPublicKeys);
+  const createStream = signingKeyHandle => RNVirgilCryptoStreams.createEncryptStream(
+    publicKeysValues,
+    signingKeyHandle,
+    enablePadding || false
+  );
+  let streamHandle = unwrapResponse(
+    signingPrivateKey == null
+      ? createStream(null)
+      : withPrivateKeyHandle(signingPrivateKey, createStream)
+  );
+
+  const checkedGetHandle = () => {
+    if (streamHandle == null) {
+      throw new Error('The stream has already been finished or aborted.');
+    }
+    return streamHandle;
+  };
+
+  const takeHandle = () => {
+    const handle = checkedGetHandle();
+    streamHandle = undefined;
+    return handle;
+  };
+
+  return {
+    update(data) {
+      const dataBase64 = dataToBase64(data, 'utf8', 'data');
+      return base64ToBuffer(
+        unwrapResponse(RNVirgilCryptoStreams.updateEncryptStream(checkedGetHandle(), dataBase64))
+      );
+    },
+
+    updateAsync(data) {
+      const dataBase64 = dataToBase64(data, 'utf8', 'data');
+      return RNVirgilCryptoStreams.updateEncryptStreamAsync(checkedGetHandle(), dataBase64)
+        .then(response => base64ToBuffer(unwrapResponse(response)));
+    },
+
+    finish() {
+      return unwrapFinishResponse(RNVirgilCryptoStreams.finishEncryptStream(takeHandle()));
+    },
+
+    finishAsync() {
+      return RNVirgilCryptoStreams.finishEncryptStreamAsync(takeHandle())
+        .then(unwrapFinishResponse);
+    },
+
+    abort() {
+      if (streamHandle == null) {
+        return;
+      }
+      unwrapResponse(RNVirgilCryptoStreams.abortEncryptStream(takeHandle()));
+    }
+  };
+}
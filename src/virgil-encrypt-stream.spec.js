@@ -0,0 +1,143 @@
+import { NativeModules } from 'react-native';
+import { Buffer } from 'buffer';
+import { createVirgilEncryptStream } from './virgil-encrypt-stream';
+import { VirgilPrivateKey } from './virgil-private-key';
+import { VirgilPublicKey } from './virgil-public-key';
+import { dataToBase64 } from './utils/encoding';
+
+jest.mock('react-native', () => ({
+  NativeModules: {
+    RNVirgilCrypto: {
+      importPrivateKeyHandle: jest.fn(),
+    },
+    RNVirgilCryptoStreams: {
+      createEncryptStream: jest.fn(),
+      updateEncryptStream: jest.fn(),
+      updateEncryptStreamAsync: jest.fn(),
+      finishEncryptStream: jest.fn(),
+      finishEncryptStreamAsync: jest.fn(),
+      abortEncryptStream: jest.fn(),
+    },
+  },
+  Platform: {
+    OS: 'ios',
+    select: ({ ios }) => {
+      return ios;
+    }
+  },
+}));
+
+const { RNVirgilCrypto, RNVirgilCryptoStreams } = NativeModules;
+const defaultStreamHandle = 'stream-handle';
+const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPublicKey'));
+const privateKey = new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey'));
+
+describe('encryptStream', () => {
+  beforeEach(() => {
+    RNVirgilCryptoStreams.createEncryptStream.mockReturnValue({ result: defaultStreamHandle });
+  });
+
+  afterEach(() => {
+    RNVirgilCrypto.importPrivateKeyHandle.mockReset();
+    Object.keys(RNVirgilCryptoStreams).forEach(name => RNVirgilCryptoStreams[name].mockReset());
+  });
+
+  describe('create', () => {
+    it('calls native method correctly', () => {
+      createVirgilEncryptStream(publicKey);
+      expect(RNVirgilCryptoStreams.createEncryptStream).toHaveBeenCalledWith([publicKey.value], null, false);
+    });
+
+    it('passes signing key handle and padding', () => {
+      createVirgilEncryptStream([publicKey], { signingPrivateKey: privateKey, enablePadding: true });
+      expect(RNVirgilCryptoStreams.createEncryptStream).toHaveBeenCalledWith([publicKey.value], 'privateKey', true);
+    });
+
+    it('registers signing key again if its handle is not found', () => {
+      RNVirgilCryptoStreams.createEncryptStream
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'not found' } })
+        .mockReturnValueOnce({ result: defaultStreamHandle });
+      RNVirgilCrypto.importPrivateKeyHandle.mockReturnValue({ result: 'privateKey' });
+      createVirgilEncryptStream(publicKey, { signingPrivateKey: privateKey });
+      expect(RNVirgilCrypto.importPrivateKeyHandle).toHaveBeenCalledTimes(1);
+      expect(RNVirgilCryptoStreams.createEncryptStream).toHaveBeenCalledTimes(2);
+    });
+
+    it('throws if public keys are invalid', () => {
+      expect(() => createVirgilEncryptStream([])).toThrow(TypeError);
+    });
+  });
+
+  describe('update', () => {
+    it('returns encrypted chunk', () => {
+      RNVirgilCryptoStreams.updateEncryptStream.mockReturnValue({
+        result: Buffer.from('ciphertext').toString('base64')
+      });
+      const stream = createVirgilEncryptStream(publicKey);
+      const result = stream.update('data');
+      expect(RNVirgilCryptoStreams.updateEncryptStream).toHaveBeenCalledWith(
+        defaultStreamHandle,
+        Buffer.from('data').toString('base64')
+      );
+      expect(Buffer.isBuffer(result)).toBe(true);
+      expect(result.toString()).toBe('ciphertext');
+    });
+
+    it('resolves with encrypted chunk', async () => {
+      RNVirgilCryptoStreams.updateEncryptStreamAsync.mockResolvedValue({
+        result: Buffer.from('ciphertext').toString('base64')
+      });
+      const stream = createVirgilEncryptStream(publicKey);
+      const result = await stream.updateAsync(Buffer.from('data'));
+      expect(result.toString()).toBe('ciphertext');
+    });
+  });
+
+  describe('finish', () => {
+    it('returns last chunk and signature', () => {
+      RNVirgilCryptoStreams.finishEncryptStream.mockReturnValue({
+        result: {
+          encryptedData: Buffer.from('tail').toString('base64'),
+          signature: Buffer.from('signature').toString('base64')
+        }
+      });
+      const stream = createVirgilEncryptStream(publicKey, { signingPrivateKey: privateKey });
+      const { encryptedData, signature } = stream.finish();
+      expect(RNVirgilCryptoStreams.finishEncryptStream).toHaveBeenCalledWith(defaultStreamHandle);
+      expect(encryptedData.toString()).toBe('tail');
+      expect(signature.toString()).toBe('signature');
+    });
+
+    it('returns no signature without signing key', async () => {
+      RNVirgilCryptoStreams.finishEncryptStreamAsync.mockResolvedValue({
+        result: { encryptedData: Buffer.from('tail').toString('base64') }
+      });
+      const stream = createVirgilEncryptStream(publicKey);
+      const result = await stream.finishAsync();
+      expect(result.encryptedData.toString()).toBe('tail');
+      expect(result.signature).toBeUndefined();
+    });
+
+    it('does not allow to use the stream afterwards', () => {
+      RNVirgilCryptoStreams.finishEncryptStream.mockReturnValue({
+        result: { encryptedData: '' }
+      });
+      const stream = createVirgilEncryptStream(publicKey);
+      stream.finish();
+      expect(() => stream.update('data')).toThrow();
+      expect(() => stream.finish()).toThrow();
+    });
+  });
+
+  describe('abort', () => {
+    it('releases native stream once', () => {
+      RNVirgilCryptoStreams.abortEncryptStream.mockReturnValue({ result: true });
+      const stream = createVirgilEncryptStream(publicKey);
+      stream.abort();
+      stream.abort();
+      expect(RNVirgilCryptoStreams.abortEncryptStream).toHaveBeenCalledTimes(1);
+      expect(RNVirgilCryptoStreams.abortEncryptStream).toHaveBeenCalledWith(defaultStreamHandle);
+      expect(() => stream.update('data')).toThrow();
+    });
+  });
+});
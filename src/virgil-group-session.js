@@ -1,15 +1,56 @@
 import { NativeModules } from 'react-native';
-import { checkedGetPrivateKeyValue, checkedGetPublicKeyValue } from './utils/keys';
+import {
+  checkedGetPublicKeyArrayBuffer,
+  checkedGetPublicKeyValue,
+  withPrivateKeyHandle,
+  isPromise,
+  HANDLE_NOT_FOUND_ERROR_CODE
+} from './utils/keys';
 import { unwrapResponse } from './utils/response';
-import { dataToBase64, base64ToBuffer } from './utils/encoding';
+import { dataToBase64, base64ToBuffer, dataToArrayBuffer, arrayBufferToBuffer } from './utils/encoding';
+import { getJsiBindings } from './utils/jsi';
 
 const { RNVirgilGroupSession } = NativeModules;
 
-export function createVirgilGroupSession({ sessionId, currentEpochNumber, epochMessages }) {
+export function createVirgilGroupSession({ sessionId, currentEpochNumber, epochMessages, handle }) {
   let actualEpochNumber = currentEpochNumber;
   let actualEpochMessages = epochMessages.slice();
+  let sessionHandle = handle;
   const actualSessionId = base64ToBuffer(sessionId).toString('hex');
 
+  const openSession = () => {
+    sessionHandle = unwrapResponse(RNVirgilGroupSession.openSession(actualEpochMessages));
+  };
+
+  // Native session is kept alive between calls, it is rebuilt from the epoch messages
+  // only when it hasn't been opened yet or was evicted.
+  const withSession = (nativeCall) => {
+    if (sessionHandle == null) {
+      openSession();
+    }
+    const retryIfHandleNotFound = response => {
+      if (response.error && response.error.code === HANDLE_NOT_FOUND_ERROR_CODE) {
+        openSession();
+        return nativeCall(sessionHandle);
+      }
+      return response;
+    };
+    const response = nativeCall(sessionHandle);
+    return isPromise(response) ? response.then(retryIfHandleNotFound) : retryIfHandleNotFound(response);
+  };
+
+  const applyNewEpoch = ({ sessionId, epochNumber, data, handle }) => {
+    sessionHandle = handle;
+    actualEpochNumber = epochNumber;
+    actualEpochMessages = actualEpochMessages.concat(data);
+
+    return {
+      sessionId: base64ToBuffer(sessionId).toString('hex'),
+      epochNumber,
+      data
+    };
+  };
+
   return {
     getSessionId() {
       return actualSessionId;
@@ -20,40 +61,89 @@ export function createVirgilGroupSession({ sessionId, currentEpochNumber, epochM
     },
 
     encrypt(data, signingPrivateKey) {
+      const jsi = getJsiBindings();
+      if (jsi) {
+        const dataBuffer = dataToArrayBuffer(data, 'utf8', 'data');
+        return arrayBufferToBuffer(
+          unwrapResponse(withSession(handle =>
+            withPrivateKeyHandle(signingPrivateKey, keyHandle =>
+              jsi.groupSessionEncrypt(handle, dataBuffer, keyHandle)
+            )
+          ))
+        );
+      }
+
       const dataBase64 = dataToBase64(data, 'utf8', 'data');
-      const privateKeyValue = checkedGetPrivateKeyValue(signingPrivateKey);
       return base64ToBuffer(
-        unwrapResponse(RNVirgilGroupSession.encrypt(dataBase64, privateKeyValue, actualEpochMessages))
+        unwrapResponse(withSession(handle =>
+          withPrivateKeyHandle(signingPrivateKey, keyHandle =>
+            RNVirgilGroupSession.encryptWithSession(handle, dataBase64, keyHandle)
+          )
+        ))
       );
     },
 
     decrypt(encryptedData, verifyingPublicKey) {
+      const jsi = getJsiBindings();
+      if (jsi) {
+        const encryptedDataBuffer = dataToArrayBuffer(encryptedData, 'base64', 'encryptedData');
+        const publicKeyBuffer = checkedGetPublicKeyArrayBuffer(verifyingPublicKey);
+        return arrayBufferToBuffer(
+          unwrapResponse(withSession(handle =>
+            jsi.groupSessionDecrypt(handle, encryptedDataBuffer, publicKeyBuffer)
+          ))
+        );
+      }
+
       const encryptedDataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
       const publicKeyValue = checkedGetPublicKeyValue(verifyingPublicKey);
       return base64ToBuffer(
-        unwrapResponse(RNVirgilGroupSession.decrypt(encryptedDataBase64, publicKeyValue, actualEpochMessages))
+        unwrapResponse(withSession(handle =>
+          RNVirgilGroupSession.decryptWithSession(handle, encryptedDataBase64, publicKeyValue)
+        ))
       );
     },
 
-    addNewEpoch() {
-      const { sessionId, epochNumber, data } = unwrapResponse(
-        RNVirgilGroupSession.addNewEpoch(actualEpochMessages)
-      );
+    encryptAsync(data, signingPrivateKey) {
+      const dataBase64 = dataToBase64(data, 'utf8', 'data');
+      return withSession(handle =>
+        withPrivateKeyHandle(signingPrivateKey, keyHandle =>
+          RNVirgilGroupSession.encryptWithSessionAsync(handle, dataBase64, keyHandle)
+        )
+      ).then(response => base64ToBuffer(unwrapResponse(response)));
+    },
 
-      actualEpochNumber = epochNumber;
-      actualEpochMessages = actualEpochMessages.concat(data);
+    decryptAsync(encryptedData, verifyingPublicKey) {
+      const encryptedDataBase64 = dataToBase64(encryptedData, 'base64', 'encryptedData');
+      const publicKeyValue = checkedGetPublicKeyValue(verifyingPublicKey);
+      return withSession(handle =>
+        RNVirgilGroupSession.decryptWithSessionAsync(handle, encryptedDataBase64, publicKeyValue)
+      ).then(response => base64ToBuffer(unwrapResponse(response)));
+    },
 
-      return {
-        sessionId: base64ToBuffer(sessionId).toString('hex'),
-        epochNumber,
-        data
-      };
+    addNewEpoch() {
+      return applyNewEpoch(unwrapResponse(
+        withSession(sessionHandle => RNVirgilGroupSession.addNewEpochWithSession(sessionHandle))
+      ));
+    },
+
+    addNewEpochAsync() {
+      return withSession(sessionHandle => RNVirgilGroupSession.addNewEpochWithSessionAsync(sessionHandle))
+        .then(response => applyNewEpoch(unwrapResponse(response)));
     },
 
     export() {
       return actualEpochMessages.map(m => base64ToBuffer(m));
     },
 
+    close() {
+      if (sessionHandle == null) {
+        return;
+      }
+      unwrapResponse(RNVirgilGroupSession.closeSession(sessionHandle));
+      sessionHandle = undefined;
+    },
+
     parseMessage(messageData) {
       const messageDataBase64 = dataToBase64(messageData, 'base64', 'messageData');
 
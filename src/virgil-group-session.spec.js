@@ -8,9 +8,14 @@ import {dataToBase64} from "./utils/encoding";
 jest.mock('react-native', () => ({
   NativeModules: {
     RNVirgilGroupSession: {
-      encrypt: jest.fn(),
-      decrypt: jest.fn(),
-      addNewEpoch: jest.fn(),
+      openSession: jest.fn(),
+      closeSession: jest.fn(),
+      encryptWithSession: jest.fn(),
+      decryptWithSession: jest.fn(),
+      addNewEpochWithSession: jest.fn(),
+      encryptWithSessionAsync: jest.fn(),
+      decryptWithSessionAsync: jest.fn(),
+      addNewEpochWithSessionAsync: jest.fn(),
       parseMessage: jest.fn(),
     },
   },
@@ -25,6 +30,7 @@ jest.mock('react-native', () => ({
 const defaultSessionId = Buffer.from('x'.repeat(32), 'ascii');
 const defaultEpochNumber = 1;
 const defaultEpochMessages = [Buffer.from('epochMessage_1').toString('base64')];
+const defaultSessionHandle = 'session-handle';
 const createSession = (id = defaultSessionId, epochNumber = defaultEpochNumber, epochMessages = defaultEpochMessages) => {
   return createVirgilGroupSession({
     sessionId: id.toString('base64'),
@@ -34,10 +40,19 @@ const createSession = (id = defaultSessionId, epochNumber = defaultEpochNumber,
 };
 
 describe('groupSession', () => {
+  beforeEach(() => {
+    NativeModules.RNVirgilGroupSession.openSession.mockReturnValue({ result: defaultSessionHandle });
+  });
+
   afterEach(() => {
-    NativeModules.RNVirgilGroupSession.encrypt.mockReset();
-    NativeModules.RNVirgilGroupSession.decrypt.mockReset();
-    NativeModules.RNVirgilGroupSession.addNewEpoch.mockReset();
+    NativeModules.RNVirgilGroupSession.openSession.mockReset();
+    NativeModules.RNVirgilGroupSession.closeSession.mockReset();
+    NativeModules.RNVirgilGroupSession.encryptWithSession.mockReset();
+    NativeModules.RNVirgilGroupSession.decryptWithSession.mockReset();
+    NativeModules.RNVirgilGroupSession.addNewEpochWithSession.mockReset();
+    NativeModules.RNVirgilGroupSession.encryptWithSessionAsync.mockReset();
+    NativeModules.RNVirgilGroupSession.decryptWithSessionAsync.mockReset();
+    NativeModules.RNVirgilGroupSession.addNewEpochWithSessionAsync.mockReset();
     NativeModules.RNVirgilGroupSession.parseMessage.mockReset();
   });
 
@@ -57,53 +72,53 @@ describe('groupSession', () => {
 
   describe('encrypt', () => {
     it('calls native method correctly', () => {
-      NativeModules.RNVirgilGroupSession.encrypt.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.encryptWithSession.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const session = createSession();
       const privateKey = new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey'));
       const result = session.encrypt('data', privateKey);
-      expect(NativeModules.RNVirgilGroupSession.encrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilGroupSession.encryptWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle,
         Buffer.from('data').toString('base64'),
-        'privateKey',
-        defaultEpochMessages
+        'privateKey'
       );
       expect(Buffer.isBuffer(result)).toBe(true);
       expect(result.toString()).toBe('ciphertext');
     });
 
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilGroupSession.encrypt.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.encryptWithSession.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const session = createSession();
       const privateKey = new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey'));
       session.encrypt(Buffer.from('data'), privateKey);
-      expect(NativeModules.RNVirgilGroupSession.encrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilGroupSession.encryptWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle,
         Buffer.from('data').toString('base64'),
-        'privateKey',
-        defaultEpochMessages
+        'privateKey'
       );
     });
 
     it('accepts data as object wuth value and encoding', () => {
-      NativeModules.RNVirgilGroupSession.encrypt.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.encryptWithSession.mockReturnValue({
         result: Buffer.from('ciphertext').toString('base64')
       });
       const session = createSession();
       const privateKey = new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey'));
       session.encrypt({ value: 'data', encoding: 'utf8' }, privateKey);
-      expect(NativeModules.RNVirgilGroupSession.encrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilGroupSession.encryptWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle,
         Buffer.from('data').toString('base64'),
-        'privateKey',
-        defaultEpochMessages
+        'privateKey'
       );
     });
   });
 
   describe('decrypt', () => {
     it('calls native method correctly', () => {
-      NativeModules.RNVirgilGroupSession.decrypt.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.decryptWithSession.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const session = createSession();
@@ -111,17 +126,17 @@ describe('groupSession', () => {
       const ciphertext = Buffer.from('ciphertext').toString('base64');
 
       const result = session.decrypt(ciphertext, publicKey);
-      expect(NativeModules.RNVirgilGroupSession.decrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilGroupSession.decryptWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle,
         Buffer.from('ciphertext').toString('base64'),
-        'pubkey',
-        defaultEpochMessages
+        'pubkey'
       );
       expect(Buffer.isBuffer(result)).toBe(true);
       expect(result.toString()).toBe('plaintext');
     });
 
     it('accepts data as Buffer', () => {
-      NativeModules.RNVirgilGroupSession.decrypt.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.decryptWithSession.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const session = createSession();
@@ -129,15 +144,15 @@ describe('groupSession', () => {
       const ciphertext = Buffer.from('ciphertext');
 
       session.decrypt(ciphertext, publicKey);
-      expect(NativeModules.RNVirgilGroupSession.decrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilGroupSession.decryptWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle,
         Buffer.from('ciphertext').toString('base64'),
-        'pubkey',
-        defaultEpochMessages
+        'pubkey'
       );
     });
 
     it('accepts data as object with value and encoding', () => {
-      NativeModules.RNVirgilGroupSession.decrypt.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.decryptWithSession.mockReturnValue({
         result: Buffer.from('plaintext').toString('base64')
       });
       const session = createSession();
@@ -145,27 +160,28 @@ describe('groupSession', () => {
       const ciphertext = { value: 'ciphertext', encoding: 'utf8' };
 
       session.decrypt(ciphertext, publicKey);
-      expect(NativeModules.RNVirgilGroupSession.decrypt).toHaveBeenCalledWith(
+      expect(NativeModules.RNVirgilGroupSession.decryptWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle,
         Buffer.from('ciphertext').toString('base64'),
-        'pubkey',
-        defaultEpochMessages
+        'pubkey'
       );
     });
   });
 
   describe('addNewEpoch', () => {
     it('calls native method correctly', () => {
-      NativeModules.RNVirgilGroupSession.addNewEpoch.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.addNewEpochWithSession.mockReturnValue({
         result: {
           sessionId: defaultSessionId.toString('base64'),
           epochNumber: 2,
-          data: Buffer.from('epochMessage_2').toString('base64')
+          data: Buffer.from('epochMessage_2').toString('base64'),
+          handle: 'session-handle-2'
         }
       });
       const session = createSession();
       const result = session.addNewEpoch();
-      expect(NativeModules.RNVirgilGroupSession.addNewEpoch).toHaveBeenCalledWith(
-        defaultEpochMessages
+      expect(NativeModules.RNVirgilGroupSession.addNewEpochWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle
       );
       expect(result).toHaveProperty('sessionId');
       expect(result.sessionId).toBe(defaultSessionId.toString('hex'));
@@ -176,27 +192,29 @@ describe('groupSession', () => {
     });
 
     it('updates the current epoch number', () => {
-      NativeModules.RNVirgilGroupSession.addNewEpoch.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.addNewEpochWithSession.mockReturnValue({
         result: {
           sessionId: defaultSessionId.toString('base64'),
           epochNumber: 2,
-          data: Buffer.from('epochMessage_2').toString('base64')
+          data: Buffer.from('epochMessage_2').toString('base64'),
+          handle: 'session-handle-2'
         }
       });
       const session = createSession();
       session.addNewEpoch();
-      expect(NativeModules.RNVirgilGroupSession.addNewEpoch).toHaveBeenCalledWith(
-        defaultEpochMessages
+      expect(NativeModules.RNVirgilGroupSession.addNewEpochWithSession).toHaveBeenCalledWith(
+        defaultSessionHandle
       );
       expect(session.getCurrentEpochNumber()).toBe(2);
     });
 
     it('adds new message to the internal messages list', () => {
-      NativeModules.RNVirgilGroupSession.addNewEpoch.mockReturnValue({
+      NativeModules.RNVirgilGroupSession.addNewEpochWithSession.mockReturnValue({
         result: {
           sessionId: defaultSessionId.toString('base64'),
           epochNumber: 2,
-          data: Buffer.from('epochMessage_2').toString('base64')
+          data: Buffer.from('epochMessage_2').toString('base64'),
+          handle: 'session-handle-2'
         }
       });
       const session = createSession();
@@ -205,6 +223,165 @@ describe('groupSession', () => {
     });
   });
 
+  describe('native session', () => {
+    it('opens native session once and reuses it', () => {
+      NativeModules.RNVirgilGroupSession.decryptWithSession.mockReturnValue({
+        result: Buffer.from('plaintext').toString('base64')
+      });
+      const session = createSession();
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      session.decrypt('Y2lwaGVydGV4dA==', publicKey);
+      session.decrypt('Y2lwaGVydGV4dA==', publicKey);
+      expect(NativeModules.RNVirgilGroupSession.openSession).toHaveBeenCalledTimes(1);
+      expect(NativeModules.RNVirgilGroupSession.openSession).toHaveBeenCalledWith(defaultEpochMessages);
+    });
+
+    it('uses the handle of an imported session without opening it', () => {
+      NativeModules.RNVirgilGroupSession.decryptWithSession.mockReturnValue({
+        result: Buffer.from('plaintext').toString('base64')
+      });
+      const session = createVirgilGroupSession({
+        sessionId: defaultSessionId.toString('base64'),
+        currentEpochNumber: defaultEpochNumber,
+        epochMessages: defaultEpochMessages,
+        handle: 'imported-handle'
+      });
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      session.decrypt('Y2lwaGVydGV4dA==', publicKey);
+      expect(NativeModules.RNVirgilGroupSession.openSession).not.toHaveBeenCalled();
+      expect(NativeModules.RNVirgilGroupSession.decryptWithSession).toHaveBeenCalledWith(
+        'imported-handle',
+        'Y2lwaGVydGV4dA==',
+        'pubkey'
+      );
+    });
+
+    it('reopens native session if it was evicted', () => {
+      NativeModules.RNVirgilGroupSession.decryptWithSession
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockReturnValueOnce({ result: Buffer.from('plaintext').toString('base64') });
+      const session = createSession();
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const result = session.decrypt('Y2lwaGVydGV4dA==', publicKey);
+      expect(result.toString()).toBe('plaintext');
+      expect(NativeModules.RNVirgilGroupSession.openSession).toHaveBeenCalledTimes(2);
+      expect(NativeModules.RNVirgilGroupSession.decryptWithSession).toHaveBeenCalledTimes(2);
+    });
+
+    it('switches to the new handle after adding an epoch', () => {
+      NativeModules.RNVirgilGroupSession.addNewEpochWithSession.mockReturnValue({
+        result: {
+          sessionId: defaultSessionId.toString('base64'),
+          epochNumber: 2,
+          data: Buffer.from('epochMessage_2').toString('base64'),
+          handle: 'session-handle-2'
+        }
+      });
+      NativeModules.RNVirgilGroupSession.closeSession.mockReturnValue({ result: true });
+      const session = createSession();
+      session.addNewEpoch();
+      session.close();
+      expect(NativeModules.RNVirgilGroupSession.closeSession).toHaveBeenCalledWith('session-handle-2');
+    });
+
+    it('does not call native side when closing a session that was never opened', () => {
+      const session = createSession();
+      session.close();
+      expect(NativeModules.RNVirgilGroupSession.closeSession).not.toHaveBeenCalled();
+    });
+  });
+
+  describe('async methods', () => {
+    it('decrypts with the native session', async () => {
+      NativeModules.RNVirgilGroupSession.decryptWithSessionAsync.mockResolvedValue({
+        result: Buffer.from('plaintext').toString('base64')
+      });
+      const session = createSession();
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const result = await session.decryptAsync('Y2lwaGVydGV4dA==', publicKey);
+      expect(result.toString()).toBe('plaintext');
+      expect(NativeModules.RNVirgilGroupSession.decryptWithSessionAsync).toHaveBeenCalledWith(
+        defaultSessionHandle,
+        'Y2lwaGVydGV4dA==',
+        'pubkey'
+      );
+    });
+
+    it('reopens native session if it was evicted', async () => {
+      NativeModules.RNVirgilGroupSession.decryptWithSessionAsync
+        .mockResolvedValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockResolvedValueOnce({ result: Buffer.from('plaintext').toString('base64') });
+      const session = createSession();
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      const result = await session.decryptAsync('Y2lwaGVydGV4dA==', publicKey);
+      expect(result.toString()).toBe('plaintext');
+      expect(NativeModules.RNVirgilGroupSession.openSession).toHaveBeenCalledTimes(2);
+    });
+
+    it('rejects if native method fails', async () => {
+      NativeModules.RNVirgilGroupSession.decryptWithSessionAsync.mockResolvedValue({ error: { message: 'Error' } });
+      const session = createSession();
+      const publicKey = new VirgilPublicKey('pubkey', dataToBase64('pubkey', 'base64', 'rawPrivateKey'));
+      await expect(session.decryptAsync('Y2lwaGVydGV4dA==', publicKey)).rejects.toThrow('Error');
+    });
+
+    it('moves to the new epoch', async () => {
+      NativeModules.RNVirgilGroupSession.addNewEpochWithSessionAsync.mockResolvedValue({
+        result: {
+          sessionId: defaultSessionId.toString('base64'),
+          epochNumber: 2,
+          data: Buffer.from('epochMessage_2').toString('base64'),
+          handle: 'session-handle-2'
+        }
+      });
+      const session = createSession();
+      const { epochNumber } = await session.addNewEpochAsync();
+      expect(epochNumber).toBe(2);
+      expect(session.getCurrentEpochNumber()).toBe(2);
+      expect(session.export().length).toBe(2);
+    });
+  });
+
+  describe('JSI bindings', () => {
+    beforeEach(() => {
+      global.__RNVirgilCryptoJsi = {
+        groupSessionEncrypt: jest.fn(),
+        groupSessionDecrypt: jest.fn()
+      };
+    });
+
+    afterEach(() => {
+      delete global.__RNVirgilCryptoJsi;
+    });
+
+    it('encrypts without base64 encoding', () => {
+      global.__RNVirgilCryptoJsi.groupSessionEncrypt.mockReturnValue({ result: new Uint8Array([1, 2, 3]).buffer });
+      const session = createSession();
+      const privateKey = new VirgilPrivateKey('privateKey', dataToBase64('privateKey', 'base64', 'rawPrivateKey'));
+      const result = session.encrypt('data', privateKey);
+      expect(Buffer.isBuffer(result)).toBe(true);
+      expect(result.length).toBe(3);
+      const [handle, data, keyHandle] = global.__RNVirgilCryptoJsi.groupSessionEncrypt.mock.calls[0];
+      expect(handle).toBe(defaultSessionHandle);
+      expect(Buffer.from(data).toString()).toBe('data');
+      expect(keyHandle).toBe('privateKey');
+      expect(NativeModules.RNVirgilGroupSession.encryptWithSession).not.toHaveBeenCalled();
+    });
+
+    it('reopens the session and retries decrypt if native handle is not found', () => {
+      global.__RNVirgilCryptoJsi.groupSessionDecrypt
+        .mockReturnValueOnce({ error: { code: 'EHANDLENOTFOUND', message: 'Handle is not registered' } })
+        .mockReturnValueOnce({ result: Buffer.from('plaintext').buffer.slice(0) });
+      const session = createSession();
+      const publicKey = new VirgilPublicKey('publicKey', Buffer.from('publicKey').toString('base64'));
+      session.decrypt(Buffer.from('ciphertext'), publicKey);
+      expect(global.__RNVirgilCryptoJsi.groupSessionDecrypt).toHaveBeenCalledTimes(2);
+      expect(NativeModules.RNVirgilGroupSession.openSession).toHaveBeenCalledTimes(2);
+      const rawPublicKey = global.__RNVirgilCryptoJsi.groupSessionDecrypt.mock.calls[1][2];
+      expect(Buffer.from(rawPublicKey).toString()).toBe('publicKey');
+    });
+  });
+
   describe('export', () => {
     it('returns current epoch messages as array of Buffers', () => {
       const session = createSession();
@@ -0,0 +1,55 @@
+import { NativeModules } from 'react-native';
+import { unwrapResponse } from './utils/response';
+import { dataToBase64, base64ToBuffer } from './utils/encoding';
+import { checkedGetHashAlgorithm, HashAlgorithm } from './hash-algorithm';
+
+const { RNVirgilCryptoStreams } = NativeModules;
+
+// Native hash keeps its state between the calls, so the data can be hashed as it
+// arrives. The hash is released once the digest is taken or it's aborted.
+export function createVirgilHash(algorithm) {
+  const nativeAlg = checkedGetHashAlgorithm(algorithm == null ? HashAlgorithm.SHA512 : algorithm);
+  let hashHandle = unwrapResponse(RNVirgilCryptoStreams.createHash(nativeAlg));
+
+  const checkedGetHandle = () => {
+    if (hashHandle == null) {
+      throw new Error('The digest has already been calculated or the hash was aborted.');
+    }
+    return hashHandle;
+  };
+
+  const takeHandle = () => {
+    const handle = checkedGetHandle();
+    hashHandle = undefined;
+    return handle;
+  };
+
+  const hash = {
+    update(data) {
+      const dataBase64 = dataToBase64(data, 'utf8', 'data');
+      unwrapResponse(RNVirgilCryptoStreams.updateHash(checkedGetHandle(), dataBase64));
+      return hash;
+    },
+
+    updateAsync(data) {
+      const dataBase64 = dataToBase64(data, 'utf8', 'data');
+      return RNVirgilCryptoStreams.updateHashAsync(checkedGetHandle(), dataBase64)
+        .then(response => {
+          unwrapResponse(response);
+          return hash;
+        });
+    },
+
+    digest() {
+      return base64ToBuffer(unwrapResponse(RNVirgilCryptoStreams.digestHash(takeHandle())));
+    },
+
+    abort() {
+      if (hashHandle == null) {
+        return;
+      }
+      unwrapResponse(RNVirgilCryptoStreams.abortHash(takeHandle()));
+    }
+  };
+  return hash;
+}
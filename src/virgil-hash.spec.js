@@ -0,0 +1,85 @@
+import { NativeModules } from 'react-native';
+import { Buffer } from 'buffer';
+import { createVirgilHash } from './virgil-hash';
+import { HashAlgorithm } from './hash-algorithm';
+
+jest.mock('react-native', () => ({
+  NativeModules: {
+    RNVirgilCrypto: {
+      HashAlgorithm: { SHA256: 'NativeHashAlgorigthm.SHA256', SHA512: 'NativeHashAlgorigthm.SHA512' },
+    },
+    RNVirgilCryptoStreams: {
+      createHash: jest.fn(),
+      updateHash: jest.fn(),
+      updateHashAsync: jest.fn(),
+      digestHash: jest.fn(),
+      abortHash: jest.fn(),
+    },
+  },
+  Platform: {
+    OS: 'ios',
+    select: ({ ios }) => {
+      return ios;
+    }
+  },
+}));
+
+const { RNVirgilCryptoStreams } = NativeModules;
+const defaultHashHandle = 'hash-handle';
+
+describe('hash', () => {
+  beforeEach(() => {
+    RNVirgilCryptoStreams.createHash.mockReturnValue({ result: defaultHashHandle });
+    RNVirgilCryptoStreams.updateHash.mockReturnValue({ result: true });
+  });
+
+  afterEach(() => {
+    Object.keys(RNVirgilCryptoStreams).forEach(name => RNVirgilCryptoStreams[name].mockReset());
+  });
+
+  it('uses SHA512 by default', () => {
+    createVirgilHash();
+    expect(RNVirgilCryptoStreams.createHash).toHaveBeenCalledWith('NativeHashAlgorigthm.SHA512');
+  });
+
+  it('throws if algorithm is invalid', () => {
+    expect(() => createVirgilHash('MD5')).toThrow(TypeError);
+    expect(RNVirgilCryptoStreams.createHash).not.toHaveBeenCalled();
+  });
+
+  it('hashes data chunk by chunk', () => {
+    RNVirgilCryptoStreams.digestHash.mockReturnValue({ result: Buffer.from('digest').toString('base64') });
+    const hash = createVirgilHash(HashAlgorithm.SHA256);
+    const digest = hash.update('chunk1').update(Buffer.from('chunk2')).digest();
+    expect(RNVirgilCryptoStreams.createHash).toHaveBeenCalledWith('NativeHashAlgorigthm.SHA256');
+    expect(RNVirgilCryptoStreams.updateHash.mock.calls).toEqual([
+      [defaultHashHandle, Buffer.from('chunk1').toString('base64')],
+      [defaultHashHandle, Buffer.from('chunk2').toString('base64')]
+    ]);
+    expect(RNVirgilCryptoStreams.digestHash).toHaveBeenCalledWith(defaultHashHandle);
+    expect(digest.toString()).toBe('digest');
+  });
+
+  it('resolves with the hash after async update', async () => {
+    RNVirgilCryptoStreams.updateHashAsync.mockResolvedValue({ result: true });
+    const hash = createVirgilHash();
+    expect(await hash.updateAsync('chunk')).toBe(hash);
+  });
+
+  it('does not allow to use the hash after digest', () => {
+    RNVirgilCryptoStreams.digestHash.mockReturnValue({ result: '' });
+    const hash = createVirgilHash();
+    hash.digest();
+    expect(() => hash.update('chunk')).toThrow();
+    expect(() => hash.digest()).toThrow();
+  });
+
+  it('releases native hash once on abort', () => {
+    RNVirgilCryptoStreams.abortHash.mockReturnValue({ result: true });
+    const hash = createVirgilHash();
+    hash.abort();
+    hash.abort();
+    expect(RNVirgilCryptoStreams.abortHash).toHaveBeenCalledTimes(1);
+    expect(RNVirgilCryptoStreams.abortHash).toHaveBeenCalledWith(defaultHashHandle);
+  });
+});
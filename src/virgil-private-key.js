@@ -1,5 +1,5 @@
 import {base64ToBuffer, dataToBase64} from './utils/encoding';
-import { setPrivateKeyValue } from './private-key-cache';
+import { setPrivateKeyValue, setPrivateKeyHandle } from './private-key-cache';
 
 export class VirgilPrivateKey {
   constructor(identifierBase64, privateKeyBase64) {
@@ -10,5 +10,7 @@ export class VirgilPrivateKey {
       writable: false
     });
     setPrivateKeyValue(this, privateKeyBase64);
+    // Native side registers private keys by their identifier
+    setPrivateKeyHandle(this, identifierBase64);
   }
 }
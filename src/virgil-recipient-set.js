@@ -0,0 +1,66 @@
+import { NativeModules } from 'react-native';
+import { checkedGetPublicKeyValues, isPromise } from './utils/keys';
+import { unwrapResponse } from './utils/response';
+
+const { RNVirgilCrypto } = NativeModules;
+
+// Not the code of private key handles, so each wrapper only registers its own handle again
+const RECIPIENT_SET_NOT_FOUND_ERROR_CODE = 'ERECIPIENTSETNOTFOUND';
+
+const recipientSetHandles = new WeakMap();
+const recipientSetKeyValues = new WeakMap();
+
+// Recipients imported and checked once on the native side, so encrypting to them
+// costs a handle lookup instead of importing every key again. The keys are kept
+// here as well to register the set again if the native side has evicted it.
+export class VirgilRecipientSet {
+  constructor(handle, publicKeyValues) {
+    Object.defineProperty(this, 'size', {
+      configurable: false,
+      enumerable: true,
+      value: publicKeyValues.length,
+      writable: false
+    });
+    recipientSetHandles.set(this, handle);
+    recipientSetKeyValues.set(this, publicKeyValues);
+  }
+}
+
+export function createVirgilRecipientSet(virgilPublicKeys) {
+  const publicKeyValues = checkedGetPublicKeyValues(virgilPublicKeys);
+  const handle = unwrapResponse(RNVirgilCrypto.createRecipientSet(publicKeyValues));
+  return new VirgilRecipientSet(handle, publicKeyValues);
+}
+
+function checkedGetRecipientSetHandle(recipientSet) {
+  if (!recipientSetHandles.has(recipientSet)) {
+    throw new TypeError('Argument "recipientSet" is not a valid VirgilRecipientSet');
+  }
+  return recipientSetHandles.get(recipientSet);
+}
+
+export function releaseVirgilRecipientSet(recipientSet) {
+  return unwrapResponse(RNVirgilCrypto.releaseRecipientSet(checkedGetRecipientSetHandle(recipientSet)));
+}
+
+/**
+ * Calls the native method `nativeCall` with the handle of the given recipient
+ * set. Same as `withPrivateKeyHandle`, the set is registered again and the call
+ * is retried once if the native side does not know the set, which it reports
+ * with a code of its own. The handle is derived from the keys, so it stays the
+ * same.
+ *
+ * @hidden
+ */
+export function withRecipientSetHandle(recipientSet, nativeCall) {
+  const handle = checkedGetRecipientSetHandle(recipientSet);
+  const retryIfHandleNotFound = response => {
+    if (response.error && response.error.code === RECIPIENT_SET_NOT_FOUND_ERROR_CODE) {
+      unwrapResponse(RNVirgilCrypto.createRecipientSet(recipientSetKeyValues.get(recipientSet)));
+      return nativeCall(handle);
+    }
+    return response;
+  };
+  const response = nativeCall(handle);
+  return isPromise(response) ? response.then(retryIfHandleNotFound) : retryIfHandleNotFound(response);
+}